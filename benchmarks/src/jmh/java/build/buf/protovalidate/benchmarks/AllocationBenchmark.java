@@ -0,0 +1,100 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate.benchmarks;
+
+import build.buf.protovalidate.Config;
+import build.buf.protovalidate.Validator;
+import build.buf.protovalidate.ValidatorFactory;
+import build.buf.protovalidate.benchmarks.gen.BenchComplexSchema;
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Allocation benchmarks for the valid-message path. Read {@code gc.alloc.rate.norm} (the GC
+ * profiler is on by default, or pass {@code -prof gc} to a standalone JMH run): evaluators push
+ * violations into a caller-supplied sink, so a valid message should not allocate any violation
+ * lists. What remains per op is the per-field value wrappers and protobuf's own reflective field
+ * access (boxed scalars, copied map entries).
+ *
+ * <p>{@code validateBenchComplexSchemaBatch} reports per message; it reuses one sink across the
+ * whole batch, so it isolates the per-message cost from the per-call setup of {@code validate}.
+ *
+ * <p>{@code parseAndValidateBenchComplexSchema} and {@code validateBenchComplexSchemaBytes} compare
+ * parsing serialized bytes before validating them with validating the bytes directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AllocationBenchmark {
+  private static final int BATCH_SIZE = 100;
+
+  @Param({"false", "true"})
+  public boolean enableNativeRules;
+
+  private Validator validator;
+  private BenchComplexSchema benchComplexSchema;
+  private List<BenchComplexSchema> batch;
+  private ByteString benchComplexSchemaBytes;
+
+  @Setup
+  public void setup() throws ValidationException {
+    Config config = Config.newBuilder().setEnableNativeRules(enableNativeRules).build();
+    validator = ValidatorFactory.newBuilder().withConfig(config).build();
+    benchComplexSchema = BenchFixtures.benchComplexSchema();
+    batch = Collections.nCopies(BATCH_SIZE, benchComplexSchema);
+    benchComplexSchemaBytes = benchComplexSchema.toByteString();
+    // Warm evaluator cache.
+    if (!validator.validate(benchComplexSchema).isSuccess()) {
+      throw new IllegalStateException("fixture must be valid");
+    }
+  }
+
+  @Benchmark
+  public void validateBenchComplexSchema(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchComplexSchema));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void validateBenchComplexSchemaBatch(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validateAll(batch));
+  }
+
+  @Benchmark
+  public void parseAndValidateBenchComplexSchema(Blackhole bh)
+      throws ValidationException, InvalidProtocolBufferException {
+    bh.consume(validator.validate(BenchComplexSchema.parseFrom(benchComplexSchemaBytes)));
+  }
+
+  @Benchmark
+  public void validateBenchComplexSchemaBytes(Blackhole bh)
+      throws ValidationException, InvalidProtocolBufferException {
+    bh.consume(validator.validate(BenchComplexSchema.getDescriptor(), benchComplexSchemaBytes));
+  }
+}
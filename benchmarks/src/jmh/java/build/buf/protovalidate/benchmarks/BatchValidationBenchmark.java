@@ -0,0 +1,95 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate.benchmarks;
+
+import build.buf.protovalidate.Config;
+import build.buf.protovalidate.Validator;
+import build.buf.protovalidate.ValidatorFactory;
+import build.buf.protovalidate.benchmarks.gen.BenchComplexSchema;
+import build.buf.protovalidate.exceptions.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Batch validation benchmarks. {@code validateBatchLoop} is the baseline of calling {@code
+ * validate} per message; {@code validateBatch} measures the sequential batch API and {@code
+ * validateBatchParallel} its fork/join mode, scaling with the {@code threads} parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BatchValidationBenchmark {
+
+  @Param({"false", "true"})
+  public boolean enableNativeRules;
+
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  @Param({"10000"})
+  public int batchSize;
+
+  private Validator validator;
+  private List<BenchComplexSchema> batch;
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setup() throws ValidationException {
+    Config config = Config.newBuilder().setEnableNativeRules(enableNativeRules).build();
+    validator = ValidatorFactory.newBuilder().withConfig(config).build();
+    BenchComplexSchema msg = BenchFixtures.benchComplexSchema();
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(msg);
+    }
+    pool = new ForkJoinPool(threads);
+    // Warm evaluator cache.
+    validator.validate(msg);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public void validateBatchLoop(Blackhole bh) throws ValidationException {
+    for (BenchComplexSchema msg : batch) {
+      bh.consume(validator.validate(msg));
+    }
+  }
+
+  @Benchmark
+  public void validateBatch(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validateAll(batch));
+  }
+
+  @Benchmark
+  public void validateBatchParallel(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validateAll(batch, pool));
+  }
+}
@@ -18,7 +18,10 @@ import build.buf.protovalidate.benchmarks.gen.BenchBoolConst;
 import build.buf.protovalidate.benchmarks.gen.BenchBytesConst;
 import build.buf.protovalidate.benchmarks.gen.BenchBytesIn;
 import build.buf.protovalidate.benchmarks.gen.BenchComplexSchema;
+import build.buf.protovalidate.benchmarks.gen.BenchCustomCel;
 import build.buf.protovalidate.benchmarks.gen.BenchDoubleIn;
+import build.buf.protovalidate.benchmarks.gen.BenchDurationIn;
+import build.buf.protovalidate.benchmarks.gen.BenchDurationRange;
 import build.buf.protovalidate.benchmarks.gen.BenchEnum;
 import build.buf.protovalidate.benchmarks.gen.BenchEnumConst;
 import build.buf.protovalidate.benchmarks.gen.BenchEnumNotIn;
@@ -28,6 +31,7 @@ import build.buf.protovalidate.benchmarks.gen.BenchInt64Const;
 import build.buf.protovalidate.benchmarks.gen.BenchInt64In;
 import build.buf.protovalidate.benchmarks.gen.BenchMap;
 import build.buf.protovalidate.benchmarks.gen.BenchPhaseEnum;
+import build.buf.protovalidate.benchmarks.gen.BenchPredefinedRules;
 import build.buf.protovalidate.benchmarks.gen.BenchRepeatedBytesUnique;
 import build.buf.protovalidate.benchmarks.gen.BenchRepeatedInt32Unique;
 import build.buf.protovalidate.benchmarks.gen.BenchRepeatedMessage;
@@ -46,13 +50,35 @@ import build.buf.protovalidate.benchmarks.gen.MultiRule;
 import build.buf.protovalidate.benchmarks.gen.StringMatching;
 import build.buf.protovalidate.benchmarks.gen.TestByteMatching;
 import build.buf.protovalidate.benchmarks.gen.WrapperTesting;
+import build.buf.validate.BytesRules;
+import build.buf.validate.DoubleRules;
+import build.buf.validate.EnumRules;
+import build.buf.validate.FieldRules;
+import build.buf.validate.Int32Rules;
+import build.buf.validate.Int64Rules;
+import build.buf.validate.Rule;
+import build.buf.validate.StringRules;
+import build.buf.validate.ValidateProto;
 import com.google.protobuf.BoolValue;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.BytesValue;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumValueDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldOptions;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
 import com.google.protobuf.DoubleValue;
+import com.google.protobuf.Duration;
+import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.FloatValue;
 import com.google.protobuf.Int32Value;
 import com.google.protobuf.Int64Value;
+import com.google.protobuf.Message;
 import com.google.protobuf.StringValue;
 import com.google.protobuf.UInt32Value;
 import com.google.protobuf.UInt64Value;
@@ -304,4 +330,232 @@ final class BenchFixtures {
     }
     return b.build();
   }
+
+  static BenchDurationRange benchDurationRange() {
+    return BenchDurationRange.newBuilder()
+        .setD(Duration.newBuilder().setSeconds(90).setNanos(500_000_000))
+        .build();
+  }
+
+  static BenchDurationIn benchDurationIn() {
+    return BenchDurationIn.newBuilder().setD(Duration.newBuilder().setSeconds(60)).build();
+  }
+
+  static BenchCustomCel benchCustomCel() {
+    return BenchCustomCel.newBuilder()
+        .setStart(1)
+        .setEnd(2)
+        .setName("bench")
+        .addLabels("alpha")
+        .addLabels("beta")
+        .addLabels("gamma")
+        .build();
+  }
+
+  static BenchPredefinedRules benchPredefinedRules() {
+    return BenchPredefinedRules.newBuilder()
+        .setName("bench")
+        .setPath("srv/data/bench")
+        .setCount(25)
+        .setSize(4096)
+        .addTags("alpha")
+        .addTags("beta")
+        .addTags("gamma")
+        .build();
+  }
+
+  /**
+   * Builds a message type with the given number of fields, cycling through string, int32, int64 and
+   * bytes fields. Every field has a standard rule and a custom CEL rule, so building its evaluators
+   * compiles rules for each field in a handful of distinct environments.
+   */
+  static Descriptor wideSchema(int fieldCount) {
+    DescriptorProto.Builder message = DescriptorProto.newBuilder().setName("WideSchema");
+    for (int i = 1; i <= fieldCount; i++) {
+      FieldRules.Builder rules = FieldRules.newBuilder();
+      FieldDescriptorProto.Type type;
+      String expression;
+      switch (i % 4) {
+        case 0:
+          type = FieldDescriptorProto.Type.TYPE_STRING;
+          rules.setString(StringRules.newBuilder().setMaxLen(64));
+          expression = "!this.startsWith('_')";
+          break;
+        case 1:
+          type = FieldDescriptorProto.Type.TYPE_INT32;
+          rules.setInt32(Int32Rules.newBuilder().setGte(0));
+          expression = "this % 2 == 0 || this < 1000";
+          break;
+        case 2:
+          type = FieldDescriptorProto.Type.TYPE_INT64;
+          rules.setInt64(Int64Rules.newBuilder().setLt(1L << 40));
+          expression = "this != 42";
+          break;
+        default:
+          type = FieldDescriptorProto.Type.TYPE_BYTES;
+          rules.setBytes(BytesRules.newBuilder().setMaxLen(128));
+          expression = "size(this) != 3";
+          break;
+      }
+      rules.addCel(Rule.newBuilder().setId("wide." + i).setExpression(expression));
+      message.addField(
+          FieldDescriptorProto.newBuilder()
+              .setName("field_" + i)
+              .setNumber(i)
+              .setType(type)
+              .setOptions(
+                  FieldOptions.newBuilder().setExtension(ValidateProto.field, rules.build())));
+    }
+    FileDescriptorProto file =
+        FileDescriptorProto.newBuilder()
+            .setName("bench/v1/wide_schema.proto")
+            .setPackage("bench.v1")
+            .setSyntax("proto3")
+            .addDependency(ValidateProto.getDescriptor().getName())
+            .addMessageType(message)
+            .build();
+    try {
+      return FileDescriptor.buildFrom(file, new FileDescriptor[] {ValidateProto.getDescriptor()})
+          .findMessageTypeByName("WideSchema");
+    } catch (DescriptorValidationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Builds message types whose field {@code v} carries an {@code in} rule (or {@code defined_only}
+   * on an enum) with the given number of entries. The int32 and enum entries form a dense range,
+   * the int64 entries are spread out, so the three kinds of integer sets are all exercised.
+   */
+  static FileDescriptor membershipSchema(int size) {
+    EnumDescriptorProto.Builder enumType =
+        EnumDescriptorProto.newBuilder().setName("MembershipEnum");
+    Int32Rules.Builder int32Rules = Int32Rules.newBuilder();
+    Int64Rules.Builder int64Rules = Int64Rules.newBuilder();
+    DoubleRules.Builder doubleRules = DoubleRules.newBuilder();
+    StringRules.Builder stringRules = StringRules.newBuilder();
+    BytesRules.Builder bytesRules = BytesRules.newBuilder();
+    EnumRules.Builder enumRules = EnumRules.newBuilder();
+    for (int i = 0; i < size; i++) {
+      enumType.addValue(
+          EnumValueDescriptorProto.newBuilder().setName("MEMBERSHIP_ENUM_" + i).setNumber(i));
+      int32Rules.addIn(membershipInt32(i));
+      int64Rules.addIn(membershipInt64(i));
+      doubleRules.addIn(membershipDouble(i));
+      stringRules.addIn(membershipString(i));
+      bytesRules.addIn(ByteString.copyFromUtf8(membershipString(i)));
+      enumRules.addIn(i);
+    }
+    FileDescriptorProto file =
+        FileDescriptorProto.newBuilder()
+            .setName("bench/v1/membership_" + size + ".proto")
+            .setPackage("bench.v1.membership" + size)
+            .setSyntax("proto3")
+            .addDependency(ValidateProto.getDescriptor().getName())
+            .addEnumType(enumType)
+            .addMessageType(
+                membershipMessage(
+                    "Int32In",
+                    FieldDescriptorProto.Type.TYPE_INT32,
+                    FieldRules.newBuilder().setInt32(int32Rules).build()))
+            .addMessageType(
+                membershipMessage(
+                    "Int64In",
+                    FieldDescriptorProto.Type.TYPE_INT64,
+                    FieldRules.newBuilder().setInt64(int64Rules).build()))
+            .addMessageType(
+                membershipMessage(
+                    "DoubleIn",
+                    FieldDescriptorProto.Type.TYPE_DOUBLE,
+                    FieldRules.newBuilder().setDouble(doubleRules).build()))
+            .addMessageType(
+                membershipMessage(
+                    "StringIn",
+                    FieldDescriptorProto.Type.TYPE_STRING,
+                    FieldRules.newBuilder().setString(stringRules).build()))
+            .addMessageType(
+                membershipMessage(
+                    "BytesIn",
+                    FieldDescriptorProto.Type.TYPE_BYTES,
+                    FieldRules.newBuilder().setBytes(bytesRules).build()))
+            .addMessageType(
+                membershipMessage(
+                    "EnumIn",
+                    FieldDescriptorProto.Type.TYPE_ENUM,
+                    FieldRules.newBuilder().setEnum(enumRules).build()))
+            .addMessageType(
+                membershipMessage(
+                    "EnumDefinedOnly",
+                    FieldDescriptorProto.Type.TYPE_ENUM,
+                    FieldRules.newBuilder()
+                        .setEnum(EnumRules.newBuilder().setDefinedOnly(true))
+                        .build()))
+            .build();
+    try {
+      return FileDescriptor.buildFrom(file, new FileDescriptor[] {ValidateProto.getDescriptor()});
+    } catch (DescriptorValidationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Builds an instance of a {@link #membershipSchema} message type whose value is the last entry of
+   * its list, the worst case for a linear scan.
+   */
+  static Message membershipFixture(Descriptor type, int size) {
+    FieldDescriptor field = type.findFieldByName("v");
+    int last = size - 1;
+    Object value;
+    switch (field.getType()) {
+      case INT32:
+        value = membershipInt32(last);
+        break;
+      case INT64:
+        value = membershipInt64(last);
+        break;
+      case DOUBLE:
+        value = membershipDouble(last);
+        break;
+      case STRING:
+        value = membershipString(last);
+        break;
+      case BYTES:
+        value = ByteString.copyFromUtf8(membershipString(last));
+        break;
+      default:
+        value = field.getEnumType().findValueByNumber(last);
+        break;
+    }
+    return DynamicMessage.newBuilder(type).setField(field, value).build();
+  }
+
+  private static DescriptorProto membershipMessage(
+      String name, FieldDescriptorProto.Type type, FieldRules rules) {
+    FieldDescriptorProto.Builder field =
+        FieldDescriptorProto.newBuilder()
+            .setName("v")
+            .setNumber(1)
+            .setType(type)
+            .setOptions(FieldOptions.newBuilder().setExtension(ValidateProto.field, rules));
+    if (type == FieldDescriptorProto.Type.TYPE_ENUM) {
+      field.setTypeName("MembershipEnum");
+    }
+    return DescriptorProto.newBuilder().setName(name).addField(field).build();
+  }
+
+  private static int membershipInt32(int i) {
+    return i * 3;
+  }
+
+  private static long membershipInt64(int i) {
+    return i * 1_000_003L;
+  }
+
+  private static double membershipDouble(int i) {
+    return i + 0.5;
+  }
+
+  private static String membershipString(int i) {
+    return "membership-value-" + i;
+  }
 }
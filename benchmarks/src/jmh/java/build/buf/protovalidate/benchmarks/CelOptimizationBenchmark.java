@@ -0,0 +1,77 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate.benchmarks;
+
+import build.buf.protovalidate.Config;
+import build.buf.protovalidate.Validator;
+import build.buf.protovalidate.ValidatorFactory;
+import build.buf.protovalidate.benchmarks.gen.BenchComplexSchema;
+import build.buf.protovalidate.benchmarks.gen.BenchPredefinedRules;
+import build.buf.protovalidate.exceptions.ValidationException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares evaluating rules as written with evaluating them optimized, see {@link
+ * Config.Builder#setEnableCelOptimization(boolean)}. Predefined rules are always evaluated with
+ * CEL; standard rules only when native rules are disabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CelOptimizationBenchmark {
+  @Param({"false", "true"})
+  public boolean enableCelOptimization;
+
+  @Param({"false", "true"})
+  public boolean enableNativeRules;
+
+  private Validator validator;
+  private BenchPredefinedRules benchPredefinedRules;
+  private BenchComplexSchema benchComplexSchema;
+
+  @Setup
+  public void setup() throws ValidationException {
+    Config config =
+        Config.newBuilder()
+            .setEnableCelOptimization(enableCelOptimization)
+            .setEnableNativeRules(enableNativeRules)
+            .build();
+    validator = ValidatorFactory.newBuilder().withConfig(config).build();
+    benchPredefinedRules = BenchFixtures.benchPredefinedRules();
+    benchComplexSchema = BenchFixtures.benchComplexSchema();
+    // Warm evaluator cache.
+    validator.validate(benchPredefinedRules);
+    validator.validate(benchComplexSchema);
+  }
+
+  @Benchmark
+  public void validateBenchPredefinedRules(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchPredefinedRules));
+  }
+
+  @Benchmark
+  public void validateBenchComplexSchema(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchComplexSchema));
+  }
+}
@@ -15,12 +15,16 @@
 package build.buf.protovalidate.benchmarks;
 
 import build.buf.protovalidate.Config;
+import build.buf.protovalidate.PrecompiledRules;
 import build.buf.protovalidate.Validator;
 import build.buf.protovalidate.ValidatorFactory;
 import build.buf.protovalidate.benchmarks.gen.BenchComplexSchema;
 import build.buf.protovalidate.benchmarks.gen.BenchGT;
+import build.buf.protovalidate.exceptions.CompilationException;
 import build.buf.protovalidate.exceptions.ValidationException;
+import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.Message;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -46,14 +50,25 @@ public class EvaluatorBuildBenchmark {
   public boolean enableNativeRules;
 
   private Config config;
+  private Config precompiledConfig;
   private Message benchComplexSchema;
   private Message benchGT;
+  private Message wideSchema;
 
   @Setup
-  public void setup() {
+  public void setup() throws CompilationException {
     config = Config.newBuilder().setEnableNativeRules(enableNativeRules).build();
     benchComplexSchema = BenchComplexSchema.getDefaultInstance();
     benchGT = BenchGT.getDefaultInstance();
+    wideSchema = DynamicMessage.getDefaultInstance(BenchFixtures.wideSchema(1000));
+    PrecompiledRules rules =
+        PrecompiledRules.generate(
+            config, Collections.singletonList(benchComplexSchema.getDescriptorForType()));
+    precompiledConfig =
+        Config.newBuilder()
+            .setEnableNativeRules(enableNativeRules)
+            .setPrecompiledRules(rules)
+            .build();
   }
 
   @Benchmark
@@ -64,10 +79,25 @@ public class EvaluatorBuildBenchmark {
     return v;
   }
 
+  @Benchmark
+  public Validator buildBenchComplexSchemaPrecompiled(Blackhole bh) throws ValidationException {
+    Validator v = ValidatorFactory.newBuilder().withConfig(precompiledConfig).build();
+    bh.consume(v.validate(benchComplexSchema));
+    return v;
+  }
+
   @Benchmark
   public Validator buildBenchInt32GT(Blackhole bh) throws ValidationException {
     Validator v = ValidatorFactory.newBuilder().withConfig(config).build();
     bh.consume(v.validate(benchGT));
     return v;
   }
+
+  /** A 1,000-field schema whose fields share a few rule environments. */
+  @Benchmark
+  public Validator buildWideSchema(Blackhole bh) throws ValidationException {
+    Validator v = ValidatorFactory.newBuilder().withConfig(config).build();
+    bh.consume(v.validate(wideSchema));
+    return v;
+  }
 }
@@ -0,0 +1,79 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate.benchmarks;
+
+import build.buf.protovalidate.Config;
+import build.buf.protovalidate.Validator;
+import build.buf.protovalidate.ValidatorFactory;
+import build.buf.protovalidate.benchmarks.gen.BenchComplexSchema;
+import build.buf.protovalidate.benchmarks.gen.BenchRepeatedMessage;
+import build.buf.protovalidate.benchmarks.gen.BenchScalar;
+import build.buf.protovalidate.exceptions.ValidationException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading fields of generated messages through protobuf reflection with reading them
+ * through generated accessors, see {@link Config.Builder#setEnableGeneratedAccessors(boolean)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class GeneratedAccessorsBenchmark {
+  @Param({"false", "true"})
+  public boolean enableGeneratedAccessors;
+
+  private Validator validator;
+  private BenchScalar benchScalar;
+  private BenchRepeatedMessage benchRepeatedMessage;
+  private BenchComplexSchema benchComplexSchema;
+
+  @Setup
+  public void setup() throws ValidationException {
+    Config config =
+        Config.newBuilder().setEnableGeneratedAccessors(enableGeneratedAccessors).build();
+    validator = ValidatorFactory.newBuilder().withConfig(config).build();
+    benchScalar = BenchFixtures.benchScalar();
+    benchRepeatedMessage = BenchFixtures.benchRepeatedMessage();
+    benchComplexSchema = BenchFixtures.benchComplexSchema();
+    // Warm evaluator cache and bind accessors.
+    validator.validate(benchScalar);
+    validator.validate(benchRepeatedMessage);
+    validator.validate(benchComplexSchema);
+  }
+
+  @Benchmark
+  public void validateBenchScalar(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchScalar));
+  }
+
+  @Benchmark
+  public void validateBenchRepeatedMessage(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchRepeatedMessage));
+  }
+
+  @Benchmark
+  public void validateBenchComplexSchema(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchComplexSchema));
+  }
+}
@@ -0,0 +1,116 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate.benchmarks;
+
+import build.buf.protovalidate.Config;
+import build.buf.protovalidate.Validator;
+import build.buf.protovalidate.ValidatorFactory;
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.Message;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Steady-state {@code in} and {@code defined_only} benchmarks over lists of increasing size. Each
+ * validated value is the last entry of its list, the worst case for a linear scan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MembershipBenchmark {
+
+  @Param({"false", "true"})
+  public boolean enableNativeRules;
+
+  @Param({"4", "64", "1024"})
+  public int size;
+
+  private Validator validator;
+  private Message int32In;
+  private Message int64In;
+  private Message doubleIn;
+  private Message stringIn;
+  private Message bytesIn;
+  private Message enumIn;
+  private Message enumDefinedOnly;
+
+  @Setup
+  public void setup() throws ValidationException {
+    Config config = Config.newBuilder().setEnableNativeRules(enableNativeRules).build();
+    validator = ValidatorFactory.newBuilder().withConfig(config).build();
+
+    FileDescriptor schema = BenchFixtures.membershipSchema(size);
+    int32In = fixture(schema, "Int32In");
+    int64In = fixture(schema, "Int64In");
+    doubleIn = fixture(schema, "DoubleIn");
+    stringIn = fixture(schema, "StringIn");
+    bytesIn = fixture(schema, "BytesIn");
+    enumIn = fixture(schema, "EnumIn");
+    enumDefinedOnly = fixture(schema, "EnumDefinedOnly");
+  }
+
+  private Message fixture(FileDescriptor schema, String name) throws ValidationException {
+    Message msg = BenchFixtures.membershipFixture(schema.findMessageTypeByName(name), size);
+    // Warm the evaluator cache, and make sure the fixture is valid.
+    if (!validator.validate(msg).isSuccess()) {
+      throw new IllegalStateException(name + " fixture is invalid");
+    }
+    return msg;
+  }
+
+  @Benchmark
+  public void validateInt32In(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(int32In));
+  }
+
+  @Benchmark
+  public void validateInt64In(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(int64In));
+  }
+
+  @Benchmark
+  public void validateDoubleIn(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(doubleIn));
+  }
+
+  @Benchmark
+  public void validateStringIn(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(stringIn));
+  }
+
+  @Benchmark
+  public void validateBytesIn(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(bytesIn));
+  }
+
+  @Benchmark
+  public void validateEnumIn(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(enumIn));
+  }
+
+  @Benchmark
+  public void validateEnumDefinedOnly(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(enumDefinedOnly));
+  }
+}
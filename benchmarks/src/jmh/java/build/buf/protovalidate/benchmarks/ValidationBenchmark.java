@@ -21,7 +21,10 @@ import build.buf.protovalidate.benchmarks.gen.BenchBoolConst;
 import build.buf.protovalidate.benchmarks.gen.BenchBytesConst;
 import build.buf.protovalidate.benchmarks.gen.BenchBytesIn;
 import build.buf.protovalidate.benchmarks.gen.BenchComplexSchema;
+import build.buf.protovalidate.benchmarks.gen.BenchCustomCel;
 import build.buf.protovalidate.benchmarks.gen.BenchDoubleIn;
+import build.buf.protovalidate.benchmarks.gen.BenchDurationIn;
+import build.buf.protovalidate.benchmarks.gen.BenchDurationRange;
 import build.buf.protovalidate.benchmarks.gen.BenchEnumConst;
 import build.buf.protovalidate.benchmarks.gen.BenchEnumNotIn;
 import build.buf.protovalidate.benchmarks.gen.BenchEnumRules;
@@ -75,6 +78,9 @@ import org.openjdk.jmh.infra.Blackhole;
  * <p>The {@code enableNativeRules} parameter A/Bs the native-rules flag: {@code "false"} matches
  * the Phase 0 CEL-only baseline; {@code "true"} measures native evaluation. Each subsequent phase
  * reports the gap between the two modes for its covered benchmarks.
+ *
+ * <p>The {@code enableMessagePrograms} parameter A/Bs running flattened message programs against
+ * walking the evaluator tree.
  */
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -84,6 +90,9 @@ public class ValidationBenchmark {
   @Param({"false", "true"})
   public boolean enableNativeRules;
 
+  @Param({"false", "true"})
+  public boolean enableMessagePrograms;
+
   private Validator validator;
 
   // --- Existing regression-guard fixtures ---
@@ -126,10 +135,17 @@ public class ValidationBenchmark {
   private BenchEnumNotIn benchEnumNotIn;
   private BenchRepeatedStringUnique benchRepeatedStringUnique;
   private BenchRepeatedInt32Unique benchRepeatedInt32Unique;
+  private BenchDurationRange benchDurationRange;
+  private BenchDurationIn benchDurationIn;
+  private BenchCustomCel benchCustomCel;
 
   @Setup
   public void setup() throws ValidationException {
-    Config config = Config.newBuilder().setEnableNativeRules(enableNativeRules).build();
+    Config config =
+        Config.newBuilder()
+            .setEnableNativeRules(enableNativeRules)
+            .setEnableMessagePrograms(enableMessagePrograms)
+            .build();
 
     validator = ValidatorFactory.newBuilder().withConfig(config).build();
 
@@ -189,6 +205,9 @@ public class ValidationBenchmark {
     benchEnumNotIn = BenchFixtures.benchEnumNotIn();
     benchRepeatedStringUnique = BenchFixtures.benchRepeatedStringUnique();
     benchRepeatedInt32Unique = BenchFixtures.benchRepeatedInt32Unique();
+    benchDurationRange = BenchFixtures.benchDurationRange();
+    benchDurationIn = BenchFixtures.benchDurationIn();
+    benchCustomCel = BenchFixtures.benchCustomCel();
 
     // Warm evaluator cache for steady-state benchmarks.
     validator.validate(simple);
@@ -226,6 +245,9 @@ public class ValidationBenchmark {
     validator.validate(benchEnumNotIn);
     validator.validate(benchRepeatedStringUnique);
     validator.validate(benchRepeatedInt32Unique);
+    validator.validate(benchDurationRange);
+    validator.validate(benchDurationIn);
+    validator.validate(benchCustomCel);
   }
 
   // --- Existing regression-guard benchmarks ---
@@ -408,4 +430,19 @@ public class ValidationBenchmark {
   public void validateBenchRepeatedInt32Unique(Blackhole bh) throws ValidationException {
     bh.consume(validator.validate(benchRepeatedInt32Unique));
   }
+
+  @Benchmark
+  public void validateBenchDurationRange(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchDurationRange));
+  }
+
+  @Benchmark
+  public void validateBenchDurationIn(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchDurationIn));
+  }
+
+  @Benchmark
+  public void validateBenchCustomCel(Blackhole bh) throws ValidationException {
+    bh.consume(validator.validate(benchCustomCel));
+  }
 }
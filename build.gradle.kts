@@ -307,6 +307,11 @@ sourceSets {
             srcDir(layout.buildDirectory.dir("generated/sources/bufgen"))
         }
     }
+    // Build tools run by tasks such as generatePrecompiledRules; they are not published.
+    val tools by creating {
+        compileClasspath += main.get().output + main.get().compileClasspath
+        runtimeClasspath += main.get().output + main.get().runtimeClasspath
+    }
     test {
         java {
             srcDir(layout.buildDirectory.dir("generated/test-sources/bufgen-imports"))
@@ -314,9 +319,18 @@ sourceSets {
             srcDir(layout.buildDirectory.dir("generated/test-sources/bufgen-cel"))
             srcDir(layout.buildDirectory.dir("generated/test-sources/bufgen-cel-testtypes"))
         }
+        compileClasspath += tools.output
+        runtimeClasspath += tools.output
     }
 }
 
+tasks.register<JavaExec>("generatePrecompiledRules") {
+    description = "Generates precompiled rules: -PdescriptorSet=<descriptor set> -PprecompiledRules=<output>."
+    classpath = sourceSets["tools"].runtimeClasspath
+    mainClass.set("build.buf.protovalidate.tools.GeneratePrecompiledRules")
+    args(listOfNotNull(project.findProperty("descriptorSet"), project.findProperty("precompiledRules")))
+}
+
 apply(plugin = "com.diffplug.spotless")
 configure<SpotlessExtension> {
     java {
@@ -0,0 +1,134 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import com.google.protobuf.Timestamp;
+import dev.cel.runtime.CelVariableResolver;
+import java.time.Instant;
+import java.util.Optional;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link Activation} binds the variables of rule expressions, {@code this}, {@code now}, {@code
+ * rules} and {@code rule}, to fixed slots. A {@link ViolationSink} owns one activation, which is
+ * rebound for every CEL program it evaluates instead of chaining a resolver per variable.
+ *
+ * <p>Slots hold the results returned to the CEL runtime, so looking a variable up allocates
+ * nothing: the {@code rules} and {@code rule} values of a program are wrapped once when the program
+ * is compiled, see {@link Globals}, and {@code this} once per evaluated value.
+ */
+final class Activation implements CelVariableResolver {
+  /** The sink whose clock the {@code now} variable is read from. */
+  private final ViolationSink sink;
+
+  private Optional<Object> thisValue = Optional.empty();
+
+  /** The {@code now} variable, resolved on first use. */
+  private @Nullable Optional<Object> now;
+
+  private Globals globals = Globals.NONE;
+
+  /**
+   * Creates an activation reading {@code now} from the clock of a sink.
+   *
+   * @param sink The sink.
+   */
+  Activation(ViolationSink sink) {
+    this.sink = sink;
+  }
+
+  /**
+   * Binds the {@code this} variable.
+   *
+   * @param value The value, or null to leave the variable unbound.
+   */
+  void bindThis(@Nullable Object value) {
+    thisValue = Optional.ofNullable(value);
+  }
+
+  /**
+   * Binds the {@code rules} and {@code rule} variables.
+   *
+   * @param globals The values, or null to leave the variables unbound.
+   */
+  void bindGlobals(@Nullable Globals globals) {
+    this.globals = globals != null ? globals : Globals.NONE;
+  }
+
+  /** Unbinds all variables, so that the next evaluation reads the clock again. */
+  void clear() {
+    thisValue = Optional.empty();
+    now = null;
+    globals = Globals.NONE;
+  }
+
+  @Override
+  public Optional<Object> find(String name) {
+    switch (name) {
+      case Variable.THIS_NAME:
+        return thisValue;
+      case Variable.RULES_NAME:
+        return globals.rules;
+      case Variable.RULE_NAME:
+        return globals.rule;
+      case Variable.NOW_NAME:
+        return now();
+      default:
+        return Optional.empty();
+    }
+  }
+
+  private Optional<Object> now() {
+    Optional<Object> now = this.now;
+    if (now == null) {
+      Instant instant = sink.now();
+      now =
+          Optional.of(
+              Timestamp.newBuilder()
+                  .setSeconds(instant.getEpochSecond())
+                  .setNanos(instant.getNano())
+                  .build());
+      this.now = now;
+    }
+    return now;
+  }
+
+  /**
+   * {@link Globals} holds the {@code rules} and {@code rule} values of a standard or predefined
+   * rule, which are constant for its program.
+   */
+  static final class Globals {
+    static final Globals NONE = new Globals(Optional.empty(), Optional.empty());
+
+    final Optional<Object> rules;
+    final Optional<Object> rule;
+
+    private Globals(Optional<Object> rules, Optional<Object> rule) {
+      this.rules = rules;
+      this.rule = rule;
+    }
+
+    /**
+     * Creates the values of the {@code rules} and {@code rule} variables.
+     *
+     * @param rules The value of the {@code rules} variable.
+     * @param rule The value of the {@code rule} variable.
+     * @return The values.
+     */
+    static Globals of(Object rules, Object rule) {
+      return new Globals(Optional.of(rules), Optional.of(rule));
+    }
+  }
+}
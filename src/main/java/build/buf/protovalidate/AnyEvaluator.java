@@ -20,11 +20,8 @@ import build.buf.validate.FieldPath;
 import build.buf.validate.FieldRules;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.Message;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  * A specialized evaluator for applying {@link build.buf.validate.AnyRules} to an {@link
@@ -35,9 +32,9 @@ import java.util.Set;
 final class AnyEvaluator implements Evaluator {
   private final RuleViolationHelper helper;
   private final Descriptors.FieldDescriptor typeURLDescriptor;
-  private final Set<String> in;
+  private final Collection<String> in;
   private final List<String> inValue;
-  private final Set<String> notIn;
+  private final Collection<String> notIn;
   private final List<String> notInValue;
 
   private static final Descriptors.FieldDescriptor ANY_DESCRIPTOR =
@@ -69,20 +66,18 @@ final class AnyEvaluator implements Evaluator {
       List<String> notIn) {
     this.helper = new RuleViolationHelper(valueEvaluator);
     this.typeURLDescriptor = typeURLDescriptor;
-    this.in = stringsToSet(in);
+    this.in = RuleBase.membershipSet(in);
     this.inValue = in;
-    this.notIn = stringsToSet(notIn);
+    this.notIn = RuleBase.membershipSet(notIn);
     this.notInValue = notIn;
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
     Message anyValue = val.messageValue();
     if (anyValue == null) {
-      return RuleViolation.NO_VIOLATIONS;
+      return;
     }
-    List<RuleViolation.Builder> violationList = new ArrayList<>();
     String typeURL = (String) anyValue.getField(typeURLDescriptor);
     if (!in.isEmpty() && !in.contains(typeURL)) {
       RuleViolation.Builder violation =
@@ -94,9 +89,9 @@ final class AnyEvaluator implements Evaluator {
               .setMessage("type URL must be in the allow list")
               .setFieldValue(new RuleViolation.FieldValue(val))
               .setRuleValue(new RuleViolation.FieldValue(this.inValue, IN_DESCRIPTOR));
-      violationList.add(violation);
-      if (failFast) {
-        return violationList;
+      violations.add(violation);
+      if (violations.isDone()) {
+        return;
       }
     }
     if (!notIn.isEmpty() && notIn.contains(typeURL)) {
@@ -109,21 +104,12 @@ final class AnyEvaluator implements Evaluator {
               .setMessage("type URL must not be in the block list")
               .setFieldValue(new RuleViolation.FieldValue(val))
               .setRuleValue(new RuleViolation.FieldValue(this.notInValue, NOT_IN_DESCRIPTOR));
-      violationList.add(violation);
+      violations.add(violation);
     }
-    return violationList;
   }
 
   @Override
   public boolean tautology() {
     return in.isEmpty() && notIn.isEmpty();
   }
-
-  /** stringsToMap converts a string list to a set for fast lookup. */
-  private static Set<String> stringsToSet(List<String> strings) {
-    if (strings.isEmpty()) {
-      return Collections.emptySet();
-    }
-    return new HashSet<>(strings);
-  }
 }
@@ -36,14 +36,33 @@ final class AstExpression {
   }
 
   /**
-   * Compiles the given expression to a {@link AstExpression}.
+   * Compiles the given expression to a {@link AstExpression}, unless it was precompiled.
    *
    * @param cel The CEL compiler.
    * @param expr The expression to compile.
+   * @param precompiled The precompiled rules to look the expression up in.
+   * @param environment The environment key of cel, see {@link PrecompiledRules#environment}.
    * @return The compiled {@link AstExpression}.
    * @throws CompilationException if the expression compilation fails.
    */
-  static AstExpression newAstExpression(CelCompiler cel, Expression expr)
+  static AstExpression newAstExpression(
+      CelCompiler cel, Expression expr, PrecompiledRules precompiled, String environment)
+      throws CompilationException {
+    CelAbstractSyntaxTree ast = precompiled.lookup(environment, expr.expression);
+    if (ast == null) {
+      ast = compile(cel, expr);
+      precompiled.record(environment, expr.expression, ast);
+    }
+    CelKind outKind = ast.getResultType().kind();
+    if (outKind != CelKind.BOOL && outKind != CelKind.STRING) {
+      throw new CompilationException(
+          String.format(
+              "Expression outputs, wanted either bool or string: %s %s", expr.id, outKind));
+    }
+    return new AstExpression(ast, expr);
+  }
+
+  private static CelAbstractSyntaxTree compile(CelCompiler cel, Expression expr)
       throws CompilationException {
     CelValidationResult compileResult = cel.compile(expr.expression);
     if (!compileResult.getAllIssues().isEmpty()) {
@@ -59,12 +78,6 @@ final class AstExpression {
       throw new CompilationException(
           "Failed to compile expression " + expr.id + ":\n" + compileResult.getIssueString());
     }
-    CelKind outKind = ast.getResultType().kind();
-    if (outKind != CelKind.BOOL && outKind != CelKind.STRING) {
-      throw new CompilationException(
-          String.format(
-              "Expression outputs, wanted either bool or string: %s %s", expr.id, outKind));
-    }
-    return new AstExpression(ast, expr);
+    return ast;
   }
 }
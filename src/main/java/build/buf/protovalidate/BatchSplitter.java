@@ -0,0 +1,114 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.google.protobuf.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link BatchSplitter} partitions a batch of messages into contiguous chunks, validates the chunks
+ * concurrently and merges the chunk results back in input order.
+ */
+final class BatchSplitter {
+  /** Chunks smaller than this are not worth the hand-off to another thread. */
+  static final int MIN_CHUNK_SIZE = 256;
+
+  /** Number of chunks handed out per worker, to even out chunks that validate slower. */
+  private static final int CHUNKS_PER_WORKER = 4;
+
+  private BatchSplitter() {}
+
+  /**
+   * Validates msgs with validator, spreading contiguous chunks of the batch across executor. The
+   * calling thread validates the first chunk itself and then waits for the remaining ones.
+   *
+   * @param validator the validator to check every chunk with.
+   * @param msgs the messages to validate.
+   * @param executor the executor running all chunks but the first.
+   * @return the results of every message, in input order.
+   * @throws ValidationException if any chunk fails to validate.
+   */
+  static BatchValidationResult validateAll(
+      Validator validator, List<? extends Message> msgs, Executor executor)
+      throws ValidationException {
+    int size = msgs.size();
+    int chunkSize = chunkSize(size, parallelism(executor));
+    if (chunkSize >= size) {
+      return validator.validateAll(msgs);
+    }
+    List<CompletableFuture<BatchValidationResult>> pending = new ArrayList<>();
+    BatchValidationResult.Builder results = new BatchValidationResult.Builder();
+    try {
+      // Submitting can throw, e.g. if the executor rejects a chunk, which cancels the chunks
+      // submitted before it.
+      for (int start = chunkSize; start < size; start += chunkSize) {
+        List<? extends Message> chunk = msgs.subList(start, Math.min(size, start + chunkSize));
+        pending.add(CompletableFuture.supplyAsync(() -> validateChunk(validator, chunk), executor));
+      }
+      results.addAll(validator.validateAll(msgs.subList(0, chunkSize)));
+      for (CompletableFuture<BatchValidationResult> future : pending) {
+        results.addAll(future.join());
+      }
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    } finally {
+      for (CompletableFuture<BatchValidationResult> future : pending) {
+        future.cancel(false);
+      }
+    }
+    return results.build();
+  }
+
+  static int parallelism(Executor executor) {
+    if (executor instanceof ForkJoinPool) {
+      return ((ForkJoinPool) executor).getParallelism();
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  static int chunkSize(int size, int parallelism) {
+    int chunks = Math.max(1, parallelism) * CHUNKS_PER_WORKER;
+    return Math.max(MIN_CHUNK_SIZE, (size + chunks - 1) / chunks);
+  }
+
+  private static BatchValidationResult validateChunk(
+      Validator validator, List<? extends Message> chunk) {
+    try {
+      return validator.validateAll(chunk);
+    } catch (ValidationException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  private static ValidationException unwrap(CompletionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof ValidationException) {
+      return (ValidationException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    throw e;
+  }
+}
@@ -0,0 +1,166 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import java.util.Arrays;
+
+/**
+ * {@link BatchValidationResult} is returned when a batch of messages is validated. Results are
+ * indexed by the position of each message in the batch. Only the results of invalid messages are
+ * stored; valid messages share {@link ValidationResult#EMPTY}.
+ */
+public final class BatchValidationResult {
+  private static final int[] NO_INDICES = new int[0];
+  private static final ValidationResult[] NO_RESULTS = new ValidationResult[0];
+
+  /** The number of messages in the batch. */
+  private final int size;
+
+  /** Ascending positions of the invalid messages in the batch. */
+  private final int[] failedIndices;
+
+  /** Results of the invalid messages, parallel to {@link #failedIndices}. */
+  private final ValidationResult[] failedResults;
+
+  private BatchValidationResult(int size, int[] failedIndices, ValidationResult[] failedResults) {
+    this.size = size;
+    this.failedIndices = failedIndices;
+    this.failedResults = failedResults;
+  }
+
+  /**
+   * Get the number of messages in the batch.
+   *
+   * @return the batch size.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check if every message in the batch is valid.
+   *
+   * @return if the batch validation was a success.
+   */
+  public boolean isSuccess() {
+    return failedIndices.length == 0;
+  }
+
+  /**
+   * Get the result for the message at the given position in the batch.
+   *
+   * @param index position of the message in the batch.
+   * @return the {@link ValidationResult} of the message.
+   * @throws IndexOutOfBoundsException if index is negative or not less than {@link #size()}.
+   */
+  public ValidationResult get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+    }
+    int pos = Arrays.binarySearch(failedIndices, index);
+    return pos < 0 ? ValidationResult.EMPTY : failedResults[pos];
+  }
+
+  /**
+   * Get the number of invalid messages in the batch.
+   *
+   * @return the number of messages with at least one violation.
+   */
+  public int getFailureCount() {
+    return failedIndices.length;
+  }
+
+  /**
+   * Get the position in the batch of the n-th invalid message, in input order.
+   *
+   * @param n index into the invalid messages, between 0 and {@link #getFailureCount()}.
+   * @return the position of the invalid message in the batch.
+   */
+  public int getFailureIndex(int n) {
+    return failedIndices[n];
+  }
+
+  /**
+   * Returns a string representation of the batch result, including the violations of every invalid
+   * message.
+   *
+   * @return a string representation of the batch result.
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    if (isSuccess()) {
+      builder.append("Validation OK (").append(size).append(" messages)");
+    } else {
+      builder.append("Validation error in ");
+      builder.append(failedIndices.length).append(" of ").append(size).append(" messages:");
+      for (int i = 0; i < failedIndices.length; i++) {
+        builder.append("\n[").append(failedIndices[i]).append("] ");
+        builder.append(failedResults[i]);
+      }
+    }
+    return builder.toString();
+  }
+
+  /** Accumulates per-message results in input order. */
+  static final class Builder {
+    private int size;
+    private int failureCount;
+    private int[] failedIndices = NO_INDICES;
+    private ValidationResult[] failedResults = NO_RESULTS;
+
+    /**
+     * Appends the result of the next message in the batch.
+     *
+     * @param result the result of the message.
+     */
+    void add(ValidationResult result) {
+      if (!result.isSuccess()) {
+        addFailure(size, result);
+      }
+      size++;
+    }
+
+    /**
+     * Appends every result of a batch that directly follows the results added so far.
+     *
+     * @param batch the results to append.
+     */
+    void addAll(BatchValidationResult batch) {
+      for (int i = 0; i < batch.failedIndices.length; i++) {
+        addFailure(size + batch.failedIndices[i], batch.failedResults[i]);
+      }
+      size += batch.size;
+    }
+
+    private void addFailure(int index, ValidationResult result) {
+      if (failureCount == failedIndices.length) {
+        int capacity = Math.max(4, failureCount * 2);
+        failedIndices = Arrays.copyOf(failedIndices, capacity);
+        failedResults = Arrays.copyOf(failedResults, capacity);
+      }
+      failedIndices[failureCount] = index;
+      failedResults[failureCount] = result;
+      failureCount++;
+    }
+
+    BatchValidationResult build() {
+      return new BatchValidationResult(
+          size,
+          Arrays.copyOf(failedIndices, failureCount),
+          Arrays.copyOf(failedResults, failureCount));
+    }
+  }
+}
@@ -17,8 +17,6 @@ package build.buf.protovalidate;
 import build.buf.validate.BoolRules;
 import build.buf.validate.FieldRules;
 import com.google.protobuf.Descriptors.FieldDescriptor;
-import java.util.Collections;
-import java.util.List;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -69,14 +67,13 @@ final class BoolRulesEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast) {
+  public void evaluate(Value val, ViolationSink violations) {
     boolean actual = (Boolean) val.rawValue();
     if (actual == expected) {
-      return RuleViolation.NO_VIOLATIONS;
+      return;
     }
-    return base.done(
-        Collections.singletonList(
-            NativeViolations.newViolation(
-                CONST_SITE, null, "must equal " + expected, val, expected)));
+    base.add(
+        violations,
+        NativeViolations.newViolation(CONST_SITE, null, "must equal " + expected, val, expected));
   }
 }
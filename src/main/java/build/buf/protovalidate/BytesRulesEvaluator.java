@@ -19,9 +19,9 @@ import build.buf.validate.BytesRules;
 import build.buf.validate.FieldRules;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Descriptors.FieldDescriptor;
-import com.google.re2j.Pattern;
 import com.google.re2j.PatternSyntaxException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import org.jspecify.annotations.Nullable;
@@ -156,13 +156,15 @@ final class BytesRulesEvaluator implements Evaluator {
   private final @Nullable Long exactLen;
   private final @Nullable Long minLen;
   private final @Nullable Long maxLen;
-  private final @Nullable Pattern pattern;
+  private final @Nullable RegexMatcher pattern;
   private final @Nullable String patternStr;
   private final @Nullable ByteString prefix;
   private final @Nullable ByteString suffix;
   private final @Nullable ByteString contains;
   private final List<ByteString> inVals;
+  private final Collection<ByteString> inSet;
   private final List<ByteString> notInVals;
+  private final Collection<ByteString> notInSet;
   private final @Nullable WellKnown wellKnown;
 
   private BytesRulesEvaluator(
@@ -171,7 +173,7 @@ final class BytesRulesEvaluator implements Evaluator {
       @Nullable Long exactLen,
       @Nullable Long minLen,
       @Nullable Long maxLen,
-      @Nullable Pattern pattern,
+      @Nullable RegexMatcher pattern,
       @Nullable String patternStr,
       @Nullable ByteString prefix,
       @Nullable ByteString suffix,
@@ -190,7 +192,9 @@ final class BytesRulesEvaluator implements Evaluator {
     this.suffix = suffix;
     this.contains = contains;
     this.inVals = inVals;
+    this.inSet = RuleBase.membershipSet(inVals);
     this.notInVals = notInVals;
+    this.notInSet = RuleBase.membershipSet(notInVals);
     this.wellKnown = wellKnown;
   }
 
@@ -256,12 +260,12 @@ final class BytesRulesEvaluator implements Evaluator {
       hasRule = true;
     }
 
-    Pattern compiledPattern = null;
+    RegexMatcher compiledPattern = null;
     String patternStr = null;
     if (rules.hasPattern()) {
       patternStr = rules.getPattern();
       try {
-        compiledPattern = Pattern.compile(patternStr);
+        compiledPattern = RegexMatcher.compile(patternStr);
       } catch (PatternSyntaxException e) {
         // Bail to CEL — it produces the same compilation error.
         return null;
@@ -330,46 +334,40 @@ final class BytesRulesEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
     ByteString bytesVal = (ByteString) val.rawValue();
     long byteLen = bytesVal.size();
-    List<RuleViolation.Builder> violations = null;
 
     if (constVal != null && !bytesVal.equals(constVal)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  CONST_SITE, null, "must be " + hex(constVal), val, constVal));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              CONST_SITE, null, "must be " + hex(constVal), val, constVal));
+      if (violations.isDone()) return;
     }
 
     if (exactLen != null && byteLen != exactLen) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  LEN_SITE, null, "must be " + exactLen + " bytes", val, exactLen));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              LEN_SITE, null, "must be " + exactLen + " bytes", val, exactLen));
+      if (violations.isDone()) return;
     }
 
     if (minLen != null && byteLen < minLen) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MIN_LEN_SITE, null, "must be at least " + minLen + " bytes", val, minLen));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MIN_LEN_SITE, null, "must be at least " + minLen + " bytes", val, minLen));
+      if (violations.isDone()) return;
     }
 
     if (maxLen != null && byteLen > maxLen) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MAX_LEN_SITE, null, "must be at most " + maxLen + " bytes", val, maxLen));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MAX_LEN_SITE, null, "must be at most " + maxLen + " bytes", val, maxLen));
+      if (violations.isDone()) return;
     }
 
     if (pattern != null) {
@@ -379,77 +377,65 @@ final class BytesRulesEvaluator implements Evaluator {
         throw new ExecutionException("must be valid UTF-8 to apply regexp");
       }
       if (!pattern.matches(bytesVal.toStringUtf8())) {
-        violations =
-            RuleBase.add(
-                violations,
-                NativeViolations.newViolation(
-                    PATTERN_SITE,
-                    null,
-                    "must match regex pattern `" + patternStr + "`",
-                    val,
-                    patternStr));
-        if (failFast) return base.done(violations);
+        base.add(
+            violations,
+            NativeViolations.newViolation(
+                PATTERN_SITE,
+                null,
+                "must match regex pattern `" + patternStr + "`",
+                val,
+                patternStr));
+        if (violations.isDone()) return;
       }
     }
 
     if (prefix != null && !bytesVal.startsWith(prefix)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  PREFIX_SITE, null, "does not have prefix " + hex(prefix), val, prefix));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              PREFIX_SITE, null, "does not have prefix " + hex(prefix), val, prefix));
+      if (violations.isDone()) return;
     }
 
     if (suffix != null && !bytesVal.endsWith(suffix)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  SUFFIX_SITE, null, "does not have suffix " + hex(suffix), val, suffix));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              SUFFIX_SITE, null, "does not have suffix " + hex(suffix), val, suffix));
+      if (violations.isDone()) return;
     }
 
     if (contains != null && !containsBytes(bytesVal, contains)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  CONTAINS_SITE, null, "does not contain " + hex(contains), val, contains));
-      if (failFast) return base.done(violations);
-    }
-
-    if (!inVals.isEmpty() && !inVals.contains(bytesVal)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  IN_SITE, null, "must be in list " + formatList(inVals), val, inVals));
-      if (failFast) return base.done(violations);
-    }
-
-    if (!notInVals.isEmpty() && notInVals.contains(bytesVal)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  NOT_IN_SITE,
-                  null,
-                  "must not be in list " + formatList(notInVals),
-                  val,
-                  notInVals));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              CONTAINS_SITE, null, "does not contain " + hex(contains), val, contains));
+      if (violations.isDone()) return;
+    }
+
+    if (!inVals.isEmpty() && !inSet.contains(bytesVal)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              IN_SITE, null, "must be in list " + formatList(inVals), val, inVals));
+      if (violations.isDone()) return;
+    }
+
+    if (!notInVals.isEmpty() && notInSet.contains(bytesVal)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              NOT_IN_SITE, null, "must not be in list " + formatList(notInVals), val, notInVals));
+      if (violations.isDone()) return;
     }
 
     if (wellKnown != null) {
       RuleViolation.Builder wkViolation = evaluateWellKnown(bytesVal, val);
       if (wkViolation != null) {
-        violations = RuleBase.add(violations, wkViolation);
-        if (failFast) return base.done(violations);
+        base.add(violations, wkViolation);
+        if (violations.isDone()) return;
       }
     }
-
-    return base.done(violations);
   }
 
   private RuleViolation.@Nullable Builder evaluateWellKnown(ByteString bytesVal, Value val) {
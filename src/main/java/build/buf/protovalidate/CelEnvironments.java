@@ -0,0 +1,92 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import com.google.protobuf.Descriptors.Descriptor;
+import dev.cel.bundle.Cel;
+import dev.cel.bundle.CelBuilder;
+import dev.cel.common.types.CelType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link CelEnvironments} is a build-through cache of the CEL environments rules are compiled in,
+ * derived from a base environment by adding a message type and declaring variables. Building an
+ * environment rebuilds its checker and runtime, yet most fields of a schema need one of a few
+ * environments, such as those of all {@code string} fields, so they are shared.
+ *
+ * <p>Environments are keyed by the variables' names and types, and by the identity of the message
+ * type, since message types of the same name may come from different descriptors.
+ */
+final class CelEnvironments {
+  private final Cel cel;
+  private final ConcurrentMap<List<Object>, Cel> environments = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a new {@link CelEnvironments}.
+   *
+   * @param cel The base environment.
+   */
+  CelEnvironments(Cel cel) {
+    this.cel = cel;
+  }
+
+  /**
+   * Gets the environment declaring a single variable.
+   *
+   * @param messageType The message type to add, or null.
+   * @param name The name of the variable.
+   * @param type The type of the variable.
+   * @return The environment.
+   */
+  Cel get(@Nullable Descriptor messageType, String name, CelType type) {
+    return get(messageType, new String[] {name}, new CelType[] {type});
+  }
+
+  /**
+   * Gets the environment declaring the given variables.
+   *
+   * @param messageType The message type to add, or null.
+   * @param names The names of the variables.
+   * @param types The types of the variables, indexed like the names.
+   * @return The environment.
+   */
+  Cel get(@Nullable Descriptor messageType, String[] names, CelType[] types) {
+    List<Object> key = new ArrayList<>(1 + 2 * names.length);
+    // Descriptors do not override equals, so they compare by identity.
+    key.add(messageType != null ? messageType : "");
+    for (int i = 0; i < names.length; i++) {
+      key.add(names[i]);
+      key.add(types[i]);
+    }
+    Cel environment = environments.get(key);
+    if (environment != null) {
+      return environment;
+    }
+    CelBuilder builder = cel.toCelBuilder();
+    if (messageType != null) {
+      builder = builder.addMessageTypes(messageType);
+    }
+    for (int i = 0; i < names.length; i++) {
+      builder = builder.addVar(names[i], types[i]);
+    }
+    environment = builder.build();
+    Cel previous = environments.putIfAbsent(key, environment);
+    return previous != null ? previous : environment;
+  }
+}
@@ -0,0 +1,775 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import com.google.re2j.Pattern;
+import com.google.re2j.PatternSyntaxException;
+import dev.cel.common.CelAbstractSyntaxTree;
+import dev.cel.common.ast.CelConstant;
+import dev.cel.common.ast.CelExpr;
+import dev.cel.common.types.CelKind;
+import dev.cel.common.types.CelType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link CelLowering} compiles type-checked CEL expressions of common shapes into Java closures
+ * that evaluate them without the CEL runtime.
+ *
+ * <p>Supported expressions read {@code this}, the fields of messages and the elements of repeated
+ * fields, and combine them with literals, {@code has}, {@code size}, comparisons, the logical and
+ * conditional operators, the string functions {@code startsWith}, {@code endsWith}, {@code
+ * contains} and {@code matches} with a literal pattern, and the {@code all} and {@code exists}
+ * macros over lists. None of these can fail at runtime, so the order in which CEL would evaluate
+ * the operands of {@code &&} and {@code ||} doesn't affect the result. Any other expression, or one
+ * whose types the checker inferred differently, is left to CEL.
+ */
+final class CelLowering {
+  private CelLowering() {}
+
+  /** A lowered expression, which evaluates to the same {@link Boolean} or {@link String} as CEL. */
+  interface Lowered {
+    /**
+     * Evaluates the expression.
+     *
+     * @param self The raw value of {@code this}, as returned by {@link Value#rawValue()}.
+     * @return The result of the expression.
+     */
+    Object eval(Object self);
+  }
+
+  /** What {@code this} refers to in the expressions of a rule. */
+  static final class This {
+    @Nullable private final Descriptor message;
+    @Nullable private final FieldDescriptor field;
+    private final boolean element;
+
+    private This(@Nullable Descriptor message, @Nullable FieldDescriptor field, boolean element) {
+      this.message = message;
+      this.field = field;
+      this.element = element;
+    }
+
+    /** {@code this} is a message, for message rules. */
+    static This message(Descriptor message) {
+      return new This(message, null, false);
+    }
+
+    /**
+     * {@code this} is the value of a field, for field rules.
+     *
+     * @param field The field.
+     * @param element Whether {@code this} is an element of the field rather than the whole field,
+     *     for the rules of repeated items and map keys and values.
+     */
+    static This field(FieldDescriptor field, boolean element) {
+      return new This(null, field, element);
+    }
+  }
+
+  /**
+   * Lowers a checked expression.
+   *
+   * @param ast The checked expression.
+   * @param self What {@code this} refers to.
+   * @return The lowered expression, or null if it must be evaluated by CEL.
+   */
+  static @Nullable Lowered lower(CelAbstractSyntaxTree ast, This self) {
+    try {
+      return new Compiler(ast).root(self);
+    } catch (Unsupported e) {
+      return null;
+    }
+  }
+
+  private static final class Unsupported extends Exception {
+    Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+
+  private enum Kind {
+    BOOL(CelKind.BOOL),
+    INT(CelKind.INT),
+    UINT(CelKind.UINT),
+    DOUBLE(CelKind.DOUBLE),
+    STRING(CelKind.STRING),
+    BYTES(CelKind.BYTES),
+    MESSAGE(CelKind.STRUCT),
+    LIST(CelKind.LIST);
+
+    final CelKind celKind;
+
+    Kind(CelKind celKind) {
+      this.celKind = celKind;
+    }
+  }
+
+  /** The static type of a lowered expression. */
+  private static final class Shape {
+    private static final Shape BOOL = new Shape(Kind.BOOL, null, null);
+    private static final Shape INT = new Shape(Kind.INT, null, null);
+    private static final Shape UINT = new Shape(Kind.UINT, null, null);
+    private static final Shape DOUBLE = new Shape(Kind.DOUBLE, null, null);
+    private static final Shape STRING = new Shape(Kind.STRING, null, null);
+    private static final Shape BYTES = new Shape(Kind.BYTES, null, null);
+
+    final Kind kind;
+
+    /** The message type of a {@link Kind#MESSAGE}. */
+    @Nullable final Descriptor message;
+
+    /** The repeated field a {@link Kind#LIST} was read from. */
+    @Nullable final FieldDescriptor list;
+
+    private Shape(Kind kind, @Nullable Descriptor message, @Nullable FieldDescriptor list) {
+      this.kind = kind;
+      this.message = message;
+      this.list = list;
+    }
+
+    static Shape message(Descriptor message) throws Unsupported {
+      // Well-known types have their own representation in CEL.
+      if (message.getFullName().startsWith("google.protobuf.")) {
+        throw new Unsupported();
+      }
+      return new Shape(Kind.MESSAGE, message, null);
+    }
+
+    /**
+     * The shape of the value of a field.
+     *
+     * @param field The field.
+     * @param element Whether the value is an element of a repeated field.
+     */
+    static Shape of(FieldDescriptor field, boolean element) throws Unsupported {
+      if (field.isMapField()) {
+        throw new Unsupported();
+      }
+      if (field.isRepeated() && !element) {
+        return new Shape(Kind.LIST, null, field);
+      }
+      switch (field.getType()) {
+        case BOOL:
+          return BOOL;
+        case INT32:
+        case SINT32:
+        case SFIXED32:
+        case INT64:
+        case SINT64:
+        case SFIXED64:
+        case ENUM:
+          return INT;
+        case UINT64:
+        case FIXED64:
+          return UINT;
+        case FLOAT:
+        case DOUBLE:
+          return DOUBLE;
+        case STRING:
+          return STRING;
+        case BYTES:
+          return BYTES;
+        case MESSAGE:
+        case GROUP:
+          return message(field.getMessageType());
+        case UINT32:
+        case FIXED32:
+          // CEL doesn't convert these the same way everywhere: some values are sign extended, and
+          // selecting large ones from a message fails.
+          throw new Unsupported();
+        default:
+          throw new Unsupported();
+      }
+    }
+  }
+
+  private interface BoolNode {
+    boolean eval(Object[] frame);
+  }
+
+  private interface LongNode {
+    long eval(Object[] frame);
+  }
+
+  private interface DoubleNode {
+    double eval(Object[] frame);
+  }
+
+  private interface ObjectNode {
+    Object eval(Object[] frame);
+  }
+
+  /**
+   * A lowered subexpression. Its function is a {@link BoolNode}, {@link LongNode}, {@link
+   * DoubleNode} or {@link ObjectNode} according to its kind, so that scalars aren't boxed.
+   */
+  private static final class Node {
+    final Shape shape;
+    final Object fn;
+
+    Node(Shape shape, Object fn) {
+      this.shape = shape;
+      this.fn = fn;
+    }
+
+    Kind kind() {
+      return shape.kind;
+    }
+
+    BoolNode bool() {
+      return (BoolNode) fn;
+    }
+
+    LongNode longs() {
+      return (LongNode) fn;
+    }
+
+    DoubleNode doubles() {
+      return (DoubleNode) fn;
+    }
+
+    ObjectNode object() {
+      return (ObjectNode) fn;
+    }
+  }
+
+  /** A variable in scope, whose raw value is held in a slot of the frame. */
+  private static final class Binding {
+    final int slot;
+    final Shape shape;
+
+    /** The field the value was read from, which determines its raw representation. */
+    @Nullable final FieldDescriptor field;
+
+    Binding(int slot, Shape shape, @Nullable FieldDescriptor field) {
+      this.slot = slot;
+      this.shape = shape;
+      this.field = field;
+    }
+  }
+
+  private static final class Compiler {
+    private final CelAbstractSyntaxTree ast;
+    private final Map<String, Binding> scope = new HashMap<>();
+    private final boolean partialMatch = ValidateLibrary.CEL_OPTIONS.enableRegexPartialMatch();
+
+    /** The number of slots of the frame. Slot 0 holds {@code this}. */
+    private int slots = 1;
+
+    Compiler(CelAbstractSyntaxTree ast) {
+      this.ast = ast;
+    }
+
+    Lowered root(This self) throws Unsupported {
+      if (self.message != null) {
+        scope.put(Variable.THIS_NAME, new Binding(0, Shape.message(self.message), null));
+      } else if (self.field != null) {
+        scope.put(
+            Variable.THIS_NAME, new Binding(0, Shape.of(self.field, self.element), self.field));
+      }
+      Node node = compile(ast.getExpr());
+      int frameSize = slots;
+      if (node.kind() == Kind.BOOL) {
+        BoolNode fn = node.bool();
+        return value -> fn.eval(frame(frameSize, value)) ? Boolean.TRUE : Boolean.FALSE;
+      }
+      if (node.kind() == Kind.STRING) {
+        ObjectNode fn = node.object();
+        return value -> fn.eval(frame(frameSize, value));
+      }
+      throw new Unsupported();
+    }
+
+    private static Object[] frame(int size, Object self) {
+      Object[] frame = new Object[size];
+      frame[0] = self;
+      return frame;
+    }
+
+    /** Compiles an expression, checking that its kind agrees with the type checker. */
+    private Node compile(CelExpr expr) throws Unsupported {
+      Node node = compileUnchecked(expr);
+      Optional<CelType> type = ast.getType(expr.id());
+      if (!type.isPresent() || type.get().kind() != node.kind().celKind) {
+        throw new Unsupported();
+      }
+      return node;
+    }
+
+    private Node compile(CelExpr expr, Kind kind) throws Unsupported {
+      Node node = compile(expr);
+      if (node.kind() != kind) {
+        throw new Unsupported();
+      }
+      return node;
+    }
+
+    private Node compileUnchecked(CelExpr expr) throws Unsupported {
+      switch (expr.getKind()) {
+        case CONSTANT:
+          return constant(expr.constant());
+        case IDENT:
+          return ident(expr.ident().name());
+        case SELECT:
+          return select(expr.select());
+        case CALL:
+          return call(expr.call());
+        case COMPREHENSION:
+          return comprehension(expr.comprehension());
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    private static Node constant(CelConstant constant) throws Unsupported {
+      switch (constant.getKind()) {
+        case BOOLEAN_VALUE:
+          boolean b = constant.booleanValue();
+          return new Node(Shape.BOOL, (BoolNode) frame -> b);
+        case INT64_VALUE:
+          long l = constant.int64Value();
+          return new Node(Shape.INT, (LongNode) frame -> l);
+        case UINT64_VALUE:
+          long u = constant.uint64Value().longValue();
+          return new Node(Shape.UINT, (LongNode) frame -> u);
+        case DOUBLE_VALUE:
+          double d = constant.doubleValue();
+          return new Node(Shape.DOUBLE, (DoubleNode) frame -> d);
+        case STRING_VALUE:
+          String s = constant.stringValue();
+          return new Node(Shape.STRING, (ObjectNode) frame -> s);
+        case BYTES_VALUE:
+          ByteString bytes = ByteString.copyFrom(constant.bytesValue().toByteArray());
+          return new Node(Shape.BYTES, (ObjectNode) frame -> bytes);
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    private Node ident(String name) throws Unsupported {
+      Binding binding = scope.get(name);
+      if (binding == null) {
+        throw new Unsupported();
+      }
+      int slot = binding.slot;
+      return read(binding.shape, binding.field, frame -> frame[slot]);
+    }
+
+    private Node select(CelExpr.CelSelect select) throws Unsupported {
+      Node operand = compile(select.operand(), Kind.MESSAGE);
+      Descriptor message = operand.shape.message;
+      FieldDescriptor field = message != null ? message.findFieldByName(select.field()) : null;
+      if (field == null) {
+        throw new Unsupported();
+      }
+      ObjectNode msg = operand.object();
+      if (select.testOnly()) {
+        if (field.isRepeated()) {
+          return new Node(
+              Shape.BOOL,
+              (BoolNode) frame -> ((Message) msg.eval(frame)).getRepeatedFieldCount(field) > 0);
+        }
+        return new Node(
+            Shape.BOOL, (BoolNode) frame -> ((Message) msg.eval(frame)).hasField(field));
+      }
+      return read(
+          Shape.of(field, false), field, frame -> ((Message) msg.eval(frame)).getField(field));
+    }
+
+    /**
+     * Converts a raw protobuf value to the representation of its shape.
+     *
+     * @param shape The shape of the value.
+     * @param field The field the value was read from, or null for a message.
+     * @param raw The raw value.
+     */
+    private static Node read(Shape shape, @Nullable FieldDescriptor field, ObjectNode raw)
+        throws Unsupported {
+      FieldDescriptor.Type type = field != null ? field.getType() : null;
+      switch (shape.kind) {
+        case BOOL:
+          return new Node(shape, (BoolNode) frame -> (Boolean) raw.eval(frame));
+        case INT:
+          if (type == FieldDescriptor.Type.ENUM) {
+            return new Node(shape, (LongNode) frame -> enumNumber(raw.eval(frame)));
+          }
+          if (type == FieldDescriptor.Type.INT32
+              || type == FieldDescriptor.Type.SINT32
+              || type == FieldDescriptor.Type.SFIXED32) {
+            return new Node(shape, (LongNode) frame -> (Integer) raw.eval(frame));
+          }
+          return new Node(shape, (LongNode) frame -> (Long) raw.eval(frame));
+        case UINT:
+          return new Node(shape, (LongNode) frame -> (Long) raw.eval(frame));
+        case DOUBLE:
+          if (type == FieldDescriptor.Type.FLOAT) {
+            return new Node(shape, (DoubleNode) frame -> (Float) raw.eval(frame));
+          }
+          return new Node(shape, (DoubleNode) frame -> (Double) raw.eval(frame));
+        case STRING:
+        case BYTES:
+        case MESSAGE:
+        case LIST:
+          return new Node(shape, raw);
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    private static long enumNumber(Object value) {
+      if (value instanceof EnumValueDescriptor) {
+        return ((EnumValueDescriptor) value).getNumber();
+      }
+      return (Integer) value;
+    }
+
+    private Node call(CelExpr.CelCall call) throws Unsupported {
+      List<CelExpr> args = call.args();
+      String function = call.function();
+      if (call.target().isPresent()) {
+        CelExpr target = call.target().get();
+        if (args.size() != 1) {
+          if (args.isEmpty() && function.equals("size")) {
+            return size(compile(target));
+          }
+          throw new Unsupported();
+        }
+        return method(function, compile(target, Kind.STRING), args.get(0));
+      }
+      switch (function) {
+        case "size":
+          if (args.size() == 1) {
+            return size(compile(args.get(0)));
+          }
+          break;
+        case "matches":
+          if (args.size() == 2) {
+            return method(function, compile(args.get(0), Kind.STRING), args.get(1));
+          }
+          break;
+        case "!_":
+          {
+            BoolNode operand = compile(args.get(0), Kind.BOOL).bool();
+            return new Node(Shape.BOOL, (BoolNode) frame -> !operand.eval(frame));
+          }
+        case "_&&_":
+          {
+            BoolNode left = compile(args.get(0), Kind.BOOL).bool();
+            BoolNode right = compile(args.get(1), Kind.BOOL).bool();
+            return new Node(Shape.BOOL, (BoolNode) frame -> left.eval(frame) && right.eval(frame));
+          }
+        case "_||_":
+          {
+            BoolNode left = compile(args.get(0), Kind.BOOL).bool();
+            BoolNode right = compile(args.get(1), Kind.BOOL).bool();
+            return new Node(Shape.BOOL, (BoolNode) frame -> left.eval(frame) || right.eval(frame));
+          }
+        case "_?_:_":
+          return conditional(args);
+        case "_==_":
+          return new Node(Shape.BOOL, equal(args.get(0), args.get(1)));
+        case "_!=_":
+          {
+            BoolNode equal = equal(args.get(0), args.get(1));
+            return new Node(Shape.BOOL, (BoolNode) frame -> !equal.eval(frame));
+          }
+        case "_<_":
+        case "_<=_":
+        case "_>_":
+        case "_>=_":
+          return new Node(
+              Shape.BOOL, compare(function, compile(args.get(0)), compile(args.get(1))));
+        default:
+          break;
+      }
+      throw new Unsupported();
+    }
+
+    private Node conditional(List<CelExpr> args) throws Unsupported {
+      BoolNode condition = compile(args.get(0), Kind.BOOL).bool();
+      Node then = compile(args.get(1));
+      Node otherwise = compile(args.get(2), then.kind());
+      if (then.kind() == Kind.BOOL) {
+        BoolNode a = then.bool();
+        BoolNode b = otherwise.bool();
+        return new Node(
+            Shape.BOOL, (BoolNode) frame -> condition.eval(frame) ? a.eval(frame) : b.eval(frame));
+      }
+      if (then.kind() == Kind.STRING) {
+        ObjectNode a = then.object();
+        ObjectNode b = otherwise.object();
+        return new Node(
+            Shape.STRING,
+            (ObjectNode) frame -> condition.eval(frame) ? a.eval(frame) : b.eval(frame));
+      }
+      throw new Unsupported();
+    }
+
+    private static Node size(Node operand) throws Unsupported {
+      ObjectNode value = operand.object();
+      switch (operand.kind()) {
+        case STRING:
+          return new Node(
+              Shape.INT,
+              (LongNode)
+                  frame -> {
+                    String s = (String) value.eval(frame);
+                    return s.codePointCount(0, s.length());
+                  });
+        case BYTES:
+          return new Node(Shape.INT, (LongNode) frame -> ((ByteString) value.eval(frame)).size());
+        case LIST:
+          return new Node(Shape.INT, (LongNode) frame -> ((List<?>) value.eval(frame)).size());
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    /** Compiles a string function of {@code target}. */
+    private Node method(String function, Node target, CelExpr arg) throws Unsupported {
+      ObjectNode string = target.object();
+      if (function.equals("matches")) {
+        if (arg.getKind() != CelExpr.ExprKind.Kind.CONSTANT
+            || arg.constant().getKind() != CelConstant.Kind.STRING_VALUE) {
+          throw new Unsupported();
+        }
+        String regex = arg.constant().stringValue();
+        Pattern pattern;
+        try {
+          pattern = Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+          // Let CEL report the error when the rule is evaluated.
+          throw new Unsupported();
+        }
+        RegexMatcher matcher =
+            partialMatch ? RegexMatcher.anchoredAutomaton(regex) : RegexMatcher.compile(regex);
+        if (matcher != null) {
+          return new Node(
+              Shape.BOOL, (BoolNode) frame -> matcher.matches((String) string.eval(frame)));
+        }
+        return new Node(
+            Shape.BOOL, (BoolNode) frame -> pattern.matcher((String) string.eval(frame)).find());
+      }
+      ObjectNode operand = compile(arg, Kind.STRING).object();
+      switch (function) {
+        case "startsWith":
+          return new Node(
+              Shape.BOOL,
+              (BoolNode)
+                  frame -> ((String) string.eval(frame)).startsWith((String) operand.eval(frame)));
+        case "endsWith":
+          return new Node(
+              Shape.BOOL,
+              (BoolNode)
+                  frame -> ((String) string.eval(frame)).endsWith((String) operand.eval(frame)));
+        case "contains":
+          return new Node(
+              Shape.BOOL,
+              (BoolNode)
+                  frame -> ((String) string.eval(frame)).contains((String) operand.eval(frame)));
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    private BoolNode equal(CelExpr leftExpr, CelExpr rightExpr) throws Unsupported {
+      Node left = compile(leftExpr);
+      Node right = compile(rightExpr);
+      if (left.kind() != right.kind()) {
+        throw new Unsupported();
+      }
+      switch (left.kind()) {
+        case BOOL:
+          {
+            BoolNode a = left.bool();
+            BoolNode b = right.bool();
+            return frame -> a.eval(frame) == b.eval(frame);
+          }
+        case INT:
+        case UINT:
+          {
+            LongNode a = left.longs();
+            LongNode b = right.longs();
+            return frame -> a.eval(frame) == b.eval(frame);
+          }
+        case DOUBLE:
+          {
+            // CEL considers a boxed NaN equal to itself, so only a comparison with a literal,
+            // which can't be NaN, is guaranteed to be unaffected by boxing.
+            if (leftExpr.getKind() != CelExpr.ExprKind.Kind.CONSTANT
+                && rightExpr.getKind() != CelExpr.ExprKind.Kind.CONSTANT) {
+              throw new Unsupported();
+            }
+            DoubleNode a = left.doubles();
+            DoubleNode b = right.doubles();
+            return frame -> a.eval(frame) == b.eval(frame);
+          }
+        case STRING:
+        case BYTES:
+          {
+            ObjectNode a = left.object();
+            ObjectNode b = right.object();
+            return frame -> a.eval(frame).equals(b.eval(frame));
+          }
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    private static BoolNode compare(String function, Node left, Node right) throws Unsupported {
+      if (left.kind() != right.kind()) {
+        throw new Unsupported();
+      }
+      if (left.kind() == Kind.DOUBLE) {
+        // Compared as primitives rather than with Double.compare, so that NaN is unordered.
+        DoubleNode a = left.doubles();
+        DoubleNode b = right.doubles();
+        switch (function) {
+          case "_<_":
+            return frame -> a.eval(frame) < b.eval(frame);
+          case "_<=_":
+            return frame -> a.eval(frame) <= b.eval(frame);
+          case "_>_":
+            return frame -> a.eval(frame) > b.eval(frame);
+          default:
+            return frame -> a.eval(frame) >= b.eval(frame);
+        }
+      }
+      Comparison comparison = comparison(left, right);
+      switch (function) {
+        case "_<_":
+          return frame -> comparison.compare(frame) < 0;
+        case "_<=_":
+          return frame -> comparison.compare(frame) <= 0;
+        case "_>_":
+          return frame -> comparison.compare(frame) > 0;
+        default:
+          return frame -> comparison.compare(frame) >= 0;
+      }
+    }
+
+    private interface Comparison {
+      int compare(Object[] frame);
+    }
+
+    private static Comparison comparison(Node left, Node right) throws Unsupported {
+      switch (left.kind()) {
+        case INT:
+          {
+            LongNode a = left.longs();
+            LongNode b = right.longs();
+            return frame -> Long.compare(a.eval(frame), b.eval(frame));
+          }
+        case UINT:
+          {
+            LongNode a = left.longs();
+            LongNode b = right.longs();
+            return frame -> Long.compareUnsigned(a.eval(frame), b.eval(frame));
+          }
+        case STRING:
+          {
+            ObjectNode a = left.object();
+            ObjectNode b = right.object();
+            return frame -> ((String) a.eval(frame)).compareTo((String) b.eval(frame));
+          }
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    /**
+     * Compiles the expansion of the {@code all} and {@code exists} macros over a list, which
+     * accumulate the predicate with {@code &&} and {@code ||} respectively.
+     */
+    private Node comprehension(CelExpr.CelComprehension comprehension) throws Unsupported {
+      if (!comprehension.iterVar2().isEmpty()) {
+        throw new Unsupported();
+      }
+      String accu = comprehension.accuVar();
+      CelExpr init = comprehension.accuInit();
+      if (init.getKind() != CelExpr.ExprKind.Kind.CONSTANT
+          || init.constant().getKind() != CelConstant.Kind.BOOLEAN_VALUE) {
+        throw new Unsupported();
+      }
+      boolean all = init.constant().booleanValue();
+      CelExpr step = comprehension.loopStep();
+      if (step.getKind() != CelExpr.ExprKind.Kind.CALL
+          || !step.call().function().equals(all ? "_&&_" : "_||_")
+          || step.call().args().size() != 2
+          || !isIdent(step.call().args().get(0), accu)
+          || !isIdent(comprehension.result(), accu)
+          || !isLoopCondition(comprehension.loopCondition(), accu, all)) {
+        throw new Unsupported();
+      }
+      Node range = compile(comprehension.iterRange(), Kind.LIST);
+      FieldDescriptor list = range.shape.list;
+      if (list == null) {
+        throw new Unsupported();
+      }
+      int slot = slots++;
+      String name = comprehension.iterVar();
+      Binding shadowed = scope.put(name, new Binding(slot, Shape.of(list, true), list));
+      BoolNode predicate = compile(step.call().args().get(1), Kind.BOOL).bool();
+      if (shadowed != null) {
+        scope.put(name, shadowed);
+      } else {
+        scope.remove(name);
+      }
+      ObjectNode elements = range.object();
+      return new Node(
+          Shape.BOOL,
+          (BoolNode)
+              frame -> {
+                for (Object element : (List<?>) elements.eval(frame)) {
+                  frame[slot] = element;
+                  if (predicate.eval(frame) != all) {
+                    return !all;
+                  }
+                }
+                return all;
+              });
+    }
+
+    private static boolean isIdent(CelExpr expr, String name) {
+      return expr.getKind() == CelExpr.ExprKind.Kind.IDENT && expr.ident().name().equals(name);
+    }
+
+    /** Whether the loop condition stops at the first false ({@code all}) or true element. */
+    private static boolean isLoopCondition(CelExpr expr, String accu, boolean all) {
+      if (expr.getKind() != CelExpr.ExprKind.Kind.CALL
+          || !expr.call().function().equals("@not_strictly_false")
+          || expr.call().args().size() != 1) {
+        return false;
+      }
+      CelExpr arg = expr.call().args().get(0);
+      if (all) {
+        return isIdent(arg, accu);
+      }
+      return arg.getKind() == CelExpr.ExprKind.Kind.CALL
+          && arg.call().function().equals("!_")
+          && arg.call().args().size() == 1
+          && isIdent(arg.call().args().get(0), accu);
+    }
+  }
+}
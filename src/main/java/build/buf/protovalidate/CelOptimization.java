@@ -0,0 +1,359 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedLong;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import dev.cel.bundle.Cel;
+import dev.cel.common.CelAbstractSyntaxTree;
+import dev.cel.common.CelSource;
+import dev.cel.common.CelValidationException;
+import dev.cel.common.ast.CelConstant;
+import dev.cel.common.ast.CelExpr;
+import dev.cel.common.ast.CelExpr.ExprKind.Kind;
+import dev.cel.common.values.CelByteString;
+import dev.cel.optimizer.CelAstOptimizer;
+import dev.cel.optimizer.CelOptimizationException;
+import dev.cel.optimizer.CelOptimizerFactory;
+import dev.cel.optimizer.optimizers.ConstantFoldingOptimizer;
+import dev.cel.optimizer.optimizers.InliningOptimizer;
+import dev.cel.optimizer.optimizers.InliningOptimizer.InlineVariable;
+import dev.cel.optimizer.optimizers.SubexpressionOptimizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link CelOptimization} rewrites checked CEL expressions with cel-java's optimizers before
+ * programs are created from them, see {@link Config.Builder#setEnableCelOptimization(boolean)}.
+ *
+ * <p>The values of the {@code rule} and {@code rules} variables of standard and predefined rules
+ * are the same for every evaluation, so they are inlined into the expression as literals. Constant
+ * folding then evaluates whatever only depends on them, such as the {@code has(rules.lt)} checks
+ * and the formatting of violation messages, and common subexpressions are evaluated once.
+ * Expressions that can't be optimized are left as they are.
+ */
+final class CelOptimization {
+  private CelOptimization() {}
+
+  /** Functions of the validate library evaluated at compile time if their arguments are known. */
+  private static final String[] FOLDABLE_FUNCTIONS = {"format", "getField"};
+
+  /** The function binding the subexpressions eliminated by {@link #COMMON_SUBEXPRESSIONS}. */
+  private static final String BLOCK_FUNCTION = "cel.@block";
+
+  private static final CelAstOptimizer CONSTANT_FOLDING =
+      ConstantFoldingOptimizer.newInstance(
+          ConstantFoldingOptimizer.ConstantFoldingOptions.newBuilder()
+              .addFoldableFunctions(FOLDABLE_FUNCTIONS)
+              .build());
+
+  // Eliminated subexpressions are bound with cel.block, which the options enable by default.
+  private static final CelAstOptimizer COMMON_SUBEXPRESSIONS =
+      SubexpressionOptimizer.newInstance(
+          SubexpressionOptimizer.SubexpressionOptimizerOptions.newBuilder()
+              .populateMacroCalls(true)
+              .build());
+
+  /**
+   * Folds constants and eliminates common subexpressions.
+   *
+   * @param cel The environment the expression was checked in.
+   * @param ast The checked expression.
+   * @return The optimized expression, or {@code ast} if it can't be optimized.
+   */
+  static CelAbstractSyntaxTree optimize(Cel cel, CelAbstractSyntaxTree ast) {
+    try {
+      return CelOptimizerFactory.standardCelOptimizerBuilder(cel)
+          .addAstOptimizers(CONSTANT_FOLDING, COMMON_SUBEXPRESSIONS)
+          .build()
+          .optimize(ast);
+    } catch (CelOptimizationException | RuntimeException e) {
+      return ast;
+    }
+  }
+
+  /**
+   * Inlines the {@code rule} and {@code rules} variables of a standard or predefined rule, then
+   * folds constants and eliminates common subexpressions.
+   *
+   * @param cel The environment the expression was checked in.
+   * @param ast The checked expression.
+   * @param rules The value of {@code rules}.
+   * @param ruleField The field of {@code rules} whose value is {@code rule}.
+   * @return The optimized expression, or null if it can't be optimized.
+   */
+  static @Nullable CelAbstractSyntaxTree optimizeRule(
+      Cel cel, CelAbstractSyntaxTree ast, Message rules, FieldDescriptor ruleField) {
+    List<InlineVariable> inlined = new ArrayList<>(2);
+    if (references(ast, Variable.RULE_NAME)) {
+      CelAbstractSyntaxTree rule = literal(cel, ruleField, rules.getField(ruleField));
+      if (rule != null) {
+        inlined.add(InlineVariable.of(Variable.RULE_NAME, rule));
+      }
+    }
+    if (references(ast, Variable.RULES_NAME)) {
+      CelAbstractSyntaxTree literal = literal(cel, null, rules);
+      if (literal != null) {
+        inlined.add(InlineVariable.of(Variable.RULES_NAME, literal));
+      }
+    }
+    CelAbstractSyntaxTree optimized;
+    try {
+      optimized =
+          CelOptimizerFactory.standardCelOptimizerBuilder(cel)
+              .addAstOptimizers(
+                  InliningOptimizer.newInstance(inlined), CONSTANT_FOLDING, COMMON_SUBEXPRESSIONS)
+              .build()
+              .optimize(ast);
+    } catch (CelOptimizationException | RuntimeException e) {
+      return null;
+    }
+    // Literals that weren't folded away would be built on every evaluation, which costs more than
+    // looking the variables up.
+    if (aggregates(optimized.getExpr()) > aggregates(ast.getExpr())) {
+      return null;
+    }
+    return optimized;
+  }
+
+  /**
+   * Returns whether an expression refers to any of the given variables.
+   *
+   * @param ast The expression.
+   * @param names The names of the variables.
+   * @return true if any of the variables is referenced.
+   */
+  static boolean references(CelAbstractSyntaxTree ast, String... names) {
+    for (String name : names) {
+      if (references(ast.getExpr(), name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean references(CelExpr expr, String name) {
+    switch (expr.getKind()) {
+      case IDENT:
+        return expr.ident().name().equals(name);
+      case SELECT:
+        return references(expr.select().operand(), name);
+      case CALL:
+        if (expr.call().target().isPresent() && references(expr.call().target().get(), name)) {
+          return true;
+        }
+        return anyReferences(expr.call().args(), name);
+      case LIST:
+        return anyReferences(expr.list().elements(), name);
+      case STRUCT:
+        for (CelExpr.CelStruct.Entry entry : expr.struct().entries()) {
+          if (references(entry.value(), name)) {
+            return true;
+          }
+        }
+        return false;
+      case MAP:
+        for (CelExpr.CelMap.Entry entry : expr.map().entries()) {
+          if (references(entry.key(), name) || references(entry.value(), name)) {
+            return true;
+          }
+        }
+        return false;
+      case COMPREHENSION:
+        CelExpr.CelComprehension comprehension = expr.comprehension();
+        // Comprehension variables shadowing the name are conservatively treated as references.
+        return references(comprehension.iterRange(), name)
+            || references(comprehension.accuInit(), name)
+            || references(comprehension.loopCondition(), name)
+            || references(comprehension.loopStep(), name)
+            || references(comprehension.result(), name);
+      default:
+        return false;
+    }
+  }
+
+  private static boolean anyReferences(List<CelExpr> exprs, String name) {
+    for (CelExpr expr : exprs) {
+      if (references(expr, name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Counts the list, map and message literals of an expression. */
+  private static int aggregates(CelExpr expr) {
+    switch (expr.getKind()) {
+      case SELECT:
+        return aggregates(expr.select().operand());
+      case CALL:
+        int count = expr.call().target().isPresent() ? aggregates(expr.call().target().get()) : 0;
+        for (CelExpr arg : expr.call().args()) {
+          // The list of subexpressions of a block is never built.
+          if (expr.call().function().equals(BLOCK_FUNCTION) && arg.getKind() == Kind.LIST) {
+            count -= 1;
+          }
+          count += aggregates(arg);
+        }
+        return count;
+      case LIST:
+        count = 1;
+        for (CelExpr element : expr.list().elements()) {
+          count += aggregates(element);
+        }
+        return count;
+      case STRUCT:
+        count = 1;
+        for (CelExpr.CelStruct.Entry entry : expr.struct().entries()) {
+          count += aggregates(entry.value());
+        }
+        return count;
+      case MAP:
+        count = 1;
+        for (CelExpr.CelMap.Entry entry : expr.map().entries()) {
+          count += aggregates(entry.key()) + aggregates(entry.value());
+        }
+        return count;
+      case COMPREHENSION:
+        CelExpr.CelComprehension comprehension = expr.comprehension();
+        return aggregates(comprehension.iterRange())
+            + aggregates(comprehension.accuInit())
+            + aggregates(comprehension.loopCondition())
+            + aggregates(comprehension.loopStep())
+            + aggregates(comprehension.result());
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Builds a checked literal of a protobuf value.
+   *
+   * @param cel The environment to check the literal in.
+   * @param field The field holding the value, or null for a message.
+   * @param value The value.
+   * @return The literal, or null if the value can't be written as one.
+   */
+  private static @Nullable CelAbstractSyntaxTree literal(
+      Cel cel, @Nullable FieldDescriptor field, Object value) {
+    CelExpr expr;
+    try {
+      expr = new Literals().value(field, value);
+    } catch (Unsupported e) {
+      return null;
+    }
+    try {
+      return cel.check(CelAbstractSyntaxTree.newParsedAst(expr, CelSource.newBuilder().build()))
+          .getAst();
+    } catch (CelValidationException e) {
+      return null;
+    }
+  }
+
+  private static final class Unsupported extends Exception {
+    Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+
+  /** Builds literal expressions, numbering their nodes. */
+  private static final class Literals {
+    private long nextId = 1;
+
+    CelExpr value(@Nullable FieldDescriptor field, Object value) throws Unsupported {
+      if (field == null) {
+        return message((Message) value);
+      }
+      if (field.isMapField()) {
+        throw new Unsupported();
+      }
+      if (field.isRepeated()) {
+        List<?> values = (List<?>) value;
+        ImmutableList.Builder<CelExpr> elements = ImmutableList.builder();
+        for (Object element : values) {
+          elements.add(scalar(field, element));
+        }
+        return CelExpr.ofList(nextId++, elements.build(), ImmutableList.of());
+      }
+      return scalar(field, value);
+    }
+
+    private CelExpr scalar(FieldDescriptor field, Object value) throws Unsupported {
+      switch (field.getType()) {
+        case BOOL:
+          return constant(CelConstant.ofValue((Boolean) value));
+        case INT32:
+        case SINT32:
+        case SFIXED32:
+          return constant(CelConstant.ofValue((long) (Integer) value));
+        case INT64:
+        case SINT64:
+        case SFIXED64:
+          return constant(CelConstant.ofValue((Long) value));
+        case UINT32:
+        case FIXED32:
+          // CEL doesn't read values with the high bit set consistently, so leave them alone.
+          if ((Integer) value < 0) {
+            throw new Unsupported();
+          }
+          return constant(CelConstant.ofValue(UnsignedLong.valueOf((Integer) value)));
+        case UINT64:
+        case FIXED64:
+          return constant(CelConstant.ofValue(UnsignedLong.fromLongBits((Long) value)));
+        case FLOAT:
+          return constant(CelConstant.ofValue((double) (Float) value));
+        case DOUBLE:
+          return constant(CelConstant.ofValue((Double) value));
+        case STRING:
+          return constant(CelConstant.ofValue((String) value));
+        case BYTES:
+          return constant(
+              CelConstant.ofValue(CelByteString.of(((ByteString) value).toByteArray())));
+        case ENUM:
+          return constant(CelConstant.ofValue((long) ((EnumValueDescriptor) value).getNumber()));
+        case MESSAGE:
+          return message((Message) value);
+        default:
+          throw new Unsupported();
+      }
+    }
+
+    private CelExpr message(Message message) throws Unsupported {
+      ImmutableList.Builder<CelExpr.CelStruct.Entry> entries = ImmutableList.builder();
+      for (Map.Entry<FieldDescriptor, Object> entry : message.getAllFields().entrySet()) {
+        FieldDescriptor field = entry.getKey();
+        // Extensions can't be set in a message literal.
+        if (field.isExtension()) {
+          throw new Unsupported();
+        }
+        entries.add(
+            CelExpr.ofStructEntry(
+                nextId++, field.getName(), value(field, entry.getValue()), false));
+      }
+      return CelExpr.ofStruct(
+          nextId++, message.getDescriptorForType().getFullName(), entries.build());
+    }
+
+    private CelExpr constant(CelConstant constant) {
+      return CelExpr.ofConstant(nextId++, constant);
+    }
+  }
+}
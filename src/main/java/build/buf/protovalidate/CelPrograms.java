@@ -15,8 +15,6 @@
 package build.buf.protovalidate;
 
 import build.buf.protovalidate.exceptions.ExecutionException;
-import dev.cel.runtime.CelVariableResolver;
-import java.util.ArrayList;
 import java.util.List;
 import org.jspecify.annotations.Nullable;
 
@@ -43,20 +41,29 @@ final class CelPrograms implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
-    CelVariableResolver bindings = Variable.newThisVariable(val.value(Object.class));
-    List<RuleViolation.Builder> violations = new ArrayList<>();
-    for (CompiledProgram program : programs) {
-      RuleViolation.Builder violation = program.eval(val, bindings);
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
+    // Only the programs that weren't lowered need the CEL activation.
+    @Nullable Activation activation = null;
+    for (int i = 0; i < programs.size(); i++) {
+      CompiledProgram program = programs.get(i);
+      RuleViolation.Builder violation;
+      if (program.isLowered()) {
+        violation = program.evalLowered(val);
+      } else {
+        if (activation == null) {
+          activation = violations.activation();
+          activation.bindThis(val.value(Object.class));
+        }
+        violation = program.eval(val, activation);
+      }
       if (violation != null) {
-        violations.add(violation);
-        if (failFast) {
-          break;
+        violations.add(
+            FieldPathUtils.updatePaths(
+                violation, helper.getFieldPathElement(), helper.getRulePrefixElements()));
+        if (violations.isDone()) {
+          return;
         }
       }
     }
-    return FieldPathUtils.updatePaths(
-        violations, helper.getFieldPathElement(), helper.getRulePrefixElements());
   }
 }
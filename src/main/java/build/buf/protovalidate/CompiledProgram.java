@@ -18,7 +18,6 @@ import build.buf.protovalidate.exceptions.ExecutionException;
 import build.buf.validate.FieldPath;
 import dev.cel.runtime.CelEvaluationException;
 import dev.cel.runtime.CelRuntime.Program;
-import dev.cel.runtime.CelVariableResolver;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -39,10 +38,13 @@ final class CompiledProgram {
   @Nullable private final Value ruleValue;
 
   /**
-   * Global variables to pass to the evaluation step. Program/CelRuntime doesn't have a concept of
+   * Global variables to bind for the evaluation step. Program/CelRuntime doesn't have a concept of
    * global variables.
    */
-  @Nullable private final CelVariableResolver globals;
+  private final Activation.@Nullable Globals globals;
+
+  /** The expression lowered to Java, evaluated instead of the program if present. */
+  private final CelLowering.@Nullable Lowered lowered;
 
   /**
    * Constructs a new {@link CompiledProgram}.
@@ -57,34 +59,79 @@ final class CompiledProgram {
       Expression source,
       @Nullable FieldPath rulePath,
       @Nullable Value ruleValue,
-      @Nullable CelVariableResolver globals) {
+      Activation.@Nullable Globals globals) {
+    this(program, source, rulePath, ruleValue, globals, null);
+  }
+
+  /**
+   * Constructs a new {@link CompiledProgram} that evaluates a lowered form of its expression.
+   *
+   * @param program The compiled CEL program.
+   * @param source The original expression that was compiled into the program.
+   * @param rulePath The field path from the FieldRules to the rule value.
+   * @param ruleValue The rule value.
+   * @param globals Global variables to pass to the evaluation step.
+   * @param lowered The lowered expression, or null to evaluate the program.
+   */
+  CompiledProgram(
+      Program program,
+      Expression source,
+      @Nullable FieldPath rulePath,
+      @Nullable Value ruleValue,
+      Activation.@Nullable Globals globals,
+      CelLowering.@Nullable Lowered lowered) {
     this.program = program;
     this.source = source;
     this.rulePath = rulePath;
     this.ruleValue = ruleValue;
     this.globals = globals;
+    this.lowered = lowered;
+  }
+
+  /** Returns whether the expression is evaluated without the CEL runtime. */
+  boolean isLowered() {
+    return lowered != null;
+  }
+
+  /**
+   * Evaluate the lowered expression. Must only be called if {@link #isLowered()}.
+   *
+   * @param fieldValue Field value to evaluate against and return in violations.
+   * @return The {@link build.buf.validate.Violation} from the evaluation, or null if there are no
+   *     violations.
+   * @throws ExecutionException If the expression resolves to an unexpected type.
+   */
+  RuleViolation.@Nullable Builder evalLowered(Value fieldValue) throws ExecutionException {
+    CelLowering.Lowered lowered = this.lowered;
+    if (lowered == null) {
+      throw new IllegalStateException("expression was not lowered");
+    }
+    return toViolation(lowered.eval(fieldValue.rawValue()), fieldValue);
   }
 
   /**
-   * Evaluate the compiled program with a given set of {@link Variable} variables.
+   * Evaluate the compiled program with a given activation, binding the globals of the program.
    *
-   * @param variables Variables used for the evaluation.
    * @param fieldValue Field value to return in violations.
+   * @param activation The activation, with {@code this} bound.
    * @return The {@link build.buf.validate.Violation} from the evaluation, or null if there are no
    *     violations.
    * @throws ExecutionException If the evaluation of the CEL program fails with an error.
    */
-  RuleViolation.@Nullable Builder eval(Value fieldValue, CelVariableResolver variables)
+  RuleViolation.@Nullable Builder eval(Value fieldValue, Activation activation)
       throws ExecutionException {
     Object value;
     try {
-      if (this.globals != null) {
-        variables = CelVariableResolver.hierarchicalVariableResolver(variables, this.globals);
-      }
-      value = program.eval(variables);
+      activation.bindGlobals(globals);
+      value = program.eval(activation);
     } catch (CelEvaluationException e) {
       throw new ExecutionException(String.format("error evaluating %s: %s", source.id, e));
     }
+    return toViolation(value, fieldValue);
+  }
+
+  private RuleViolation.@Nullable Builder toViolation(Object value, Value fieldValue)
+      throws ExecutionException {
     if (value instanceof String) {
       if ("".equals(value)) {
         return null;
@@ -14,8 +14,13 @@
 
 package build.buf.protovalidate;
 
+import com.google.protobuf.Descriptors.Descriptor;
 import com.google.protobuf.ExtensionRegistry;
 import com.google.protobuf.TypeRegistry;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
 /** Config is the configuration for a Validator. */
 public final class Config {
@@ -24,22 +29,46 @@ public final class Config {
       ExtensionRegistry.getEmptyRegistry();
 
   private final boolean failFast;
+  private final int maxViolations;
   private final TypeRegistry typeRegistry;
   private final ExtensionRegistry extensionRegistry;
   private final boolean allowUnknownFields;
   private final boolean enableNativeRules;
+  private final boolean enableGeneratedAccessors;
+  private final boolean enableCelOptimization;
+  private final boolean enableMessagePrograms;
+  private final Executor compilationExecutor;
+  private final PrecompiledRules precompiledRules;
+  private final BiConsumer<Descriptor, Duration> compilationListener;
+  private final int regexCacheCapacity;
 
   private Config(
       boolean failFast,
+      int maxViolations,
       TypeRegistry typeRegistry,
       ExtensionRegistry extensionRegistry,
       boolean allowUnknownFields,
-      boolean enableNativeRules) {
+      boolean enableNativeRules,
+      boolean enableGeneratedAccessors,
+      boolean enableCelOptimization,
+      boolean enableMessagePrograms,
+      Executor compilationExecutor,
+      PrecompiledRules precompiledRules,
+      BiConsumer<Descriptor, Duration> compilationListener,
+      int regexCacheCapacity) {
     this.failFast = failFast;
+    this.maxViolations = maxViolations;
     this.typeRegistry = typeRegistry;
     this.extensionRegistry = extensionRegistry;
     this.allowUnknownFields = allowUnknownFields;
     this.enableNativeRules = enableNativeRules;
+    this.enableGeneratedAccessors = enableGeneratedAccessors;
+    this.enableCelOptimization = enableCelOptimization;
+    this.enableMessagePrograms = enableMessagePrograms;
+    this.compilationExecutor = compilationExecutor;
+    this.precompiledRules = precompiledRules;
+    this.compilationListener = compilationListener;
+    this.regexCacheCapacity = regexCacheCapacity;
   }
 
   /**
@@ -60,6 +89,16 @@ public final class Config {
     return failFast;
   }
 
+  /**
+   * Gets the maximum number of violations reported for a single message, or 0 if the number is not
+   * limited.
+   *
+   * @return the violation limit
+   */
+  public int getMaxViolations() {
+    return maxViolations;
+  }
+
   /**
    * Gets the type registry used for reparsing protobuf messages.
    *
@@ -100,14 +139,90 @@ public final class Config {
     return enableNativeRules;
   }
 
+  /**
+   * Checks whether fields of generated messages are read through generated accessors, see {@link
+   * Builder#setEnableGeneratedAccessors(boolean)}.
+   *
+   * @return true if generated accessors are enabled.
+   */
+  public boolean isGeneratedAccessorsEnabled() {
+    return enableGeneratedAccessors;
+  }
+
+  /**
+   * Checks whether CEL expressions are optimized before programs are created from them, see {@link
+   * Builder#setEnableCelOptimization(boolean)}.
+   *
+   * @return true if CEL optimization is enabled.
+   */
+  public boolean isCelOptimizationEnabled() {
+    return enableCelOptimization;
+  }
+
+  /**
+   * Checks whether the rules of each message type are lowered into a flat program, see {@link
+   * Builder#setEnableMessagePrograms(boolean)}.
+   *
+   * @return true if message programs are enabled.
+   */
+  public boolean isMessageProgramsEnabled() {
+    return enableMessagePrograms;
+  }
+
+  /**
+   * Gets the executor used by {@link Validator#validateAsync(com.google.protobuf.Message)} to
+   * compile the rules of message types that are not cached yet, and by {@link
+   * ValidatorFactory.ValidatorBuilder#buildWithDescriptors} to warm up the cache.
+   *
+   * @return the compilation executor
+   */
+  public Executor getCompilationExecutor() {
+    return compilationExecutor;
+  }
+
+  /**
+   * Gets the precompiled rules looked up before compiling CEL expressions.
+   *
+   * @return the precompiled rules
+   */
+  public PrecompiledRules getPrecompiledRules() {
+    return precompiledRules;
+  }
+
+  /**
+   * Gets the listener receiving the time spent compiling the rules of each message type.
+   *
+   * @return the compilation listener
+   */
+  public BiConsumer<Descriptor, Duration> getCompilationListener() {
+    return compilationListener;
+  }
+
+  /**
+   * Gets the maximum number of regular expressions cached by the CEL {@code matches} function.
+   *
+   * @return the regex cache capacity
+   */
+  public int getRegexCacheCapacity() {
+    return regexCacheCapacity;
+  }
+
   /** Builder for configuration. Provides a forward compatible API for users. */
   public static final class Builder {
     private boolean failFast;
+    private int maxViolations;
     private TypeRegistry typeRegistry = DEFAULT_TYPE_REGISTRY;
     private ExtensionRegistry extensionRegistry = DEFAULT_EXTENSION_REGISTRY;
     private boolean allowUnknownFields;
     // native rules are enabled by default
     private boolean enableNativeRules = true;
+    private boolean enableGeneratedAccessors;
+    private boolean enableCelOptimization;
+    private boolean enableMessagePrograms;
+    private Executor compilationExecutor = ForkJoinPool.commonPool();
+    private PrecompiledRules precompiledRules = PrecompiledRules.EMPTY;
+    private BiConsumer<Descriptor, Duration> compilationListener = (descriptor, duration) -> {};
+    private int regexCacheCapacity = RegexCache.DEFAULT_CAPACITY;
 
     private Builder() {}
 
@@ -122,6 +237,25 @@ public final class Config {
       return this;
     }
 
+    /**
+     * Set the maximum number of violations reported for a single message. Evaluation stops as soon
+     * as the limit is reached, and the result reports that it may be incomplete, see {@link
+     * ValidationResult#isTruncated()}. This bounds the work spent on messages with many invalid
+     * elements. Failing fast is equivalent to a limit of 1. Defaults to 0, which does not limit the
+     * number of violations.
+     *
+     * @param maxViolations the violation limit, or 0 for no limit
+     * @return this builder
+     * @throws IllegalArgumentException if maxViolations is negative
+     */
+    public Builder setMaxViolations(int maxViolations) {
+      if (maxViolations < 0) {
+        throw new IllegalArgumentException("maxViolations must not be negative: " + maxViolations);
+      }
+      this.maxViolations = maxViolations;
+      return this;
+    }
+
     /**
      * Set the type registry for reparsing protobuf messages. This option should be set alongside
      * setExtensionRegistry to allow dynamic resolution of predefined rule extensions. It should be
@@ -188,6 +322,133 @@ public final class Config {
       return this;
     }
 
+    /**
+     * Enables or disables generated field accessors. When enabled, the first time the rules of a
+     * message type run on a generated message class, a small class calling the class's generated
+     * getters is spun for each field with rules, so fields are read without going through
+     * protobuf's reflective {@link com.google.protobuf.Message#getField}. This trades a one-time
+     * cost per message type for faster field access; it is worth it for message types validated at
+     * high rates. Fields of other messages, such as {@link com.google.protobuf.DynamicMessage}, are
+     * read reflectively. Generated accessors are read by message programs, so enabling them also
+     * enables {@link #setEnableMessagePrograms(boolean)}. Disabled by default.
+     *
+     * @param enableGeneratedAccessors whether to enable generated accessors
+     * @return this builder
+     */
+    public Builder setEnableGeneratedAccessors(boolean enableGeneratedAccessors) {
+      this.enableGeneratedAccessors = enableGeneratedAccessors;
+      return this;
+    }
+
+    /**
+     * Enables or disables the optimization of CEL expressions. When enabled, the {@code rule} and
+     * {@code rules} values of each standard and predefined rule are inlined into its expression,
+     * which is then constant-folded, so that checks and violation messages depending only on them
+     * are computed once when the rules are compiled instead of on every evaluation. Common
+     * subexpressions of all expressions are evaluated once per evaluation. This trades a higher
+     * compilation cost, and a program per distinct rule value instead of one per rule, for faster
+     * evaluation. Expressions that can't be optimized are evaluated as written. Disabled by
+     * default.
+     *
+     * @param enableCelOptimization whether to enable CEL optimization
+     * @return this builder
+     */
+    public Builder setEnableCelOptimization(boolean enableCelOptimization) {
+      this.enableCelOptimization = enableCelOptimization;
+      return this;
+    }
+
+    /**
+     * Enables or disables message programs. When enabled, the rules of each message type are
+     * lowered into a flat array of ops run by a single loop, instead of being evaluated by walking
+     * the tree of message, field and value evaluators. Both evaluate the same rules in the same
+     * order. The program saves calls per field, which pays off on messages with many fields with
+     * rules; on others the tree walker is as fast. Disabled by default.
+     *
+     * @param enableMessagePrograms whether to enable message programs
+     * @return this builder
+     */
+    public Builder setEnableMessagePrograms(boolean enableMessagePrograms) {
+      this.enableMessagePrograms = enableMessagePrograms;
+      return this;
+    }
+
+    /**
+     * Set the executor used by {@link Validator#validateAsync(com.google.protobuf.Message)} to
+     * compile the rules of message types that are not cached yet, so that the calling thread never
+     * blocks on compilation. Validation of the message then completes on this executor as well.
+     * {@link ValidatorFactory.ValidatorBuilder#buildWithDescriptors} also compiles the given
+     * message types concurrently on this executor, alongside the calling thread, submitting no more
+     * tasks than there are processors, or threads of a {@link ForkJoinPool} or {@link
+     * java.util.concurrent.ThreadPoolExecutor}. Defaults to {@link ForkJoinPool#commonPool()}.
+     *
+     * @param compilationExecutor the executor to compile rules on
+     * @return this builder
+     */
+    public Builder setCompilationExecutor(Executor compilationExecutor) {
+      this.compilationExecutor = compilationExecutor;
+      return this;
+    }
+
+    /**
+     * Set the precompiled rules to use when building evaluators. CEL expressions found in the
+     * precompiled rules are not parsed and type-checked again, which removes most of the cost of
+     * building the evaluators of a message type; other expressions are compiled as usual. See
+     * {@link PrecompiledRules} for how to generate them at build time.
+     *
+     * <p>The validator does not compare the {@link PrecompiledRules#getSchemaHash() schema hash} of
+     * the rules with the message types it validates, as they may be generated from more message
+     * types than it is built with. Rules generated from other versions of the schemas go
+     * undetected, and expressions are evaluated as type-checked against those versions. To detect
+     * stale rules, compare their schema hash with {@link PrecompiledRules#schemaHash} of the
+     * message types they were generated from.
+     *
+     * @param precompiledRules the precompiled rules
+     * @return this builder
+     */
+    public Builder setPrecompiledRules(PrecompiledRules precompiledRules) {
+      this.precompiledRules = precompiledRules;
+      return this;
+    }
+
+    /**
+     * Set a listener receiving the time spent compiling the rules of each message type, to find the
+     * message types dominating the time spent warming up a validator. The listener is called once
+     * for every message type whose rules are compiled, from the thread compiling them, with the
+     * wall time of the compilation. Message types referenced by a compiled message type that are
+     * not compiled yet are compiled along with it, and included in its time. They are not reported
+     * separately, even if they are among the descriptors given to {@link
+     * ValidatorFactory.ValidatorBuilder#buildWithDescriptors}. Defaults to a listener that does
+     * nothing.
+     *
+     * @param compilationListener the listener
+     * @return this builder
+     */
+    public Builder setCompilationListener(BiConsumer<Descriptor, Duration> compilationListener) {
+      this.compilationListener = compilationListener;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of regular expressions cached by the CEL {@code matches} function.
+     * Patterns may come from the validated messages rather than from the rules, so the cache is
+     * bounded: when it is full, patterns that were not used since the cache last went over them are
+     * evicted first. The cache counters are available from {@link Validator#getRegexCacheStats()}.
+     * Defaults to 1024; 0 compiles patterns on every call.
+     *
+     * @param regexCacheCapacity the maximum number of cached patterns
+     * @return this builder
+     * @throws IllegalArgumentException if regexCacheCapacity is negative
+     */
+    public Builder setRegexCacheCapacity(int regexCacheCapacity) {
+      if (regexCacheCapacity < 0) {
+        throw new IllegalArgumentException(
+            "regexCacheCapacity must not be negative: " + regexCacheCapacity);
+      }
+      this.regexCacheCapacity = regexCacheCapacity;
+      return this;
+    }
+
     /**
      * Build the corresponding {@link Config}.
      *
@@ -195,7 +456,19 @@ public final class Config {
      */
     public Config build() {
       return new Config(
-          failFast, typeRegistry, extensionRegistry, allowUnknownFields, enableNativeRules);
+          failFast,
+          maxViolations,
+          typeRegistry,
+          extensionRegistry,
+          allowUnknownFields,
+          enableNativeRules,
+          enableGeneratedAccessors,
+          enableCelOptimization,
+          enableMessagePrograms,
+          compilationExecutor,
+          precompiledRules,
+          compilationListener,
+          regexCacheCapacity);
     }
   }
 }
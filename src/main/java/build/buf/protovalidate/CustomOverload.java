@@ -32,15 +32,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
 
 /** Defines custom function overloads (the implementation). */
 final class CustomOverload {
 
   // See https://html.spec.whatwg.org/multipage/input.html#valid-e-mail-address
-  private static final Pattern EMAIL_REGEX =
-      Pattern.compile(
-          "^[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]+@[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?(?:\\.[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?)*$");
+  private static final String EMAIL_LOCAL_SYMBOLS = ".!#$%&'*+/=?^_`{|}~-";
 
   /**
    * Create a list of custom function overloads.
@@ -49,8 +46,7 @@ final class CustomOverload {
    * @param celOptions CEL options the enclosing runtime is built with.
    * @return a list of overloaded functions.
    */
-  static List<CelFunctionBinding> create(
-      ConcurrentMap<String, Pattern> patternCache, CelOptions celOptions) {
+  static List<CelFunctionBinding> create(RegexCache patternCache, CelOptions celOptions) {
     ArrayList<CelFunctionBinding> bindings = new ArrayList<>();
     bindings.addAll(
         Arrays.asList(
@@ -367,8 +363,7 @@ final class CustomOverload {
 
   /** Caching replacement for CEL's global {@code matches(string, string)}. */
   @SuppressWarnings("Immutable")
-  private static CelFunctionBinding celMatches(
-      ConcurrentMap<String, Pattern> patternCache, CelOptions celOptions) {
+  private static CelFunctionBinding celMatches(RegexCache patternCache, CelOptions celOptions) {
     return CelFunctionBinding.from(
         "matches",
         String.class,
@@ -379,7 +374,7 @@ final class CustomOverload {
   /** Caching replacement for CEL's member-style {@code string.matches(string)}. */
   @SuppressWarnings("Immutable")
   private static CelFunctionBinding celMatchesString(
-      ConcurrentMap<String, Pattern> patternCache, CelOptions celOptions) {
+      RegexCache patternCache, CelOptions celOptions) {
     return CelFunctionBinding.from(
         "matches_string",
         String.class,
@@ -388,11 +383,11 @@ final class CustomOverload {
   }
 
   private static boolean matches(
-      ConcurrentMap<String, Pattern> cache, CelOptions celOptions, String value, String regex)
+      RegexCache cache, CelOptions celOptions, String value, String regex)
       throws CelEvaluationException {
     Pattern pattern;
     try {
-      pattern = cache.computeIfAbsent(regex, Pattern::compile);
+      pattern = cache.get(regex);
     } catch (PatternSyntaxException e) {
       throw new CelEvaluationException("failed to compile regex: " + e.getMessage(), e);
     }
@@ -526,7 +521,41 @@ final class CustomOverload {
    * @return {@code true} if the input string is a valid email address, {@code false} otherwise.
    */
   static boolean isEmail(String addr) {
-    return EMAIL_REGEX.matcher(addr).matches();
+    // Matches the regex of the standard without running a regex engine:
+    // ^[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]+@[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?
+    // (?:\.[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?)*$
+    int at = addr.indexOf('@');
+    if (at <= 0) {
+      return false;
+    }
+    for (int i = 0; i < at; i++) {
+      char c = addr.charAt(i);
+      if (!isAlphanumeric(c) && EMAIL_LOCAL_SYMBOLS.indexOf(c) < 0) {
+        return false;
+      }
+    }
+    int labelStart = at + 1;
+    for (int i = labelStart; ; i++) {
+      if (i == addr.length() || addr.charAt(i) == '.') {
+        int labelLength = i - labelStart;
+        if (labelLength == 0
+            || labelLength > 63
+            || addr.charAt(labelStart) == '-'
+            || addr.charAt(i - 1) == '-') {
+          return false;
+        }
+        if (i == addr.length()) {
+          return true;
+        }
+        labelStart = i + 1;
+      } else if (!isAlphanumeric(addr.charAt(i)) && addr.charAt(i) != '-') {
+        return false;
+      }
+    }
+  }
+
+  private static boolean isAlphanumeric(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
   }
 
   /**
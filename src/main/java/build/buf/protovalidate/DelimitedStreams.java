@@ -0,0 +1,147 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+
+/**
+ * {@link DelimitedStreams} validates streams of length-delimited messages, as written by {@link
+ * com.google.protobuf.MessageLite#writeDelimitedTo}, one record at a time. Only the record being
+ * validated is held in memory.
+ *
+ * <p>Records are validated with {@link Validator#validate(Descriptor, CodedInputStream)} and {@link
+ * Validator#validate(Descriptor, ByteBuffer)}, which bound the nesting depth of embedded messages,
+ * so a hostile record fails with an {@link InvalidProtocolBufferException}.
+ */
+final class DelimitedStreams {
+  /**
+   * Size of the file regions mapped at once; records larger than this are mapped whole. A mapped
+   * region is only released when its buffer is garbage collected, so this bounds the address space
+   * a validation maps per window rather than in total.
+   */
+  static final int MAPPED_WINDOW_SIZE = 64 << 20;
+
+  private static final int MAX_VARINT32_SIZE = 5;
+
+  private DelimitedStreams() {}
+
+  /**
+   * Validates the records of a stream, reading it to its end. A single {@link CodedInputStream}
+   * reads every record, so its buffer is reused across records.
+   *
+   * @param validator the validator to check every record with.
+   * @param descriptor the type of the records.
+   * @param stream the stream of records.
+   * @param results the consumer of the result of each record, in stream order.
+   * @return the number of records validated.
+   * @throws ValidationException if a record fails to validate.
+   * @throws IOException if the stream cannot be read or holds an invalid record.
+   */
+  static long validateDelimited(
+      Validator validator,
+      Descriptor descriptor,
+      InputStream stream,
+      Consumer<ValidationResult> results)
+      throws ValidationException, IOException {
+    CodedInputStream input = CodedInputStream.newInstance(stream);
+    long count = 0;
+    while (!input.isAtEnd()) {
+      int limit = input.pushLimit(input.readRawVarint32());
+      results.accept(validator.validate(descriptor, input));
+      input.skipRawBytes(input.getBytesUntilLimit());
+      input.popLimit(limit);
+      // The size limit guards single messages, not the whole stream.
+      input.resetSizeCounter();
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Validates the records of a file from the channel's position to its end, and leaves the position
+   * at the end. The file is mapped in windows of windowSize bytes.
+   *
+   * @param validator the validator to check every record with.
+   * @param descriptor the type of the records.
+   * @param channel the file of records.
+   * @param results the consumer of the result of each record, in file order.
+   * @param windowSize the size of the file regions mapped at once.
+   * @return the number of records validated.
+   * @throws ValidationException if a record fails to validate.
+   * @throws IOException if the file cannot be read or holds an invalid record.
+   */
+  static long validateDelimited(
+      Validator validator,
+      Descriptor descriptor,
+      FileChannel channel,
+      Consumer<ValidationResult> results,
+      int windowSize)
+      throws ValidationException, IOException {
+    long position = channel.position();
+    long end = channel.size();
+    long windowStart = position;
+    ByteBuffer window = ByteBuffer.allocate(0);
+    long count = 0;
+    while (position < end) {
+      int headerSize = (int) Math.min(MAX_VARINT32_SIZE, end - position);
+      if (position + headerSize > windowStart + window.limit()) {
+        window = map(channel, position, Math.max(windowSize, headerSize), end);
+        windowStart = position;
+      }
+      int offset = (int) (position - windowStart);
+      int size = 0;
+      int header = 0;
+      while (true) {
+        if (header == headerSize) {
+          throw new InvalidProtocolBufferException("Truncated or malformed record length.");
+        }
+        byte b = window.get(offset + header++);
+        size |= (b & 0x7f) << (7 * (header - 1));
+        if (b >= 0) {
+          break;
+        }
+      }
+      if (size < 0 || position + header + size > end) {
+        throw new InvalidProtocolBufferException("Record extends past the end of the file.");
+      }
+      if (position + header + size > windowStart + window.limit()) {
+        window = map(channel, position, Math.max(windowSize, (long) header + size), end);
+        windowStart = position;
+        offset = 0;
+      }
+      ByteBuffer record = window.duplicate();
+      record.limit(offset + header + size);
+      record.position(offset + header);
+      results.accept(validator.validate(descriptor, record));
+      position += header + size;
+      count++;
+    }
+    channel.position(position);
+    return count;
+  }
+
+  private static ByteBuffer map(FileChannel channel, long position, long size, long end)
+      throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size, end - position));
+  }
+}
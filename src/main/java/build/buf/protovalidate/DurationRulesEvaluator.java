@@ -0,0 +1,392 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.protovalidate.NumericRulesEvaluator.LowerBound;
+import build.buf.protovalidate.NumericRulesEvaluator.UpperBound;
+import build.buf.validate.DurationRules;
+import build.buf.validate.FieldRules;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Duration;
+import com.google.protobuf.Message;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Native evaluator for the standard {@code google.protobuf.Duration} rules ({@code const}, {@code
+ * lt}, {@code lte}, {@code gt}, {@code gte}, {@code in} and {@code not_in}). Values are compared as
+ * seconds and nanos, without converting them to CEL values, and {@code in}/{@code not_in} look the
+ * value up in a {@link DurationSet}.
+ *
+ * <p>Ranges follow {@link NumericRulesEvaluator}: a lower bound above the upper bound means the
+ * value must lie outside of the range, and both bounds are reported under a combined rule id.
+ */
+final class DurationRulesEvaluator implements Evaluator {
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private static final FieldDescriptor DURATION_RULES_DESC =
+      FieldRules.getDescriptor().findFieldByNumber(FieldRules.DURATION_FIELD_NUMBER);
+
+  private static final RuleSite CONST_SITE =
+      site(DurationRules.CONST_FIELD_NUMBER, "duration.const");
+  private static final RuleSite LT_SITE = site(DurationRules.LT_FIELD_NUMBER, null);
+  private static final RuleSite LTE_SITE = site(DurationRules.LTE_FIELD_NUMBER, null);
+  private static final RuleSite GT_SITE = site(DurationRules.GT_FIELD_NUMBER, null);
+  private static final RuleSite GTE_SITE = site(DurationRules.GTE_FIELD_NUMBER, null);
+  private static final RuleSite IN_SITE = site(DurationRules.IN_FIELD_NUMBER, "duration.in");
+  private static final RuleSite NOT_IN_SITE =
+      site(DurationRules.NOT_IN_FIELD_NUMBER, "duration.not_in");
+
+  private static RuleSite site(int fieldNumber, @Nullable String ruleId) {
+    FieldDescriptor leaf = DurationRules.getDescriptor().findFieldByNumber(fieldNumber);
+    return RuleSite.of(DURATION_RULES_DESC, leaf, ruleId, null);
+  }
+
+  private final RuleBase base;
+  private final @Nullable Duration constVal;
+
+  /** The lower bound, or the default instance without one. */
+  private final Duration loVal;
+
+  private final LowerBound lowerKind;
+
+  /** The upper bound, or the default instance without one. */
+  private final Duration hiVal;
+
+  private final UpperBound upperKind;
+  private final List<Duration> inVals;
+  private final @Nullable DurationSet inSet;
+  private final List<Duration> notInVals;
+  private final @Nullable DurationSet notInSet;
+
+  private DurationRulesEvaluator(
+      RuleBase base,
+      @Nullable Duration constVal,
+      Duration loVal,
+      LowerBound lowerKind,
+      Duration hiVal,
+      UpperBound upperKind,
+      List<Duration> inVals,
+      List<Duration> notInVals) {
+    this.base = base;
+    this.constVal = constVal;
+    this.loVal = loVal;
+    this.lowerKind = lowerKind;
+    this.hiVal = hiVal;
+    this.upperKind = upperKind;
+    this.inVals = inVals;
+    this.inSet = inVals.isEmpty() ? null : new DurationSet(inVals);
+    this.notInVals = notInVals;
+    this.notInSet = notInVals.isEmpty() ? null : new DurationSet(notInVals);
+  }
+
+  /**
+   * Attempts to build a {@link DurationRulesEvaluator} for the duration sub-rules on the given
+   * {@code FieldRules.Builder}. Returns null if the rules aren't natively handleable (no duration
+   * oneof case set, no covered rule set, or unknown fields present); on success, clears the covered
+   * rules on the builder so CEL won't recompile them.
+   */
+  static @Nullable Evaluator tryBuild(RuleBase base, FieldRules.Builder rulesBuilder) {
+    if (!rulesBuilder.hasDuration()) {
+      return null;
+    }
+    DurationRules rules = rulesBuilder.getDuration();
+    if (!rules.getUnknownFields().isEmpty()) {
+      return null;
+    }
+    DurationRules.Builder residual = rules.toBuilder();
+    boolean hasRule = false;
+
+    Duration constVal = null;
+    if (rules.hasConst()) {
+      constVal = rules.getConst();
+      residual.clearConst();
+      hasRule = true;
+    }
+
+    Duration loVal = Duration.getDefaultInstance();
+    LowerBound lowerKind = LowerBound.NONE;
+    if (rules.hasGt()) {
+      loVal = rules.getGt();
+      lowerKind = LowerBound.GT;
+      residual.clearGt();
+      hasRule = true;
+    } else if (rules.hasGte()) {
+      loVal = rules.getGte();
+      lowerKind = LowerBound.GTE;
+      residual.clearGte();
+      hasRule = true;
+    }
+
+    Duration hiVal = Duration.getDefaultInstance();
+    UpperBound upperKind = UpperBound.NONE;
+    if (rules.hasLt()) {
+      hiVal = rules.getLt();
+      upperKind = UpperBound.LT;
+      residual.clearLt();
+      hasRule = true;
+    } else if (rules.hasLte()) {
+      hiVal = rules.getLte();
+      upperKind = UpperBound.LTE;
+      residual.clearLte();
+      hasRule = true;
+    }
+
+    List<Duration> inVals = rules.getInList();
+    if (!inVals.isEmpty()) {
+      residual.clearIn();
+      hasRule = true;
+    }
+
+    List<Duration> notInVals = rules.getNotInList();
+    if (!notInVals.isEmpty()) {
+      residual.clearNotIn();
+      hasRule = true;
+    }
+
+    if (!hasRule) {
+      return null;
+    }
+    rulesBuilder.setDuration(residual.build());
+    return new DurationRulesEvaluator(
+        base, constVal, loVal, lowerKind, hiVal, upperKind, inVals, notInVals);
+  }
+
+  @Override
+  public boolean tautology() {
+    return false;
+  }
+
+  @Override
+  public void evaluate(Value val, ViolationSink violations) {
+    Message message = val.messageValue();
+    if (message == null) {
+      return;
+    }
+    long seconds;
+    int nanos;
+    if (message instanceof Duration) {
+      Duration duration = (Duration) message;
+      seconds = duration.getSeconds();
+      nanos = duration.getNanos();
+    } else {
+      // A dynamic message of the same type.
+      Descriptor descriptor = message.getDescriptorForType();
+      seconds = (Long) message.getField(descriptor.findFieldByNumber(1));
+      nanos = (Integer) message.getField(descriptor.findFieldByNumber(2));
+    }
+    // Normalize like java.time.Duration#ofSeconds, which CEL compares.
+    seconds += Math.floorDiv(nanos, (int) NANOS_PER_SECOND);
+    nanos = Math.floorMod(nanos, (int) NANOS_PER_SECOND);
+
+    if (constVal != null && compare(seconds, nanos, constVal) != 0) {
+      base.add(
+          violations,
+          NativeViolations.newCelViolation(
+              CONST_SITE, null, "must equal " + Format.formatDuration(constVal), val, constVal));
+      if (violations.isDone()) {
+        return;
+      }
+    }
+
+    if (lowerKind != LowerBound.NONE || upperKind != UpperBound.NONE) {
+      RuleViolation.Builder rangeViolation = buildRangeViolation(val, seconds, nanos);
+      if (rangeViolation != null) {
+        base.add(violations, rangeViolation);
+        if (violations.isDone()) {
+          return;
+        }
+      }
+    }
+
+    if (inSet != null && !inSet.contains(seconds, nanos)) {
+      base.add(
+          violations,
+          NativeViolations.newCelViolation(
+              IN_SITE,
+              null,
+              "must be in list " + RuleBase.formatList(inVals, Format::formatDuration),
+              val,
+              inVals));
+      if (violations.isDone()) {
+        return;
+      }
+    }
+
+    if (notInSet != null && notInSet.contains(seconds, nanos)) {
+      base.add(
+          violations,
+          NativeViolations.newCelViolation(
+              NOT_IN_SITE,
+              null,
+              "must not be in list " + RuleBase.formatList(notInVals, Format::formatDuration),
+              val,
+              notInVals));
+    }
+  }
+
+  /**
+   * Builds a violation for the lower/upper bound check, or returns null if the value is in range.
+   * Mirrors {@code NumericRulesEvaluator#buildRangeViolation}.
+   */
+  private RuleViolation.@Nullable Builder buildRangeViolation(Value val, long seconds, int nanos) {
+    if (lowerKind == LowerBound.NONE) {
+      if (aboveHi(seconds, nanos)) {
+        return NativeViolations.newCelViolation(
+            hiSite(), gtltRule(), "must be " + hiMessage(), val, hiVal);
+      }
+      return null;
+    }
+    if (upperKind == UpperBound.NONE) {
+      if (belowLo(seconds, nanos)) {
+        return NativeViolations.newCelViolation(
+            loSite(), gtltRule(), "must be " + loMessage(), val, loVal);
+      }
+      return null;
+    }
+    boolean failure;
+    if (isNormalRange()) {
+      failure = aboveHi(seconds, nanos) || belowLo(seconds, nanos);
+    } else {
+      failure = aboveHi(seconds, nanos) && belowLo(seconds, nanos);
+    }
+    if (failure) {
+      String message = "must be " + loMessage() + " " + conjunction() + " " + hiMessage();
+      return NativeViolations.newCelViolation(loSite(), gtltRule(), message, val, loVal);
+    }
+    return null;
+  }
+
+  // --- Comparison helpers ---
+
+  private boolean belowLo(long seconds, int nanos) {
+    int cmp = compare(seconds, nanos, loVal);
+    return lowerKind == LowerBound.GT ? cmp <= 0 : cmp < 0;
+  }
+
+  private boolean aboveHi(long seconds, int nanos) {
+    int cmp = compare(seconds, nanos, hiVal);
+    return upperKind == UpperBound.LT ? cmp >= 0 : cmp > 0;
+  }
+
+  private boolean isNormalRange() {
+    return compare(hiVal.getSeconds(), hiVal.getNanos(), loVal) >= 0;
+  }
+
+  private static int compare(long seconds, int nanos, Duration bound) {
+    long boundNanos = bound.getNanos();
+    long boundSeconds = bound.getSeconds() + Math.floorDiv(boundNanos, NANOS_PER_SECOND);
+    int cmp = Long.compare(seconds, boundSeconds);
+    return cmp != 0 ? cmp : Long.compare(nanos, Math.floorMod(boundNanos, NANOS_PER_SECOND));
+  }
+
+  // --- Rule-id and message helpers (mirror NumericRulesEvaluator) ---
+
+  private RuleSite loSite() {
+    return lowerKind == LowerBound.GT ? GT_SITE : GTE_SITE;
+  }
+
+  private RuleSite hiSite() {
+    return upperKind == UpperBound.LT ? LT_SITE : LTE_SITE;
+  }
+
+  /** Combined rule id, e.g. {@code duration.gt_lt_exclusive}. */
+  private String gtltRule() {
+    String lt = upperKind == UpperBound.LT ? "lt" : "lte";
+    if (lowerKind == LowerBound.NONE) {
+      return "duration." + lt;
+    }
+    String gt = lowerKind == LowerBound.GT ? "duration.gt" : "duration.gte";
+    if (upperKind == UpperBound.NONE) {
+      return gt;
+    }
+    return gt + "_" + lt + (isNormalRange() ? "" : "_exclusive");
+  }
+
+  private String loMessage() {
+    String formatted = Format.formatDuration(loVal);
+    return lowerKind == LowerBound.GT
+        ? "greater than " + formatted
+        : "greater than or equal to " + formatted;
+  }
+
+  private String hiMessage() {
+    String formatted = Format.formatDuration(hiVal);
+    return upperKind == UpperBound.LT
+        ? "less than " + formatted
+        : "less than or equal to " + formatted;
+  }
+
+  private String conjunction() {
+    return isNormalRange() ? "and" : "or";
+  }
+
+  /**
+   * An open-addressing hash set of normalized durations, keyed by seconds and nanos in parallel
+   * arrays so that lookups neither box nor allocate.
+   */
+  static final class DurationSet {
+    private final long[] seconds;
+    private final int[] nanos;
+    private final boolean[] used;
+    private final int mask;
+
+    DurationSet(List<Duration> vals) {
+      int capacity = Integer.highestOneBit(Math.max(vals.size(), 1) * 2 - 1) << 1;
+      seconds = new long[capacity];
+      nanos = new int[capacity];
+      used = new boolean[capacity];
+      mask = capacity - 1;
+      for (Duration val : vals) {
+        long valNanos = val.getNanos();
+        add(
+            val.getSeconds() + Math.floorDiv(valNanos, NANOS_PER_SECOND),
+            (int) Math.floorMod(valNanos, NANOS_PER_SECOND));
+      }
+    }
+
+    private void add(long sec, int nano) {
+      int slot = slot(sec, nano);
+      while (used[slot]) {
+        if (seconds[slot] == sec && nanos[slot] == nano) {
+          return;
+        }
+        slot = (slot + 1) & mask;
+      }
+      used[slot] = true;
+      seconds[slot] = sec;
+      nanos[slot] = nano;
+    }
+
+    /** Returns whether the set contains the normalized duration {@code sec}, {@code nano}. */
+    boolean contains(long sec, int nano) {
+      int slot = slot(sec, nano);
+      while (used[slot]) {
+        if (seconds[slot] == sec && nanos[slot] == nano) {
+          return true;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return false;
+    }
+
+    private int slot(long sec, int nano) {
+      long hash = (sec * 0x9E3779B97F4A7C15L) ^ nano;
+      hash ^= hash >>> 32;
+      return (int) (hash ^ (hash >>> 16)) & mask;
+    }
+  }
+}
@@ -16,7 +16,6 @@ package build.buf.protovalidate;
 
 import build.buf.protovalidate.exceptions.ExecutionException;
 import java.util.Collections;
-import java.util.List;
 
 final class EmbeddedMessageEvaluator implements Evaluator {
   private final RuleViolationHelper helper;
@@ -33,11 +32,9 @@ final class EmbeddedMessageEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
-    return FieldPathUtils.updatePaths(
-        messageEvaluator.evaluate(val, failFast),
-        helper.getFieldPathElement(),
-        Collections.emptyList());
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
+    int start = violations.size();
+    messageEvaluator.evaluate(val, violations);
+    violations.updatePaths(start, helper.getFieldPathElement(), Collections.emptyList());
   }
 }
@@ -19,10 +19,7 @@ import build.buf.validate.EnumRules;
 import build.buf.validate.FieldPath;
 import build.buf.validate.FieldRules;
 import com.google.protobuf.Descriptors;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * {@link EnumEvaluator} checks an enum value being a member of the defined values exclusively. This
@@ -32,7 +29,7 @@ final class EnumEvaluator implements Evaluator {
   private final RuleViolationHelper helper;
 
   /** Captures all the defined values for this enum */
-  private final Set<Long> values;
+  private final LongSet values;
 
   private static final Descriptors.FieldDescriptor DEFINED_ONLY_DESCRIPTOR =
       EnumRules.getDescriptor().findFieldByNumber(EnumRules.DEFINED_ONLY_FIELD_NUMBER);
@@ -53,12 +50,11 @@ final class EnumEvaluator implements Evaluator {
   EnumEvaluator(
       ValueEvaluator valueEvaluator, List<Descriptors.EnumValueDescriptor> valueDescriptors) {
     this.helper = new RuleViolationHelper(valueEvaluator);
-    if (valueDescriptors.isEmpty()) {
-      this.values = Collections.emptySet();
-    } else {
-      this.values =
-          valueDescriptors.stream().map(it -> (long) it.getNumber()).collect(Collectors.toSet());
+    long[] numbers = new long[valueDescriptors.size()];
+    for (int i = 0; i < numbers.length; i++) {
+      numbers[i] = valueDescriptors.get(i).getNumber();
     }
+    this.values = LongSet.of(numbers);
   }
 
   @Override
@@ -75,14 +71,13 @@ final class EnumEvaluator implements Evaluator {
    * @throws ExecutionException if an error occurs during the evaluation.
    */
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
     Object enumValue = val.value(Object.class);
     if (enumValue == null) {
-      return RuleViolation.NO_VIOLATIONS;
+      return;
     }
-    if (!values.contains(enumValue)) {
-      return Collections.singletonList(
+    if (!(enumValue instanceof Long) || !values.contains((Long) enumValue)) {
+      violations.add(
           RuleViolation.newBuilder()
               .addAllRulePathElements(helper.getRulePrefixElements())
               .addAllRulePathElements(DEFINED_ONLY_RULE_PATH.getElementsList())
@@ -92,6 +87,5 @@ final class EnumEvaluator implements Evaluator {
               .setFieldValue(new RuleViolation.FieldValue(val))
               .setRuleValue(new RuleViolation.FieldValue(true, DEFINED_ONLY_DESCRIPTOR)));
     }
-    return RuleViolation.NO_VIOLATIONS;
   }
 }
@@ -44,14 +44,18 @@ final class EnumRulesEvaluator implements Evaluator {
   private final RuleBase base;
   private final @Nullable Integer constVal;
   private final List<Integer> inVals;
+  private final LongSet inSet;
   private final List<Integer> notInVals;
+  private final LongSet notInSet;
 
   private EnumRulesEvaluator(
       RuleBase base, @Nullable Integer constVal, List<Integer> inVals, List<Integer> notInVals) {
     this.base = base;
     this.constVal = constVal;
     this.inVals = inVals;
+    this.inSet = membershipSet(inVals);
     this.notInVals = notInVals;
+    this.notInSet = membershipSet(notInVals);
   }
 
   /**
@@ -106,30 +110,29 @@ final class EnumRulesEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast) {
+  public void evaluate(Value val, ViolationSink violations) {
     int actual = enumNumber(val.rawValue());
-    List<RuleViolation.Builder> violations = null;
 
     if (constVal != null && actual != constVal) {
       RuleViolation.Builder b =
           NativeViolations.newViolation(CONST_SITE, null, "must equal " + constVal, val, constVal);
-      violations = RuleBase.add(violations, b);
-      if (failFast) {
-        return base.done(violations);
+      base.add(violations, b);
+      if (violations.isDone()) {
+        return;
       }
     }
 
-    if (!inVals.isEmpty() && !inVals.contains(actual)) {
+    if (!inVals.isEmpty() && !inSet.contains(actual)) {
       RuleViolation.Builder b =
           NativeViolations.newViolation(
               IN_SITE, null, "must be in list " + RuleBase.formatList(inVals), val, inVals);
-      violations = RuleBase.add(violations, b);
-      if (failFast) {
-        return base.done(violations);
+      base.add(violations, b);
+      if (violations.isDone()) {
+        return;
       }
     }
 
-    if (!notInVals.isEmpty() && notInVals.contains(actual)) {
+    if (!notInVals.isEmpty() && notInSet.contains(actual)) {
       RuleViolation.Builder b =
           NativeViolations.newViolation(
               NOT_IN_SITE,
@@ -137,13 +140,20 @@ final class EnumRulesEvaluator implements Evaluator {
               "must not be in list " + RuleBase.formatList(notInVals),
               val,
               notInVals);
-      violations = RuleBase.add(violations, b);
-      if (failFast) {
-        return base.done(violations);
+      base.add(violations, b);
+      if (violations.isDone()) {
+        return;
       }
     }
+  }
 
-    return base.done(violations);
+  /** Builds the set of enum numbers of {@code in} or {@code not_in} values. */
+  private static LongSet membershipSet(List<Integer> vals) {
+    long[] keys = new long[vals.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = vals.get(i);
+    }
+    return LongSet.of(keys);
   }
 
   /**
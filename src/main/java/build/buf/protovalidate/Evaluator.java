@@ -15,7 +15,6 @@
 package build.buf.protovalidate;
 
 import build.buf.protovalidate.exceptions.ExecutionException;
-import java.util.List;
 
 /**
  * {@link Evaluator} defines a validation evaluator. evaluator implementations may elide type
@@ -30,13 +29,13 @@ interface Evaluator {
   boolean tautology();
 
   /**
-   * Checks that the provided val is valid. Unless failFast is true, evaluation attempts to find all
-   * {@link RuleViolation} present in val instead of returning only the first {@link RuleViolation}.
+   * Checks that the provided val is valid. Every {@link RuleViolation} found is added to
+   * violations, with its paths relative to val. Evaluation returns early once {@link
+   * ViolationSink#isDone()} reports that no further violations are wanted.
    *
    * @param val The value to validate.
-   * @param failFast If true, validation stops after the first failure.
-   * @return The result of validation on the specified value.
+   * @param violations The sink receiving the violations found.
    * @throws ExecutionException If evaluation fails to complete.
    */
-  List<RuleViolation.Builder> evaluate(Value val, boolean failFast) throws ExecutionException;
+  void evaluate(Value val, ViolationSink violations) throws ExecutionException;
 }
@@ -30,18 +30,29 @@ import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import dev.cel.bundle.Cel;
-import dev.cel.bundle.CelBuilder;
+import dev.cel.common.CelAbstractSyntaxTree;
+import dev.cel.common.types.CelType;
 import dev.cel.common.types.StructTypeReference;
 import dev.cel.common.values.CelByteString;
 import dev.cel.runtime.CelEvaluationException;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jspecify.annotations.Nullable;
@@ -56,13 +67,26 @@ final class EvaluatorBuilder {
       FieldPathUtils.fieldPathElement(
           FieldRules.getDescriptor().findFieldByNumber(FieldRules.CEL_EXPRESSION_FIELD_NUMBER));
 
-  private volatile Map<Descriptor, MessageEvaluator> evaluatorCache = Collections.emptyMap();
+  /** Fully built evaluators. Entries are never replaced once published. */
+  private final ConcurrentMap<Descriptor, MessageEvaluator> evaluatorCache =
+      new ConcurrentHashMap<>();
 
-  private final Cel cel;
+  /** Builds in progress, keyed by the root descriptor being built. */
+  private final ConcurrentMap<Descriptor, CompletableFuture<MessageEvaluator>> inFlight =
+      new ConcurrentHashMap<>();
+
+  private final CelEnvironments environments;
   private final boolean disableLazy;
   private final boolean enableNativeRules;
+  private final boolean compilePrograms;
+  private final boolean generateAccessors;
+  private final boolean optimizeCel;
+  private final PrecompiledRules precompiled;
   private final RuleCache rules;
 
+  /** Receives the time spent building the evaluators of each descriptor built. */
+  private final BiConsumer<Descriptor, Duration> compilationListener;
+
   /**
    * Constructs a new {@link EvaluatorBuilder}.
    *
@@ -70,14 +94,33 @@ final class EvaluatorBuilder {
    * @param config The configuration to use for the evaluation.
    */
   EvaluatorBuilder(Cel cel, Config config) {
-    this(cel, config, false);
+    this(cel, config, config.getPrecompiledRules(), false);
+  }
+
+  /**
+   * Constructs a new {@link EvaluatorBuilder} looking expressions up in the given precompiled rules
+   * instead of those of the configuration.
+   *
+   * @param cel The CEL environment for evaluation.
+   * @param config The configuration to use for the evaluation.
+   * @param precompiled The precompiled rules.
+   */
+  EvaluatorBuilder(Cel cel, Config config, PrecompiledRules precompiled) {
+    this(cel, config, precompiled, false);
   }
 
-  private EvaluatorBuilder(Cel cel, Config config, boolean disableLazy) {
-    this.cel = cel;
+  private EvaluatorBuilder(
+      Cel cel, Config config, PrecompiledRules precompiled, boolean disableLazy) {
+    this.environments = new CelEnvironments(cel);
     this.disableLazy = disableLazy;
     this.enableNativeRules = config.isNativeRulesEnabled();
-    this.rules = new RuleCache(cel, config);
+    this.generateAccessors = config.isGeneratedAccessorsEnabled();
+    // Generated accessors are only read by message programs.
+    this.compilePrograms = config.isMessageProgramsEnabled() || generateAccessors;
+    this.optimizeCel = config.isCelOptimizationEnabled();
+    this.precompiled = precompiled;
+    this.rules = new RuleCache(environments, config, precompiled);
+    this.compilationListener = config.getCompilationListener();
   }
 
   /**
@@ -91,11 +134,105 @@ final class EvaluatorBuilder {
    */
   EvaluatorBuilder(Cel cel, Config config, List<Descriptor> descriptors, boolean disableLazy)
       throws CompilationException {
-    this(cel, config, disableLazy);
+    this(cel, config, config.getPrecompiledRules(), descriptors, disableLazy);
+  }
+
+  /**
+   * Constructs a new {@link EvaluatorBuilder} looking expressions up in the given precompiled rules
+   * instead of those of the configuration. The descriptors are built concurrently on the
+   * configuration's compilation executor, see {@link #buildAll}.
+   *
+   * @param cel The CEL environment for evaluation.
+   * @param config The configuration to use for the evaluation.
+   * @param precompiled The precompiled rules.
+   * @param descriptors The descriptors to build evaluators for. Must be non-null.
+   * @param disableLazy If true, the builder will not cache evaluators for descriptors that are not
+   * @throws CompilationException If an evaluator can't be built for a descriptor.
+   */
+  EvaluatorBuilder(
+      Cel cel,
+      Config config,
+      PrecompiledRules precompiled,
+      List<Descriptor> descriptors,
+      boolean disableLazy)
+      throws CompilationException {
+    this(cel, config, precompiled, disableLazy);
     Objects.requireNonNull(descriptors, "descriptors must not be null");
-    for (Descriptor descriptor : descriptors) {
-      this.build(descriptor);
+    buildAll(descriptors, config.getCompilationExecutor());
+  }
+
+  /**
+   * Builds the evaluators of descriptors concurrently. The calling thread builds descriptors too,
+   * and only descriptors not yet claimed by a task of the executor, so building completes even if
+   * the executor never runs the tasks. Descriptors referencing each other share their builds, see
+   * {@link #build}.
+   *
+   * @param descriptors The descriptors to build evaluators for.
+   * @param executor The executor to build on, in addition to the calling thread.
+   * @throws CompilationException If an evaluator can't be built for a descriptor. If several fail,
+   *     the exception of the first one in list order is thrown.
+   */
+  private void buildAll(List<Descriptor> descriptors, Executor executor)
+      throws CompilationException {
+    int size = descriptors.size();
+    List<CompletableFuture<Void>> builds = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      builds.add(new CompletableFuture<>());
+    }
+    AtomicInteger next = new AtomicInteger();
+    Runnable worker =
+        () -> {
+          for (int i = next.getAndIncrement(); i < size; i = next.getAndIncrement()) {
+            try {
+              build(descriptors.get(i));
+              builds.get(i).complete(null);
+            } catch (Throwable t) {
+              // Complete on errors too, or the constructor waits for this build forever.
+              builds.get(i).completeExceptionally(t);
+            }
+          }
+        };
+    int workers = Math.min(size - 1, parallelism(executor)); // Plus the calling thread.
+    try {
+      for (int i = 0; i < workers; i++) {
+        executor.execute(worker);
+      }
+    } catch (RejectedExecutionException e) {
+      // Build the remaining descriptors on the calling thread.
+    }
+    worker.run();
+    for (CompletableFuture<Void> build : builds) {
+      try {
+        build.join();
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CompilationException) {
+          throw (CompilationException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of tasks worth submitting to an executor besides the calling thread: one
+   * less than the number of processors, and no more than the threads of a {@link ForkJoinPool} or
+   * {@link ThreadPoolExecutor}, whose extra tasks would only queue.
+   */
+  private static int parallelism(Executor executor) {
+    int parallelism = Runtime.getRuntime().availableProcessors() - 1;
+    if (executor instanceof ForkJoinPool) {
+      parallelism = Math.min(parallelism, ((ForkJoinPool) executor).getParallelism());
+    } else if (executor instanceof ThreadPoolExecutor) {
+      parallelism = Math.min(parallelism, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
     }
+    return parallelism;
   }
 
   /**
@@ -114,68 +251,150 @@ final class EvaluatorBuilder {
     return build(desc);
   }
 
+  /**
+   * Returns a pre-cached {@link Evaluator} for the given descriptor without building it. If the
+   * descriptor is unknown, returns null, or an evaluator that always throws a {@link
+   * CompilationException} when lazy loading is disabled.
+   *
+   * @param desc Protobuf descriptor type.
+   * @return An evaluator for the descriptor type, or null if it has to be built first.
+   */
+  @Nullable Evaluator loadCached(Descriptor desc) {
+    Evaluator evaluator = evaluatorCache.get(desc);
+    if (evaluator == null && disableLazy) {
+      return new UnknownDescriptorEvaluator(desc);
+    }
+    return evaluator;
+  }
+
   /**
    * Either returns a memoized {@link Evaluator} for the given descriptor, or lazily constructs a
-   * new one.
+   * new one. Concurrent builds of the same descriptor wait for a single build; builds of unrelated
+   * descriptors run in parallel.
    */
   private Evaluator build(Descriptor desc) throws CompilationException {
-    Evaluator eval = evaluatorCache.get(desc);
+    MessageEvaluator eval = evaluatorCache.get(desc);
     if (eval != null) {
       return eval;
     }
-    synchronized (this) {
-      // Check again (we may have lost race with another thread which populated the map with this
-      // descriptor).
+    CompletableFuture<MessageEvaluator> pending = new CompletableFuture<>();
+    CompletableFuture<MessageEvaluator> existing = inFlight.putIfAbsent(desc, pending);
+    if (existing != null) {
+      return await(existing);
+    }
+    try {
+      // Check again (another thread may have published this descriptor before we registered our
+      // build).
       eval = evaluatorCache.get(desc);
-      if (eval != null) {
-        return eval;
-      }
-      // Rebuild cache with this descriptor (and any of its dependencies).
-      Map<Descriptor, MessageEvaluator> updatedCache =
-          new DescriptorCacheBuilder(cel, rules, enableNativeRules, evaluatorCache).build(desc);
-      evaluatorCache = updatedCache;
-      eval = updatedCache.get(desc);
       if (eval == null) {
-        throw new IllegalStateException(
-            "updated cache missing evaluator for descriptor - should not happen");
+        long start = System.nanoTime();
+        eval =
+            new DescriptorCacheBuilder(
+                    environments,
+                    rules,
+                    precompiled,
+                    enableNativeRules,
+                    compilePrograms,
+                    generateAccessors,
+                    optimizeCel,
+                    evaluatorCache)
+                .build(desc);
+        compilationListener.accept(desc, Duration.ofNanos(System.nanoTime() - start));
       }
+      pending.complete(eval);
+      return eval;
+    } catch (Throwable t) {
+      // Complete on errors too, such as a StackOverflowError, or threads awaiting the build hang.
+      pending.completeExceptionally(t);
+      throw t;
+    } finally {
+      inFlight.remove(desc, pending);
+    }
+  }
+
+  private static MessageEvaluator await(CompletableFuture<MessageEvaluator> pending)
+      throws CompilationException {
+    try {
+      return pending.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof CompilationException) {
+        throw (CompilationException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
     }
-    return eval;
   }
 
   private static class DescriptorCacheBuilder {
     private final RuleResolver resolver = new RuleResolver();
-    private final Cel cel;
+    private final CelEnvironments environments;
     private final RuleCache ruleCache;
+    private final PrecompiledRules precompiled;
     private final boolean enableNativeRules;
-    private final HashMap<Descriptor, MessageEvaluator> cache;
+    private final boolean compilePrograms;
+    private final boolean generateAccessors;
+    private final boolean optimizeCel;
+    private final Map<Descriptor, MessageEvaluator> published;
+    private final HashMap<Descriptor, MessageEvaluator> cache = new HashMap<>();
 
     private DescriptorCacheBuilder(
-        Cel cel,
+        CelEnvironments environments,
         RuleCache ruleCache,
+        PrecompiledRules precompiled,
         boolean enableNativeRules,
-        Map<Descriptor, MessageEvaluator> previousCache) {
-      this.cel = Objects.requireNonNull(cel, "cel");
+        boolean compilePrograms,
+        boolean generateAccessors,
+        boolean optimizeCel,
+        Map<Descriptor, MessageEvaluator> published) {
+      this.environments = Objects.requireNonNull(environments, "environments");
       this.ruleCache = Objects.requireNonNull(ruleCache, "ruleCache");
+      this.precompiled = precompiled;
       this.enableNativeRules = enableNativeRules;
-      this.cache = new HashMap<>(previousCache);
+      this.compilePrograms = compilePrograms;
+      this.generateAccessors = generateAccessors;
+      this.optimizeCel = optimizeCel;
+      this.published = published;
     }
 
     /**
-     * Creates an immutable cache containing the descriptor (and any other descriptors it
-     * references).
+     * Builds the evaluator for the descriptor (and any other descriptors it references that are not
+     * published yet), lowers each of them into a {@link MessageProgram} if message programs are
+     * enabled, then publishes all of them at once. Evaluators are only published once fully built,
+     * so readers of the published map never observe a partially built evaluator.
      *
      * @param descriptor Descriptor used to build the cache.
-     * @return Unmodifiable map of descriptors to evaluators.
+     * @return The published evaluator for the descriptor.
      * @throws CompilationException If an error occurs compiling a rule on the cache.
      */
-    Map<Descriptor, MessageEvaluator> build(Descriptor descriptor) throws CompilationException {
-      createMessageEvaluator(descriptor);
-      return Collections.unmodifiableMap(cache);
+    MessageEvaluator build(Descriptor descriptor) throws CompilationException {
+      MessageEvaluator eval = createMessageEvaluator(descriptor);
+      if (compilePrograms) {
+        for (MessageEvaluator built : cache.values()) {
+          built.compile(generateAccessors);
+        }
+      }
+      for (Map.Entry<Descriptor, MessageEvaluator> entry : cache.entrySet()) {
+        MessageEvaluator previous = published.putIfAbsent(entry.getKey(), entry.getValue());
+        if (previous != null && entry.getKey() == descriptor) {
+          // Lost a race with a concurrent build of another descriptor referencing this one.
+          eval = previous;
+        }
+      }
+      return eval;
     }
 
     private MessageEvaluator createMessageEvaluator(Descriptor desc) throws CompilationException {
-      MessageEvaluator eval = cache.get(desc);
+      MessageEvaluator eval = published.get(desc);
+      if (eval != null) {
+        return eval;
+      }
+      eval = cache.get(desc);
       if (eval != null) {
         return eval;
       }
@@ -212,12 +431,15 @@ final class EvaluatorBuilder {
       if (celList.isEmpty()) {
         return;
       }
-      Cel finalCel =
-          cel.toCelBuilder()
-              .addMessageTypes(message.getDescriptorForType())
-              .addVar(Variable.THIS_NAME, StructTypeReference.create(desc.getFullName()))
-              .build();
-      List<CompiledProgram> compiledPrograms = compileRules(celList, finalCel, null);
+      CelType thisType = StructTypeReference.create(desc.getFullName());
+      Cel finalCel = environments.get(message.getDescriptorForType(), Variable.THIS_NAME, thisType);
+      List<CompiledProgram> compiledPrograms =
+          compileRules(
+              celList,
+              finalCel,
+              PrecompiledRules.environment(thisType),
+              null,
+              CelLowering.This.message(desc));
       if (compiledPrograms.isEmpty()) {
         throw new CompilationException("compile returned null");
       }
@@ -379,24 +601,29 @@ final class EvaluatorBuilder {
       if (rulesCelList.isEmpty() && exprList.isEmpty()) {
         return;
       }
-      CelBuilder builder = cel.toCelBuilder();
-      builder =
-          builder.addVar(
-              Variable.THIS_NAME,
-              DescriptorMappings.getCELType(fieldDescriptor, valueEvaluatorEval.hasNestedRule()));
-
-      if (fieldDescriptor.getJavaType() == FieldDescriptor.JavaType.MESSAGE) {
-        builder = builder.addMessageTypes(fieldDescriptor.getMessageType());
-      }
-      Cel finalCel = builder.build();
+      CelType thisType =
+          DescriptorMappings.getCELType(fieldDescriptor, valueEvaluatorEval.hasNestedRule());
+      Descriptor messageType =
+          fieldDescriptor.getJavaType() == FieldDescriptor.JavaType.MESSAGE
+              ? fieldDescriptor.getMessageType()
+              : null;
+      Cel finalCel = environments.get(messageType, Variable.THIS_NAME, thisType);
+      String environment = PrecompiledRules.environment(thisType);
+      CelLowering.This self =
+          CelLowering.This.field(fieldDescriptor, valueEvaluatorEval.hasNestedRule());
       List<CompiledProgram> compiledPrograms = new ArrayList<>();
       if (!rulesCelList.isEmpty()) {
-        compiledPrograms.addAll(compileRules(rulesCelList, finalCel, CEL_FIELD_PATH_ELEMENT));
+        compiledPrograms.addAll(
+            compileRules(rulesCelList, finalCel, environment, CEL_FIELD_PATH_ELEMENT, self));
       }
       if (!exprList.isEmpty()) {
         compiledPrograms.addAll(
             compileRules(
-                expressionsToRules(exprList), finalCel, CEL_EXPRESSION_FIELD_PATH_ELEMENT));
+                expressionsToRules(exprList),
+                finalCel,
+                environment,
+                CEL_EXPRESSION_FIELD_PATH_ELEMENT,
+                self));
       }
 
       if (!compiledPrograms.isEmpty()) {
@@ -553,27 +780,44 @@ final class EvaluatorBuilder {
       valueEvaluatorEval.append(listEval);
     }
 
-    private static List<CompiledProgram> compileRules(
-        List<Rule> rules, Cel cel, @Nullable FieldPathElement fieldPathElement)
+    /**
+     * Compiles custom CEL rules. When native rules are enabled, expressions simple enough for
+     * {@link CelLowering} are also lowered, and evaluated without the CEL runtime. Other
+     * expressions are optimized by {@link CelOptimization} if enabled.
+     */
+    private List<CompiledProgram> compileRules(
+        List<Rule> rules,
+        Cel cel,
+        String environment,
+        @Nullable FieldPathElement fieldPathElement,
+        CelLowering.This self)
         throws CompilationException {
       List<Expression> expressions = Expression.fromRules(rules);
       List<CompiledProgram> compiledPrograms = new ArrayList<>();
       for (int i = 0; i < expressions.size(); i++) {
         Expression expression = expressions.get(i);
-        AstExpression astExpression = AstExpression.newAstExpression(cel, expression);
+        AstExpression astExpression =
+            AstExpression.newAstExpression(cel, expression, precompiled, environment);
         @Nullable FieldPath rulePath = null;
         if (fieldPathElement != null) {
           rulePath =
               FieldPath.newBuilder().addElements(fieldPathElement.toBuilder().setIndex(i)).build();
         }
+        CelLowering.@Nullable Lowered lowered =
+            enableNativeRules ? CelLowering.lower(astExpression.ast, self) : null;
+        CelAbstractSyntaxTree ast = astExpression.ast;
+        if (lowered == null && optimizeCel) {
+          ast = CelOptimization.optimize(cel, ast);
+        }
         try {
           compiledPrograms.add(
               new CompiledProgram(
-                  cel.createProgram(astExpression.ast),
+                  cel.createProgram(ast),
                   astExpression.source,
                   rulePath,
                   new MessageValue(rules.get(i)),
-                  null));
+                  null,
+                  lowered));
         } catch (CelEvaluationException e) {
           throw new CompilationException("failed to evaluate rule " + rules.get(i).getId(), e);
         }
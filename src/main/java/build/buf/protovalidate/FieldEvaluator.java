@@ -20,8 +20,6 @@ import build.buf.validate.FieldRules;
 import build.buf.validate.Ignore;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.Message;
-import java.util.Collections;
-import java.util.List;
 
 /** Performs validation on a single message field, defined by its descriptor. */
 final class FieldEvaluator implements Evaluator {
@@ -70,6 +68,15 @@ final class FieldEvaluator implements Evaluator {
     return !required && valueEvaluator.tautology();
   }
 
+  /**
+   * Gets the descriptor of the field targeted by this evaluator.
+   *
+   * @return The field descriptor.
+   */
+  FieldDescriptor getDescriptor() {
+    return descriptor;
+  }
+
   /**
    * Returns whether a field should always skip validation.
    *
@@ -90,18 +97,34 @@ final class FieldEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
     if (this.shouldIgnoreAlways()) {
-      return RuleViolation.NO_VIOLATIONS;
+      return;
     }
     Message message = val.messageValue();
     if (message == null) {
-      return RuleViolation.NO_VIOLATIONS;
+      return;
+    }
+    if (shouldEvaluateValue(isFieldSet(message, descriptor), violations)) {
+      valueEvaluator.evaluate(
+          new ObjectValue(descriptor, message.getField(descriptor)), violations);
+    }
+  }
+
+  /**
+   * Applies the presence rules of the field. Adds a violation if the field is required but not set,
+   * and returns whether the field's value must be evaluated by {@link #valueEvaluator}.
+   *
+   * @param hasField Whether the field is set, see {@link #isFieldSet}.
+   * @param violations The sink receiving a violation of the required rule.
+   * @return True if the value of the field must be evaluated.
+   */
+  boolean shouldEvaluateValue(boolean hasField, ViolationSink violations) {
+    if (this.shouldIgnoreAlways()) {
+      return false;
     }
-    boolean hasField = isFieldSet(message, descriptor);
     if (required && !hasField) {
-      return Collections.singletonList(
+      violations.add(
           RuleViolation.newBuilder()
               .addFirstFieldPathElement(FieldPathUtils.fieldPathElement(descriptor))
               .addAllRulePathElements(helper.getRulePrefixElements())
@@ -109,12 +132,9 @@ final class FieldEvaluator implements Evaluator {
               .setRuleId("required")
               .setMessage("value is required")
               .setRuleValue(new RuleViolation.FieldValue(true, REQUIRED_DESCRIPTOR)));
+      return false;
     }
-    if (this.shouldIgnoreEmpty() && !hasField) {
-      return RuleViolation.NO_VIOLATIONS;
-    }
-    return valueEvaluator.evaluate(
-        new ObjectValue(descriptor, message.getField(descriptor)), failFast);
+    return !this.shouldIgnoreEmpty() || hasField;
   }
 
   /**
@@ -0,0 +1,254 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.validate.FieldMaskRules;
+import build.buf.validate.FieldRules;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.Message;
+import java.util.Arrays;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Native evaluator for the standard {@code google.protobuf.FieldMask} rules ({@code const}, {@code
+ * in} and {@code not_in}). A path is covered by {@code in} or {@code not_in} if it equals one of
+ * the listed paths or lies below one of them, e.g. {@code a.b} is covered by {@code a}. The listed
+ * paths are compiled into a {@link PathTrie} so that each path is checked in a single pass.
+ */
+final class FieldMaskRulesEvaluator implements Evaluator {
+  private static final FieldDescriptor FIELD_MASK_RULES_DESC =
+      FieldRules.getDescriptor().findFieldByNumber(FieldRules.FIELD_MASK_FIELD_NUMBER);
+
+  private static final RuleSite CONST_SITE =
+      site(FieldMaskRules.CONST_FIELD_NUMBER, "field_mask.const");
+  private static final RuleSite IN_SITE = site(FieldMaskRules.IN_FIELD_NUMBER, "field_mask.in");
+  private static final RuleSite NOT_IN_SITE =
+      site(FieldMaskRules.NOT_IN_FIELD_NUMBER, "field_mask.not_in");
+
+  private static RuleSite site(int fieldNumber, String ruleId) {
+    FieldDescriptor leaf = FieldMaskRules.getDescriptor().findFieldByNumber(fieldNumber);
+    return RuleSite.of(FIELD_MASK_RULES_DESC, leaf, ruleId, null);
+  }
+
+  private final RuleBase base;
+  private final @Nullable FieldMask constVal;
+  private final List<String> inVals;
+  private final @Nullable PathTrie inTrie;
+  private final List<String> notInVals;
+  private final @Nullable PathTrie notInTrie;
+
+  private FieldMaskRulesEvaluator(
+      RuleBase base, @Nullable FieldMask constVal, List<String> inVals, List<String> notInVals) {
+    this.base = base;
+    this.constVal = constVal;
+    this.inVals = inVals;
+    this.inTrie = inVals.isEmpty() ? null : new PathTrie(inVals);
+    this.notInVals = notInVals;
+    this.notInTrie = notInVals.isEmpty() ? null : new PathTrie(notInVals);
+  }
+
+  /**
+   * Attempts to build a {@link FieldMaskRulesEvaluator} for the field mask sub-rules on the given
+   * {@code FieldRules.Builder}. Returns null if the rules aren't natively handleable (no field_mask
+   * oneof case set, no covered rule set, or unknown fields present); on success, clears the covered
+   * rules on the builder so CEL won't recompile them.
+   */
+  static @Nullable Evaluator tryBuild(RuleBase base, FieldRules.Builder rulesBuilder) {
+    if (!rulesBuilder.hasFieldMask()) {
+      return null;
+    }
+    FieldMaskRules rules = rulesBuilder.getFieldMask();
+    if (!rules.getUnknownFields().isEmpty()) {
+      return null;
+    }
+    FieldMaskRules.Builder residual = rules.toBuilder();
+    boolean hasRule = false;
+
+    FieldMask constVal = null;
+    if (rules.hasConst()) {
+      constVal = rules.getConst();
+      residual.clearConst();
+      hasRule = true;
+    }
+
+    List<String> inVals = rules.getInList();
+    if (!inVals.isEmpty()) {
+      residual.clearIn();
+      hasRule = true;
+    }
+
+    List<String> notInVals = rules.getNotInList();
+    if (!notInVals.isEmpty()) {
+      residual.clearNotIn();
+      hasRule = true;
+    }
+
+    if (!hasRule) {
+      return null;
+    }
+    rulesBuilder.setFieldMask(residual.build());
+    return new FieldMaskRulesEvaluator(base, constVal, inVals, notInVals);
+  }
+
+  @Override
+  public boolean tautology() {
+    return false;
+  }
+
+  @Override
+  public void evaluate(Value val, ViolationSink violations) {
+    Message message = val.messageValue();
+    if (message == null) {
+      return;
+    }
+    List<?> paths;
+    if (message instanceof FieldMask) {
+      paths = ((FieldMask) message).getPathsList();
+    } else {
+      // A dynamic message of the same type.
+      paths = (List<?>) message.getField(message.getDescriptorForType().findFieldByNumber(1));
+    }
+
+    if (constVal != null && !constVal.getPathsList().equals(paths)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              CONST_SITE,
+              null,
+              "must equal paths " + RuleBase.formatList(constVal.getPathsList()),
+              val,
+              constVal));
+      if (violations.isDone()) {
+        return;
+      }
+    }
+
+    if (inTrie != null && !allCovered(inTrie, paths)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              IN_SITE,
+              null,
+              "must only contain paths in " + RuleBase.formatList(inVals),
+              val,
+              inVals));
+      if (violations.isDone()) {
+        return;
+      }
+    }
+
+    if (notInTrie != null && anyCovered(notInTrie, paths)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              NOT_IN_SITE,
+              null,
+              "must not contain any paths in " + RuleBase.formatList(notInVals),
+              val,
+              notInVals));
+    }
+  }
+
+  private static boolean allCovered(PathTrie trie, List<?> paths) {
+    for (int i = 0; i < paths.size(); i++) {
+      if (!trie.covers((String) paths.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean anyCovered(PathTrie trie, List<?> paths) {
+    for (int i = 0; i < paths.size(); i++) {
+      if (trie.covers((String) paths.get(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A character trie of field mask paths. A path is covered if walking it reaches a listed path at
+   * its end or just before a {@code '.'}, which matches {@code p in paths || paths.exists(f,
+   * p.startsWith(f + '.'))}.
+   */
+  static final class PathTrie {
+    private static final char[] NO_LABELS = new char[0];
+    private static final PathTrie[] NO_CHILDREN = new PathTrie[0];
+
+    /** The first character of each child, sorted. */
+    private char[] labels = NO_LABELS;
+
+    private PathTrie[] children = NO_CHILDREN;
+
+    /** Whether a listed path ends at this node. */
+    private boolean terminal;
+
+    private PathTrie() {}
+
+    PathTrie(List<String> paths) {
+      for (String path : paths) {
+        PathTrie node = this;
+        for (int i = 0; i < path.length(); i++) {
+          node = node.childOrAdd(path.charAt(i));
+        }
+        node.terminal = true;
+      }
+    }
+
+    /** Returns whether {@code path} equals or lies below one of the listed paths. */
+    boolean covers(String path) {
+      PathTrie node = this;
+      for (int i = 0; i < path.length(); i++) {
+        char c = path.charAt(i);
+        if (c == '.' && node.terminal) {
+          return true;
+        }
+        node = node.child(c);
+        if (node == null) {
+          return false;
+        }
+      }
+      return node.terminal;
+    }
+
+    private @Nullable PathTrie child(char c) {
+      int index = Arrays.binarySearch(labels, c);
+      return index >= 0 ? children[index] : null;
+    }
+
+    private PathTrie childOrAdd(char c) {
+      int index = Arrays.binarySearch(labels, c);
+      if (index >= 0) {
+        return children[index];
+      }
+      int insert = -index - 1;
+      char[] newLabels = new char[labels.length + 1];
+      PathTrie[] newChildren = new PathTrie[children.length + 1];
+      System.arraycopy(labels, 0, newLabels, 0, insert);
+      System.arraycopy(children, 0, newChildren, 0, insert);
+      System.arraycopy(labels, insert, newLabels, insert + 1, labels.length - insert);
+      System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+      PathTrie child = new PathTrie();
+      newLabels[insert] = c;
+      newChildren[insert] = child;
+      labels = newLabels;
+      children = newChildren;
+      return child;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.validate.FieldPath;
+import build.buf.validate.FieldPathElement;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link FieldPathNode} is one segment of a violation path, linked to the segment that follows it.
+ * Evaluators prepend segments as violations leave nested evaluations, so a node is immutable once
+ * created and a chain can be shared by every violation found below the same path.
+ *
+ * <p>A segment is a precomputed {@link FieldPathElement}, optionally with a list index or map key
+ * subscript. The subscripted element is only built when the chain is converted to a {@link
+ * FieldPath} by {@link #toFieldPath}.
+ */
+final class FieldPathNode {
+  private final FieldPathElement element;
+
+  /**
+   * An {@link Integer} list index, a raw map key as returned by protobuf reflection, or null if the
+   * element has no subscript.
+   */
+  private final @Nullable Object subscript;
+
+  private final @Nullable FieldPathNode next;
+
+  /**
+   * Constructs a {@link FieldPathNode}.
+   *
+   * @param element The field path element of this segment.
+   * @param subscript A list index or map key to apply to element, or null.
+   * @param next The segment following this one, or null if this is the last segment.
+   */
+  FieldPathNode(
+      FieldPathElement element, @Nullable Object subscript, @Nullable FieldPathNode next) {
+    this.element = element;
+    this.subscript = subscript;
+    this.next = next;
+  }
+
+  /**
+   * Prepends elements to a chain.
+   *
+   * @param elements The elements to prepend, in path order.
+   * @param next The chain to prepend to, or null.
+   * @return The head of the new chain, or next if elements is empty.
+   */
+  static @Nullable FieldPathNode prepend(
+      List<FieldPathElement> elements, @Nullable FieldPathNode next) {
+    FieldPathNode head = next;
+    for (int i = elements.size() - 1; i >= 0; i--) {
+      head = new FieldPathNode(elements.get(i), null, head);
+    }
+    return head;
+  }
+
+  /**
+   * Converts a chain followed by trailing elements to a {@link FieldPath}.
+   *
+   * @param head The head of the chain, or null.
+   * @param tail Elements following the chain.
+   * @return The field path, or null if the path is empty.
+   */
+  static @Nullable FieldPath toFieldPath(
+      @Nullable FieldPathNode head, List<FieldPathElement> tail) {
+    if (head == null && tail.isEmpty()) {
+      return null;
+    }
+    FieldPath.Builder builder = FieldPath.newBuilder();
+    for (FieldPathNode node = head; node != null; node = node.next) {
+      builder.addElements(node.element());
+    }
+    return builder.addAllElements(tail).build();
+  }
+
+  private FieldPathElement element() {
+    if (subscript == null) {
+      return element;
+    }
+    FieldPathElement.Builder builder = element.toBuilder();
+    if (!element.hasKeyType()) {
+      return builder.setIndex((Integer) subscript).build();
+    }
+    switch (element.getKeyType()) {
+      case TYPE_INT64:
+      case TYPE_INT32:
+      case TYPE_SINT32:
+      case TYPE_SINT64:
+      case TYPE_SFIXED32:
+      case TYPE_SFIXED64:
+        return builder.setIntKey(((Number) subscript).longValue()).build();
+      case TYPE_UINT32:
+      case TYPE_UINT64:
+      case TYPE_FIXED32:
+      case TYPE_FIXED64:
+        return builder.setUintKey(((Number) subscript).longValue()).build();
+      case TYPE_BOOL:
+        return builder.setBoolKey((Boolean) subscript).build();
+      case TYPE_STRING:
+        return builder.setStringKey((String) subscript).build();
+      default:
+        throw new IllegalStateException("Unexpected map key type " + element.getKeyType());
+    }
+  }
+}
@@ -93,27 +93,23 @@ final class FieldPathUtils {
   }
 
   /**
-   * Provided a list of violations, adjusts it by prepending rule and field path elements.
+   * Adjusts a violation by prepending rule and field path elements.
    *
-   * @param violations A list of violations.
+   * @param violation A violation.
    * @param fieldPathElement A field path element to prepend, or null.
    * @param rulePathElements Rule path elements to prepend.
-   * @return For convenience, the list of violations passed into the violations parameter.
+   * @return For convenience, the violation passed into the violation parameter.
    */
-  static List<RuleViolation.Builder> updatePaths(
-      List<RuleViolation.Builder> violations,
+  static RuleViolation.Builder updatePaths(
+      RuleViolation.Builder violation,
       @Nullable FieldPathElement fieldPathElement,
       List<FieldPathElement> rulePathElements) {
-    if (fieldPathElement != null || !rulePathElements.isEmpty()) {
-      for (RuleViolation.Builder violation : violations) {
-        for (int i = rulePathElements.size() - 1; i >= 0; i--) {
-          violation.addFirstRulePathElement(rulePathElements.get(i));
-        }
-        if (fieldPathElement != null) {
-          violation.addFirstFieldPathElement(fieldPathElement);
-        }
-      }
+    for (int i = rulePathElements.size() - 1; i >= 0; i--) {
+      violation.addFirstRulePathElement(rulePathElements.get(i));
+    }
+    if (fieldPathElement != null) {
+      violation.addFirstFieldPathElement(fieldPathElement);
     }
-    return violations;
+    return violation;
   }
 }
@@ -209,7 +209,7 @@ final class Format {
     return builder.toString();
   }
 
-  private static String formatTimestamp(Timestamp timestamp) {
+  static String formatTimestamp(Timestamp timestamp) {
     return ISO_INSTANT.format(Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos()));
   }
 
@@ -217,7 +217,7 @@ final class Format {
     return ISO_INSTANT.format(instant);
   }
 
-  private static String formatDuration(Duration duration) {
+  static String formatDuration(Duration duration) {
     StringBuilder builder = new StringBuilder();
 
     double totalSeconds = duration.getSeconds() + (duration.getNanos() / 1_000_000_000.0);
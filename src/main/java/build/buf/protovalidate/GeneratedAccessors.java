@@ -0,0 +1,303 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link GeneratedAccessors} reads the fields of a generated message class through its generated
+ * getters. Each getter is bound once with {@link LambdaMetafactory}, which spins a class calling
+ * the getter directly, so reads skip the reflective accessor table behind {@link Message#getField}
+ * and can be inlined by the JIT.
+ *
+ * <p>Fields whose getters return a different representation than {@link Message#getField}, such as
+ * enums and maps, have no accessor and are read reflectively, as are fields whose getter names
+ * protobuf may have changed to avoid a conflict. Before it is used, every getter is checked against
+ * {@link Message#getField} on a message with only its field set, to a value other than the default,
+ * so a getter resolving to the accessor of another field is caught.
+ */
+final class GeneratedAccessors {
+  /** Suffixes of the accessors generated for a field, which may conflict with other fields. */
+  private static final List<String> ACCESSOR_SUFFIXES =
+      Arrays.asList(
+          "Count", "List", "Map", "Value", "ValueList", "Bytes", "OrBuilder", "OrBuilderList");
+
+  /** The generated accessors of a field. */
+  private static final class Accessor {
+    final Function<Object, Object> getter;
+
+    /** The presence check, or null if the field has no explicit presence. */
+    final @Nullable Predicate<Object> hazzer;
+
+    Accessor(Function<Object, Object> getter, @Nullable Predicate<Object> hazzer) {
+      this.getter = getter;
+      this.hazzer = hazzer;
+    }
+  }
+
+  private final Class<?> messageClass;
+
+  /** The accessors of each field, or null if the field is read reflectively. */
+  private final @Nullable Accessor[] accessors;
+
+  private GeneratedAccessors(Class<?> messageClass, @Nullable Accessor[] accessors) {
+    this.messageClass = messageClass;
+    this.accessors = accessors;
+  }
+
+  /**
+   * Binds the getters of the class of a message.
+   *
+   * @param message A message of the class to bind.
+   * @param fields The fields to bind getters for, indexed like the accessors. Null entries are
+   *     skipped.
+   * @return The accessors, or null if the message is not of a generated class.
+   */
+  @SuppressWarnings("unchecked")
+  static @Nullable GeneratedAccessors bind(Message message, @Nullable FieldDescriptor[] fields) {
+    Class<?> messageClass = message.getClass();
+    if (message instanceof DynamicMessage || !Modifier.isPublic(messageClass.getModifiers())) {
+      return null;
+    }
+    Set<String> names = new HashSet<>();
+    for (FieldDescriptor field : message.getDescriptorForType().getFields()) {
+      names.add(camelCase(field.getName()));
+    }
+    Accessor[] accessors = new Accessor[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      FieldDescriptor field = fields[i];
+      if (field == null || !isBindable(field, names)) {
+        continue;
+      }
+      try {
+        String name = camelCase(field.getName());
+        Function<Object, Object> getter =
+            bind(
+                Function.class,
+                "apply",
+                MethodType.methodType(Object.class, Object.class),
+                getter(messageClass, field.isRepeated() ? "get" + name + "List" : "get" + name));
+        Predicate<Object> hazzer = null;
+        if (!field.isRepeated() && field.hasPresence()) {
+          hazzer =
+              bind(
+                  Predicate.class,
+                  "test",
+                  MethodType.methodType(boolean.class, Object.class),
+                  getter(messageClass, "has" + name));
+        }
+        // Getters renamed by protobuf could still resolve to the accessor of another field, and
+        // the lambda class may not link against the message class, so try them out first.
+        if (isAccessorOf(getter, hazzer, message, field)) {
+          accessors[i] = new Accessor(getter, hazzer);
+        }
+      } catch (Throwable e) {
+        // Read the field reflectively.
+      }
+    }
+    return new GeneratedAccessors(messageClass, accessors);
+  }
+
+  /** Returns whether a getter and hazzer read the field, on a message with only the field set. */
+  private static boolean isAccessorOf(
+      Function<Object, Object> getter,
+      @Nullable Predicate<Object> hazzer,
+      Message message,
+      FieldDescriptor field) {
+    Message.Builder builder = message.newBuilderForType();
+    Object value = probeValue(builder, field);
+    if (field.isRepeated()) {
+      builder.addRepeatedField(field, value);
+    } else {
+      builder.setField(field, value);
+    }
+    Message probe = builder.buildPartial();
+    Object expected = probe.getField(field);
+    Object actual = getter.apply(probe);
+    // Unset message fields read as their default instance, which equals an empty message of the
+    // same type, so the probe's own instance must be returned.
+    boolean same =
+        field.getJavaType() == FieldDescriptor.JavaType.MESSAGE && !field.isRepeated()
+            ? actual == expected
+            : actual.equals(expected);
+    return same
+        && (hazzer == null
+            || (hazzer.test(probe) && !hazzer.test(message.getDefaultInstanceForType())));
+  }
+
+  /** Returns a value of the field's type other than its default. */
+  private static Object probeValue(Message.Builder builder, FieldDescriptor field) {
+    if (field.getJavaType() == FieldDescriptor.JavaType.MESSAGE) {
+      // A new instance, never the default instance.
+      return builder.newBuilderForField(field).buildPartial();
+    }
+    Object defaultValue = field.getDefaultValue();
+    switch (field.getJavaType()) {
+      case INT:
+        return defaultValue.equals(1) ? 2 : 1;
+      case LONG:
+        return defaultValue.equals(1L) ? 2L : 1L;
+      case FLOAT:
+        return defaultValue.equals(1f) ? 2f : 1f;
+      case DOUBLE:
+        return defaultValue.equals(1d) ? 2d : 1d;
+      case BOOLEAN:
+        return !Boolean.TRUE.equals(defaultValue);
+      case STRING:
+        return defaultValue.equals("a") ? "b" : "a";
+      case BYTE_STRING:
+        return defaultValue.equals(ByteString.copyFromUtf8("a"))
+            ? ByteString.copyFromUtf8("b")
+            : ByteString.copyFromUtf8("a");
+      default:
+        throw new IllegalArgumentException("Unexpected field type " + field.getJavaType());
+    }
+  }
+
+  /**
+   * Returns whether the accessors apply to a message.
+   *
+   * @param message The message.
+   * @return True if the message is of the bound class.
+   */
+  boolean appliesTo(Message message) {
+    return message.getClass() == messageClass;
+  }
+
+  /**
+   * Gets the getter of a field.
+   *
+   * @param index The index of the field.
+   * @return The getter, returning the same value as {@link Message#getField}, or null.
+   */
+  @Nullable Function<Object, Object> getter(int index) {
+    Accessor accessor = accessors[index];
+    return accessor != null ? accessor.getter : null;
+  }
+
+  /**
+   * Returns whether a field is set, same as {@link FieldEvaluator#isFieldSet}.
+   *
+   * @param index The index of the field, which must have a getter.
+   * @param message The message.
+   * @param field The field.
+   * @param value The value returned by the field's getter.
+   * @return True if the field is set.
+   */
+  boolean isFieldSet(int index, Message message, FieldDescriptor field, Object value) {
+    Accessor accessor = accessors[index];
+    Predicate<Object> hazzer = accessor != null ? accessor.hazzer : null;
+    if (hazzer != null) {
+      return hazzer.test(message);
+    }
+    if (field.isRepeated()) {
+      return !((List<?>) value).isEmpty();
+    }
+    if (field.hasPresence()) {
+      // A field with explicit presence is set even if set to its default.
+      return message.hasField(field);
+    }
+    return !value.equals(field.getDefaultValue());
+  }
+
+  private static boolean isBindable(FieldDescriptor field, Set<String> names) {
+    if (field.isExtension()
+        || field.isMapField()
+        || field.getJavaType() == FieldDescriptor.JavaType.ENUM) {
+      return false;
+    }
+    String name = camelCase(field.getName());
+    for (String suffix : ACCESSOR_SUFFIXES) {
+      if (names.contains(name + suffix)
+          || (name.endsWith(suffix)
+              && names.contains(name.substring(0, name.length() - suffix.length())))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Method getter(Class<?> messageClass, String name) throws NoSuchMethodException {
+    Method method = messageClass.getMethod(name);
+    if (method.getDeclaringClass() != messageClass || isMessageMethod(name)) {
+      // An accessor of the message interfaces; protobuf renames the field's getter around it.
+      throw new NoSuchMethodException(name);
+    }
+    return method;
+  }
+
+  private static boolean isMessageMethod(String name) {
+    try {
+      Message.class.getMethod(name);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static <T> T bind(Class<T> type, String name, MethodType erasedType, Method method)
+      throws Throwable {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    MethodHandle target = lookup.unreflect(method);
+    CallSite site =
+        LambdaMetafactory.metafactory(
+            lookup,
+            name,
+            MethodType.methodType(type),
+            erasedType,
+            target,
+            erasedType.changeParameterType(0, method.getDeclaringClass()));
+    return type.cast(site.getTarget().invoke());
+  }
+
+  /** Converts a field name to the camel case used in its generated accessor names. */
+  static String camelCase(String name) {
+    StringBuilder out = new StringBuilder(name.length());
+    boolean capitalizeNext = true;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if ('a' <= c && c <= 'z') {
+        out.append(capitalizeNext ? (char) (c - 'a' + 'A') : c);
+        capitalizeNext = false;
+      } else if ('A' <= c && c <= 'Z') {
+        out.append(c);
+        capitalizeNext = false;
+      } else if ('0' <= c && c <= '9') {
+        out.append(c);
+        capitalizeNext = true;
+      } else {
+        capitalizeNext = true;
+      }
+    }
+    return out.toString();
+  }
+}
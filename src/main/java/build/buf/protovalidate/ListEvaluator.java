@@ -16,10 +16,9 @@ package build.buf.protovalidate;
 
 import build.buf.protovalidate.exceptions.ExecutionException;
 import build.buf.validate.FieldPath;
-import build.buf.validate.FieldPathElement;
 import build.buf.validate.FieldRules;
 import build.buf.validate.RepeatedRules;
-import java.util.ArrayList;
+import com.google.protobuf.Descriptors;
 import java.util.List;
 import java.util.Objects;
 
@@ -54,23 +53,20 @@ final class ListEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
-    List<RuleViolation.Builder> allViolations = new ArrayList<>();
-    List<Value> repeatedValues = val.repeatedValue();
-    for (int i = 0; i < repeatedValues.size(); i++) {
-      List<RuleViolation.Builder> violations = itemRules.evaluate(repeatedValues.get(i), failFast);
-      if (violations.isEmpty()) {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
+    Descriptors.FieldDescriptor descriptor = Objects.requireNonNull(val.fieldDescriptor());
+    List<?> elements = (List<?>) val.rawValue();
+    for (int i = 0; i < elements.size(); i++) {
+      int start = violations.size();
+      itemRules.evaluate(new ListElementValue(descriptor, elements.get(i)), violations);
+      if (violations.size() == start) {
         continue;
       }
-      FieldPathElement fieldPathElement =
-          Objects.requireNonNull(helper.getFieldPathElement()).toBuilder().setIndex(i).build();
-      FieldPathUtils.updatePaths(violations, fieldPathElement, helper.getRulePrefixElements());
-      if (failFast && !violations.isEmpty()) {
-        return violations;
+      violations.updatePaths(
+          start, helper.getFieldPathElement(), i, helper.getRulePrefixElements());
+      if (violations.isDone()) {
+        return;
       }
-      allViolations.addAll(violations);
     }
-    return allViolations;
   }
 }
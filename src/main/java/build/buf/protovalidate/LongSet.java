@@ -0,0 +1,160 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import java.util.Arrays;
+
+/**
+ * {@link LongSet} is an immutable set of primitive longs used for {@code in}/{@code not_in} rules
+ * and defined enum values. Lookups neither box nor allocate.
+ *
+ * <p>The representation is chosen by {@link #of} from the values: a bitset when they span a dense
+ * range, such as enum numbers, a linear scan when there are only a few of them, and an
+ * open-addressing hash table otherwise.
+ */
+abstract class LongSet {
+  /** Sets of at most this many values are scanned linearly unless they fit a bitset. */
+  static final int LINEAR_MAX = 8;
+
+  /** The largest span of values stored as a bitset, in bits. */
+  private static final long DENSE_MAX_SPAN = 1 << 16;
+
+  /** A bitset may use at most this many bits per value. */
+  private static final long DENSE_BITS_PER_VALUE = 64;
+
+  /**
+   * Builds a set of the given values.
+   *
+   * @param values The values, which may contain duplicates.
+   * @return The set.
+   */
+  static LongSet of(long[] values) {
+    long[] distinct = values.clone();
+    Arrays.sort(distinct);
+    int size = 0;
+    for (int i = 0; i < distinct.length; i++) {
+      if (i == 0 || distinct[i] != distinct[i - 1]) {
+        distinct[size++] = distinct[i];
+      }
+    }
+    distinct = Arrays.copyOf(distinct, size);
+    if (size == 0) {
+      return new Linear(distinct);
+    }
+    long min = distinct[0];
+    // The span as an unsigned number, so that it can't overflow.
+    long span = distinct[size - 1] - min + 1;
+    if (span != 0
+        && Long.compareUnsigned(span, DENSE_MAX_SPAN) <= 0
+        && span <= DENSE_BITS_PER_VALUE * size) {
+      return new Dense(distinct, min, span);
+    }
+    if (size <= LINEAR_MAX) {
+      return new Linear(distinct);
+    }
+    return new Hashed(distinct);
+  }
+
+  /** Returns whether the set contains {@code value}. */
+  abstract boolean contains(long value);
+
+  /** Sorted distinct values, scanned in order. */
+  private static final class Linear extends LongSet {
+    private final long[] values;
+
+    Linear(long[] values) {
+      this.values = values;
+    }
+
+    @Override
+    boolean contains(long value) {
+      for (long v : values) {
+        if (v == value) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** A bitset over {@code [min, min + span)}. */
+  private static final class Dense extends LongSet {
+    private final long min;
+    private final long span;
+    private final long[] words;
+
+    Dense(long[] values, long min, long span) {
+      this.min = min;
+      this.span = span;
+      this.words = new long[(int) ((span + 63) >>> 6)];
+      for (long v : values) {
+        long offset = v - min;
+        words[(int) (offset >>> 6)] |= 1L << offset;
+      }
+    }
+
+    @Override
+    boolean contains(long value) {
+      long offset = value - min;
+      if (Long.compareUnsigned(offset, span) >= 0) {
+        return false;
+      }
+      return (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+  }
+
+  /** Open addressing with linear probing, at most half full. */
+  private static final class Hashed extends LongSet {
+    private final long[] keys;
+    private final boolean[] used;
+    private final int mask;
+
+    Hashed(long[] values) {
+      int capacity = Integer.highestOneBit(values.length * 2 - 1) << 1;
+      keys = new long[capacity];
+      used = new boolean[capacity];
+      mask = capacity - 1;
+      for (long v : values) {
+        int slot = slot(v);
+        while (used[slot]) {
+          slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = v;
+      }
+    }
+
+    @Override
+    boolean contains(long value) {
+      int slot = slot(value);
+      while (used[slot]) {
+        if (keys[slot] == value) {
+          return true;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return false;
+    }
+
+    private int slot(long value) {
+      // The finalizer of MurmurHash3, so that keys differing only in their high bits, such as
+      // the bits of doubles, still spread over the table.
+      long hash = value;
+      hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+      hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+      return (int) (hash ^ (hash >>> 33)) & mask;
+    }
+  }
+}
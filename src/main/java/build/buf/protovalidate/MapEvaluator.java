@@ -20,12 +20,10 @@ import build.buf.validate.FieldPathElement;
 import build.buf.validate.FieldRules;
 import build.buf.validate.MapRules;
 import com.google.protobuf.Descriptors;
-import java.util.ArrayList;
+import com.google.protobuf.Message;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /** Performs validation on a map field's key-value pairs. */
 final class MapEvaluator implements Evaluator {
@@ -68,6 +66,9 @@ final class MapEvaluator implements Evaluator {
   /** Field descriptor of the map value field */
   final Descriptors.FieldDescriptor valueFieldDescriptor;
 
+  /** Field path element of the map field, subscripted with the key of a failing entry. */
+  private final FieldPathElement fieldPathElement;
+
   /**
    * Constructs a {@link MapEvaluator}.
    *
@@ -80,6 +81,11 @@ final class MapEvaluator implements Evaluator {
     this.fieldDescriptor = fieldDescriptor;
     this.keyFieldDescriptor = fieldDescriptor.getMessageType().findFieldByNumber(1);
     this.valueFieldDescriptor = fieldDescriptor.getMessageType().findFieldByNumber(2);
+    this.fieldPathElement =
+        Objects.requireNonNull(helper.getFieldPathElement()).toBuilder()
+            .setKeyType(keyFieldDescriptor.getType().toProto())
+            .setValueType(valueFieldDescriptor.getType().toProto())
+            .build();
   }
 
   /**
@@ -106,73 +112,32 @@ final class MapEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
-    List<RuleViolation.Builder> violations = new ArrayList<>();
-    Map<Value, Value> mapValue = val.mapValue();
-    for (Map.Entry<Value, Value> entry : mapValue.entrySet()) {
-      violations.addAll(evalPairs(entry.getKey(), entry.getValue(), failFast));
-      if (failFast && !violations.isEmpty()) {
-        return violations;
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
+    Object rawValue = val.rawValue();
+    List<?> entries =
+        rawValue instanceof List ? (List<?>) rawValue : Collections.singletonList(rawValue);
+    for (int i = 0; i < entries.size(); i++) {
+      evalPairs((Message) entries.get(i), violations);
+      if (violations.isDone()) {
+        return;
       }
     }
-    if (violations.isEmpty()) {
-      return RuleViolation.NO_VIOLATIONS;
-    }
-    return violations;
   }
 
-  private List<RuleViolation.Builder> evalPairs(Value key, Value value, boolean failFast)
-      throws ExecutionException {
-    List<RuleViolation.Builder> keyViolations =
-        keyEvaluator.evaluate(key, failFast).stream()
-            .map(violation -> violation.setForKey(true))
-            .collect(Collectors.toList());
-    final List<RuleViolation.Builder> valueViolations;
-    if (failFast && !keyViolations.isEmpty()) {
-      // Don't evaluate value rules if failFast is enabled and keys failed validation.
-      // We still need to continue execution to the end to properly prefix violation field paths.
-      valueViolations = RuleViolation.NO_VIOLATIONS;
-    } else {
-      valueViolations = valueEvaluator.evaluate(value, failFast);
-    }
-    if (keyViolations.isEmpty() && valueViolations.isEmpty()) {
-      return Collections.emptyList();
+  private void evalPairs(Message entry, ViolationSink violations) throws ExecutionException {
+    Object key = entry.getField(keyFieldDescriptor);
+    int start = violations.size();
+    keyEvaluator.evaluate(new ObjectValue(keyFieldDescriptor, key), violations);
+    violations.setForKey(start);
+    if (!violations.isDone()) {
+      // Don't evaluate value rules if evaluation stopped at the key. We still need to prefix
+      // violation field paths below.
+      valueEvaluator.evaluate(
+          new ObjectValue(valueFieldDescriptor, entry.getField(valueFieldDescriptor)), violations);
     }
-    List<RuleViolation.Builder> violations =
-        new ArrayList<>(keyViolations.size() + valueViolations.size());
-    violations.addAll(keyViolations);
-    violations.addAll(valueViolations);
-
-    FieldPathElement.Builder fieldPathElementBuilder =
-        Objects.requireNonNull(helper.getFieldPathElement()).toBuilder();
-    fieldPathElementBuilder.setKeyType(keyFieldDescriptor.getType().toProto());
-    fieldPathElementBuilder.setValueType(valueFieldDescriptor.getType().toProto());
-    switch (keyFieldDescriptor.getType().toProto()) {
-      case TYPE_INT64:
-      case TYPE_INT32:
-      case TYPE_SINT32:
-      case TYPE_SINT64:
-      case TYPE_SFIXED32:
-      case TYPE_SFIXED64:
-        fieldPathElementBuilder.setIntKey(key.value(Number.class).longValue());
-        break;
-      case TYPE_UINT32:
-      case TYPE_UINT64:
-      case TYPE_FIXED32:
-      case TYPE_FIXED64:
-        fieldPathElementBuilder.setUintKey(key.value(Number.class).longValue());
-        break;
-      case TYPE_BOOL:
-        fieldPathElementBuilder.setBoolKey(key.value(Boolean.class));
-        break;
-      case TYPE_STRING:
-        fieldPathElementBuilder.setStringKey(key.value(String.class));
-        break;
-      default:
-        throw new ExecutionException("Unexpected map key type");
+    if (violations.size() == start) {
+      return;
     }
-    FieldPathElement fieldPathElement = fieldPathElementBuilder.build();
-    return FieldPathUtils.updatePaths(violations, fieldPathElement, helper.getRulePrefixElements());
+    violations.updatePaths(start, fieldPathElement, key, helper.getRulePrefixElements());
   }
 }
@@ -95,39 +95,30 @@ final class MapRulesEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast) {
+  public void evaluate(Value val, ViolationSink violations) {
     // Java protobuf returns map fields as a List of synthetic key/value entry messages; the size
     // is the pair count.
     List<?> entries = (List<?>) val.rawValue();
     long size = entries.size();
-    List<RuleViolation.Builder> violations = null;
 
     if (minPairs != null && size < minPairs) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MIN_PAIRS_SITE,
-                  null,
-                  "map must be at least " + minPairs + " entries",
-                  val,
-                  minPairs));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MIN_PAIRS_SITE,
+              null,
+              "map must be at least " + minPairs + " entries",
+              val,
+              minPairs));
+      if (violations.isDone()) return;
     }
 
     if (maxPairs != null && size > maxPairs) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MAX_PAIRS_SITE,
-                  null,
-                  "map must be at most " + maxPairs + " entries",
-                  val,
-                  maxPairs));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MAX_PAIRS_SITE, null, "map must be at most " + maxPairs + " entries", val, maxPairs));
+      if (violations.isDone()) return;
     }
-
-    return base.done(violations);
   }
 }
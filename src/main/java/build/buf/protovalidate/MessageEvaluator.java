@@ -17,12 +17,16 @@ package build.buf.protovalidate;
 import build.buf.protovalidate.exceptions.ExecutionException;
 import java.util.ArrayList;
 import java.util.List;
+import org.jspecify.annotations.Nullable;
 
 /** Performs validation on a {@link com.google.protobuf.Message}. */
 final class MessageEvaluator implements Evaluator {
   /** List of {@link Evaluator}s that are applied to a message. */
   private final List<Evaluator> evaluators = new ArrayList<>();
 
+  /** The flattened form of evaluators, run in their place once compiled. */
+  private @Nullable MessageProgram program;
+
   @Override
   public boolean tautology() {
     for (Evaluator evaluator : evaluators) {
@@ -34,20 +38,38 @@ final class MessageEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
-    List<RuleViolation.Builder> allViolations = new ArrayList<>();
-    for (Evaluator evaluator : evaluators) {
-      List<RuleViolation.Builder> violations = evaluator.evaluate(val, failFast);
-      if (failFast && !violations.isEmpty()) {
-        return violations;
-      }
-      allViolations.addAll(violations);
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
+    MessageProgram program = this.program;
+    if (program != null) {
+      program.execute(val, violations);
+      return;
     }
-    if (allViolations.isEmpty()) {
-      return RuleViolation.NO_VIOLATIONS;
+    for (int i = 0; i < evaluators.size(); i++) {
+      evaluators.get(i).evaluate(val, violations);
+      if (violations.isDone()) {
+        return;
+      }
     }
-    return allViolations;
+  }
+
+  /**
+   * Gets the evaluators applied to a message, in evaluation order.
+   *
+   * @return The evaluators.
+   */
+  List<Evaluator> getEvaluators() {
+    return evaluators;
+  }
+
+  /**
+   * Lowers the evaluators into a {@link MessageProgram}. Must be called once all evaluators are
+   * appended, and before the evaluator is shared with other threads.
+   *
+   * @param generateAccessors Whether the program reads fields of generated messages through {@link
+   *     GeneratedAccessors}.
+   */
+  void compile(boolean generateAccessors) {
+    program = MessageProgram.compile(evaluators, generateAccessors);
   }
 
   /**
@@ -17,7 +17,6 @@ package build.buf.protovalidate;
 import build.buf.protovalidate.exceptions.ExecutionException;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.Message;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -43,11 +42,10 @@ final class MessageOneofEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
     Message msg = val.messageValue();
     if (msg == null) {
-      return RuleViolation.NO_VIOLATIONS;
+      return;
     }
     int hasCount = 0;
     for (FieldDescriptor field : fields) {
@@ -55,19 +53,27 @@ final class MessageOneofEvaluator implements Evaluator {
         hasCount++;
       }
     }
+    evaluate(hasCount, violations);
+  }
+
+  /**
+   * Checks the rule given how many of its fields are set.
+   *
+   * @param hasCount The number of fields in {@link #fields} that are set.
+   * @param violations The sink receiving the violation.
+   */
+  void evaluate(int hasCount, ViolationSink violations) {
     if (hasCount > 1) {
-      return Collections.singletonList(
+      violations.add(
           RuleViolation.newBuilder()
               .setRuleId("message.oneof")
               .setMessage(String.format("only one of %s can be set", fieldNames())));
-    }
-    if (this.required && hasCount == 0) {
-      return Collections.singletonList(
+    } else if (this.required && hasCount == 0) {
+      violations.add(
           RuleViolation.newBuilder()
               .setRuleId("message.oneof")
               .setMessage(String.format("one of %s must be set", fieldNames())));
     }
-    return Collections.emptyList();
   }
 
   String fieldNames() {
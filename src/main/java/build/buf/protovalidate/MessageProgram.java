@@ -0,0 +1,217 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.protovalidate.exceptions.ExecutionException;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.OneofDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link MessageProgram} is the flattened form of a {@link MessageEvaluator}: a linear array of ops
+ * run by a single interpreter loop. A field op checks the field's presence rules and runs its value
+ * rules inline, so a field costs one loop iteration plus one call per rule, instead of a chain of
+ * calls through {@link FieldEvaluator} and {@link ValueEvaluator} that the JIT cannot inline.
+ *
+ * <p>The rules of all field ops are stored in one array; op {@code i} runs the rules from {@code
+ * ruleStart[i]} to {@code ruleStart[i + 1]}.
+ *
+ * <p>With generated accessors enabled, field ops read fields of generated messages through {@link
+ * GeneratedAccessors} bound to the first generated message class the program runs on.
+ */
+final class MessageProgram {
+  /** Checks a field's presence rules, then runs its value rules. */
+  private static final byte OP_FIELD = 0;
+
+  /** Checks that a member of a required oneof is set. */
+  private static final byte OP_ONEOF = 1;
+
+  /** Runs an evaluator on the message. */
+  private static final byte OP_EVALUATOR = 2;
+
+  private final byte[] ops;
+
+  /** The evaluator each op was lowered from. */
+  private final Evaluator[] sources;
+
+  /** The field of each field op. */
+  private final @Nullable FieldDescriptor[] fields;
+
+  /** The oneof of each oneof op. */
+  private final @Nullable OneofDescriptor[] oneofs;
+
+  private final int[] ruleStart;
+  private final Evaluator[] rules;
+
+  /** Whether to bind {@link GeneratedAccessors} on the first run. */
+  private final boolean generateAccessors;
+
+  /** Whether binding accessors was attempted on a generated message. */
+  private volatile boolean accessorsBound;
+
+  private volatile @Nullable GeneratedAccessors accessors;
+
+  private MessageProgram(
+      byte[] ops,
+      Evaluator[] sources,
+      @Nullable FieldDescriptor[] fields,
+      @Nullable OneofDescriptor[] oneofs,
+      int[] ruleStart,
+      Evaluator[] rules,
+      boolean generateAccessors) {
+    this.ops = ops;
+    this.sources = sources;
+    this.fields = fields;
+    this.oneofs = oneofs;
+    this.ruleStart = ruleStart;
+    this.rules = rules;
+    this.generateAccessors = generateAccessors;
+  }
+
+  /**
+   * Lowers the evaluators of a message into a program.
+   *
+   * @param evaluators The evaluators of a {@link MessageEvaluator}, in evaluation order.
+   * @param generateAccessors Whether to read fields of generated messages through {@link
+   *     GeneratedAccessors}.
+   * @return The program evaluating the same rules in the same order.
+   */
+  static MessageProgram compile(List<Evaluator> evaluators, boolean generateAccessors) {
+    int size = evaluators.size();
+    byte[] ops = new byte[size];
+    Evaluator[] sources = evaluators.toArray(new Evaluator[0]);
+    FieldDescriptor[] fields = new FieldDescriptor[size];
+    OneofDescriptor[] oneofs = new OneofDescriptor[size];
+    int[] ruleStart = new int[size + 1];
+    List<Evaluator> rules = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      Evaluator evaluator = sources[i];
+      ruleStart[i] = rules.size();
+      if (evaluator instanceof FieldEvaluator
+          && !((FieldEvaluator) evaluator).valueEvaluator.isIgnoreEmpty()) {
+        FieldEvaluator fieldEvaluator = (FieldEvaluator) evaluator;
+        ops[i] = OP_FIELD;
+        fields[i] = fieldEvaluator.getDescriptor();
+        rules.addAll(fieldEvaluator.valueEvaluator.getEvaluators());
+      } else if (evaluator instanceof OneofEvaluator) {
+        ops[i] = OP_ONEOF;
+        oneofs[i] = ((OneofEvaluator) evaluator).getDescriptor();
+      } else {
+        ops[i] = OP_EVALUATOR;
+      }
+    }
+    ruleStart[size] = rules.size();
+    return new MessageProgram(
+        ops,
+        sources,
+        fields,
+        oneofs,
+        ruleStart,
+        rules.toArray(new Evaluator[0]),
+        generateAccessors);
+  }
+
+  /**
+   * Runs the program on a message.
+   *
+   * @param val The message value.
+   * @param violations The sink receiving the violations found.
+   * @throws ExecutionException If evaluation fails to complete.
+   */
+  void execute(Value val, ViolationSink violations) throws ExecutionException {
+    Message message = val.messageValue();
+    GeneratedAccessors accessors = message != null ? accessors(message) : null;
+    for (int pc = 0; pc < ops.length; pc++) {
+      switch (ops[pc]) {
+        case OP_FIELD:
+          if (message != null) {
+            executeField(pc, message, accessors, violations);
+          }
+          break;
+        case OP_ONEOF:
+          if (message != null) {
+            OneofDescriptor oneof = oneofs[pc];
+            ((OneofEvaluator) sources[pc])
+                .evaluate(
+                    oneof != null && message.getOneofFieldDescriptor(oneof) != null, violations);
+          }
+          break;
+        default:
+          sources[pc].evaluate(val, violations);
+          break;
+      }
+      if (violations.isDone()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the accessors to read the fields of a message with, or null to read them reflectively.
+   */
+  @Nullable GeneratedAccessors accessors(Message message) {
+    if (!generateAccessors) {
+      return null;
+    }
+    GeneratedAccessors accessors = this.accessors;
+    // Dynamic messages have no generated accessors, and must not keep a generated class that is
+    // validated later from binding.
+    if (accessors == null && !accessorsBound && !(message instanceof DynamicMessage)) {
+      // Racing threads may bind accessors of different classes of the message type, e.g. from
+      // different class loaders. Either may be kept, as appliesTo checks the class of every
+      // message, but a failed binding never replaces accessors bound by another thread.
+      accessors = GeneratedAccessors.bind(message, fields);
+      if (accessors != null) {
+        this.accessors = accessors;
+      }
+      accessorsBound = true;
+    }
+    return accessors != null && accessors.appliesTo(message) ? accessors : null;
+  }
+
+  private void executeField(
+      int pc, Message message, @Nullable GeneratedAccessors accessors, ViolationSink violations)
+      throws ExecutionException {
+    FieldDescriptor field = fields[pc];
+    if (field == null) {
+      return;
+    }
+    Function<Object, Object> getter = accessors != null ? accessors.getter(pc) : null;
+    Object raw = null;
+    boolean hasField;
+    if (accessors != null && getter != null) {
+      raw = getter.apply(message);
+      hasField = accessors.isFieldSet(pc, message, field, raw);
+    } else {
+      hasField = FieldEvaluator.isFieldSet(message, field);
+    }
+    FieldEvaluator fieldEvaluator = (FieldEvaluator) sources[pc];
+    if (!fieldEvaluator.shouldEvaluateValue(hasField, violations)) {
+      return;
+    }
+    Value value = new ObjectValue(field, raw != null ? raw : message.getField(field));
+    for (int i = ruleStart[pc], end = ruleStart[pc + 1]; i < end; i++) {
+      rules[i].evaluate(value, violations);
+      if (violations.isDone()) {
+        return;
+      }
+    }
+  }
+}
@@ -21,8 +21,8 @@ import org.jspecify.annotations.Nullable;
  *
  * <p>The resulting builder carries only rule-relative state: rule id, message, the rule path suffix
  * from {@link RuleSite}, and optional field/rule values. Field path and any nested-rule prefix are
- * prepended later by {@code FieldPathUtils.updatePaths} when the violations leave the native
- * evaluator's {@code evaluate} — the same pattern {@code CelPrograms} uses.
+ * prepended by {@link RuleBase#add} as the violation enters the {@link ViolationSink} — the same
+ * pattern {@code CelPrograms} uses.
  */
 final class NativeViolations {
   private NativeViolations() {}
@@ -66,4 +66,18 @@ final class NativeViolations {
     }
     return builder;
   }
+
+  /**
+   * Builds a violation like {@link #newViolation}, with the rule value converted to the form CEL
+   * binds it in, e.g. a {@link java.time.Instant} for a timestamp, as CEL violations report it.
+   */
+  static RuleViolation.Builder newCelViolation(
+      RuleSite site,
+      @Nullable String ruleId,
+      @Nullable String message,
+      @Nullable Value fieldValue,
+      Object ruleValue) {
+    return newViolation(
+        site, ruleId, message, fieldValue, ProtoAdapter.toCel(site.getLeafDescriptor(), ruleValue));
+  }
 }
@@ -17,6 +17,7 @@ package build.buf.protovalidate;
 import build.buf.validate.FieldRules;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.Message;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -54,7 +55,9 @@ final class NumericRulesEvaluator<T extends Number & Comparable<T>> implements E
   private final NumericTypeConfig<T> config;
   private final @Nullable T constVal;
   private final List<T> inVals;
+  private final LongSet inSet;
   private final List<T> notInVals;
+  private final LongSet notInSet;
   private final @Nullable T loVal;
   private final LowerBound lowerKind;
   private final @Nullable T hiVal;
@@ -76,7 +79,9 @@ final class NumericRulesEvaluator<T extends Number & Comparable<T>> implements E
     this.config = config;
     this.constVal = constVal;
     this.inVals = inVals;
+    this.inSet = membershipSet(inVals);
     this.notInVals = notInVals;
+    this.notInSet = membershipSet(notInVals);
     this.loVal = loVal;
     this.lowerKind = lowerKind;
     this.hiVal = hiVal;
@@ -208,52 +213,48 @@ final class NumericRulesEvaluator<T extends Number & Comparable<T>> implements E
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast) {
+  public void evaluate(Value val, ViolationSink violations) {
     T actual = config.valueClass.cast(val.rawValue());
-    List<RuleViolation.Builder> violations = null;
 
     if (constVal != null && config.comparator.compare(actual, constVal) != 0) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  config.descriptors.constSite,
-                  null,
-                  "must equal " + config.formatter.apply(constVal),
-                  val,
-                  constVal));
-      if (failFast) {
-        return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              config.descriptors.constSite,
+              null,
+              "must equal " + config.formatter.apply(constVal),
+              val,
+              constVal));
+      if (violations.isDone()) {
+        return;
       }
     }
 
-    if (!inVals.isEmpty() && !containsValue(inVals, actual)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  config.descriptors.inSite,
-                  null,
-                  "must be in list " + formatList(inVals),
-                  val,
-                  inVals));
-      if (failFast) {
-        return base.done(violations);
+    if (!inVals.isEmpty() && !contains(inSet, actual)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              config.descriptors.inSite,
+              null,
+              "must be in list " + formatList(inVals),
+              val,
+              inVals));
+      if (violations.isDone()) {
+        return;
       }
     }
 
-    if (!notInVals.isEmpty() && containsValue(notInVals, actual)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  config.descriptors.notInSite,
-                  null,
-                  "must not be in list " + formatList(notInVals),
-                  val,
-                  notInVals));
-      if (failFast) {
-        return base.done(violations);
+    if (!notInVals.isEmpty() && contains(notInSet, actual)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              config.descriptors.notInSite,
+              null,
+              "must not be in list " + formatList(notInVals),
+              val,
+              notInVals));
+      if (violations.isDone()) {
+        return;
       }
     }
 
@@ -262,24 +263,21 @@ final class NumericRulesEvaluator<T extends Number & Comparable<T>> implements E
       RuleSite site =
           Objects.requireNonNull(
               config.descriptors.finiteSite, "finiteSite must be set when finite is true");
-      violations =
-          RuleBase.add(violations, NativeViolations.newViolation(site, null, null, val, true));
-      if (failFast) {
-        return base.done(violations);
+      base.add(violations, NativeViolations.newViolation(site, null, null, val, true));
+      if (violations.isDone()) {
+        return;
       }
     }
 
     if (lowerKind != LowerBound.NONE || upperKind != UpperBound.NONE) {
       RuleViolation.Builder rangeViolation = buildRangeViolation(val, actual);
       if (rangeViolation != null) {
-        violations = RuleBase.add(violations, rangeViolation);
-        if (failFast) {
-          return base.done(violations);
+        base.add(violations, rangeViolation);
+        if (violations.isDone()) {
+          return;
         }
       }
     }
-
-    return base.done(violations);
   }
 
   // --- Per-rule violation builders ---
@@ -335,16 +333,34 @@ final class NumericRulesEvaluator<T extends Number & Comparable<T>> implements E
     return config.comparator.compare(hiVal, loVal) >= 0;
   }
 
-  private boolean containsValue(List<T> list, T value) {
-    // Use the comparator for equality so unsigned/signed semantics agree. Java's List.contains
-    // would use Object.equals, which is fine for boxed primitives but we keep a single source of
-    // truth.
-    for (T t : list) {
-      if (config.comparator.compare(t, value) == 0) {
-        return true;
+  /** Builds the set of membership keys of {@code in} or {@code not_in} values, without NaN. */
+  private static <T extends Number> LongSet membershipSet(List<T> vals) {
+    long[] keys = new long[vals.size()];
+    int size = 0;
+    for (T t : vals) {
+      if (!isNaN(t)) {
+        keys[size++] = membershipKey(t);
       }
     }
-    return false;
+    return LongSet.of(Arrays.copyOf(keys, size));
+  }
+
+  private static <T extends Number> boolean contains(LongSet set, T value) {
+    // NaN is never equal to a listed value, see NumericTypeConfig's comparators.
+    return !isNaN(value) && set.contains(membershipKey(value));
+  }
+
+  /**
+   * Maps a value to a long that is equal for two values exactly when the config's comparator says
+   * they are equal. Unsigned kinds share the signed bits; floats and doubles use the bits of the
+   * double with -0.0 folded into 0.0. NaN has no key.
+   */
+  private static <T extends Number> long membershipKey(T value) {
+    if (value instanceof Float || value instanceof Double) {
+      double d = value.doubleValue();
+      return d == 0.0 ? 0L : Double.doubleToLongBits(d);
+    }
+    return value.longValue();
   }
 
   private static <T extends Number> boolean isFinite(T value) {
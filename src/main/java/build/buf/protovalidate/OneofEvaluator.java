@@ -18,8 +18,6 @@ import build.buf.protovalidate.exceptions.ExecutionException;
 import build.buf.validate.FieldPathElement;
 import com.google.protobuf.Descriptors.OneofDescriptor;
 import com.google.protobuf.Message;
-import java.util.Collections;
-import java.util.List;
 
 /** {@link OneofEvaluator} performs validation on a oneof union. */
 final class OneofEvaluator implements Evaluator {
@@ -45,14 +43,35 @@ final class OneofEvaluator implements Evaluator {
     return !required;
   }
 
+  /**
+   * Gets the descriptor of the oneof targeted by this evaluator.
+   *
+   * @return The oneof descriptor.
+   */
+  OneofDescriptor getDescriptor() {
+    return descriptor;
+  }
+
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
     Message message = val.messageValue();
-    if (message == null || !required || (message.getOneofFieldDescriptor(descriptor) != null)) {
-      return RuleViolation.NO_VIOLATIONS;
+    if (message == null || !required) {
+      return;
+    }
+    evaluate(message.getOneofFieldDescriptor(descriptor) != null, violations);
+  }
+
+  /**
+   * Checks the oneof given whether one of its fields is set.
+   *
+   * @param set Whether a field of the oneof is set.
+   * @param violations The sink receiving the violation.
+   */
+  void evaluate(boolean set, ViolationSink violations) {
+    if (!required || set) {
+      return;
     }
-    return Collections.singletonList(
+    violations.add(
         RuleViolation.newBuilder()
             .addFirstFieldPathElement(
                 FieldPathElement.newBuilder().setFieldName(descriptor.getName()).build())
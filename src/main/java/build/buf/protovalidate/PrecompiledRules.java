@@ -0,0 +1,390 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.protovalidate.exceptions.CompilationException;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import dev.cel.bundle.Cel;
+import dev.cel.common.CelAbstractSyntaxTree;
+import dev.cel.common.CelProtoAbstractSyntaxTree;
+import dev.cel.common.types.CelType;
+import dev.cel.common.types.CelTypes;
+import dev.cel.expr.CheckedExpr;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * PrecompiledRules holds the CEL rules of a set of message types, parsed and type-checked ahead of
+ * time. Checking expressions is most of the cost of compiling rules, so a validator configured with
+ * precompiled rules (see {@link Config.Builder#setPrecompiledRules}) builds its evaluators without
+ * invoking the CEL compiler for any expression found here, which keeps rule compilation out of the
+ * latency of the first requests.
+ *
+ * <p>Precompiled rules are meant to be generated at build time, with {@link #generate} and {@link
+ * #writeTo}, and loaded with {@link #readFrom} at startup. Expressions are looked up by their text
+ * and the types of the variables they are checked against; expressions that are not found are
+ * compiled as usual. The rules must be generated from the same versions of the schemas and of this
+ * library as the validator that uses them.
+ */
+public final class PrecompiledRules {
+  static final PrecompiledRules EMPTY = new PrecompiledRules("", "", new HashMap<>(), false);
+
+  private static final int MAGIC = 0x50565243; // "PVRC"
+  private static final int VERSION = 3;
+
+  /** The versions of this library and of cel-java, see {@link #compilerVersion}. */
+  static final String COMPILER_VERSION =
+      "protovalidate " + version(PrecompiledRules.class) + ", cel-java " + version(Cel.class);
+
+  /** The size up to which byte arrays are allocated before any of their bytes are read. */
+  private static final int READ_CHUNK_SIZE = 8192;
+
+  /** The hash of the schemas the rules were compiled from, see {@link #getSchemaHash}. */
+  private final String schemaHash;
+
+  /**
+   * The versions of the libraries the rules were compiled with. Checked expressions may change
+   * between versions, so snapshots compiled with other versions are not used.
+   */
+  final String compilerVersion;
+
+  /** Checked expressions keyed by environment and expression text, see {@link #key}. */
+  private final Map<String, CheckedExpr> checked;
+
+  /** Whether compiled expressions are added to this instance, until {@link #stopRecording}. */
+  private volatile boolean recording;
+
+  private PrecompiledRules(
+      String schemaHash,
+      String compilerVersion,
+      Map<String, CheckedExpr> checked,
+      boolean recording) {
+    this.schemaHash = schemaHash;
+    this.compilerVersion = compilerVersion;
+    this.checked = checked;
+    this.recording = recording;
+  }
+
+  /**
+   * Compiles the rules of the given message types, and of all message types they reference.
+   *
+   * @param config The configuration of the validators that will use the rules.
+   * @param descriptors The message types to compile the rules of.
+   * @return The precompiled rules.
+   * @throws CompilationException If the rules of a message type fail to compile.
+   */
+  public static PrecompiledRules generate(Config config, Iterable<Descriptor> descriptors)
+      throws CompilationException {
+    PrecompiledRules rules = recorder(schemaHash(descriptors));
+    EvaluatorBuilder builder = new EvaluatorBuilder(ValidateLibrary.newCel(), config, rules);
+    for (Descriptor descriptor : descriptors) {
+      builder.load(descriptor);
+    }
+    return rules.snapshot();
+  }
+
+  /**
+   * Reads precompiled rules written by {@link #writeTo}.
+   *
+   * @param in The stream to read from. It is not closed.
+   * @return The precompiled rules.
+   * @throws IOException If the stream cannot be read or does not hold precompiled rules.
+   */
+  public static PrecompiledRules readFrom(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC) {
+      throw new IOException("not a precompiled rules file");
+    }
+    int version = data.readInt();
+    if (version != VERSION) {
+      throw new IOException("unsupported precompiled rules version " + version);
+    }
+    String schemaHash = new String(readBytes(data), StandardCharsets.UTF_8);
+    String compilerVersion = new String(readBytes(data), StandardCharsets.UTF_8);
+    int size = data.readInt();
+    Map<String, CheckedExpr> checked = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      String key = new String(readBytes(data), StandardCharsets.UTF_8);
+      checked.put(key, CheckedExpr.parseFrom(readBytes(data)));
+    }
+    return new PrecompiledRules(schemaHash, compilerVersion, checked, false);
+  }
+
+  /**
+   * Writes the rules so they can be read back with {@link #readFrom}. The output only depends on
+   * the rules, so builds generating the same rules produce the same bytes.
+   *
+   * @param out The stream to write to. It is flushed, not closed.
+   * @throws IOException If the stream cannot be written.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    writeBytes(data, schemaHash.getBytes(StandardCharsets.UTF_8));
+    writeBytes(data, compilerVersion.getBytes(StandardCharsets.UTF_8));
+    data.writeInt(checked.size());
+    for (Map.Entry<String, CheckedExpr> entry : new TreeMap<>(checked).entrySet()) {
+      writeBytes(data, entry.getKey().getBytes(StandardCharsets.UTF_8));
+      writeBytes(data, entry.getValue().toByteArray());
+    }
+    data.flush();
+  }
+
+  /**
+   * Returns the hash of the schemas the rules were compiled from: the SHA-256 of the files defining
+   * the message types passed to {@link #generate} and all files they import, in hex. Rules compiled
+   * from the same schemas have the same hash.
+   *
+   * @return The schema hash, or an empty string if the rules are empty.
+   */
+  public String getSchemaHash() {
+    return schemaHash;
+  }
+
+  /**
+   * Returns the number of precompiled expressions.
+   *
+   * @return The number of expressions.
+   */
+  public int size() {
+    return checked.size();
+  }
+
+  /**
+   * Computes the schema hash of message types, see {@link #getSchemaHash}. The files are hashed in
+   * name order, so the hash does not depend on the order of the message types. Comparing it with
+   * the hash of rules generated from the same message types checks that the rules are up to date.
+   *
+   * @param descriptors The message types.
+   * @return The schema hash.
+   */
+  public static String schemaHash(Iterable<Descriptor> descriptors) {
+    Map<String, FileDescriptor> files = new TreeMap<>();
+    for (Descriptor descriptor : descriptors) {
+      addFiles(descriptor.getFile(), files);
+    }
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform supports SHA-256.
+      throw new IllegalStateException(e);
+    }
+    for (FileDescriptor file : files.values()) {
+      byte[] proto = file.toProto().toByteArray();
+      digest.update(file.getName().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(ByteBuffer.allocate(4).putInt(0, proto.length));
+      digest.update(proto);
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Returns the version of the library defining a class: the implementation version in the manifest
+   * of its jar, or else the name of the jar, which usually includes the version.
+   */
+  private static String version(Class<?> type) {
+    Package pkg = type.getPackage();
+    String version = pkg != null ? pkg.getImplementationVersion() : null;
+    if (version != null) {
+      return version;
+    }
+    CodeSource source = type.getProtectionDomain().getCodeSource();
+    if (source == null || source.getLocation() == null) {
+      return "unknown";
+    }
+    String location = source.getLocation().getPath();
+    return location.substring(location.lastIndexOf('/', location.length() - 2) + 1);
+  }
+
+  /**
+   * Creates empty rules recording the expressions compiled by evaluator builders using them.
+   *
+   * @param schemaHash The hash of the schemas the expressions will be compiled from.
+   * @return The recording rules.
+   */
+  static PrecompiledRules recorder(String schemaHash) {
+    return new PrecompiledRules(schemaHash, COMPILER_VERSION, new ConcurrentHashMap<>(), true);
+  }
+
+  /** Stops adding compiled expressions to these rules. */
+  void stopRecording() {
+    recording = false;
+  }
+
+  /**
+   * Copies the expressions recorded so far into rules that no longer record.
+   *
+   * @return The copy.
+   */
+  PrecompiledRules snapshot() {
+    return new PrecompiledRules(schemaHash, compilerVersion, new HashMap<>(checked), false);
+  }
+
+  /**
+   * Reads the rules of a snapshot file if it exists and was compiled from the given schemas, with
+   * the versions of this library and of cel-java in use. Unreadable or corrupt files are treated
+   * like missing ones, so they are replaced on the next write.
+   *
+   * @param path The snapshot file.
+   * @param schemaHash The schema hash the rules must have been compiled from.
+   * @return The rules, or null if there is no usable snapshot.
+   */
+  static @Nullable PrecompiledRules readSnapshot(Path path, String schemaHash) {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+      PrecompiledRules rules = readFrom(in);
+      return rules.schemaHash.equals(schemaHash) && rules.compilerVersion.equals(COMPILER_VERSION)
+          ? rules
+          : null;
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes the rules to a snapshot file. The rules are written to a temporary file next to it
+   * first, which is then moved over it, so concurrent readers never see a partial snapshot.
+   *
+   * @param path The snapshot file.
+   * @throws IOException If the file cannot be written.
+   */
+  void writeSnapshot(Path path) throws IOException {
+    Path absolute = path.toAbsolutePath();
+    Path dir = absolute.getParent();
+    Path temp = Files.createTempFile(dir, absolute.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+        writeTo(out);
+      }
+      try {
+        Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Returns the environment key of the variables an expression is checked against.
+   *
+   * @param variables The types of the variables, in declaration order.
+   * @return The key of the environment.
+   */
+  static String environment(CelType... variables) {
+    StringBuilder key = new StringBuilder();
+    for (CelType variable : variables) {
+      key.append(CelTypes.format(variable)).append(';');
+    }
+    return key.toString();
+  }
+
+  /**
+   * Gets the checked AST of an expression.
+   *
+   * @param environment The environment key, see {@link #environment}.
+   * @param expression The expression text.
+   * @return The checked AST, or null if the expression was not precompiled.
+   */
+  @Nullable CelAbstractSyntaxTree lookup(String environment, String expression) {
+    if (checked.isEmpty()) {
+      return null;
+    }
+    CheckedExpr expr = checked.get(key(environment, expression));
+    return expr != null ? CelProtoAbstractSyntaxTree.fromCheckedExpr(expr).getAst() : null;
+  }
+
+  /**
+   * Adds the checked AST of an expression when generating rules, otherwise does nothing.
+   *
+   * @param environment The environment key, see {@link #environment}.
+   * @param expression The expression text.
+   * @param ast The checked AST.
+   */
+  void record(String environment, String expression, CelAbstractSyntaxTree ast) {
+    if (recording) {
+      checked.put(
+          key(environment, expression), CelProtoAbstractSyntaxTree.fromCelAst(ast).toCheckedExpr());
+    }
+  }
+
+  private static String key(String environment, String expression) {
+    return environment + '\n' + expression;
+  }
+
+  private static byte[] readBytes(DataInputStream data) throws IOException {
+    int length = data.readInt();
+    if (length < 0) {
+      throw new IOException("invalid precompiled rules length " + length);
+    }
+    // The length is read from the input, so the array only grows as the bytes are read; a length
+    // beyond the end of the input fails with an EOFException instead of a huge allocation.
+    byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+    int read = 0;
+    while (true) {
+      data.readFully(bytes, read, bytes.length - read);
+      read = bytes.length;
+      if (read == length) {
+        return bytes;
+      }
+      bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+    }
+  }
+
+  private static void writeBytes(DataOutputStream data, byte[] bytes) throws IOException {
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  private static void addFiles(FileDescriptor file, Map<String, FileDescriptor> files) {
+    if (files.put(file.getName(), file) != null) {
+      return;
+    }
+    for (FileDescriptor dependency : file.getDependencies()) {
+      addFiles(dependency, files);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import com.google.re2j.Pattern;
+import com.google.re2j.PatternSyntaxException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link RegexCache} is a bounded cache of the patterns compiled by the CEL {@code matches}
+ * function. Patterns may come from the validated messages rather than from the rules, so the cache
+ * holds at most a fixed number of them.
+ *
+ * <p>Eviction follows the CLOCK algorithm: lookups are lock-free and only mark the entry as
+ * referenced, while insertions take a lock and sweep a hand over the entries, clearing the marks
+ * and evicting the first unmarked entry. New entries start unmarked, so patterns used once are
+ * evicted before patterns that are used repeatedly.
+ */
+final class RegexCache {
+  /** The default maximum number of cached patterns. */
+  static final int DEFAULT_CAPACITY = 1024;
+
+  private static final class Entry {
+    final String regex;
+    final Pattern pattern;
+    volatile boolean referenced;
+
+    Entry(String regex, Pattern pattern) {
+      this.regex = regex;
+      this.pattern = pattern;
+    }
+  }
+
+  private final int capacity;
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** The entries in insertion slots, swept by {@link #hand}. Guarded by this. */
+  private final Entry[] clock;
+
+  /** The next slot to consider for eviction. Guarded by this. */
+  private int hand;
+
+  /** The number of occupied slots. Guarded by this. */
+  private int size;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs a new {@link RegexCache}.
+   *
+   * @param capacity The maximum number of cached patterns, or 0 to disable caching.
+   */
+  RegexCache(int capacity) {
+    this.capacity = capacity;
+    this.clock = new Entry[capacity];
+  }
+
+  /**
+   * Gets the compiled pattern of a regular expression, compiling it on a miss.
+   *
+   * @param regex The regular expression.
+   * @return The compiled pattern.
+   * @throws PatternSyntaxException If the regular expression is invalid.
+   */
+  Pattern get(String regex) {
+    Entry entry = entries.get(regex);
+    if (entry != null) {
+      // Skip the write when already set, to keep hot entries' cache lines shared.
+      if (!entry.referenced) {
+        entry.referenced = true;
+      }
+      hits.increment();
+      return entry.pattern;
+    }
+    misses.increment();
+    Pattern pattern = Pattern.compile(regex);
+    if (capacity > 0) {
+      add(new Entry(regex, pattern));
+    }
+    return pattern;
+  }
+
+  private synchronized void add(Entry entry) {
+    if (entries.containsKey(entry.regex)) {
+      // Added by a concurrent miss.
+      return;
+    }
+    if (size < capacity) {
+      clock[size++] = entry;
+    } else {
+      while (clock[hand].referenced) {
+        clock[hand].referenced = false;
+        hand = (hand + 1) % capacity;
+      }
+      entries.remove(clock[hand].regex);
+      evictions.increment();
+      clock[hand] = entry;
+      hand = (hand + 1) % capacity;
+    }
+    entries.put(entry.regex, entry);
+  }
+
+  /**
+   * Gets a snapshot of the counters of this cache.
+   *
+   * @return The statistics.
+   */
+  RegexCacheStats stats() {
+    return new RegexCacheStats(capacity, entries.size(), hits.sum(), misses.sum(), evictions.sum());
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+/**
+ * {@link RegexCacheStats} is a snapshot of the counters of the cache of regular expressions
+ * compiled by the CEL {@code matches} function, see {@link Validator#getRegexCacheStats()}. The
+ * counters are cumulative since the validator was built.
+ */
+public final class RegexCacheStats {
+  /** Statistics of a validator without a regular expression cache. */
+  public static final RegexCacheStats EMPTY = new RegexCacheStats(0, 0, 0, 0, 0);
+
+  private final int capacity;
+  private final int size;
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+
+  RegexCacheStats(int capacity, int size, long hitCount, long missCount, long evictionCount) {
+    this.capacity = capacity;
+    this.size = size;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+  }
+
+  /**
+   * Get the maximum number of cached patterns.
+   *
+   * @return the capacity.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Get the number of cached patterns.
+   *
+   * @return the size.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Get the number of lookups that found a cached pattern.
+   *
+   * @return the hit count.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Get the number of lookups that compiled the pattern.
+   *
+   * @return the miss count.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Get the number of patterns evicted to make room for others.
+   *
+   * @return the eviction count.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public String toString() {
+    return "RegexCacheStats{capacity="
+        + capacity
+        + ", size="
+        + size
+        + ", hitCount="
+        + hitCount
+        + ", missCount="
+        + missCount
+        + ", evictionCount="
+        + evictionCount
+        + "}";
+  }
+}
@@ -0,0 +1,740 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import com.google.re2j.Pattern;
+import com.google.re2j.PatternSyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link RegexMatcher} tests whether a string matches a regular expression entirely, like {@link
+ * Pattern#matches(String)}.
+ *
+ * <p>Simple expressions, made of literals, character classes, groups, alternations and repetitions,
+ * are compiled to a Glushkov automaton of at most 64 positions. The automaton is run over the code
+ * points of the string with its set of states held in a {@code long}, which amounts to walking the
+ * equivalent DFA without building it, and allocates nothing. Other expressions, and those with too
+ * many positions, are matched with RE2/J.
+ */
+abstract class RegexMatcher {
+  private static final int MAX_POSITIONS = 64;
+  private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+
+  /**
+   * Compiles a regular expression.
+   *
+   * @param regex The regular expression, in RE2 syntax.
+   * @return The matcher.
+   * @throws PatternSyntaxException If the regular expression is invalid.
+   */
+  static RegexMatcher compile(String regex) {
+    // RE2/J validates the syntax, so the automaton parser only has to recognize what it supports.
+    Pattern pattern = Pattern.compile(regex);
+    RegexMatcher automaton = automaton(regex);
+    return automaton != null ? automaton : new Re2jMatcher(pattern);
+  }
+
+  /**
+   * Compiles a valid regular expression to an automaton.
+   *
+   * @param regex The regular expression.
+   * @return The automaton, or null if the expression is not simple enough.
+   */
+  static @Nullable RegexMatcher automaton(String regex) {
+    try {
+      Node node = new Parser(regex).parse();
+      return new Glushkov().build(node);
+    } catch (Unsupported e) {
+      return null;
+    }
+  }
+
+  /**
+   * Compiles a valid regular expression anchored at both of its ends, such as {@code ^[a-z]+$}, to
+   * an automaton. Searching for such an expression anywhere in a string, as CEL's {@code matches}
+   * does, is the same as matching the whole string.
+   *
+   * @param regex The regular expression.
+   * @return The automaton, or null if the expression is not anchored or not simple enough.
+   */
+  static @Nullable RegexMatcher anchoredAutomaton(String regex) {
+    try {
+      Node node = new Parser(regex).parse();
+      if (!(node instanceof ConcatNode) || ((ConcatNode) node).nodes.size() < 2) {
+        return null;
+      }
+      // The parser only accepts anchors at the ends of the expression, so an alternation such as
+      // "^a|b$" is a single alternation rather than an anchored concatenation.
+      List<Node> nodes = ((ConcatNode) node).nodes;
+      if (nodes.get(0) != EmptyNode.INSTANCE
+          || nodes.get(nodes.size() - 1) != EmptyNode.INSTANCE
+          || regex.charAt(0) != '^'
+          || regex.charAt(regex.length() - 1) != '$') {
+        return null;
+      }
+      return new Glushkov().build(node);
+    } catch (Unsupported e) {
+      return null;
+    }
+  }
+
+  /**
+   * Tests whether the whole string matches.
+   *
+   * @param s The string.
+   * @return true if the string matches.
+   */
+  abstract boolean matches(String s);
+
+  private static final class Re2jMatcher extends RegexMatcher {
+    private final Pattern pattern;
+
+    Re2jMatcher(Pattern pattern) {
+      this.pattern = pattern;
+    }
+
+    @Override
+    boolean matches(String s) {
+      return pattern.matches(s);
+    }
+  }
+
+  /** The compiled automaton. Position i is bit i of the state sets. */
+  private static final class Automaton extends RegexMatcher {
+    /** Positions that may match the first code point. */
+    private final long first;
+
+    /** Positions that may match the last code point. */
+    private final long last;
+
+    /** Whether the empty string matches. */
+    private final boolean nullable;
+
+    /** Positions that may match the code point following one matched by position i. */
+    private final long[] follow;
+
+    /** Positions matching each ASCII code point. */
+    private final long[] ascii;
+
+    /** Sorted, disjoint code point ranges of each position, as pairs of bounds. */
+    private final int[][] ranges;
+
+    Automaton(boolean nullable, long first, long last, long[] follow, int[][] ranges) {
+      this.nullable = nullable;
+      this.first = first;
+      this.last = last;
+      this.follow = follow;
+      this.ranges = ranges;
+      this.ascii = new long[128];
+      for (int position = 0; position < ranges.length; position++) {
+        for (int c = 0; c < 128; c++) {
+          if (contains(ranges[position], c)) {
+            ascii[c] |= 1L << position;
+          }
+        }
+      }
+    }
+
+    @Override
+    boolean matches(String s) {
+      int length = s.length();
+      if (length == 0) {
+        return nullable;
+      }
+      long candidates = first;
+      long matched = 0;
+      for (int i = 0; i < length; ) {
+        int c = s.charAt(i);
+        if (c < 128) {
+          matched = candidates & ascii[c];
+          i++;
+        } else {
+          c = s.codePointAt(i);
+          matched = accepting(candidates, c);
+          i += Character.charCount(c);
+        }
+        if (matched == 0) {
+          return false;
+        }
+        candidates = 0;
+        for (long bits = matched; bits != 0; bits &= bits - 1) {
+          candidates |= follow[Long.numberOfTrailingZeros(bits)];
+        }
+      }
+      return (matched & last) != 0;
+    }
+
+    private long accepting(long candidates, int c) {
+      long matched = 0;
+      for (long bits = candidates; bits != 0; bits &= bits - 1) {
+        int position = Long.numberOfTrailingZeros(bits);
+        if (contains(ranges[position], c)) {
+          matched |= 1L << position;
+        }
+      }
+      return matched;
+    }
+
+    private static boolean contains(int[] ranges, int c) {
+      for (int i = 0; i < ranges.length && ranges[i] <= c; i += 2) {
+        if (c <= ranges[i + 1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  // --- Parser ---
+
+  /** Thrown when an expression cannot be compiled to an automaton. */
+  private static final class Unsupported extends Exception {
+    Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+
+  private abstract static class Node {}
+
+  /** Matches the empty string, such as anchors at the ends of the expression. */
+  private static final class EmptyNode extends Node {
+    static final EmptyNode INSTANCE = new EmptyNode();
+  }
+
+  /** Matches one code point of a set of ranges. */
+  private static final class ClassNode extends Node {
+    final int[] ranges;
+
+    ClassNode(int[] ranges) {
+      this.ranges = ranges;
+    }
+  }
+
+  private static final class ConcatNode extends Node {
+    final List<Node> nodes;
+
+    ConcatNode(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+  }
+
+  private static final class AltNode extends Node {
+    final List<Node> nodes;
+
+    AltNode(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+  }
+
+  private static final class RepeatNode extends Node {
+    final Node node;
+    final int min;
+
+    /** The maximum number of repetitions, or -1 if unbounded. */
+    final int max;
+
+    RepeatNode(Node node, int min, int max) {
+      this.node = node;
+      this.min = min;
+      this.max = max;
+    }
+  }
+
+  /**
+   * Parses the subset of RE2 syntax the automaton supports. Expressions are assumed to be valid, so
+   * syntax errors are not reported precisely.
+   */
+  private static final class Parser {
+    private final String regex;
+    private int pos;
+
+    Parser(String regex) {
+      this.regex = regex;
+    }
+
+    Node parse() throws Unsupported {
+      Node node = parseAlt();
+      if (pos != regex.length()) {
+        throw new Unsupported();
+      }
+      return node;
+    }
+
+    private Node parseAlt() throws Unsupported {
+      Node node = parseConcat();
+      if (!peek('|')) {
+        return node;
+      }
+      List<Node> nodes = new ArrayList<>();
+      nodes.add(node);
+      while (peek('|')) {
+        pos++;
+        nodes.add(parseConcat());
+      }
+      return new AltNode(nodes);
+    }
+
+    private Node parseConcat() throws Unsupported {
+      List<Node> nodes = new ArrayList<>();
+      while (pos < regex.length() && !peek('|') && !peek(')')) {
+        Node node = parseAtom();
+        while (pos < regex.length()) {
+          char c = regex.charAt(pos);
+          @Nullable Node repeat;
+          if (c == '*') {
+            repeat = new RepeatNode(node, 0, -1);
+            pos++;
+          } else if (c == '+') {
+            repeat = new RepeatNode(node, 1, -1);
+            pos++;
+          } else if (c == '?') {
+            repeat = new RepeatNode(node, 0, 1);
+            pos++;
+          } else if (c == '{') {
+            repeat = parseRepeat(node);
+          } else {
+            repeat = null;
+          }
+          if (repeat == null) {
+            break;
+          }
+          node = repeat;
+          // Laziness does not change which strings match.
+          if (peek('?')) {
+            pos++;
+          }
+        }
+        nodes.add(node);
+      }
+      return nodes.size() == 1 ? nodes.get(0) : new ConcatNode(nodes);
+    }
+
+    /** Parses {n}, {n,} or {n,m} at pos, advancing pos, or returns null for a literal brace. */
+    private @Nullable Node parseRepeat(Node node) {
+      int end = regex.indexOf('}', pos);
+      if (end < 0) {
+        return null;
+      }
+      String spec = regex.substring(pos + 1, end);
+      int comma = spec.indexOf(',');
+      String min = comma < 0 ? spec : spec.substring(0, comma);
+      String max = comma < 0 ? spec : spec.substring(comma + 1);
+      if (!isNumber(min) || (!max.isEmpty() && !isNumber(max))) {
+        return null;
+      }
+      pos = end + 1;
+      return new RepeatNode(
+          node, Integer.parseInt(min), max.isEmpty() ? -1 : Integer.parseInt(max));
+    }
+
+    private static boolean isNumber(String s) {
+      if (s.isEmpty() || s.length() > 4) {
+        return false;
+      }
+      for (int i = 0; i < s.length(); i++) {
+        if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private Node parseAtom() throws Unsupported {
+      int c = regex.codePointAt(pos);
+      switch (c) {
+        case '(':
+          pos++;
+          if (peek('?')) {
+            if (regex.startsWith("?:", pos)) {
+              pos += 2;
+            } else if (regex.startsWith("?P<", pos) || regex.startsWith("?<", pos)) {
+              pos = regex.indexOf('>', pos) + 1;
+            } else {
+              // Flags.
+              throw new Unsupported();
+            }
+          }
+          Node node = parseAlt();
+          if (!peek(')')) {
+            throw new Unsupported();
+          }
+          pos++;
+          return node;
+        case '[':
+          pos++;
+          return new ClassNode(parseClass());
+        case '.':
+          pos++;
+          return new ClassNode(new int[] {0, '\n' - 1, '\n' + 1, MAX_CODE_POINT});
+        case '^':
+          // Matching starts at the beginning of the string.
+          if (pos != 0) {
+            throw new Unsupported();
+          }
+          pos++;
+          return EmptyNode.INSTANCE;
+        case '$':
+          // Matching ends at the end of the string.
+          if (pos != regex.length() - 1) {
+            throw new Unsupported();
+          }
+          pos++;
+          return EmptyNode.INSTANCE;
+        case '\\':
+          pos++;
+          int[] ranges = parseEscape();
+          return new ClassNode(ranges);
+        default:
+          pos += Character.charCount(c);
+          return new ClassNode(new int[] {c, c});
+      }
+    }
+
+    /** Parses an escape after the backslash, as the ranges it matches. */
+    private int[] parseEscape() throws Unsupported {
+      if (pos >= regex.length()) {
+        throw new Unsupported();
+      }
+      char c = regex.charAt(pos);
+      int[] perl = perlClass(c);
+      if (perl != null) {
+        pos++;
+        return perl;
+      }
+      int literal = parseEscapedLiteral();
+      return new int[] {literal, literal};
+    }
+
+    /** Parses an escape after the backslash that stands for a single code point. */
+    private int parseEscapedLiteral() throws Unsupported {
+      char c = regex.charAt(pos++);
+      switch (c) {
+        case 'a':
+          return 7;
+        case 'f':
+          return '\f';
+        case 'n':
+          return '\n';
+        case 'r':
+          return '\r';
+        case 't':
+          return '\t';
+        case 'v':
+          return 0x0B;
+        case 'x':
+          return parseHex();
+        default:
+          if (c < 128 && !Character.isLetterOrDigit(c)) {
+            return c;
+          }
+          // Assertions, Unicode classes, octal escapes and quoting.
+          throw new Unsupported();
+      }
+    }
+
+    private int parseHex() throws Unsupported {
+      int end;
+      int start;
+      if (peek('{')) {
+        start = pos + 1;
+        end = regex.indexOf('}', start);
+        if (end < 0) {
+          throw new Unsupported();
+        }
+        pos = end + 1;
+      } else {
+        start = pos;
+        end = pos + 2;
+        pos = end;
+      }
+      try {
+        return Integer.parseInt(regex.substring(start, end), 16);
+      } catch (NumberFormatException | IndexOutOfBoundsException e) {
+        throw new Unsupported();
+      }
+    }
+
+    /** Parses a character class after the opening bracket, as sorted, disjoint ranges. */
+    private int[] parseClass() throws Unsupported {
+      boolean negated = peek('^');
+      if (negated) {
+        pos++;
+      }
+      List<int[]> ranges = new ArrayList<>();
+      boolean first = true;
+      while (first || !peek(']')) {
+        if (pos >= regex.length()) {
+          throw new Unsupported();
+        }
+        first = false;
+        if (regex.startsWith("[:", pos)) {
+          int end = regex.indexOf(":]", pos + 2);
+          if (end < 0) {
+            throw new Unsupported();
+          }
+          String name = regex.substring(pos + 2, end);
+          boolean negatedPosix = name.startsWith("^");
+          int[] posix = posixClass(negatedPosix ? name.substring(1) : name);
+          if (posix == null) {
+            throw new Unsupported();
+          }
+          ranges.add(negatedPosix ? negate(posix) : posix);
+          pos = end + 2;
+          continue;
+        }
+        int lo;
+        if (peek('\\')) {
+          pos++;
+          int[] perl = pos < regex.length() ? perlClass(regex.charAt(pos)) : null;
+          if (perl != null) {
+            pos++;
+            ranges.add(perl);
+            continue;
+          }
+          lo = parseEscapedLiteral();
+        } else {
+          lo = regex.codePointAt(pos);
+          pos += Character.charCount(lo);
+        }
+        int hi = lo;
+        if (peek('-') && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+          pos++;
+          if (peek('\\')) {
+            pos++;
+            hi = parseEscapedLiteral();
+          } else {
+            hi = regex.codePointAt(pos);
+            pos += Character.charCount(hi);
+          }
+        }
+        ranges.add(new int[] {lo, hi});
+      }
+      pos++;
+      int[] merged = merge(ranges);
+      return negated ? negate(merged) : merged;
+    }
+
+    private boolean peek(char c) {
+      return pos < regex.length() && regex.charAt(pos) == c;
+    }
+  }
+
+  // --- Character classes ---
+
+  private static final int[] DIGIT = {'0', '9'};
+  private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+  private static final int[] PERL_SPACE = {'\t', '\n', '\f', '\r', ' ', ' '};
+
+  private static int @Nullable [] perlClass(char c) {
+    switch (c) {
+      case 'd':
+        return DIGIT;
+      case 'D':
+        return negate(DIGIT);
+      case 'w':
+        return WORD;
+      case 'W':
+        return negate(WORD);
+      case 's':
+        return PERL_SPACE;
+      case 'S':
+        return negate(PERL_SPACE);
+      default:
+        return null;
+    }
+  }
+
+  private static int @Nullable [] posixClass(String name) {
+    switch (name) {
+      case "alnum":
+        return new int[] {'0', '9', 'A', 'Z', 'a', 'z'};
+      case "alpha":
+        return new int[] {'A', 'Z', 'a', 'z'};
+      case "ascii":
+        return new int[] {0, 0x7F};
+      case "blank":
+        return new int[] {'\t', '\t', ' ', ' '};
+      case "cntrl":
+        return new int[] {0, 0x1F, 0x7F, 0x7F};
+      case "digit":
+        return DIGIT;
+      case "graph":
+        return new int[] {'!', '~'};
+      case "lower":
+        return new int[] {'a', 'z'};
+      case "print":
+        return new int[] {' ', '~'};
+      case "punct":
+        return new int[] {'!', '/', ':', '@', '[', '`', '{', '~'};
+      case "space":
+        return new int[] {'\t', '\r', ' ', ' '};
+      case "upper":
+        return new int[] {'A', 'Z'};
+      case "word":
+        return WORD;
+      case "xdigit":
+        return new int[] {'0', '9', 'A', 'F', 'a', 'f'};
+      default:
+        return null;
+    }
+  }
+
+  /** Merges ranges, each given as pairs of bounds, into sorted, disjoint ranges. */
+  private static int[] merge(List<int[]> classes) {
+    List<int[]> ranges = new ArrayList<>();
+    for (int[] bounds : classes) {
+      for (int i = 0; i < bounds.length; i += 2) {
+        ranges.add(new int[] {bounds[i], bounds[i + 1]});
+      }
+    }
+    ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+    int[] merged = new int[ranges.size() * 2];
+    int size = 0;
+    for (int[] range : ranges) {
+      if (size > 0 && range[0] <= merged[size - 1] + 1) {
+        merged[size - 1] = Math.max(merged[size - 1], range[1]);
+      } else {
+        merged[size++] = range[0];
+        merged[size++] = range[1];
+      }
+    }
+    return Arrays.copyOf(merged, size);
+  }
+
+  /** Complements sorted, disjoint ranges. */
+  private static int[] negate(int[] ranges) {
+    int[] negated = new int[ranges.length + 2];
+    int size = 0;
+    int next = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (ranges[i] > next) {
+        negated[size++] = next;
+        negated[size++] = ranges[i] - 1;
+      }
+      next = ranges[i + 1] + 1;
+    }
+    if (next <= MAX_CODE_POINT) {
+      negated[size++] = next;
+      negated[size++] = MAX_CODE_POINT;
+    }
+    return Arrays.copyOf(negated, size);
+  }
+
+  // --- Glushkov construction ---
+
+  /**
+   * The positions a subexpression starts and ends with, and whether it matches the empty string.
+   */
+  private static final class Fragment {
+    static final Fragment EMPTY = new Fragment(true, 0, 0);
+
+    final boolean nullable;
+    final long first;
+    final long last;
+
+    Fragment(boolean nullable, long first, long last) {
+      this.nullable = nullable;
+      this.first = first;
+      this.last = last;
+    }
+  }
+
+  /** Builds an automaton, numbering positions as the leaves of the expression are visited. */
+  private static final class Glushkov {
+    private final long[] follow = new long[MAX_POSITIONS];
+    private final List<int[]> ranges = new ArrayList<>();
+
+    Automaton build(Node node) throws Unsupported {
+      Fragment fragment = visit(node);
+      return new Automaton(
+          fragment.nullable,
+          fragment.first,
+          fragment.last,
+          Arrays.copyOf(follow, ranges.size()),
+          ranges.toArray(new int[0][]));
+    }
+
+    private Fragment visit(Node node) throws Unsupported {
+      if (node instanceof ClassNode) {
+        if (ranges.size() == MAX_POSITIONS) {
+          throw new Unsupported();
+        }
+        long position = 1L << ranges.size();
+        ranges.add(((ClassNode) node).ranges);
+        return new Fragment(false, position, position);
+      }
+      if (node instanceof ConcatNode) {
+        Fragment fragment = Fragment.EMPTY;
+        for (Node child : ((ConcatNode) node).nodes) {
+          fragment = concat(fragment, visit(child));
+        }
+        return fragment;
+      }
+      if (node instanceof AltNode) {
+        boolean nullable = false;
+        long first = 0;
+        long last = 0;
+        for (Node child : ((AltNode) node).nodes) {
+          Fragment fragment = visit(child);
+          nullable |= fragment.nullable;
+          first |= fragment.first;
+          last |= fragment.last;
+        }
+        return new Fragment(nullable, first, last);
+      }
+      if (node instanceof RepeatNode) {
+        return repeat((RepeatNode) node);
+      }
+      return Fragment.EMPTY;
+    }
+
+    /** Unrolls x{n,m} to n copies of x followed by m-n optional copies, x{n,} to x{n-1}x+. */
+    private Fragment repeat(RepeatNode repeat) throws Unsupported {
+      Fragment fragment = Fragment.EMPTY;
+      int copies = repeat.max < 0 ? Math.max(repeat.min - 1, 0) : repeat.min;
+      for (int i = 0; i < copies; i++) {
+        fragment = concat(fragment, visit(repeat.node));
+      }
+      if (repeat.max < 0) {
+        Fragment loop = visit(repeat.node);
+        link(loop.last, loop.first);
+        boolean nullable = loop.nullable || repeat.min == 0;
+        return concat(fragment, new Fragment(nullable, loop.first, loop.last));
+      }
+      for (int i = repeat.min; i < repeat.max; i++) {
+        Fragment optional = visit(repeat.node);
+        fragment = concat(fragment, new Fragment(true, optional.first, optional.last));
+      }
+      return fragment;
+    }
+
+    private Fragment concat(Fragment a, Fragment b) {
+      link(a.last, b.first);
+      return new Fragment(
+          a.nullable && b.nullable,
+          a.nullable ? a.first | b.first : a.first,
+          b.nullable ? a.last | b.last : b.last);
+    }
+
+    private void link(long from, long to) {
+      for (long bits = from; bits != 0; bits &= bits - 1) {
+        follow[Long.numberOfTrailingZeros(bits)] |= to;
+      }
+    }
+  }
+}
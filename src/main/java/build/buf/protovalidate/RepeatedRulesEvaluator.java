@@ -144,44 +144,37 @@ final class RepeatedRulesEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast) {
+  public void evaluate(Value val, ViolationSink violations) {
     List<?> list = (List<?>) val.rawValue();
     long size = list.size();
-    List<RuleViolation.Builder> violations = null;
 
     if (minItems != null && size < minItems) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MIN_ITEMS_SITE,
-                  null,
-                  "must contain at least " + minItems + " item(s)",
-                  val,
-                  minItems));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MIN_ITEMS_SITE,
+              null,
+              "must contain at least " + minItems + " item(s)",
+              val,
+              minItems));
+      if (violations.isDone()) return;
     }
 
     if (maxItems != null && size > maxItems) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MAX_ITEMS_SITE,
-                  null,
-                  "must contain no more than " + maxItems + " item(s)",
-                  val,
-                  maxItems));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MAX_ITEMS_SITE,
+              null,
+              "must contain no more than " + maxItems + " item(s)",
+              val,
+              maxItems));
+      if (violations.isDone()) return;
     }
 
     if (unique && !CustomOverload.uniqueList(list)) {
-      violations =
-          RuleBase.add(
-              violations, NativeViolations.newViolation(UNIQUE_SITE, null, null, val, true));
-      if (failFast) return base.done(violations);
+      base.add(violations, NativeViolations.newViolation(UNIQUE_SITE, null, null, val, true));
+      if (violations.isDone()) return;
     }
-
-    return base.done(violations);
   }
 }
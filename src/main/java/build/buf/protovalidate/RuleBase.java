@@ -17,8 +17,9 @@ package build.buf.protovalidate;
 import build.buf.validate.FieldPath;
 import build.buf.validate.FieldPathElement;
 import com.google.protobuf.Descriptors.FieldDescriptor;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.function.Function;
 import org.jspecify.annotations.Nullable;
@@ -28,9 +29,9 @@ import org.jspecify.annotations.Nullable;
  * containing-message field path element, and any nested-rule prefix that must be prepended to rule
  * paths in violations.
  *
- * <p>Mirrors the {@code base} struct in protovalidate-go's {@code base.go}, adapted to Java's
- * existing pattern of letting violations bubble up the call stack with prepended path elements (see
- * {@link FieldPathUtils#updatePaths}).
+ * <p>Mirrors the {@code base} struct in protovalidate-go's {@code base.go}. Native evaluators add
+ * violations through {@link #add}, which prepends the field path element and rule prefix before the
+ * violation enters the {@link ViolationSink}.
  */
 final class RuleBase {
   private static final List<FieldPathElement> EMPTY_PREFIX = Collections.emptyList();
@@ -82,34 +83,14 @@ final class RuleBase {
     return rulePrefix.getElementsList();
   }
 
-  // --- Shared violation-list helpers ---
-  //
-  // Every native evaluator uses the same lazy null → ArrayList growth pattern and the same
-  // tail-call to FieldPathUtils.updatePaths. These live here so each evaluator doesn't
-  // re-implement them.
+  // --- Shared violation helpers ---
 
   /**
-   * Lazily appends {@code v} to {@code violations}, allocating an {@link ArrayList} only on the
-   * first append.
+   * Adds {@code v} to {@code violations}, prepending this base's field-path element and rule-prefix
+   * elements first.
    */
-  static List<RuleViolation.Builder> add(
-      @Nullable List<RuleViolation.Builder> violations, RuleViolation.Builder v) {
-    if (violations == null) {
-      violations = new ArrayList<>(2);
-    }
-    violations.add(v);
-    return violations;
-  }
-
-  /**
-   * Finalizes a violation list: returns the empty constant when there's nothing to report,
-   * otherwise prepends this base's field-path element and rule-prefix elements.
-   */
-  List<RuleViolation.Builder> done(@Nullable List<RuleViolation.Builder> violations) {
-    if (violations == null || violations.isEmpty()) {
-      return RuleViolation.NO_VIOLATIONS;
-    }
-    return FieldPathUtils.updatePaths(violations, fieldPathElement, getRulePrefixElements());
+  void add(ViolationSink violations, RuleViolation.Builder v) {
+    violations.add(FieldPathUtils.updatePaths(v, fieldPathElement, getRulePrefixElements()));
   }
 
   /** Renders a list as {@code "[a, b, c]"} using {@code toString} on each element. */
@@ -117,6 +98,18 @@ final class RuleBase {
     return formatList(vals, Object::toString);
   }
 
+  /**
+   * Returns a collection holding {@code vals} for {@code in}/{@code not_in} lookups: the list
+   * itself when it is short enough to scan, otherwise a hash set. See {@link LongSet} for primitive
+   * values.
+   */
+  static <T> Collection<T> membershipSet(List<T> vals) {
+    if (vals.size() <= LongSet.LINEAR_MAX) {
+      return vals;
+    }
+    return Collections.unmodifiableSet(new HashSet<>(vals));
+  }
+
   /** Renders a list as {@code "[a, b, c]"} using {@code formatter} on each element. */
   static <T> String formatList(List<T> vals, Function<T, String> formatter) {
     StringBuilder sb = new StringBuilder("[");
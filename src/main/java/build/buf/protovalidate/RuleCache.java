@@ -20,6 +20,7 @@ import build.buf.validate.FieldRules;
 import build.buf.validate.ValidateProto;
 import com.google.protobuf.DescriptorProtos;
 import com.google.protobuf.Descriptors;
+import com.google.protobuf.Descriptors.Descriptor;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.ExtensionRegistry;
@@ -28,10 +29,13 @@ import com.google.protobuf.Message;
 import com.google.protobuf.MessageLite;
 import com.google.protobuf.TypeRegistry;
 import dev.cel.bundle.Cel;
+import dev.cel.common.CelAbstractSyntaxTree;
+import dev.cel.common.types.CelType;
 import dev.cel.common.types.StructTypeReference;
 import dev.cel.runtime.CelEvaluationException;
 import dev.cel.runtime.CelRuntime.Program;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -41,13 +45,19 @@ import org.jspecify.annotations.Nullable;
 /** A build-through cache for computed standard rules. */
 final class RuleCache {
   private static class CelRule {
+    final Cel cel;
     final AstExpression astExpression;
     final Program program;
     final FieldDescriptor field;
     final FieldPath rulePath;
 
     private CelRule(
-        AstExpression astExpression, Program program, FieldDescriptor field, FieldPath rulePath) {
+        Cel cel,
+        AstExpression astExpression,
+        Program program,
+        FieldDescriptor field,
+        FieldPath rulePath) {
+      this.cel = cel;
       this.astExpression = astExpression;
       this.program = program;
       this.field = field;
@@ -62,13 +72,21 @@ final class RuleCache {
   }
 
   /**
-   * Compiled rules keyed by rule field descriptor (e.g. {@code StringRules.min_len}), shared across
-   * all user fields that reference the same rule. The rule value is bound per call at eval time.
+   * Compiled rules keyed by rule field descriptor (e.g. {@code StringRules.min_len}) and the CEL
+   * type of {@code this}, shared across all user fields that reference the same rule on values of
+   * the same type. The rule value is bound per field, see {@link #programs}.
    */
-  private final Map<FieldDescriptor, List<CelRule>> descriptorMap = new ConcurrentHashMap<>();
+  private final Map<List<Object>, List<CelRule>> descriptorMap = new ConcurrentHashMap<>();
 
-  /** The environment to use for evaluation. */
-  private final Cel cel;
+  /**
+   * Programs binding a compiled rule to the rules message it was resolved from, keyed by both.
+   * Fields with equal rules, such as many {@code string.max_len = 256} fields, share programs. With
+   * CEL optimization enabled, the rules are inlined into the program, see {@link CelOptimization}.
+   */
+  private final Map<List<Object>, CompiledProgram> programs = new ConcurrentHashMap<>();
+
+  /** The environments rules are compiled in. */
+  private final CelEnvironments environments;
 
   /** Registry used to resolve dynamic messages. */
   private final TypeRegistry typeRegistry;
@@ -79,18 +97,27 @@ final class RuleCache {
   /** Whether to allow unknown rule fields or not. */
   private final boolean allowUnknownFields;
 
+  /** The precompiled rules to look expressions up in before compiling them. */
+  private final PrecompiledRules precompiled;
+
+  /** Whether to inline the rules into the expressions of the rules that are set. */
+  private final boolean optimizeCel;
+
   /**
    * Constructs a new build-through cache for the standard rules, with a provided registry to
    * resolve dynamic extensions.
    *
-   * @param cel The CEL environment for evaluation.
+   * @param environments The environments to compile rules in.
    * @param config The configuration to use for the rule cache.
+   * @param precompiled The precompiled rules to look expressions up in.
    */
-  RuleCache(Cel cel, Config config) {
-    this.cel = cel;
+  RuleCache(CelEnvironments environments, Config config, PrecompiledRules precompiled) {
+    this.environments = environments;
     this.typeRegistry = config.getTypeRegistry();
     this.extensionRegistry = config.getExtensionRegistry();
     this.allowUnknownFields = config.isAllowingUnknownFields();
+    this.precompiled = precompiled;
+    this.optimizeCel = config.isCelOptimizationEnabled();
   }
 
   /**
@@ -112,36 +139,67 @@ final class RuleCache {
       return Collections.emptyList();
     }
     Message message = resolved.message;
+    CelType thisType = DescriptorMappings.getCELType(fieldDescriptor, forItems);
     List<CelRule> completeProgramList = new ArrayList<>();
     for (Map.Entry<FieldDescriptor, Object> entry : message.getAllFields().entrySet()) {
       FieldDescriptor ruleFieldDesc = entry.getKey();
-      List<CelRule> programList =
-          compileRule(fieldDescriptor, forItems, resolved.setOneof, ruleFieldDesc, message);
+      List<CelRule> programList = compileRule(thisType, resolved.setOneof, ruleFieldDesc, message);
       if (programList == null) continue;
       completeProgramList.addAll(programList);
     }
-    List<CompiledProgram> programs = new ArrayList<>();
+    List<CompiledProgram> compiledPrograms = new ArrayList<>(completeProgramList.size());
     for (CelRule rule : completeProgramList) {
-      Object fieldValue = message.getField(rule.field);
-      programs.add(
-          new CompiledProgram(
-              rule.program,
-              rule.astExpression.source,
-              rule.rulePath,
-              new ObjectValue(rule.field, fieldValue),
-              Variable.newRuleVariable(message, ProtoAdapter.toCel(rule.field, fieldValue))));
+      // CelRule does not override equals, so rules compare by identity.
+      List<Object> key = Arrays.asList(rule, message);
+      CompiledProgram program = programs.get(key);
+      if (program == null) {
+        program = bind(rule, message);
+        CompiledProgram previous = programs.putIfAbsent(key, program);
+        if (previous != null) {
+          program = previous;
+        }
+      }
+      compiledPrograms.add(program);
     }
-    return Collections.unmodifiableList(programs);
+    return Collections.unmodifiableList(compiledPrograms);
+  }
+
+  /**
+   * Binds a compiled rule to the value of the rules message it was resolved from, inlining the
+   * value into the expression if CEL optimization is enabled.
+   */
+  private CompiledProgram bind(CelRule rule, Message message) throws CompilationException {
+    Object fieldValue = message.getField(rule.field);
+    Program program = rule.program;
+    boolean bindRules = true;
+    CelAbstractSyntaxTree optimized =
+        optimizeCel
+            ? CelOptimization.optimizeRule(rule.cel, rule.astExpression.ast, message, rule.field)
+            : null;
+    if (optimized != null) {
+      try {
+        program = rule.cel.createProgram(optimized);
+      } catch (CelEvaluationException e) {
+        throw new CompilationException(
+            "failed to create program for rule " + rule.astExpression.source.id, e);
+      }
+      bindRules = CelOptimization.references(optimized, Variable.RULES_NAME, Variable.RULE_NAME);
+    }
+    return new CompiledProgram(
+        program,
+        rule.astExpression.source,
+        rule.rulePath,
+        new ObjectValue(rule.field, fieldValue),
+        bindRules
+            ? Activation.Globals.of(message, ProtoAdapter.toCel(rule.field, fieldValue))
+            : null);
   }
 
   private @Nullable List<CelRule> compileRule(
-      FieldDescriptor fieldDescriptor,
-      boolean forItems,
-      FieldDescriptor setOneof,
-      FieldDescriptor ruleFieldDesc,
-      Message message)
+      CelType thisType, FieldDescriptor setOneof, FieldDescriptor ruleFieldDesc, Message message)
       throws CompilationException {
-    List<CelRule> celRules = descriptorMap.get(ruleFieldDesc);
+    List<Object> cacheKey = Arrays.asList(ruleFieldDesc, thisType);
+    List<CelRule> celRules = descriptorMap.get(cacheKey);
     if (celRules != null) {
       return celRules;
     }
@@ -149,10 +207,10 @@ final class RuleCache {
     if (rules == null) return null;
     try {
       return descriptorMap.computeIfAbsent(
-          ruleFieldDesc,
+          cacheKey,
           key -> {
             try {
-              return buildCelRules(fieldDescriptor, forItems, setOneof, key, message, rules);
+              return buildCelRules(thisType, setOneof, ruleFieldDesc, message, rules);
             } catch (CompilationException e) {
               throw new UncheckedCompilationException(e);
             }
@@ -163,8 +221,7 @@ final class RuleCache {
   }
 
   private List<CelRule> buildCelRules(
-      FieldDescriptor fieldDescriptor,
-      boolean forItems,
+      CelType thisType,
       FieldDescriptor setOneof,
       FieldDescriptor ruleFieldDesc,
       Message message,
@@ -172,14 +229,20 @@ final class RuleCache {
       throws CompilationException {
     List<Expression> expressions = Expression.fromRules(rules.getCelList());
     List<CelRule> celRules = new ArrayList<>(expressions.size());
-    Cel ruleCel = getRuleCel(fieldDescriptor, message, ruleFieldDesc, forItems);
+    Cel ruleCel = getRuleCel(thisType, message, ruleFieldDesc);
+    String environment =
+        PrecompiledRules.environment(
+            thisType,
+            StructTypeReference.create(message.getDescriptorForType().getFullName()),
+            DescriptorMappings.getCELType(ruleFieldDesc, false));
     for (Expression expression : expressions) {
       FieldPath rulePath =
           FieldPath.newBuilder()
               .addElements(FieldPathUtils.fieldPathElement(setOneof))
               .addElements(FieldPathUtils.fieldPathElement(ruleFieldDesc))
               .build();
-      AstExpression astExpression = AstExpression.newAstExpression(ruleCel, expression);
+      AstExpression astExpression =
+          AstExpression.newAstExpression(ruleCel, expression, precompiled, environment);
       Program program;
       try {
         program = ruleCel.createProgram(astExpression.ast);
@@ -187,7 +250,7 @@ final class RuleCache {
         throw new CompilationException(
             "failed to create program for rule " + astExpression.source.id, e);
       }
-      celRules.add(new CelRule(astExpression, program, ruleFieldDesc, rulePath));
+      celRules.add(new CelRule(ruleCel, astExpression, program, ruleFieldDesc, rulePath));
     }
     return celRules;
   }
@@ -243,25 +306,21 @@ final class RuleCache {
   /**
    * Calculates the environment for a specific rule invocation.
    *
-   * @param fieldDescriptor The field descriptor of the field with the rule.
+   * @param thisType The CEL type of the value the rule applies to.
    * @param ruleMessage The message of the standard rules.
    * @param ruleFieldDesc The field descriptor of the rule.
-   * @param forItems Whether the field is a list type or not.
    * @return An environment with requisite declarations and types added.
    */
-  private Cel getRuleCel(
-      FieldDescriptor fieldDescriptor,
-      Message ruleMessage,
-      FieldDescriptor ruleFieldDesc,
-      boolean forItems) {
-    return cel.toCelBuilder()
-        .addMessageTypes(ruleMessage.getDescriptorForType())
-        .addVar(Variable.THIS_NAME, DescriptorMappings.getCELType(fieldDescriptor, forItems))
-        .addVar(
-            Variable.RULES_NAME,
-            StructTypeReference.create(ruleMessage.getDescriptorForType().getFullName()))
-        .addVar(Variable.RULE_NAME, DescriptorMappings.getCELType(ruleFieldDesc, false))
-        .build();
+  private Cel getRuleCel(CelType thisType, Message ruleMessage, FieldDescriptor ruleFieldDesc) {
+    Descriptor ruleType = ruleMessage.getDescriptorForType();
+    return environments.get(
+        ruleType,
+        new String[] {Variable.THIS_NAME, Variable.RULES_NAME, Variable.RULE_NAME},
+        new CelType[] {
+          thisType,
+          StructTypeReference.create(ruleType.getFullName()),
+          DescriptorMappings.getCELType(ruleFieldDesc, false)
+        });
   }
 
   private static class ResolvedRule {
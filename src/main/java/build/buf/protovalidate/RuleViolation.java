@@ -17,21 +17,20 @@ package build.buf.protovalidate;
 import build.buf.validate.FieldPath;
 import build.buf.validate.FieldPathElement;
 import com.google.protobuf.Descriptors;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 import org.jspecify.annotations.Nullable;
 
 /**
  * {@link RuleViolation} contains all the collected information about an individual rule violation.
+ *
+ * <p>Field and rule paths are kept as {@link FieldPathNode} chains and only converted to their
+ * protobuf form when {@link #toProto()} is first called.
  */
 final class RuleViolation implements Violation {
-  /** Static value to return when there are no violations. */
-  static final List<Builder> NO_VIOLATIONS = Collections.emptyList();
-
   /** {@link FieldValue} represents a Protobuf field value inside a Protobuf message. */
   static class FieldValue implements Violation.FieldValue {
     private final @Nullable Object value;
@@ -70,17 +69,29 @@ final class RuleViolation implements Violation {
     }
   }
 
-  private final build.buf.validate.Violation proto;
+  private final @Nullable String ruleId;
+  private final @Nullable String message;
+  private final boolean forKey;
+  private final @Nullable FieldPathNode fieldPathHead;
+  private final List<FieldPathElement> fieldPathTail;
+  private final @Nullable FieldPathNode rulePathHead;
+  private final List<FieldPathElement> rulePathTail;
   private final @Nullable FieldValue fieldValue;
   private final @Nullable FieldValue ruleValue;
+  private volatile build.buf.validate.@Nullable Violation proto;
 
   /** Builds a Violation instance. */
   static class Builder {
     private @Nullable String ruleId;
     private @Nullable String message;
     private boolean forKey = false;
-    private final Deque<FieldPathElement> fieldPath = new ArrayDeque<>();
-    private final Deque<FieldPathElement> rulePath = new ArrayDeque<>();
+
+    // A path is the chain of prepended elements followed by the appended elements. The appended
+    // list is usually a shared, unmodifiable rule path, and is only copied on a second append.
+    private @Nullable FieldPathNode fieldPathHead;
+    private List<FieldPathElement> fieldPathTail = Collections.emptyList();
+    private @Nullable FieldPathNode rulePathHead;
+    private List<FieldPathElement> rulePathTail = Collections.emptyList();
     private @Nullable FieldValue fieldValue;
     private @Nullable FieldValue ruleValue;
 
@@ -124,7 +135,7 @@ final class RuleViolation implements Violation {
      * @return The builder.
      */
     Builder addAllFieldPathElements(Collection<? extends FieldPathElement> fieldPathElements) {
-      this.fieldPath.addAll(fieldPathElements);
+      fieldPathTail = append(fieldPathTail, fieldPathElements);
       return this;
     }
 
@@ -136,7 +147,7 @@ final class RuleViolation implements Violation {
      */
     Builder addFirstFieldPathElement(@Nullable FieldPathElement fieldPathElement) {
       if (fieldPathElement != null) {
-        fieldPath.addFirst(fieldPathElement);
+        fieldPathHead = new FieldPathNode(fieldPathElement, null, fieldPathHead);
       }
       return this;
     }
@@ -148,7 +159,7 @@ final class RuleViolation implements Violation {
      * @return The builder.
      */
     Builder addAllRulePathElements(Collection<? extends FieldPathElement> rulePathElements) {
-      rulePath.addAll(rulePathElements);
+      rulePathTail = append(rulePathTail, rulePathElements);
       return this;
     }
 
@@ -159,7 +170,49 @@ final class RuleViolation implements Violation {
      * @return The builder.
      */
     Builder addFirstRulePathElement(FieldPathElement rulePathElements) {
-      rulePath.addFirst(rulePathElements);
+      rulePathHead = new FieldPathNode(rulePathElements, null, rulePathHead);
+      return this;
+    }
+
+    /**
+     * Gets the chain of field path elements prepended so far.
+     *
+     * @return The head of the chain, or null.
+     */
+    @Nullable FieldPathNode getFieldPathHead() {
+      return fieldPathHead;
+    }
+
+    /**
+     * Replaces the chain of prepended field path elements. The new chain must end with the current
+     * one.
+     *
+     * @param fieldPathHead The head of the new chain.
+     * @return The builder.
+     */
+    Builder setFieldPathHead(FieldPathNode fieldPathHead) {
+      this.fieldPathHead = fieldPathHead;
+      return this;
+    }
+
+    /**
+     * Gets the chain of rule path elements prepended so far.
+     *
+     * @return The head of the chain, or null.
+     */
+    @Nullable FieldPathNode getRulePathHead() {
+      return rulePathHead;
+    }
+
+    /**
+     * Replaces the chain of prepended rule path elements. The new chain must end with the current
+     * one.
+     *
+     * @param rulePathHead The head of the new chain, or null.
+     * @return The builder.
+     */
+    Builder setRulePathHead(@Nullable FieldPathNode rulePathHead) {
+      this.rulePathHead = rulePathHead;
       return this;
     }
 
@@ -191,23 +244,20 @@ final class RuleViolation implements Violation {
      * @return A Violation instance.
      */
     RuleViolation build() {
-      build.buf.validate.Violation.Builder protoBuilder = build.buf.validate.Violation.newBuilder();
-      if (ruleId != null) {
-        protoBuilder.setRuleId(ruleId);
-      }
-      if (message != null) {
-        protoBuilder.setMessage(message);
-      }
-      if (forKey) {
-        protoBuilder.setForKey(true);
-      }
-      if (!fieldPath.isEmpty()) {
-        protoBuilder.setField(FieldPath.newBuilder().addAllElements(fieldPath));
-      }
-      if (!rulePath.isEmpty()) {
-        protoBuilder.setRule(FieldPath.newBuilder().addAllElements(rulePath));
+      return new RuleViolation(this);
+    }
+
+    private static List<FieldPathElement> append(
+        List<FieldPathElement> list, Collection<? extends FieldPathElement> elements) {
+      if (list.isEmpty() && elements instanceof List) {
+        @SuppressWarnings("unchecked")
+        List<FieldPathElement> elementList = (List<FieldPathElement>) elements;
+        return elementList;
       }
-      return new RuleViolation(protoBuilder.build(), fieldValue, ruleValue);
+      List<FieldPathElement> appended = new ArrayList<>(list.size() + elements.size());
+      appended.addAll(list);
+      appended.addAll(elements);
+      return appended;
     }
 
     private Builder() {}
@@ -222,13 +272,16 @@ final class RuleViolation implements Violation {
     return new Builder();
   }
 
-  private RuleViolation(
-      build.buf.validate.Violation proto,
-      @Nullable FieldValue fieldValue,
-      @Nullable FieldValue ruleValue) {
-    this.proto = proto;
-    this.fieldValue = fieldValue;
-    this.ruleValue = ruleValue;
+  private RuleViolation(Builder builder) {
+    this.ruleId = builder.ruleId;
+    this.message = builder.message;
+    this.forKey = builder.forKey;
+    this.fieldPathHead = builder.fieldPathHead;
+    this.fieldPathTail = builder.fieldPathTail;
+    this.rulePathHead = builder.rulePathHead;
+    this.rulePathTail = builder.rulePathTail;
+    this.fieldValue = builder.fieldValue;
+    this.ruleValue = builder.ruleValue;
   }
 
   /**
@@ -238,7 +291,34 @@ final class RuleViolation implements Violation {
    */
   @Override
   public build.buf.validate.Violation toProto() {
-    return proto;
+    build.buf.validate.Violation result = proto;
+    if (result == null) {
+      result = buildProto();
+      proto = result;
+    }
+    return result;
+  }
+
+  private build.buf.validate.Violation buildProto() {
+    build.buf.validate.Violation.Builder protoBuilder = build.buf.validate.Violation.newBuilder();
+    if (ruleId != null) {
+      protoBuilder.setRuleId(ruleId);
+    }
+    if (message != null) {
+      protoBuilder.setMessage(message);
+    }
+    if (forKey) {
+      protoBuilder.setForKey(true);
+    }
+    FieldPath field = FieldPathNode.toFieldPath(fieldPathHead, fieldPathTail);
+    if (field != null) {
+      protoBuilder.setField(field);
+    }
+    FieldPath rule = FieldPathNode.toFieldPath(rulePathHead, rulePathTail);
+    if (rule != null) {
+      protoBuilder.setRule(rule);
+    }
+    return protoBuilder.build();
   }
 
   /**
@@ -263,6 +343,6 @@ final class RuleViolation implements Violation {
 
   @Override
   public String toString() {
-    return proto.toString();
+    return toProto().toString();
   }
 }
@@ -58,6 +58,9 @@ final class Rules {
       return RepeatedRulesEvaluator.tryBuild(RuleBase.of(valueEvaluator), rulesBuilder);
     }
     if (!fieldDescriptor.isMapField() && !fieldDescriptor.isRepeated()) {
+      if (fieldDescriptor.getJavaType() == FieldDescriptor.JavaType.MESSAGE) {
+        return tryBuildMessageRules(fieldDescriptor, rulesBuilder, valueEvaluator);
+      }
       Evaluator scalar = tryBuildScalarRules(fieldDescriptor, rulesBuilder, valueEvaluator);
       if (scalar == null) {
         return null;
@@ -75,6 +78,26 @@ final class Rules {
     return null;
   }
 
+  /**
+   * Builds native evaluators for the rules of well-known message types, such as timestamps and
+   * durations.
+   */
+  private static @Nullable Evaluator tryBuildMessageRules(
+      FieldDescriptor fieldDescriptor,
+      FieldRules.Builder rulesBuilder,
+      ValueEvaluator valueEvaluator) {
+    switch (fieldDescriptor.getMessageType().getFullName()) {
+      case "google.protobuf.Timestamp":
+        return TimestampRulesEvaluator.tryBuild(RuleBase.of(valueEvaluator), rulesBuilder);
+      case "google.protobuf.Duration":
+        return DurationRulesEvaluator.tryBuild(RuleBase.of(valueEvaluator), rulesBuilder);
+      case "google.protobuf.FieldMask":
+        return FieldMaskRulesEvaluator.tryBuild(RuleBase.of(valueEvaluator), rulesBuilder);
+      default:
+        return null;
+    }
+  }
+
   private static @Nullable Evaluator tryBuildScalarRules(
       FieldDescriptor fieldDescriptor,
       FieldRules.Builder rulesBuilder,
@@ -18,7 +18,7 @@ import build.buf.validate.FieldRules;
 import build.buf.validate.KnownRegex;
 import build.buf.validate.StringRules;
 import com.google.protobuf.Descriptors.FieldDescriptor;
-import com.google.re2j.Pattern;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import org.jspecify.annotations.Nullable;
@@ -99,17 +99,17 @@ final class StringRulesEvaluator implements Evaluator {
 
   // --- Static regexes (compile once) ---
 
-  private static final Pattern UUID_REGEX =
-      Pattern.compile(
+  private static final RegexMatcher UUID_REGEX =
+      RegexMatcher.compile(
           "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
-  private static final Pattern TUUID_REGEX = Pattern.compile("^[0-9a-fA-F]{32}$");
-  private static final Pattern ULID_REGEX =
-      Pattern.compile("^[0-7][0-9A-HJKMNP-TV-Za-hjkmnp-tv-z]{25}$");
-  private static final Pattern HEADER_NAME_REGEX =
-      Pattern.compile("^:?[0-9a-zA-Z!#$%&'*+.\\-^_|~`]+$");
-  private static final Pattern HEADER_VALUE_REGEX =
-      Pattern.compile("^[^\\x00-\\x08\\x0A-\\x1F\\x7F]*$");
-  private static final Pattern LOOSE_REGEX = Pattern.compile("^[^\\x00\\x0A\\x0D]+$");
+  private static final RegexMatcher TUUID_REGEX = RegexMatcher.compile("^[0-9a-fA-F]{32}$");
+  private static final RegexMatcher ULID_REGEX =
+      RegexMatcher.compile("^[0-7][0-9A-HJKMNP-TV-Za-hjkmnp-tv-z]{25}$");
+  private static final RegexMatcher HEADER_NAME_REGEX =
+      RegexMatcher.compile("^:?[0-9a-zA-Z!#$%&'*+.\\-^_|~`]+$");
+  private static final RegexMatcher HEADER_VALUE_REGEX =
+      RegexMatcher.compile("^[^\\x00-\\x08\\x0A-\\x1F\\x7F]*$");
+  private static final RegexMatcher LOOSE_REGEX = RegexMatcher.compile("^[^\\x00\\x0A\\x0D]+$");
 
   // --- Well-known string formats ---
 
@@ -339,14 +339,16 @@ final class StringRulesEvaluator implements Evaluator {
   private final @Nullable Long exactBytes;
   private final @Nullable Long minBytes;
   private final @Nullable Long maxBytes;
-  private final @Nullable Pattern pattern;
+  private final @Nullable RegexMatcher pattern;
   private final @Nullable String patternStr;
   private final @Nullable String prefix;
   private final @Nullable String suffix;
   private final @Nullable String contains;
   private final @Nullable String notContains;
   private final List<String> inVals;
+  private final Collection<String> inSet;
   private final List<String> notInVals;
+  private final Collection<String> notInSet;
   private final @Nullable WellKnownFormat wellKnown;
   private final KnownRegex knownRegex;
   private final boolean knownRegexStrict;
@@ -360,7 +362,7 @@ final class StringRulesEvaluator implements Evaluator {
       @Nullable Long exactBytes,
       @Nullable Long minBytes,
       @Nullable Long maxBytes,
-      @Nullable Pattern pattern,
+      @Nullable RegexMatcher pattern,
       @Nullable String patternStr,
       @Nullable String prefix,
       @Nullable String suffix,
@@ -386,7 +388,9 @@ final class StringRulesEvaluator implements Evaluator {
     this.contains = contains;
     this.notContains = notContains;
     this.inVals = inVals;
+    this.inSet = RuleBase.membershipSet(inVals);
     this.notInVals = notInVals;
+    this.notInSet = RuleBase.membershipSet(notInVals);
     this.wellKnown = wellKnown;
     this.knownRegex = knownRegex;
     this.knownRegexStrict = knownRegexStrict;
@@ -475,12 +479,12 @@ final class StringRulesEvaluator implements Evaluator {
       hasRule = true;
     }
 
-    Pattern compiledPattern = null;
+    RegexMatcher compiledPattern = null;
     String patternStr = null;
     if (rules.hasPattern()) {
       patternStr = rules.getPattern();
       try {
-        compiledPattern = Pattern.compile(patternStr);
+        compiledPattern = RegexMatcher.compile(patternStr);
       } catch (com.google.re2j.PatternSyntaxException e) {
         return null; // bail to CEL — same compilation error
       }
@@ -559,195 +563,164 @@ final class StringRulesEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast) {
+  public void evaluate(Value val, ViolationSink violations) {
     String strVal = (String) val.rawValue();
-    List<RuleViolation.Builder> violations = null;
 
     if (exactLen != null || minLen != null || maxLen != null) {
       long runeCount = strVal.codePointCount(0, strVal.length());
-      violations = applyLength(violations, val, runeCount, failFast);
-      if (failFast && violations != null) {
-        return base.done(violations);
+      applyLength(violations, val, runeCount);
+      if (violations.isDone()) {
+        return;
       }
     }
 
     if (exactBytes != null || minBytes != null || maxBytes != null) {
       long byteCount = utf8ByteLength(strVal);
-      violations = applyByteLength(violations, val, byteCount, failFast);
-      if (failFast && violations != null) {
-        return base.done(violations);
+      applyByteLength(violations, val, byteCount);
+      if (violations.isDone()) {
+        return;
       }
     }
 
     if (constVal != null && !strVal.equals(constVal)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  CONST_SITE, null, "must equal `" + constVal + "`", val, constVal));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              CONST_SITE, null, "must equal `" + constVal + "`", val, constVal));
+      if (violations.isDone()) return;
     }
 
     if (pattern != null && !pattern.matches(strVal)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  PATTERN_SITE,
-                  null,
-                  "does not match regex pattern `" + patternStr + "`",
-                  val,
-                  patternStr));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              PATTERN_SITE,
+              null,
+              "does not match regex pattern `" + patternStr + "`",
+              val,
+              patternStr));
+      if (violations.isDone()) return;
     }
 
     if (prefix != null && !strVal.startsWith(prefix)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  PREFIX_SITE, null, "does not have prefix `" + prefix + "`", val, prefix));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              PREFIX_SITE, null, "does not have prefix `" + prefix + "`", val, prefix));
+      if (violations.isDone()) return;
     }
 
     if (suffix != null && !strVal.endsWith(suffix)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  SUFFIX_SITE, null, "does not have suffix `" + suffix + "`", val, suffix));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              SUFFIX_SITE, null, "does not have suffix `" + suffix + "`", val, suffix));
+      if (violations.isDone()) return;
     }
 
     if (contains != null && !strVal.contains(contains)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  CONTAINS_SITE,
-                  null,
-                  "does not contain substring `" + contains + "`",
-                  val,
-                  contains));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              CONTAINS_SITE, null, "does not contain substring `" + contains + "`", val, contains));
+      if (violations.isDone()) return;
     }
 
     if (notContains != null && strVal.contains(notContains)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  NOT_CONTAINS_SITE,
-                  null,
-                  "contains substring `" + notContains + "`",
-                  val,
-                  notContains));
-      if (failFast) return base.done(violations);
-    }
-
-    if (!inVals.isEmpty() && !inVals.contains(strVal)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  IN_SITE, null, "must be in list " + RuleBase.formatList(inVals), val, inVals));
-      if (failFast) return base.done(violations);
-    }
-
-    if (!notInVals.isEmpty() && notInVals.contains(strVal)) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  NOT_IN_SITE,
-                  null,
-                  "must not be in list " + RuleBase.formatList(notInVals),
-                  val,
-                  notInVals));
-      if (failFast) return base.done(violations);
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              NOT_CONTAINS_SITE,
+              null,
+              "contains substring `" + notContains + "`",
+              val,
+              notContains));
+      if (violations.isDone()) return;
+    }
+
+    if (!inVals.isEmpty() && !inSet.contains(strVal)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              IN_SITE, null, "must be in list " + RuleBase.formatList(inVals), val, inVals));
+      if (violations.isDone()) return;
+    }
+
+    if (!notInVals.isEmpty() && notInSet.contains(strVal)) {
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              NOT_IN_SITE,
+              null,
+              "must not be in list " + RuleBase.formatList(notInVals),
+              val,
+              notInVals));
+      if (violations.isDone()) return;
     }
 
     if (wellKnown != null) {
       RuleViolation.Builder wkv = checkWellKnown(strVal, val);
       if (wkv != null) {
-        violations = RuleBase.add(violations, wkv);
-        if (failFast) return base.done(violations);
+        base.add(violations, wkv);
+        if (violations.isDone()) return;
       }
     } else if (knownRegex != KnownRegex.KNOWN_REGEX_UNSPECIFIED) {
       RuleViolation.Builder krv = checkKnownRegex(strVal, val);
       if (krv != null) {
-        violations = RuleBase.add(violations, krv);
-        if (failFast) return base.done(violations);
+        base.add(violations, krv);
+        if (violations.isDone()) return;
       }
     }
-
-    return base.done(violations);
   }
 
   // --- Length checks ---
 
-  private @Nullable List<RuleViolation.Builder> applyLength(
-      @Nullable List<RuleViolation.Builder> violations,
-      Value val,
-      long runeCount,
-      boolean failFast) {
+  private void applyLength(ViolationSink violations, Value val, long runeCount) {
     if (exactLen != null && runeCount != exactLen) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  LEN_SITE, null, "must be " + exactLen + " characters", val, exactLen));
-      if (failFast) return violations;
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              LEN_SITE, null, "must be " + exactLen + " characters", val, exactLen));
+      if (violations.isDone()) return;
     }
     if (minLen != null && runeCount < minLen) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MIN_LEN_SITE, null, "must be at least " + minLen + " characters", val, minLen));
-      if (failFast) return violations;
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MIN_LEN_SITE, null, "must be at least " + minLen + " characters", val, minLen));
+      if (violations.isDone()) return;
     }
     if (maxLen != null && runeCount > maxLen) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MAX_LEN_SITE, null, "must be at most " + maxLen + " characters", val, maxLen));
-      if (failFast) return violations;
-    }
-    return violations;
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MAX_LEN_SITE, null, "must be at most " + maxLen + " characters", val, maxLen));
+      if (violations.isDone()) return;
+    }
   }
 
-  private @Nullable List<RuleViolation.Builder> applyByteLength(
-      @Nullable List<RuleViolation.Builder> violations,
-      Value val,
-      long byteCount,
-      boolean failFast) {
+  private void applyByteLength(ViolationSink violations, Value val, long byteCount) {
     if (exactBytes != null && byteCount != exactBytes) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  LEN_BYTES_SITE, null, "must be " + exactBytes + " bytes", val, exactBytes));
-      if (failFast) return violations;
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              LEN_BYTES_SITE, null, "must be " + exactBytes + " bytes", val, exactBytes));
+      if (violations.isDone()) return;
     }
     if (minBytes != null && byteCount < minBytes) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MIN_BYTES_SITE, null, "must be at least " + minBytes + " bytes", val, minBytes));
-      if (failFast) return violations;
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MIN_BYTES_SITE, null, "must be at least " + minBytes + " bytes", val, minBytes));
+      if (violations.isDone()) return;
     }
     if (maxBytes != null && byteCount > maxBytes) {
-      violations =
-          RuleBase.add(
-              violations,
-              NativeViolations.newViolation(
-                  MAX_BYTES_SITE, null, "must be at most " + maxBytes + " bytes", val, maxBytes));
-      if (failFast) return violations;
-    }
-    return violations;
+      base.add(
+          violations,
+          NativeViolations.newViolation(
+              MAX_BYTES_SITE, null, "must be at most " + maxBytes + " bytes", val, maxBytes));
+      if (violations.isDone()) return;
+    }
   }
 
   // --- Well-known format check ---
@@ -770,7 +743,7 @@ final class StringRulesEvaluator implements Evaluator {
   }
 
   private RuleViolation.@Nullable Builder checkKnownRegex(String strVal, Value val) {
-    Pattern matcher;
+    RegexMatcher matcher;
     RuleSite site;
     switch (knownRegex) {
       case KNOWN_REGEX_HTTP_HEADER_NAME:
@@ -0,0 +1,370 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.protovalidate.NumericRulesEvaluator.LowerBound;
+import build.buf.protovalidate.NumericRulesEvaluator.UpperBound;
+import build.buf.validate.FieldRules;
+import build.buf.validate.TimestampRules;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Duration;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import java.time.Instant;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Native evaluator for the standard {@code google.protobuf.Timestamp} rules ({@code const}, {@code
+ * lt}, {@code lte}, {@code gt}, {@code gte}, {@code lt_now}, {@code gt_now} and {@code within}).
+ * Values are compared as seconds and nanos, without converting them to CEL values, and rules
+ * relative to now read the clock once per evaluation, see {@link ViolationSink#now()}.
+ *
+ * <p>Ranges follow {@link NumericRulesEvaluator}: a lower bound above the upper bound means the
+ * value must lie outside of the range, and both bounds are reported under a combined rule id.
+ */
+final class TimestampRulesEvaluator implements Evaluator {
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private static final FieldDescriptor TIMESTAMP_RULES_DESC =
+      FieldRules.getDescriptor().findFieldByNumber(FieldRules.TIMESTAMP_FIELD_NUMBER);
+
+  private static final RuleSite CONST_SITE =
+      site(TimestampRules.CONST_FIELD_NUMBER, "timestamp.const", null);
+  private static final RuleSite LT_SITE = site(TimestampRules.LT_FIELD_NUMBER, null, null);
+  private static final RuleSite LTE_SITE = site(TimestampRules.LTE_FIELD_NUMBER, null, null);
+  private static final RuleSite GT_SITE = site(TimestampRules.GT_FIELD_NUMBER, null, null);
+  private static final RuleSite GTE_SITE = site(TimestampRules.GTE_FIELD_NUMBER, null, null);
+  private static final RuleSite LT_NOW_SITE =
+      site(TimestampRules.LT_NOW_FIELD_NUMBER, "timestamp.lt_now", "must be less than now");
+  private static final RuleSite GT_NOW_SITE =
+      site(TimestampRules.GT_NOW_FIELD_NUMBER, "timestamp.gt_now", "must be greater than now");
+  private static final RuleSite WITHIN_SITE =
+      site(TimestampRules.WITHIN_FIELD_NUMBER, "timestamp.within", null);
+
+  private static RuleSite site(int fieldNumber, @Nullable String ruleId, @Nullable String message) {
+    FieldDescriptor leaf = TimestampRules.getDescriptor().findFieldByNumber(fieldNumber);
+    return RuleSite.of(TIMESTAMP_RULES_DESC, leaf, ruleId, message);
+  }
+
+  private final RuleBase base;
+  private final @Nullable Timestamp constVal;
+
+  /** The lower bound, or the default instance without one. */
+  private final Timestamp loVal;
+
+  private final LowerBound lowerKind;
+
+  /** The upper bound, or the default instance without one. */
+  private final Timestamp hiVal;
+
+  private final UpperBound upperKind;
+  private final boolean ltNow;
+  private final boolean gtNow;
+  private final @Nullable Duration within;
+
+  private TimestampRulesEvaluator(
+      RuleBase base,
+      @Nullable Timestamp constVal,
+      Timestamp loVal,
+      LowerBound lowerKind,
+      Timestamp hiVal,
+      UpperBound upperKind,
+      boolean ltNow,
+      boolean gtNow,
+      @Nullable Duration within) {
+    this.base = base;
+    this.constVal = constVal;
+    this.loVal = loVal;
+    this.lowerKind = lowerKind;
+    this.hiVal = hiVal;
+    this.upperKind = upperKind;
+    this.ltNow = ltNow;
+    this.gtNow = gtNow;
+    this.within = within;
+  }
+
+  /**
+   * Attempts to build a {@link TimestampRulesEvaluator} for the timestamp sub-rules on the given
+   * {@code FieldRules.Builder}. Returns null if the rules aren't natively handleable (no timestamp
+   * oneof case set, no covered rule set, or unknown fields present); on success, clears the covered
+   * rules on the builder so CEL won't recompile them.
+   */
+  static @Nullable Evaluator tryBuild(RuleBase base, FieldRules.Builder rulesBuilder) {
+    if (!rulesBuilder.hasTimestamp()) {
+      return null;
+    }
+    TimestampRules rules = rulesBuilder.getTimestamp();
+    if (!rules.getUnknownFields().isEmpty()) {
+      return null;
+    }
+    TimestampRules.Builder residual = rules.toBuilder();
+    boolean hasRule = false;
+
+    Timestamp constVal = null;
+    if (rules.hasConst()) {
+      constVal = rules.getConst();
+      residual.clearConst();
+      hasRule = true;
+    }
+
+    Timestamp loVal = Timestamp.getDefaultInstance();
+    LowerBound lowerKind = LowerBound.NONE;
+    if (rules.hasGt()) {
+      loVal = rules.getGt();
+      lowerKind = LowerBound.GT;
+      residual.clearGt();
+      hasRule = true;
+    } else if (rules.hasGte()) {
+      loVal = rules.getGte();
+      lowerKind = LowerBound.GTE;
+      residual.clearGte();
+      hasRule = true;
+    }
+
+    Timestamp hiVal = Timestamp.getDefaultInstance();
+    UpperBound upperKind = UpperBound.NONE;
+    if (rules.hasLt()) {
+      hiVal = rules.getLt();
+      upperKind = UpperBound.LT;
+      residual.clearLt();
+      hasRule = true;
+    } else if (rules.hasLte()) {
+      hiVal = rules.getLte();
+      upperKind = UpperBound.LTE;
+      residual.clearLte();
+      hasRule = true;
+    }
+
+    boolean ltNow = false;
+    if (rules.hasLtNow()) {
+      ltNow = rules.getLtNow();
+      residual.clearLtNow();
+      hasRule = true;
+    }
+
+    boolean gtNow = false;
+    if (rules.hasGtNow()) {
+      gtNow = rules.getGtNow();
+      residual.clearGtNow();
+      hasRule = true;
+    }
+
+    Duration within = null;
+    if (rules.hasWithin()) {
+      within = rules.getWithin();
+      residual.clearWithin();
+      hasRule = true;
+    }
+
+    if (!hasRule) {
+      return null;
+    }
+    rulesBuilder.setTimestamp(residual.build());
+    return new TimestampRulesEvaluator(
+        base, constVal, loVal, lowerKind, hiVal, upperKind, ltNow, gtNow, within);
+  }
+
+  @Override
+  public boolean tautology() {
+    return false;
+  }
+
+  @Override
+  public void evaluate(Value val, ViolationSink violations) {
+    Message message = val.messageValue();
+    if (message == null) {
+      return;
+    }
+    long seconds;
+    int nanos;
+    if (message instanceof Timestamp) {
+      Timestamp timestamp = (Timestamp) message;
+      seconds = timestamp.getSeconds();
+      nanos = timestamp.getNanos();
+    } else {
+      // A dynamic message of the same type.
+      Descriptor descriptor = message.getDescriptorForType();
+      seconds = (Long) message.getField(descriptor.findFieldByNumber(1));
+      nanos = (Integer) message.getField(descriptor.findFieldByNumber(2));
+    }
+    // Normalize like Instant#ofEpochSecond, which CEL compares.
+    seconds += Math.floorDiv(nanos, (int) NANOS_PER_SECOND);
+    nanos = Math.floorMod(nanos, (int) NANOS_PER_SECOND);
+
+    if (constVal != null && compare(seconds, nanos, constVal) != 0) {
+      base.add(
+          violations,
+          NativeViolations.newCelViolation(
+              CONST_SITE, null, "must equal " + Format.formatTimestamp(constVal), val, constVal));
+      if (violations.isDone()) {
+        return;
+      }
+    }
+
+    if (lowerKind != LowerBound.NONE || upperKind != UpperBound.NONE) {
+      RuleViolation.Builder rangeViolation = buildRangeViolation(val, seconds, nanos);
+      if (rangeViolation != null) {
+        base.add(violations, rangeViolation);
+        if (violations.isDone()) {
+          return;
+        }
+      }
+    }
+
+    if (ltNow || gtNow || within != null) {
+      Instant now = violations.now();
+      int cmp = compare(seconds, nanos, now.getEpochSecond(), now.getNano());
+      if (ltNow && cmp > 0) {
+        base.add(violations, NativeViolations.newViolation(LT_NOW_SITE, null, null, val, true));
+        if (violations.isDone()) {
+          return;
+        }
+      }
+      if (gtNow && cmp < 0) {
+        base.add(violations, NativeViolations.newViolation(GT_NOW_SITE, null, null, val, true));
+        if (violations.isDone()) {
+          return;
+        }
+      }
+      if (within != null && !isWithin(seconds, nanos, now, within)) {
+        base.add(
+            violations,
+            NativeViolations.newCelViolation(
+                WITHIN_SITE,
+                null,
+                "must be within " + Format.formatDuration(within) + " of now",
+                val,
+                within));
+      }
+    }
+  }
+
+  /**
+   * Builds a violation for the lower/upper bound check, or returns null if the value is in range.
+   * Mirrors {@code NumericRulesEvaluator#buildRangeViolation}.
+   */
+  private RuleViolation.@Nullable Builder buildRangeViolation(Value val, long seconds, int nanos) {
+    if (lowerKind == LowerBound.NONE) {
+      if (aboveHi(seconds, nanos)) {
+        return NativeViolations.newCelViolation(
+            hiSite(), gtltRule(), "must be " + hiMessage(), val, hiVal);
+      }
+      return null;
+    }
+    if (upperKind == UpperBound.NONE) {
+      if (belowLo(seconds, nanos)) {
+        return NativeViolations.newCelViolation(
+            loSite(), gtltRule(), "must be " + loMessage(), val, loVal);
+      }
+      return null;
+    }
+    boolean failure;
+    if (isNormalRange()) {
+      failure = aboveHi(seconds, nanos) || belowLo(seconds, nanos);
+    } else {
+      failure = aboveHi(seconds, nanos) && belowLo(seconds, nanos);
+    }
+    if (failure) {
+      String message = "must be " + loMessage() + " " + conjunction() + " " + hiMessage();
+      return NativeViolations.newCelViolation(loSite(), gtltRule(), message, val, loVal);
+    }
+    return null;
+  }
+
+  // --- Comparison helpers ---
+
+  private boolean belowLo(long seconds, int nanos) {
+    int cmp = compare(seconds, nanos, loVal);
+    return lowerKind == LowerBound.GT ? cmp <= 0 : cmp < 0;
+  }
+
+  private boolean aboveHi(long seconds, int nanos) {
+    int cmp = compare(seconds, nanos, hiVal);
+    return upperKind == UpperBound.LT ? cmp >= 0 : cmp > 0;
+  }
+
+  private boolean isNormalRange() {
+    return compare(hiVal.getSeconds(), hiVal.getNanos(), loVal) >= 0;
+  }
+
+  /** Returns whether now - within <= value <= now + within. */
+  private static boolean isWithin(long seconds, int nanos, Instant now, Duration within) {
+    long nowNanos = now.getNano();
+    long lowNanos = nowNanos - within.getNanos();
+    long lowSeconds =
+        now.getEpochSecond() - within.getSeconds() + Math.floorDiv(lowNanos, NANOS_PER_SECOND);
+    long highNanos = nowNanos + within.getNanos();
+    long highSeconds =
+        now.getEpochSecond() + within.getSeconds() + Math.floorDiv(highNanos, NANOS_PER_SECOND);
+    return compare(seconds, nanos, lowSeconds, Math.floorMod(lowNanos, NANOS_PER_SECOND)) >= 0
+        && compare(seconds, nanos, highSeconds, Math.floorMod(highNanos, NANOS_PER_SECOND)) <= 0;
+  }
+
+  private static int compare(long seconds, int nanos, Timestamp bound) {
+    long boundNanos = bound.getNanos();
+    return compare(
+        seconds,
+        nanos,
+        bound.getSeconds() + Math.floorDiv(boundNanos, NANOS_PER_SECOND),
+        Math.floorMod(boundNanos, NANOS_PER_SECOND));
+  }
+
+  private static int compare(long seconds, long nanos, long otherSeconds, long otherNanos) {
+    int cmp = Long.compare(seconds, otherSeconds);
+    return cmp != 0 ? cmp : Long.compare(nanos, otherNanos);
+  }
+
+  // --- Rule-id and message helpers (mirror NumericRulesEvaluator) ---
+
+  private RuleSite loSite() {
+    return lowerKind == LowerBound.GT ? GT_SITE : GTE_SITE;
+  }
+
+  private RuleSite hiSite() {
+    return upperKind == UpperBound.LT ? LT_SITE : LTE_SITE;
+  }
+
+  /** Combined rule id, e.g. {@code timestamp.gt_lt_exclusive}. */
+  private String gtltRule() {
+    String lt = upperKind == UpperBound.LT ? "lt" : "lte";
+    if (lowerKind == LowerBound.NONE) {
+      return "timestamp." + lt;
+    }
+    String gt = lowerKind == LowerBound.GT ? "timestamp.gt" : "timestamp.gte";
+    if (upperKind == UpperBound.NONE) {
+      return gt;
+    }
+    return gt + "_" + lt + (isNormalRange() ? "" : "_exclusive");
+  }
+
+  private String loMessage() {
+    String formatted = Format.formatTimestamp(loVal);
+    return lowerKind == LowerBound.GT
+        ? "greater than " + formatted
+        : "greater than or equal to " + formatted;
+  }
+
+  private String hiMessage() {
+    String formatted = Format.formatTimestamp(hiVal);
+    return upperKind == UpperBound.LT
+        ? "less than " + formatted
+        : "less than or equal to " + formatted;
+  }
+
+  private String conjunction() {
+    return isNormalRange() ? "and" : "or";
+  }
+}
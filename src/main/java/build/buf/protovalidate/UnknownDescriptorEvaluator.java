@@ -16,8 +16,6 @@ package build.buf.protovalidate;
 
 import build.buf.protovalidate.exceptions.ExecutionException;
 import com.google.protobuf.Descriptors.Descriptor;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * An {@link Evaluator} for an unknown descriptor. This is returned only if lazy-building of
@@ -38,9 +36,8 @@ final class UnknownDescriptorEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
-    return Collections.singletonList(
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
+    violations.add(
         RuleViolation.newBuilder().setMessage("No evaluator available for " + desc.getFullName()));
   }
 }
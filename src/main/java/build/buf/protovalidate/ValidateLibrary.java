@@ -14,7 +14,6 @@
 
 package build.buf.protovalidate;
 
-import com.google.re2j.Pattern;
 import dev.cel.bundle.Cel;
 import dev.cel.bundle.CelFactory;
 import dev.cel.checker.CelCheckerBuilder;
@@ -35,8 +34,6 @@ import dev.cel.runtime.CelRuntimeBuilder;
 import dev.cel.runtime.CelRuntimeImpl;
 import dev.cel.runtime.CelRuntimeLibrary;
 import dev.cel.runtime.CelStandardFunctions;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Custom {@link CelCompilerLibrary} and {@link CelRuntimeLibrary}. Provides all the custom
@@ -44,16 +41,26 @@ import java.util.concurrent.ConcurrentMap;
  */
 final class ValidateLibrary implements CelCompilerLibrary, CelRuntimeLibrary {
 
-  private static final CelOptions CEL_OPTIONS =
+  static final CelOptions CEL_OPTIONS =
       CelOptions.current().enableHeterogeneousNumericComparisons(true).build();
 
-  private final ConcurrentMap<String, Pattern> patternCache = new ConcurrentHashMap<>();
+  private final RegexCache patternCache;
 
-  /** Creates a ValidateLibrary with all custom declarations and overloads. */
-  ValidateLibrary() {}
+  /**
+   * Creates a ValidateLibrary with all custom declarations and overloads.
+   *
+   * @param patternCache cache used by the {@code matches}/{@code matches_string} overrides.
+   */
+  ValidateLibrary(RegexCache patternCache) {
+    this.patternCache = patternCache;
+  }
 
   static Cel newCel() {
-    ValidateLibrary validateLibrary = new ValidateLibrary();
+    return newCel(new RegexCache(RegexCache.DEFAULT_CAPACITY));
+  }
+
+  static Cel newCel(RegexCache patternCache) {
+    ValidateLibrary validateLibrary = new ValidateLibrary(patternCache);
     // Wired by hand instead of via plannerCelBuilder(): CelRuntimeImpl directs callers to subset
     // stdlib via setStandardFunctions rather than setStandardEnvironmentEnabled, so the runtime
     // does that while the checker uses setStandardEnvironmentEnabled(false).
@@ -97,8 +104,7 @@ final class ValidateLibrary implements CelCompilerLibrary, CelRuntimeLibrary {
   @Override
   public void setCheckerOptions(CelCheckerBuilder checkerBuilder) {
     checkerBuilder
-        .addVarDeclarations(
-            CelVarDecl.newVarDeclaration(NowVariable.NOW_NAME, SimpleType.TIMESTAMP))
+        .addVarDeclarations(CelVarDecl.newVarDeclaration(Variable.NOW_NAME, SimpleType.TIMESTAMP))
         .addFunctionDeclarations(CustomDeclarations.create());
   }
 
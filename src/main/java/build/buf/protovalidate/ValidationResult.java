@@ -30,6 +30,9 @@ public class ValidationResult {
    */
   private final List<Violation> violations;
 
+  /** truncated indicates whether validation stopped at the violation limit. */
+  private final boolean truncated;
+
   /** A violation result with an empty violation list. */
   public static final ValidationResult EMPTY = new ValidationResult(Collections.emptyList());
 
@@ -39,7 +42,18 @@ public class ValidationResult {
    * @param violations violation list for the result.
    */
   public ValidationResult(List<Violation> violations) {
+    this(violations, false);
+  }
+
+  /**
+   * Creates a violation result from a list of violations.
+   *
+   * @param violations violation list for the result.
+   * @param truncated whether validation stopped at the violation limit.
+   */
+  ValidationResult(List<Violation> violations, boolean truncated) {
     this.violations = violations;
+    this.truncated = truncated;
   }
 
   /**
@@ -51,6 +65,18 @@ public class ValidationResult {
     return violations.isEmpty();
   }
 
+  /**
+   * Check if validation stopped because the violation limit was reached, either because failing
+   * fast is enabled or because of {@link Config.Builder#setMaxViolations(int)}. The message may
+   * have more violations than the result contains. Validation stops without looking for them, so a
+   * message with exactly as many violations as the limit is reported as truncated too.
+   *
+   * @return if the violations in the result may be incomplete.
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
   /**
    * Get the list of violations in the result.
    *
@@ -17,7 +17,22 @@ package build.buf.protovalidate;
 import build.buf.protovalidate.exceptions.CompilationException;
 import build.buf.protovalidate.exceptions.ExecutionException;
 import build.buf.protovalidate.exceptions.ValidationException;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /** A validator that can be used to validate messages */
 public interface Validator {
@@ -35,4 +50,194 @@ public interface Validator {
    * @throws ValidationException if there are any compilation or validation execution errors.
    */
   ValidationResult validate(Message msg) throws ValidationException;
+
+  /**
+   * Checks that a serialized message satisfies its rules, without parsing it into a {@link Message}
+   * first. For a well-formed message, the result is the same as parsing the message and passing it
+   * to {@link #validate(Message)}, except that proto2 required fields are not checked. Fields
+   * without rules are skipped as they are read, so validating untrusted payloads before
+   * deserializing them costs less than parsing them.
+   *
+   * <p>Fields without rules are not checked for well-formedness beyond their wire framing: a string
+   * with invalid UTF-8 or an embedded message with malformed bytes in such a field is accepted,
+   * although parsing the message may reject it. Parse the message before using those fields.
+   *
+   * <p>The default implementation parses the message and validates it.
+   *
+   * @param descriptor the {@link Descriptor} of the serialized message.
+   * @param bytes the serialized message.
+   * @return the {@link ValidationResult} from the evaluation.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   * @throws InvalidProtocolBufferException if the bytes are not a valid serialized message.
+   */
+  default ValidationResult validate(Descriptor descriptor, ByteString bytes)
+      throws ValidationException, InvalidProtocolBufferException {
+    return validate(DynamicMessage.newBuilder(descriptor).mergeFrom(bytes).buildPartial());
+  }
+
+  /**
+   * Checks that a serialized message satisfies its rules. See {@link #validate(Descriptor,
+   * ByteString)}. The remaining bytes of the buffer are read, and its position is left unchanged.
+   *
+   * @param descriptor the {@link Descriptor} of the serialized message.
+   * @param bytes the serialized message.
+   * @return the {@link ValidationResult} from the evaluation.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   * @throws InvalidProtocolBufferException if the bytes are not a valid serialized message.
+   */
+  default ValidationResult validate(Descriptor descriptor, ByteBuffer bytes)
+      throws ValidationException, InvalidProtocolBufferException {
+    return validate(descriptor, UnsafeByteOperations.unsafeWrap(bytes));
+  }
+
+  /**
+   * Checks that a serialized message satisfies its rules. See {@link #validate(Descriptor,
+   * ByteString)}. The input is read up to its end or its current limit, so a length-delimited
+   * message can be validated by pushing a limit first.
+   *
+   * @param descriptor the {@link Descriptor} of the serialized message.
+   * @param input the serialized message.
+   * @return the {@link ValidationResult} from the evaluation.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   * @throws IOException if the input cannot be read or is not a valid serialized message.
+   */
+  default ValidationResult validate(Descriptor descriptor, CodedInputStream input)
+      throws ValidationException, IOException {
+    return validate(DynamicMessage.newBuilder(descriptor).mergeFrom(input).buildPartial());
+  }
+
+  /**
+   * Checks that every record of a stream of length-delimited messages, as written by {@link
+   * com.google.protobuf.MessageLite#writeDelimitedTo}, satisfies its rules. The stream is read to
+   * its end, one record at a time, and the result of each record is passed to results in stream
+   * order, so streams of any size are validated in memory bounded by the largest record. See {@link
+   * #validate(Descriptor, CodedInputStream)}.
+   *
+   * @param descriptor the {@link Descriptor} of the records.
+   * @param stream the stream of records. It is not closed.
+   * @param results the consumer of the {@link ValidationResult} of each record.
+   * @return the number of records validated.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   * @throws IOException if the stream cannot be read or a record is not a valid serialized message.
+   */
+  default long validateDelimited(
+      Descriptor descriptor, InputStream stream, Consumer<ValidationResult> results)
+      throws ValidationException, IOException {
+    return DelimitedStreams.validateDelimited(this, descriptor, stream, results);
+  }
+
+  /**
+   * Checks that every record of a file of length-delimited messages satisfies its rules, see {@link
+   * #validateDelimited(Descriptor, InputStream, Consumer)}. The file is read from the channel's
+   * position to its end by memory-mapping it a region at a time, and the channel is left positioned
+   * at the end. See {@link #validate(Descriptor, ByteBuffer)}.
+   *
+   * <p>Regions are mapped 64 MiB at a time, or whole if a record is larger. Java has no way to
+   * unmap a region, so each one stays mapped until it is garbage collected, not when this method
+   * returns. The mappings count against the process's address space and map count limit, not its
+   * heap; to validate many files in quick succession, prefer {@link #validateDelimited(Descriptor,
+   * InputStream, Consumer)}, which reads through a reused buffer.
+   *
+   * @param descriptor the {@link Descriptor} of the records.
+   * @param channel the file of records. It is not closed.
+   * @param results the consumer of the {@link ValidationResult} of each record.
+   * @return the number of records validated.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   * @throws IOException if the file cannot be read or a record is not a valid serialized message.
+   */
+  default long validateDelimited(
+      Descriptor descriptor, FileChannel channel, Consumer<ValidationResult> results)
+      throws ValidationException, IOException {
+    return DelimitedStreams.validateDelimited(
+        this, descriptor, channel, results, DelimitedStreams.MAPPED_WINDOW_SIZE);
+  }
+
+  /**
+   * Checks that message satisfies its rules without blocking the calling thread on rule
+   * compilation. If the rules of the message type are already compiled, the message is validated on
+   * the calling thread and the returned stage is already complete. Otherwise, compilation and
+   * validation run on the executor set with {@link Config.Builder#setCompilationExecutor}. The
+   * stage completes exceptionally with a {@link ValidationException} in the cases where {@link
+   * #validate(Message)} would throw one, or with the {@link RuntimeException} it would throw.
+   *
+   * <p>The default implementation validates on the calling thread.
+   *
+   * @param msg the {@link Message} to be validated.
+   * @return a {@link CompletionStage} of the {@link ValidationResult} from the evaluation.
+   */
+  default CompletionStage<ValidationResult> validateAsync(Message msg) {
+    CompletableFuture<ValidationResult> result = new CompletableFuture<>();
+    try {
+      result.complete(validate(msg));
+    } catch (ValidationException | RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  /**
+   * Checks that every message in a batch satisfies its rules. The returned {@link
+   * BatchValidationResult} holds one {@link ValidationResult} per message, indexed by the position
+   * of the message in the batch. Validation stops at the first message that cannot be validated,
+   * see {@link #validate(Message)}.
+   *
+   * @param msgs the {@link Message}s to be validated.
+   * @return the {@link BatchValidationResult} from the evaluation.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   */
+  default BatchValidationResult validateAll(Iterable<? extends Message> msgs)
+      throws ValidationException {
+    BatchValidationResult.Builder results = new BatchValidationResult.Builder();
+    for (Message msg : msgs) {
+      results.add(validate(msg));
+    }
+    return results.build();
+  }
+
+  /**
+   * Checks that every message in a batch satisfies its rules. See {@link #validateAll(Iterable)}.
+   *
+   * @param msgs the {@link Message}s to be validated.
+   * @return the {@link BatchValidationResult} from the evaluation.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   */
+  default BatchValidationResult validateAll(List<? extends Message> msgs)
+      throws ValidationException {
+    return validateAll((Iterable<? extends Message>) msgs);
+  }
+
+  /**
+   * Checks that every message in a batch satisfies its rules, spreading the work across an {@link
+   * Executor}. The batch is split into contiguous chunks that are validated concurrently; the
+   * calling thread validates the first chunk and waits for the others. Results are merged in input
+   * order, so the returned {@link BatchValidationResult} is identical to the one returned by {@link
+   * #validateAll(List)}. Small batches are validated on the calling thread only.
+   *
+   * <p>The validator must be safe to call from several threads at once, which holds for validators
+   * built by {@link ValidatorFactory}.
+   *
+   * @param msgs the {@link Message}s to be validated.
+   * @param executor the {@link Executor} validating the chunks, e.g. a {@link
+   *     java.util.concurrent.ForkJoinPool}.
+   * @return the {@link BatchValidationResult} from the evaluation.
+   * @throws ValidationException if there are any compilation or validation execution errors.
+   */
+  default BatchValidationResult validateAll(List<? extends Message> msgs, Executor executor)
+      throws ValidationException {
+    return BatchSplitter.validateAll(this, msgs, executor);
+  }
+
+  /**
+   * Gets the counters of the cache of regular expressions compiled by the CEL {@code matches}
+   * function, whose capacity is set with {@link Config.Builder#setRegexCacheCapacity}. Many misses
+   * or evictions suggest rules matching values against patterns taken from the messages themselves,
+   * or a capacity too small for the patterns in use.
+   *
+   * <p>The default implementation returns {@link RegexCacheStats#EMPTY}.
+   *
+   * @return the {@link RegexCacheStats} of this validator.
+   */
+  default RegexCacheStats getRegexCacheStats() {
+    return RegexCacheStats.EMPTY;
+  }
 }
@@ -16,6 +16,9 @@ package build.buf.protovalidate;
 
 import build.buf.protovalidate.exceptions.CompilationException;
 import com.google.protobuf.Descriptors.Descriptor;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 import org.jspecify.annotations.Nullable;
 
@@ -63,7 +66,11 @@ public final class ValidatorFactory {
     }
 
     /**
-     * Build the validator, warming up the cache with any provided descriptors.
+     * Build the validator, warming up the cache with any provided descriptors. The descriptors are
+     * compiled concurrently on the configured compilation executor and the calling thread, see
+     * {@link Config.Builder#setCompilationExecutor}. The time spent compiling each of them is
+     * reported to the configured compilation listener, see {@link
+     * Config.Builder#setCompilationListener}.
      *
      * @param descriptors the list of descriptors to warm up the cache.
      * @param disableLazy whether to disable lazy loading of validation rules. When validation is
@@ -89,6 +96,64 @@ public final class ValidatorFactory {
       }
       return new ValidatorImpl(cfg, descriptors, disableLazy);
     }
+
+    /**
+     * Build the validator, warming up the cache with the provided descriptors from a snapshot file
+     * when possible. If the snapshot holds the rules of the same schemas, the validator is built
+     * from its precompiled CEL expressions, which avoids parsing and type-checking them. Otherwise
+     * the rules are compiled, and the snapshot file is replaced with them so that the next build
+     * can start from it.
+     *
+     * <p>The snapshot is keyed by a hash of the files defining the descriptors and their imports,
+     * see {@link PrecompiledRules#getSchemaHash()}, and by the versions of this library and of
+     * cel-java, so any change to the schemas or an upgrade invalidates it. Its rules take the place
+     * of those set with {@link Config.Builder#setPrecompiledRules}.
+     *
+     * <p>Only the rules of the given descriptors are part of the snapshot. Rules of other message
+     * types, compiled lazily as they are validated, are neither read from nor added to it.
+     *
+     * <p>The snapshot is a cache: if it cannot be written, e.g. on a read-only file system, the
+     * validator is still built and the rules are compiled again on the next build.
+     *
+     * @param descriptors the list of descriptors to warm up the cache, or null for none.
+     * @param disableLazy whether to disable lazy loading of validation rules, see {@link
+     *     #buildWithDescriptors}.
+     * @param snapshot the snapshot file, which does not need to exist.
+     * @return A new {@link Validator} instance.
+     * @throws CompilationException If any of the given descriptors' validation rules fail
+     *     processing while warming up the cache.
+     * @throws IllegalStateException If disableLazy is set to true and no descriptors are passed.
+     */
+    public Validator buildWithSnapshot(
+        List<Descriptor> descriptors, boolean disableLazy, Path snapshot)
+        throws CompilationException, IllegalStateException {
+      if (disableLazy && (descriptors == null || descriptors.isEmpty())) {
+        throw new IllegalStateException(
+            "a list of descriptors is required when disableLazy is true");
+      }
+
+      Config cfg = this.config;
+      if (cfg == null) {
+        cfg = Config.newBuilder().build();
+      }
+      List<Descriptor> types = descriptors != null ? descriptors : Collections.emptyList();
+      String schemaHash = PrecompiledRules.schemaHash(types);
+      PrecompiledRules rules = PrecompiledRules.readSnapshot(snapshot, schemaHash);
+      if (rules != null) {
+        return new ValidatorImpl(cfg, rules, types, disableLazy);
+      }
+      PrecompiledRules recorder = PrecompiledRules.recorder(schemaHash);
+      Validator validator = new ValidatorImpl(cfg, recorder, types, disableLazy);
+      // The validator keeps the recorder, which would otherwise keep every expression compiled
+      // lazily for the lifetime of the validator.
+      recorder.stopRecording();
+      try {
+        recorder.snapshot().writeSnapshot(snapshot);
+      } catch (IOException e) {
+        // The snapshot only saves compiling the rules on the next build, which works without it.
+      }
+      return validator;
+    }
   }
 
   /**
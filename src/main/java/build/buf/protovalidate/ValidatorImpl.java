@@ -16,31 +16,66 @@ package build.buf.protovalidate;
 
 import build.buf.protovalidate.exceptions.CompilationException;
 import build.buf.protovalidate.exceptions.ValidationException;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.jspecify.annotations.Nullable;
 
 final class ValidatorImpl implements Validator {
   /** evaluatorBuilder is the builder used to construct the evaluator for a given message. */
   private final EvaluatorBuilder evaluatorBuilder;
 
+  /** wireValidator validates serialized messages with the evaluators of evaluatorBuilder. */
+  private final WireValidator wireValidator;
+
   /**
-   * failFast indicates whether the validator should stop evaluating rules after the first
-   * violation.
+   * maxViolations is the number of violations after which the validator stops evaluating rules, or
+   * 0 for no limit. Failing fast is a limit of 1.
    */
-  private final boolean failFast;
+  private final int maxViolations;
+
+  /** regexCache holds the patterns compiled by the CEL {@code matches} function. */
+  private final RegexCache regexCache;
+
+  /** compilationExecutor builds evaluators for {@link #validateAsync} on cache misses. */
+  private final Executor compilationExecutor;
 
   ValidatorImpl(Config config) {
-    this.evaluatorBuilder = new EvaluatorBuilder(ValidateLibrary.newCel(), config);
-    this.failFast = config.isFailFast();
+    this.regexCache = new RegexCache(config.getRegexCacheCapacity());
+    this.evaluatorBuilder = new EvaluatorBuilder(ValidateLibrary.newCel(regexCache), config);
+    this.wireValidator = new WireValidator(evaluatorBuilder);
+    this.maxViolations = config.isFailFast() ? 1 : config.getMaxViolations();
+    this.compilationExecutor = config.getCompilationExecutor();
   }
 
   ValidatorImpl(Config config, List<Descriptor> descriptors, boolean disableLazy)
       throws CompilationException {
+    this(config, config.getPrecompiledRules(), descriptors, disableLazy);
+  }
+
+  ValidatorImpl(
+      Config config,
+      PrecompiledRules precompiled,
+      List<Descriptor> descriptors,
+      boolean disableLazy)
+      throws CompilationException {
+    this.regexCache = new RegexCache(config.getRegexCacheCapacity());
     this.evaluatorBuilder =
-        new EvaluatorBuilder(ValidateLibrary.newCel(), config, descriptors, disableLazy);
-    this.failFast = config.isFailFast();
+        new EvaluatorBuilder(
+            ValidateLibrary.newCel(regexCache), config, precompiled, descriptors, disableLazy);
+    this.wireValidator = new WireValidator(evaluatorBuilder);
+    this.maxViolations = config.isFailFast() ? 1 : config.getMaxViolations();
+    this.compilationExecutor = config.getCompilationExecutor();
   }
 
   @Override
@@ -49,15 +84,141 @@ final class ValidatorImpl implements Validator {
       return ValidationResult.EMPTY;
     }
     Descriptor descriptor = msg.getDescriptorForType();
-    Evaluator evaluator = evaluatorBuilder.load(descriptor);
-    List<RuleViolation.Builder> result = evaluator.evaluate(new MessageValue(msg), this.failFast);
-    if (result.isEmpty()) {
+    return evaluate(evaluatorBuilder.load(descriptor), msg, new ViolationSink(maxViolations));
+  }
+
+  @Override
+  public ValidationResult validate(Descriptor descriptor, ByteString bytes)
+      throws ValidationException, InvalidProtocolBufferException {
+    CodedInputStream input = bytes.newCodedInput();
+    // ByteStrings are immutable, so bytes fields and embedded messages can share them.
+    input.enableAliasing(true);
+    return validateBuffered(descriptor, input);
+  }
+
+  @Override
+  public ValidationResult validate(Descriptor descriptor, ByteBuffer bytes)
+      throws ValidationException, InvalidProtocolBufferException {
+    return validateBuffered(descriptor, CodedInputStream.newInstance(bytes.duplicate()));
+  }
+
+  @Override
+  public ValidationResult validate(Descriptor descriptor, CodedInputStream input)
+      throws ValidationException, IOException {
+    ViolationSink violations = new ViolationSink(maxViolations);
+    wireValidator.validate(descriptor, input, violations);
+    return result(violations);
+  }
+
+  private ValidationResult validateBuffered(Descriptor descriptor, CodedInputStream input)
+      throws ValidationException, InvalidProtocolBufferException {
+    try {
+      return validate(descriptor, input);
+    } catch (InvalidProtocolBufferException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new IllegalStateException("Reading from a buffer threw an IOException.", e);
+    }
+  }
+
+  @Override
+  public CompletionStage<ValidationResult> validateAsync(Message msg) {
+    CompletableFuture<ValidationResult> result = new CompletableFuture<>();
+    if (msg == null) {
+      result.complete(ValidationResult.EMPTY);
+      return result;
+    }
+    Evaluator evaluator = evaluatorBuilder.loadCached(msg.getDescriptorForType());
+    if (evaluator == null) {
+      try {
+        compilationExecutor.execute(() -> complete(result, msg));
+      } catch (RejectedExecutionException e) {
+        result.completeExceptionally(e);
+      }
+      return result;
+    }
+    try {
+      result.complete(evaluate(evaluator, msg, new ViolationSink(maxViolations)));
+    } catch (ValidationException | RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  private void complete(CompletableFuture<ValidationResult> result, Message msg) {
+    try {
+      result.complete(validate(msg));
+    } catch (ValidationException | RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  @Override
+  public BatchValidationResult validateAll(Iterable<? extends Message> msgs)
+      throws ValidationException {
+    BatchState state = new BatchState();
+    for (Message msg : msgs) {
+      state.add(msg);
+    }
+    return state.results.build();
+  }
+
+  @Override
+  public BatchValidationResult validateAll(List<? extends Message> msgs)
+      throws ValidationException {
+    if (!(msgs instanceof RandomAccess)) {
+      return validateAll((Iterable<? extends Message>) msgs);
+    }
+    BatchState state = new BatchState();
+    for (int i = 0, size = msgs.size(); i < size; i++) {
+      state.add(msgs.get(i));
+    }
+    return state.results.build();
+  }
+
+  @Override
+  public RegexCacheStats getRegexCacheStats() {
+    return regexCache.stats();
+  }
+
+  private static ValidationResult evaluate(
+      Evaluator evaluator, Message msg, ViolationSink violations) throws ValidationException {
+    evaluator.evaluate(new MessageValue(msg), violations);
+    return result(violations);
+  }
+
+  private static ValidationResult result(ViolationSink violations) {
+    if (violations.isEmpty()) {
       return ValidationResult.EMPTY;
     }
-    List<Violation> violations = new ArrayList<>(result.size());
-    for (RuleViolation.Builder builder : result) {
-      violations.add(builder.build());
+    return new ValidationResult(violations.build(), violations.isTruncated());
+  }
+
+  /**
+   * Evaluation state shared across the messages of a batch. Batches are usually made of runs of
+   * messages of the same type, so the evaluator of the previous message is reused until the
+   * descriptor changes, and a single violation sink is cleared and reused for every message.
+   */
+  private final class BatchState {
+    private final BatchValidationResult.Builder results = new BatchValidationResult.Builder();
+    private final ViolationSink violations = new ViolationSink(maxViolations);
+    @Nullable private Descriptor descriptor;
+    @Nullable private Evaluator evaluator;
+
+    void add(@Nullable Message msg) throws ValidationException {
+      if (msg == null) {
+        results.add(ValidationResult.EMPTY);
+        return;
+      }
+      Descriptor msgDescriptor = msg.getDescriptorForType();
+      Evaluator msgEvaluator = this.evaluator;
+      if (msgDescriptor != this.descriptor || msgEvaluator == null) {
+        msgEvaluator = evaluatorBuilder.load(msgDescriptor);
+        this.descriptor = msgDescriptor;
+        this.evaluator = msgEvaluator;
+      }
+      violations.clear();
+      results.add(evaluate(msgEvaluator, msg, violations));
     }
-    return new ValidationResult(violations);
   }
 }
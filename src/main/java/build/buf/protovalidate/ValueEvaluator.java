@@ -68,24 +68,35 @@ final class ValueEvaluator implements Evaluator {
     return evaluators.isEmpty();
   }
 
+  /**
+   * Gets the evaluators applied to a value, in evaluation order.
+   *
+   * @return The evaluators.
+   */
+  List<Evaluator> getEvaluators() {
+    return evaluators;
+  }
+
+  /**
+   * Returns whether the evaluators are skipped for the zero value.
+   *
+   * @return True if the zero value is not evaluated.
+   */
+  boolean isIgnoreEmpty() {
+    return ignoreEmpty;
+  }
+
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
-    if (this.shouldIgnore(val.value(Object.class))) {
-      return RuleViolation.NO_VIOLATIONS;
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
+    if (this.shouldIgnore(val)) {
+      return;
     }
-    List<RuleViolation.Builder> allViolations = new ArrayList<>();
-    for (Evaluator evaluator : evaluators) {
-      List<RuleViolation.Builder> violations = evaluator.evaluate(val, failFast);
-      if (failFast && !violations.isEmpty()) {
-        return violations;
+    for (int i = 0; i < evaluators.size(); i++) {
+      evaluators.get(i).evaluate(val, violations);
+      if (violations.isDone()) {
+        return;
       }
-      allViolations.addAll(violations);
-    }
-    if (allViolations.isEmpty()) {
-      return RuleViolation.NO_VIOLATIONS;
     }
-    return allViolations;
   }
 
   /**
@@ -104,7 +115,7 @@ final class ValueEvaluator implements Evaluator {
     this.zero = zero;
   }
 
-  private boolean shouldIgnore(Object value) {
-    return this.ignoreEmpty && Objects.equals(value, this.zero);
+  private boolean shouldIgnore(Value val) {
+    return this.ignoreEmpty && Objects.equals(val.value(Object.class), this.zero);
   }
 }
@@ -14,15 +14,8 @@
 
 package build.buf.protovalidate;
 
-import dev.cel.runtime.CelVariableResolver;
-import java.util.Optional;
-import org.jspecify.annotations.Nullable;
-
-/**
- * {@link Variable} implements {@link CelVariableResolver}, providing a lightweight named variable
- * to cel.Program executions.
- */
-final class Variable implements CelVariableResolver {
+/** {@link Variable} names the variables of rule expressions, see {@link Activation}. */
+final class Variable {
   /** The {@value} variable in CEL. */
   static final String THIS_NAME = "this";
 
@@ -32,56 +25,8 @@ final class Variable implements CelVariableResolver {
   /** The {@value} variable in CEL. */
   static final String RULE_NAME = "rule";
 
-  /** The variable's name */
-  private final String name;
-
-  /** The value for this variable */
-  @Nullable private final Object val;
-
-  /** Creates a variable with the given name and value. */
-  private Variable(String name, @Nullable Object val) {
-    this.name = name;
-    this.val = val;
-  }
-
-  /**
-   * Creates a "this" variable.
-   *
-   * @param val the value.
-   * @return {@link Variable}.
-   */
-  static CelVariableResolver newThisVariable(@Nullable Object val) {
-    return CelVariableResolver.hierarchicalVariableResolver(
-        new NowVariable(), new Variable(THIS_NAME, val));
-  }
-
-  /**
-   * Creates a "rules" variable.
-   *
-   * @param val the value.
-   * @return {@link Variable}.
-   */
-  static CelVariableResolver newRulesVariable(Object val) {
-    return new Variable(RULES_NAME, val);
-  }
-
-  /**
-   * Creates a "rule" variable.
-   *
-   * @param rules the value of the "rules" variable.
-   * @param val the value of the "rule" variable.
-   * @return {@link Variable}.
-   */
-  static CelVariableResolver newRuleVariable(Object rules, Object val) {
-    return CelVariableResolver.hierarchicalVariableResolver(
-        newRulesVariable(rules), new Variable(RULE_NAME, val));
-  }
+  /** The {@value} variable in CEL. */
+  static final String NOW_NAME = "now";
 
-  @Override
-  public Optional<Object> find(String name) {
-    if (!this.name.equals(name) || val == null) {
-      return Optional.empty();
-    }
-    return Optional.of(val);
-  }
+  private Variable() {}
 }
@@ -0,0 +1,236 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.validate.FieldPathElement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link ViolationSink} collects the {@link RuleViolation}s found while evaluating a value.
+ * Evaluators push violations into the sink instead of returning lists of them, so evaluating a
+ * valid value allocates nothing for violations. The sink also tells evaluators when to stop:
+ * evaluation is done as soon as the violation limit is reached.
+ *
+ * <p>Violations added by a nested evaluator are contiguous in the sink. A parent evaluator records
+ * {@link #size()} before calling the nested evaluator and prepends its own path elements to the
+ * violations added since, see {@link #updatePaths}.
+ *
+ * <p>A sink is not thread-safe. It belongs to a single evaluation at a time and can be reused for
+ * the next evaluation after {@link #clear()}.
+ */
+final class ViolationSink {
+  private static final RuleViolation.Builder[] EMPTY = new RuleViolation.Builder[0];
+
+  /** maxViolations is the number of violations after which evaluation stops, or 0 for no limit. */
+  private final int maxViolations;
+
+  private RuleViolation.Builder[] violations = EMPTY;
+  private int size;
+
+  /** now is the time rules relative to the current time compare against, see {@link #now()}. */
+  private @Nullable Instant now;
+
+  /** activation binds the variables of CEL programs, see {@link #activation()}. */
+  private @Nullable Activation activation;
+
+  /**
+   * Constructs an empty {@link ViolationSink}.
+   *
+   * @param maxViolations The number of violations after which evaluation stops, or 0 for no limit.
+   */
+  ViolationSink(int maxViolations) {
+    this.maxViolations = maxViolations;
+  }
+
+  /**
+   * Appends a violation to the sink. Once the violation limit is reached, further violations are
+   * dropped, and evaluation is done.
+   *
+   * @param violation The violation to append.
+   */
+  void add(RuleViolation.Builder violation) {
+    if (isDone()) {
+      return;
+    }
+    if (size == violations.length) {
+      violations = Arrays.copyOf(violations, Math.max(4, size * 2));
+    }
+    violations[size++] = violation;
+  }
+
+  /**
+   * Returns whether evaluation should stop, because no further violation will be accepted.
+   * Evaluators check this after every nested evaluation or added violation.
+   *
+   * @return True if evaluation should stop.
+   */
+  boolean isDone() {
+    return maxViolations > 0 && size >= maxViolations;
+  }
+
+  /**
+   * Returns the number of violations in the sink.
+   *
+   * @return The number of violations.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether the sink contains no violations.
+   *
+   * @return True if there are no violations.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns whether evaluation stopped at the violation limit. Whether the value has more
+   * violations than the sink holds is not known at that point, so a value with exactly as many
+   * violations as the limit is reported as truncated too.
+   *
+   * @return True if the violations may be incomplete.
+   */
+  boolean isTruncated() {
+    return isDone();
+  }
+
+  /**
+   * Adjusts the violations added since {@code from} by prepending rule and field path elements.
+   *
+   * @param from Index of the first violation to adjust.
+   * @param fieldPathElement A field path element to prepend, or null.
+   * @param rulePathElements Rule path elements to prepend.
+   */
+  void updatePaths(
+      int from,
+      @Nullable FieldPathElement fieldPathElement,
+      List<FieldPathElement> rulePathElements) {
+    updatePaths(from, fieldPathElement, null, rulePathElements);
+  }
+
+  /**
+   * Adjusts the violations added since {@code from} by prepending rule and field path elements. The
+   * field path element is subscripted with a list index or map key, which is only applied once a
+   * violation is converted to its protobuf form.
+   *
+   * <p>Violations found by the same nested evaluation usually share their path so far. Each
+   * distinct path is extended once, and the violations sharing it share the extended path.
+   *
+   * @param from Index of the first violation to adjust.
+   * @param fieldPathElement A field path element to prepend, or null.
+   * @param subscript An {@link Integer} list index or raw map key for fieldPathElement, or null.
+   * @param rulePathElements Rule path elements to prepend.
+   */
+  void updatePaths(
+      int from,
+      @Nullable FieldPathElement fieldPathElement,
+      @Nullable Object subscript,
+      List<FieldPathElement> rulePathElements) {
+    FieldPathNode fieldTail = null;
+    FieldPathNode fieldHead = null;
+    FieldPathNode ruleTail = null;
+    FieldPathNode ruleHead = null;
+    for (int i = from; i < size; i++) {
+      RuleViolation.Builder violation = violations[i];
+      if (fieldPathElement != null) {
+        FieldPathNode tail = violation.getFieldPathHead();
+        if (fieldHead == null || tail != fieldTail) {
+          fieldTail = tail;
+          fieldHead = new FieldPathNode(fieldPathElement, subscript, tail);
+        }
+        violation.setFieldPathHead(fieldHead);
+      }
+      if (!rulePathElements.isEmpty()) {
+        FieldPathNode tail = violation.getRulePathHead();
+        if (ruleHead == null || tail != ruleTail) {
+          ruleTail = tail;
+          ruleHead = FieldPathNode.prepend(rulePathElements, tail);
+        }
+        violation.setRulePathHead(ruleHead);
+      }
+    }
+  }
+
+  /**
+   * Marks the violations added since {@code from} as violations of a map key.
+   *
+   * @param from Index of the first violation to mark.
+   */
+  void setForKey(int from) {
+    for (int i = from; i < size; i++) {
+      violations[i].setForKey(true);
+    }
+  }
+
+  /**
+   * Builds the violations in the sink, in the order they were added.
+   *
+   * @return The built violations.
+   */
+  List<Violation> build() {
+    List<Violation> built = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      built.add(violations[i].build());
+    }
+    return built;
+  }
+
+  /**
+   * Returns the current time. The clock is read on first use and the time is then constant for the
+   * rest of the evaluation, so that every rule relative to now, native or CEL, agrees on it.
+   *
+   * @return The current time.
+   */
+  Instant now() {
+    Instant now = this.now;
+    if (now == null) {
+      now = Instant.now();
+      this.now = now;
+    }
+    return now;
+  }
+
+  /**
+   * Returns the activation CEL programs are evaluated with. The activation is created on first use
+   * and reused by every program of the evaluation, each binding its variables before it runs.
+   *
+   * @return The activation.
+   */
+  Activation activation() {
+    Activation activation = this.activation;
+    if (activation == null) {
+      activation = new Activation(this);
+      this.activation = activation;
+    }
+    return activation;
+  }
+
+  /** Removes all violations, so that the sink can be reused for another evaluation. */
+  void clear() {
+    Arrays.fill(violations, 0, size, null);
+    size = 0;
+    now = null;
+    if (activation != null) {
+      activation.clear();
+    }
+  }
+}
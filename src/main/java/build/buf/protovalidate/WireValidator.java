@@ -0,0 +1,552 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.FieldPathElement;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.OneofDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link WireValidator} validates messages in their serialized form. It walks the wire format with
+ * a {@link CodedInputStream}, decodes only the fields that rules refer to and evaluates the field
+ * rules against the decoded values, so no {@link Message} is built for them. Other fields are
+ * skipped without being decoded, so they are not checked for invalid UTF-8 or malformed embedded
+ * messages.
+ *
+ * <p>Embedded messages that only need their own rules checked are validated recursively from their
+ * bytes. Rules that need a {@link Message} are evaluated on a {@link DynamicMessage}:
+ *
+ * <ul>
+ *   <li>A message type with rules other than field and oneof rules, such as message-level CEL
+ *       expressions that see {@code this}, is parsed as a whole. So is a message type with rules on
+ *       group-encoded fields.
+ *   <li>The elements of map fields and repeated message fields, and message fields with rules of
+ *       their own, are parsed from their bytes when their rules are evaluated.
+ * </ul>
+ *
+ * <p>Embedded messages are validated to the same depth that {@link CodedInputStream} parses them
+ * to, so that a hostile payload fails with an {@link InvalidProtocolBufferException} rather than
+ * exhausting the stack.
+ */
+final class WireValidator {
+  /** The nesting depth of embedded messages, the default limit of {@link CodedInputStream}. */
+  static final int RECURSION_LIMIT = 100;
+
+  /** How a field is read from the wire and stored until it is evaluated. */
+  private enum Kind {
+    /** A singular scalar or enum field, stored decoded. */
+    SCALAR,
+    /** A repeated scalar or enum field, stored as a list of decoded elements. */
+    REPEATED,
+    /** A singular message field, stored as its serialized bytes. */
+    MESSAGE,
+    /** A repeated message or map field, stored as a list of serialized elements. */
+    MESSAGES,
+  }
+
+  /** A field read from the wire. */
+  private static final class Slot {
+    final FieldDescriptor field;
+    final Kind kind;
+    final int index;
+
+    /** Slots of the other fields of a oneof, which are cleared when this field is read. */
+    int[] oneofSiblings = new int[0];
+
+    /** Whether a message field only needs the embedded message's rules checked. */
+    final boolean validateBytes;
+
+    /** The field's path element, prepended to the violations of an embedded message. */
+    final FieldPathElement pathElement;
+
+    Slot(FieldDescriptor field, Kind kind, boolean validateBytes, int index) {
+      this.field = field;
+      this.kind = kind;
+      this.validateBytes = validateBytes;
+      this.index = index;
+      this.pathElement = FieldPathUtils.fieldPathElement(field);
+    }
+  }
+
+  /** An evaluator of a message, with the slots of the fields it refers to. */
+  private static final class Step {
+    final Evaluator evaluator;
+    final int[] slots;
+
+    Step(Evaluator evaluator, int[] slots) {
+      this.evaluator = evaluator;
+      this.slots = slots;
+    }
+  }
+
+  /** How a message type is read from the wire and evaluated. */
+  private static final class Plan {
+    final Descriptor descriptor;
+    final Evaluator evaluator;
+
+    /** Field numbers of the slots, in ascending order. */
+    final int[] numbers;
+
+    final Slot[] slots;
+
+    /** The evaluation steps, or null if the message is parsed and evaluated as a whole. */
+    final Step @Nullable [] steps;
+
+    Plan(Descriptor descriptor, Evaluator evaluator, Slot[] slots, Step @Nullable [] steps) {
+      this.descriptor = descriptor;
+      this.evaluator = evaluator;
+      this.slots = slots;
+      this.steps = steps;
+      this.numbers = new int[slots.length];
+      for (int i = 0; i < slots.length; i++) {
+        numbers[i] = slots[i].field.getNumber();
+      }
+    }
+
+    @Nullable Slot slot(int number) {
+      int i = Arrays.binarySearch(numbers, number);
+      return i < 0 ? null : slots[i];
+    }
+  }
+
+  private final EvaluatorBuilder evaluatorBuilder;
+  private final ConcurrentMap<Descriptor, Plan> plans = new ConcurrentHashMap<>();
+
+  WireValidator(EvaluatorBuilder evaluatorBuilder) {
+    this.evaluatorBuilder = evaluatorBuilder;
+  }
+
+  /**
+   * Validates a serialized message, reading the input up to its end or limit.
+   *
+   * @param descriptor The type of the message.
+   * @param input The serialized message.
+   * @param violations The sink receiving the violations found.
+   * @throws ValidationException If the message cannot be validated.
+   * @throws IOException If the input cannot be read or is not a valid message.
+   */
+  void validate(Descriptor descriptor, CodedInputStream input, ViolationSink violations)
+      throws ValidationException, IOException {
+    validate(descriptor, input, violations, 0);
+  }
+
+  /** Validates a serialized message embedded at the given depth. */
+  private void validate(
+      Descriptor descriptor, CodedInputStream input, ViolationSink violations, int depth)
+      throws ValidationException, IOException {
+    Plan plan = plan(descriptor);
+    Step[] steps = plan.steps;
+    if (steps == null) {
+      plan.evaluator.evaluate(new MessageValue(parse(descriptor, input)), violations);
+      return;
+    }
+    Object[] values = read(plan, input);
+    for (Step step : steps) {
+      evaluate(plan, step, values, violations, depth);
+      if (violations.isDone()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Parses a message, without checking that proto2 required fields are set.
+   *
+   * @param descriptor The type of the message.
+   * @param input The serialized message.
+   * @return The parsed message.
+   * @throws IOException If the input cannot be read or is not a valid message.
+   */
+  static DynamicMessage parse(Descriptor descriptor, CodedInputStream input) throws IOException {
+    return DynamicMessage.newBuilder(descriptor).mergeFrom(input).buildPartial();
+  }
+
+  private Plan plan(Descriptor descriptor) throws ValidationException {
+    Plan plan = plans.get(descriptor);
+    if (plan == null) {
+      plan = newPlan(descriptor, evaluatorBuilder.load(descriptor));
+      Plan existing = plans.putIfAbsent(descriptor, plan);
+      if (existing != null) {
+        plan = existing;
+      }
+    }
+    return plan;
+  }
+
+  private static Plan newPlan(Descriptor descriptor, Evaluator evaluator) {
+    Plan parsed = new Plan(descriptor, evaluator, new Slot[0], null);
+    if (!(evaluator instanceof MessageEvaluator)) {
+      return parsed;
+    }
+    List<Evaluator> evaluators = ((MessageEvaluator) evaluator).getEvaluators();
+    Set<FieldDescriptor> fields = new LinkedHashSet<>();
+    Set<FieldDescriptor> validateBytes = new HashSet<>();
+    for (Evaluator eval : evaluators) {
+      if (eval instanceof FieldEvaluator) {
+        FieldEvaluator fieldEvaluator = (FieldEvaluator) eval;
+        fields.add(fieldEvaluator.getDescriptor());
+        if (isEmbeddedOnly(fieldEvaluator.valueEvaluator)) {
+          validateBytes.add(fieldEvaluator.getDescriptor());
+        }
+      } else if (eval instanceof OneofEvaluator) {
+        fields.addAll(((OneofEvaluator) eval).getDescriptor().getFields());
+      } else if (eval instanceof MessageOneofEvaluator) {
+        for (FieldDescriptor field : ((MessageOneofEvaluator) eval).fields) {
+          fields.add(descriptor.findFieldByNumber(field.getNumber()));
+        }
+      } else {
+        return parsed;
+      }
+    }
+    // Reading a member of a oneof clears the other members, so all of them are tracked.
+    for (FieldDescriptor field : new ArrayList<>(fields)) {
+      OneofDescriptor oneof = field.getRealContainingOneof();
+      if (oneof != null) {
+        fields.addAll(oneof.getFields());
+      }
+    }
+    for (FieldDescriptor field : fields) {
+      if (field.getType() == FieldDescriptor.Type.GROUP) {
+        // Groups are not length-delimited, so their bytes cannot be set aside as they are read.
+        return parsed;
+      }
+    }
+    List<FieldDescriptor> sorted = new ArrayList<>(fields);
+    sorted.sort((a, b) -> Integer.compare(a.getNumber(), b.getNumber()));
+    Slot[] slots = new Slot[sorted.size()];
+    for (int i = 0; i < slots.length; i++) {
+      FieldDescriptor field = sorted.get(i);
+      slots[i] = new Slot(field, kind(field), validateBytes.contains(field), i);
+    }
+    Plan plan = new Plan(descriptor, evaluator, slots, new Step[evaluators.size()]);
+    for (Slot slot : slots) {
+      OneofDescriptor oneof = slot.field.getRealContainingOneof();
+      if (oneof != null) {
+        slot.oneofSiblings = slotIndices(plan, oneof.getFields(), slot.field);
+      }
+    }
+    Step[] steps = plan.steps;
+    for (int i = 0; i < evaluators.size(); i++) {
+      Evaluator eval = evaluators.get(i);
+      List<FieldDescriptor> stepFields;
+      if (eval instanceof FieldEvaluator) {
+        stepFields = Collections.singletonList(((FieldEvaluator) eval).getDescriptor());
+      } else if (eval instanceof OneofEvaluator) {
+        stepFields = ((OneofEvaluator) eval).getDescriptor().getFields();
+      } else {
+        stepFields = ((MessageOneofEvaluator) eval).fields;
+      }
+      steps[i] = new Step(eval, slotIndices(plan, stepFields, null));
+    }
+    return plan;
+  }
+
+  private static Kind kind(FieldDescriptor field) {
+    if (field.getJavaType() == FieldDescriptor.JavaType.MESSAGE) {
+      return field.isRepeated() ? Kind.MESSAGES : Kind.MESSAGE;
+    }
+    return field.isRepeated() ? Kind.REPEATED : Kind.SCALAR;
+  }
+
+  /** Returns whether a value evaluator only checks the rules of an embedded message. */
+  private static boolean isEmbeddedOnly(ValueEvaluator valueEvaluator) {
+    List<Evaluator> evaluators = valueEvaluator.getEvaluators();
+    return !valueEvaluator.isIgnoreEmpty()
+        && evaluators.size() == 1
+        && evaluators.get(0) instanceof EmbeddedMessageEvaluator;
+  }
+
+  private static int[] slotIndices(
+      Plan plan, List<FieldDescriptor> fields, @Nullable FieldDescriptor exclude) {
+    int[] indices = new int[fields.size()];
+    int count = 0;
+    for (FieldDescriptor field : fields) {
+      Slot slot = plan.slot(field.getNumber());
+      if (slot != null && slot.field != exclude) {
+        indices[count++] = slot.index;
+      }
+    }
+    return Arrays.copyOf(indices, count);
+  }
+
+  private static Object[] read(Plan plan, CodedInputStream input) throws IOException {
+    Object[] values = new Object[plan.slots.length];
+    while (true) {
+      int tag = input.readTag();
+      if (tag == 0) {
+        return values;
+      }
+      Slot slot = plan.slot(WireFormat.getTagFieldNumber(tag));
+      if ((slot == null || !read(slot, tag, input, values)) && !input.skipField(tag)) {
+        // An end-group tag without a matching start-group tag.
+        input.checkLastTagWas(0);
+        return values;
+      }
+    }
+  }
+
+  /** Reads a field, returning false if the wire type does not match and the field is unknown. */
+  private static boolean read(Slot slot, int tag, CodedInputStream input, Object[] values)
+      throws IOException {
+    FieldDescriptor field = slot.field;
+    int wireType = WireFormat.getTagWireType(tag);
+    if (wireType == WireFormat.WIRETYPE_END_GROUP) {
+      return false;
+    }
+    switch (slot.kind) {
+      case SCALAR:
+        {
+          if (wireType != field.getLiteType().getWireType()) {
+            return false;
+          }
+          Object value = readScalar(field, input);
+          if (value != null) {
+            set(slot, values, value);
+          }
+          return true;
+        }
+      case REPEATED:
+        {
+          if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED && field.isPackable()) {
+            int limit = input.pushLimit(input.readRawVarint32());
+            while (input.getBytesUntilLimit() > 0) {
+              addElement(slot, values, readScalar(field, input));
+            }
+            input.popLimit(limit);
+            return true;
+          }
+          if (wireType != field.getLiteType().getWireType()) {
+            return false;
+          }
+          addElement(slot, values, readScalar(field, input));
+          return true;
+        }
+      case MESSAGE:
+        {
+          if (wireType != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            return false;
+          }
+          ByteString bytes = input.readBytes();
+          Object previous = values[slot.index];
+          // Occurrences of a singular message field are merged, same as parsing their bytes
+          // concatenated.
+          set(slot, values, previous == null ? bytes : ((ByteString) previous).concat(bytes));
+          return true;
+        }
+      case MESSAGES:
+        {
+          if (wireType != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            return false;
+          }
+          addElement(slot, values, input.readBytes());
+          return true;
+        }
+    }
+    throw new IllegalStateException("Unexpected kind " + slot.kind);
+  }
+
+  private static void set(Slot slot, Object[] values, Object value) {
+    values[slot.index] = value;
+    for (int sibling : slot.oneofSiblings) {
+      values[sibling] = null;
+    }
+  }
+
+  private static void addElement(Slot slot, Object[] values, @Nullable Object element) {
+    if (element == null) {
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    List<Object> list = (List<Object>) values[slot.index];
+    if (list == null) {
+      list = new ArrayList<>();
+      values[slot.index] = list;
+    }
+    list.add(element);
+  }
+
+  /**
+   * Reads a scalar or enum value as the Java type returned by {@link Message#getField}. Returns
+   * null for a closed enum value that is not defined, which is kept as an unknown field.
+   */
+  private static @Nullable Object readScalar(FieldDescriptor field, CodedInputStream input)
+      throws IOException {
+    switch (field.getType()) {
+      case DOUBLE:
+        return input.readDouble();
+      case FLOAT:
+        return input.readFloat();
+      case INT64:
+        return input.readInt64();
+      case UINT64:
+        return input.readUInt64();
+      case INT32:
+        return input.readInt32();
+      case FIXED64:
+        return input.readFixed64();
+      case FIXED32:
+        return input.readFixed32();
+      case BOOL:
+        return input.readBool();
+      case STRING:
+        return field.needsUtf8Check() ? input.readStringRequireUtf8() : input.readString();
+      case BYTES:
+        return input.readBytes();
+      case UINT32:
+        return input.readUInt32();
+      case SFIXED32:
+        return input.readSFixed32();
+      case SFIXED64:
+        return input.readSFixed64();
+      case SINT32:
+        return input.readSInt32();
+      case SINT64:
+        return input.readSInt64();
+      case ENUM:
+        {
+          int number = input.readEnum();
+          EnumValueDescriptor value = field.getEnumType().findValueByNumber(number);
+          if (value == null && !field.legacyEnumFieldTreatedAsClosed()) {
+            value = field.getEnumType().findValueByNumberCreatingIfUnknown(number);
+          }
+          return value;
+        }
+      default:
+        throw new IllegalStateException("Unexpected scalar type " + field.getType());
+    }
+  }
+
+  private void evaluate(Plan plan, Step step, Object[] values, ViolationSink violations, int depth)
+      throws ValidationException, IOException {
+    Evaluator evaluator = step.evaluator;
+    if (evaluator instanceof OneofEvaluator) {
+      boolean set = false;
+      for (int slot : step.slots) {
+        set |= values[slot] != null;
+      }
+      ((OneofEvaluator) evaluator).evaluate(set, violations);
+      return;
+    }
+    if (evaluator instanceof MessageOneofEvaluator) {
+      int hasCount = 0;
+      for (int slot : step.slots) {
+        if (isSet(plan.slots[slot], values)) {
+          hasCount++;
+        }
+      }
+      ((MessageOneofEvaluator) evaluator).evaluate(hasCount, violations);
+      return;
+    }
+    FieldEvaluator fieldEvaluator = (FieldEvaluator) evaluator;
+    Slot slot = plan.slots[step.slots[0]];
+    if (!fieldEvaluator.shouldEvaluateValue(isSet(slot, values), violations)) {
+      return;
+    }
+    FieldDescriptor field = slot.field;
+    Object value = values[slot.index];
+    switch (slot.kind) {
+      case SCALAR:
+        fieldEvaluator.valueEvaluator.evaluate(
+            new ObjectValue(field, value != null ? value : field.getDefaultValue()), violations);
+        return;
+      case REPEATED:
+        fieldEvaluator.valueEvaluator.evaluate(
+            new ObjectValue(field, value != null ? value : Collections.emptyList()), violations);
+        return;
+      case MESSAGE:
+        if (!slot.validateBytes) {
+          Message message =
+              value != null
+                  ? parse(field.getMessageType(), (ByteString) value, depth + 1)
+                  : DynamicMessage.getDefaultInstance(field.getMessageType());
+          fieldEvaluator.valueEvaluator.evaluate(new ObjectValue(field, message), violations);
+        } else if (value != null) {
+          int start = violations.size();
+          validate(
+              field.getMessageType(),
+              newCodedInput((ByteString) value, depth + 1),
+              violations,
+              depth + 1);
+          violations.updatePaths(start, slot.pathElement, Collections.emptyList());
+        }
+        return;
+      case MESSAGES:
+        {
+          List<Message> messages = new ArrayList<>();
+          if (value != null) {
+            for (Object element : (List<?>) value) {
+              messages.add(parse(field.getMessageType(), (ByteString) element, depth + 1));
+            }
+          }
+          fieldEvaluator.valueEvaluator.evaluate(new ObjectValue(field, messages), violations);
+          return;
+        }
+    }
+  }
+
+  private static boolean isSet(Slot slot, Object[] values) {
+    Object value = values[slot.index];
+    if (value == null) {
+      return false;
+    }
+    FieldDescriptor field = slot.field;
+    return slot.kind != Kind.SCALAR
+        || field.hasPresence()
+        || !value.equals(field.getDefaultValue());
+  }
+
+  private static Message parse(Descriptor descriptor, ByteString bytes, int depth)
+      throws IOException {
+    return parse(descriptor, newCodedInput(bytes, depth));
+  }
+
+  /**
+   * Creates an input for a message embedded at the given depth, bounding the nesting below it.
+   *
+   * @throws InvalidProtocolBufferException If the depth exceeds {@link #RECURSION_LIMIT}.
+   */
+  private static CodedInputStream newCodedInput(ByteString bytes, int depth)
+      throws InvalidProtocolBufferException {
+    if (depth > RECURSION_LIMIT) {
+      throw new InvalidProtocolBufferException(
+          "Protocol message had too many levels of nesting.  May be malicious.");
+    }
+    CodedInputStream input = bytes.newCodedInput();
+    // The bytes are a private copy or a slice of immutable input, so they can be shared.
+    input.enableAliasing(true);
+    input.setRecursionLimit(RECURSION_LIMIT - depth);
+    return input;
+  }
+}
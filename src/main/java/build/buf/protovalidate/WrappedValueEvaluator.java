@@ -17,7 +17,6 @@ package build.buf.protovalidate;
 import build.buf.protovalidate.exceptions.ExecutionException;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.Message;
-import java.util.List;
 
 /**
  * Adapter that lets a scalar-rule evaluator run against a {@code google.protobuf.*Value} wrapper
@@ -56,14 +55,13 @@ final class WrappedValueEvaluator implements Evaluator {
   }
 
   @Override
-  public List<RuleViolation.Builder> evaluate(Value val, boolean failFast)
-      throws ExecutionException {
+  public void evaluate(Value val, ViolationSink violations) throws ExecutionException {
     Message message = val.messageValue();
     if (message == null) {
       // proto3 message-typed field absent — no value to validate.
-      return RuleViolation.NO_VIOLATIONS;
+      return;
     }
     Object innerValue = message.getField(innerField);
-    return inner.evaluate(new ObjectValue(innerField, innerValue), failFast);
+    inner.evaluate(new ObjectValue(innerField, innerValue), violations);
   }
 }
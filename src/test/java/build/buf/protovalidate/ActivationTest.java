@@ -0,0 +1,65 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.protobuf.Timestamp;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class ActivationTest {
+  @Test
+  void resolvesBoundVariables() {
+    Activation activation = new ViolationSink(0).activation();
+    activation.bindThis("value");
+    activation.bindGlobals(Activation.Globals.of("rules", "rule"));
+    assertThat(activation.find(Variable.THIS_NAME)).contains("value");
+    assertThat(activation.find(Variable.RULES_NAME)).contains("rules");
+    assertThat(activation.find(Variable.RULE_NAME)).contains("rule");
+    assertThat(activation.find("other")).isEmpty();
+  }
+
+  @Test
+  void unbindsGlobalsOfProgramsWithout() {
+    Activation activation = new ViolationSink(0).activation();
+    activation.bindGlobals(Activation.Globals.of("rules", "rule"));
+    activation.bindGlobals(null);
+    assertThat(activation.find(Variable.RULES_NAME)).isEmpty();
+    assertThat(activation.find(Variable.RULE_NAME)).isEmpty();
+  }
+
+  @Test
+  void lookupsDoNotAllocate() {
+    Activation activation = new ViolationSink(0).activation();
+    activation.bindThis("value");
+    assertThat(activation.find(Variable.THIS_NAME)).isSameAs(activation.find(Variable.THIS_NAME));
+    assertThat(activation.find(Variable.NOW_NAME)).isSameAs(activation.find(Variable.NOW_NAME));
+  }
+
+  @Test
+  void nowIsTheClockOfTheSink() {
+    ViolationSink sink = new ViolationSink(0);
+    Activation activation = sink.activation();
+    Optional<Object> now = activation.find(Variable.NOW_NAME);
+    assertThat(now).containsInstanceOf(Timestamp.class);
+    Timestamp timestamp = (Timestamp) now.get();
+    assertThat(timestamp.getSeconds()).isEqualTo(sink.now().getEpochSecond());
+    assertThat(timestamp.getNanos()).isEqualTo(sink.now().getNano());
+    sink.clear();
+    assertThat(activation.find(Variable.NOW_NAME)).isNotSameAs(now);
+    assertThat(activation.find(Variable.THIS_NAME)).isEmpty();
+  }
+}
@@ -0,0 +1,49 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.noimports.validationtest.ExampleMessageRules;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import dev.cel.bundle.Cel;
+import dev.cel.common.types.SimpleType;
+import dev.cel.common.types.StructTypeReference;
+import org.junit.jupiter.api.Test;
+
+class CelEnvironmentsTest {
+  @Test
+  void testShared() throws Exception {
+    CelEnvironments environments = new CelEnvironments(ValidateLibrary.newCel());
+    Cel string = environments.get(null, Variable.THIS_NAME, SimpleType.STRING);
+    assertThat(environments.get(null, Variable.THIS_NAME, SimpleType.STRING)).isSameAs(string);
+    assertThat(environments.get(null, Variable.THIS_NAME, SimpleType.INT)).isNotSameAs(string);
+    assertThat(string.compile("this.size() > 1").getAst().getResultType())
+        .isEqualTo(SimpleType.BOOL);
+
+    Descriptor descriptor = ExampleMessageRules.getDescriptor();
+    StructTypeReference type = StructTypeReference.create(descriptor.getFullName());
+    Cel message = environments.get(descriptor, Variable.THIS_NAME, type);
+    assertThat(environments.get(descriptor, Variable.THIS_NAME, type)).isSameAs(message);
+    // A message type of the same name from another descriptor gets its own environment.
+    Descriptor copy =
+        FileDescriptor.buildFrom(
+                descriptor.getFile().toProto(),
+                descriptor.getFile().getDependencies().toArray(new FileDescriptor[0]))
+            .findMessageTypeByName(descriptor.getName());
+    assertThat(environments.get(copy, Variable.THIS_NAME, type)).isNotSameAs(message);
+  }
+}
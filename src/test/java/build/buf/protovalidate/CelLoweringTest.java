@@ -0,0 +1,210 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.FieldRules;
+import build.buf.validate.Rule;
+import build.buf.validate.ValidateProto;
+import com.example.noimports.validationtest.ExampleLoweredRules;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import dev.cel.bundle.Cel;
+import dev.cel.common.CelAbstractSyntaxTree;
+import dev.cel.common.types.CelType;
+import dev.cel.common.types.StructTypeReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CelLowering}: lowered custom rules must produce the same violations as CEL, and
+ * expressions it doesn't support must be left to CEL.
+ */
+class CelLoweringTest {
+  private static final CelEnvironments ENVIRONMENTS = new CelEnvironments(ValidateLibrary.newCel());
+
+  private static final String[] STRINGS = {
+    "", "a", "abc", "b", "x", "xyz", "ab cd", "abc-", "héllo", "😀😀", "a_", "Q"
+  };
+
+  private static final double[] DOUBLES = {
+    0.0, -0.0, 0.5, 1.0, 1.5, -1.0, 99.9, 100.0, 1e11, Double.NaN, Double.POSITIVE_INFINITY
+  };
+
+  private static final long[] LONGS = {0, 1, -1, 5, -5, -6, 10, 11, 99, 100, 999, 1000};
+
+  private static Validator validator(boolean nativeRules) {
+    Config config = Config.newBuilder().setEnableNativeRules(nativeRules).build();
+    return ValidatorFactory.newBuilder().withConfig(config).build();
+  }
+
+  private static List<build.buf.validate.Violation> violations(Validator validator, Message msg)
+      throws ValidationException {
+    List<build.buf.validate.Violation> violations = new ArrayList<>();
+    for (Violation violation : validator.validate(msg).getViolations()) {
+      violations.add(violation.toProto());
+    }
+    return violations;
+  }
+
+  private static <T> T pick(Random random, T[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static ExampleLoweredRules randomMessage(Random random) {
+    ExampleLoweredRules.Builder builder =
+        ExampleLoweredRules.newBuilder()
+            .setStart(LONGS[random.nextInt(LONGS.length)])
+            .setEnd(LONGS[random.nextInt(LONGS.length)])
+            .setName(pick(random, STRINGS))
+            .setCount(LONGS[random.nextInt(LONGS.length)])
+            .setKindValue(random.nextInt(4))
+            .setRatio(DOUBLES[random.nextInt(DOUBLES.length)])
+            .setLevel((float) DOUBLES[random.nextInt(DOUBLES.length)])
+            .setData(ByteString.copyFromUtf8(pick(random, STRINGS)))
+            .setBig(random.nextBoolean() ? LONGS[random.nextInt(LONGS.length)] : random.nextLong())
+            .setDelta((int) LONGS[random.nextInt(LONGS.length)])
+            .setFlag(random.nextBoolean())
+            .setSmall((int) LONGS[random.nextInt(LONGS.length)]);
+    if (random.nextBoolean()) {
+      builder.setA(pick(random, STRINGS));
+    }
+    if (random.nextBoolean()) {
+      builder.getBBuilder().setV((int) LONGS[random.nextInt(LONGS.length)]);
+    }
+    for (int i = random.nextInt(4); i > 0; i--) {
+      builder.addLabels(pick(random, STRINGS));
+    }
+    for (int i = random.nextInt(4); i > 0; i--) {
+      ExampleLoweredRules.Item.Builder item =
+          builder
+              .addItemsBuilder()
+              .setKey(pick(random, STRINGS))
+              .setWeight(DOUBLES[random.nextInt(DOUBLES.length)]);
+      for (int j = random.nextInt(3); j > 0; j--) {
+        item.addTags(pick(random, STRINGS));
+      }
+    }
+    for (int i = random.nextInt(3); i > 0; i--) {
+      builder.addKindsValue(random.nextInt(4));
+    }
+    return builder.build();
+  }
+
+  @Test
+  void nativeAndCelProduceEqualViolations()
+      throws ValidationException, InvalidProtocolBufferException {
+    Validator nativeValidator = validator(true);
+    Validator celValidator = validator(false);
+    Random random = new Random(1);
+    for (int i = 0; i < 2000; i++) {
+      ExampleLoweredRules msg = randomMessage(random);
+      List<build.buf.validate.Violation> expected = violations(celValidator, msg);
+      assertThat(violations(nativeValidator, msg)).as(msg.toString()).isEqualTo(expected);
+      DynamicMessage dynamic =
+          DynamicMessage.parseFrom(ExampleLoweredRules.getDescriptor(), msg.toByteString());
+      assertThat(violations(nativeValidator, dynamic)).as(msg.toString()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void lowersEveryRuleOfTheExample() {
+    Descriptor descriptor = ExampleLoweredRules.getDescriptor();
+    for (Rule rule : descriptor.getOptions().getExtension(ValidateProto.message).getCelList()) {
+      assertThat(
+              CelLowering.lower(
+                  messageRule(rule.getExpression()), CelLowering.This.message(descriptor)))
+          .as(rule.getId())
+          .isNotNull();
+    }
+    for (FieldDescriptor field : descriptor.getFields()) {
+      FieldRules rules = field.getOptions().getExtension(ValidateProto.field);
+      for (Rule rule : rules.getCelList()) {
+        assertThat(
+                CelLowering.lower(
+                    fieldRule(field, false, rule), CelLowering.This.field(field, false)))
+            .as(rule.getId())
+            .isNotNull();
+      }
+      for (Rule rule : rules.getRepeated().getItems().getCelList()) {
+        assertThat(
+                CelLowering.lower(
+                    fieldRule(field, true, rule), CelLowering.This.field(field, true)))
+            .as(rule.getId())
+            .isNotNull();
+      }
+    }
+  }
+
+  @Test
+  void leavesOtherExpressionsToCel() {
+    String[] expressions = {
+      "this.start + 1 < this.end",
+      "this.start < 1.5",
+      "this.count > 1",
+      "this.small < 10u",
+      "this.name in ['a', 'b']",
+      "this.name.matches(this.a)",
+      "this.name.matches('[')",
+      "this.name.isEmail()",
+      "this.data.startsWith(b'a')",
+      "this.items.exists_one(i, i.weight > 0.0)",
+      "this.items.map(i, i.weight).size() > 0",
+      "this.items[0].weight > 0.0",
+      "this.b == this.b",
+      "this.ratio == this.ratio",
+      "(this.flag ? this.start : this.end) > 0",
+      "this.kinds.all(k, k in [1, 2])",
+    };
+    Descriptor descriptor = ExampleLoweredRules.getDescriptor();
+    for (String expression : expressions) {
+      assertThat(CelLowering.lower(messageRule(expression), CelLowering.This.message(descriptor)))
+          .as(expression)
+          .isNull();
+    }
+  }
+
+  private static CelAbstractSyntaxTree messageRule(String expression) {
+    Descriptor descriptor = ExampleLoweredRules.getDescriptor();
+    Cel cel =
+        ENVIRONMENTS.get(
+            descriptor, Variable.THIS_NAME, StructTypeReference.create(descriptor.getFullName()));
+    return compile(cel, expression);
+  }
+
+  private static CelAbstractSyntaxTree fieldRule(
+      FieldDescriptor field, boolean element, Rule rule) {
+    CelType type = DescriptorMappings.getCELType(field, element);
+    Descriptor messageType =
+        field.getJavaType() == FieldDescriptor.JavaType.MESSAGE ? field.getMessageType() : null;
+    return compile(ENVIRONMENTS.get(messageType, Variable.THIS_NAME, type), rule.getExpression());
+  }
+
+  private static CelAbstractSyntaxTree compile(Cel cel, String expression) {
+    try {
+      return cel.compile(expression).getAst();
+    } catch (Exception e) {
+      throw new AssertionError(expression, e);
+    }
+  }
+}
@@ -0,0 +1,226 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.Int32Rules;
+import build.buf.validate.StringRules;
+import build.buf.validate.ValidateProto;
+import com.example.noimports.validationtest.ExampleLoweredRules;
+import com.example.noimports.validationtest.ExampleOptimizedRules;
+import com.example.noimports.validationtest.PredefinedProto;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Duration;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.ExtensionRegistry;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import dev.cel.bundle.Cel;
+import dev.cel.common.CelAbstractSyntaxTree;
+import dev.cel.common.types.CelType;
+import dev.cel.common.types.SimpleType;
+import dev.cel.common.types.StructTypeReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CelOptimization}: optimized rules must produce the same violations as the rules
+ * as written, and the constant {@code rule} and {@code rules} values must be folded away.
+ */
+class CelOptimizationTest {
+  private static final CelEnvironments ENVIRONMENTS = new CelEnvironments(ValidateLibrary.newCel());
+
+  private static final String[] STRINGS = {"", "a", "ab", "abc", "abcdef", "cd", "b", "A"};
+
+  private static final long[] LONGS = {0, 1, -1, 2, 3, 6, 9, 10, 11, 100, 101};
+
+  private static final double[] DOUBLES = {0.0, 0.5, 1.0, 2.5, 3.0, Double.NaN};
+
+  private static Validator validator(boolean optimize) {
+    // Native rules would take over most of the standard rules.
+    Config config =
+        Config.newBuilder().setEnableNativeRules(false).setEnableCelOptimization(optimize).build();
+    return ValidatorFactory.newBuilder().withConfig(config).build();
+  }
+
+  private static List<build.buf.validate.Violation> violations(Validator validator, Message msg)
+      throws ValidationException {
+    List<build.buf.validate.Violation> violations = new ArrayList<>();
+    for (Violation violation : validator.validate(msg).getViolations()) {
+      violations.add(violation.toProto());
+    }
+    return violations;
+  }
+
+  private static <T> T pick(Random random, T[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static long pick(Random random, long[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static ExampleOptimizedRules randomMessage(Random random) {
+    ExampleOptimizedRules.Builder builder = ExampleOptimizedRules.newBuilder();
+    if (random.nextBoolean()) {
+      builder.setName(pick(random, STRINGS));
+    }
+    if (random.nextBoolean()) {
+      builder.setCode(pick(random, STRINGS));
+    }
+    if (random.nextBoolean()) {
+      builder.setCount((int) pick(random, LONGS));
+    }
+    if (random.nextBoolean()) {
+      builder.setOffset(pick(random, LONGS));
+    }
+    if (random.nextBoolean()) {
+      builder.setSize((int) pick(random, LONGS));
+    }
+    if (random.nextBoolean()) {
+      builder.setRatio(DOUBLES[random.nextInt(DOUBLES.length)]);
+    }
+    if (random.nextBoolean()) {
+      builder.setData(ByteString.copyFromUtf8(pick(random, STRINGS)));
+    }
+    for (int i = random.nextInt(3); i > 0; i--) {
+      builder.addTags(pick(random, STRINGS));
+    }
+    if (random.nextBoolean()) {
+      builder.setKind(ExampleOptimizedRules.Kind.forNumber(random.nextInt(3)));
+    }
+    if (random.nextBoolean()) {
+      builder.setTimeout(Duration.newBuilder().setSeconds(pick(random, LONGS)));
+    }
+    if (random.nextBoolean()) {
+      builder.setAt(Timestamp.newBuilder().setSeconds(pick(random, LONGS) * 10000));
+    }
+    if (random.nextBoolean()) {
+      builder.setDelta((int) pick(random, LONGS));
+    }
+    for (int i = random.nextInt(4); i > 0; i--) {
+      builder.putLimits(pick(random, STRINGS), (int) pick(random, LONGS));
+    }
+    return builder.build();
+  }
+
+  @Test
+  void optimizedAndUnoptimizedProduceEqualViolations()
+      throws ValidationException, InvalidProtocolBufferException {
+    Validator optimized = validator(true);
+    Validator unoptimized = validator(false);
+    ExtensionRegistry registry = ExtensionRegistry.newInstance();
+    PredefinedProto.registerAllExtensions(registry);
+    Random random = new Random(1);
+    for (int i = 0; i < 1000; i++) {
+      ExampleOptimizedRules msg = randomMessage(random);
+      List<build.buf.validate.Violation> expected = violations(unoptimized, msg);
+      assertThat(violations(optimized, msg)).as(msg.toString()).isEqualTo(expected);
+      DynamicMessage dynamic =
+          DynamicMessage.parseFrom(
+              ExampleOptimizedRules.getDescriptor(), msg.toByteString(), registry);
+      assertThat(violations(optimized, dynamic)).as(msg.toString()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void optimizedCustomRulesProduceEqualViolations() throws ValidationException {
+    Validator optimized = validator(true);
+    Validator unoptimized = validator(false);
+    Random random = new Random(2);
+    for (int i = 0; i < 200; i++) {
+      ExampleLoweredRules msg =
+          ExampleLoweredRules.newBuilder()
+              .setStart(pick(random, LONGS))
+              .setEnd(pick(random, LONGS))
+              .setName(pick(random, STRINGS))
+              .setRatio(DOUBLES[random.nextInt(DOUBLES.length)])
+              .addLabels(pick(random, STRINGS))
+              .build();
+      assertThat(violations(optimized, msg))
+          .as(msg.toString())
+          .isEqualTo(violations(unoptimized, msg));
+    }
+  }
+
+  @Test
+  void foldsStandardRules() {
+    StringRules rules = StringRules.newBuilder().setMaxLen(5).setPrefix("a").build();
+    for (FieldDescriptor field : rules.getAllFields().keySet()) {
+      for (CelAbstractSyntaxTree optimized : optimizeRule(rules, field, SimpleType.STRING)) {
+        assertThat(CelOptimization.references(optimized, Variable.RULES_NAME, Variable.RULE_NAME))
+            .as(field.getName())
+            .isFalse();
+      }
+    }
+  }
+
+  @Test
+  void foldsPredefinedRules() {
+    Int32Rules rules = Int32Rules.newBuilder().setExtension(PredefinedProto.multipleOf, 3).build();
+    FieldDescriptor field = PredefinedProto.multipleOf.getDescriptor();
+    for (CelAbstractSyntaxTree optimized : optimizeRule(rules, field, SimpleType.INT)) {
+      assertThat(CelOptimization.references(optimized, Variable.RULE_NAME)).isFalse();
+    }
+  }
+
+  @Test
+  void keepsRulesWithExtensions() {
+    // Extensions can't be written in a message literal, so rules stays a variable.
+    Int32Rules rules =
+        Int32Rules.newBuilder().setGt(0).setExtension(PredefinedProto.multipleOf, 3).build();
+    FieldDescriptor field = Int32Rules.getDescriptor().findFieldByName("gt");
+    for (CelAbstractSyntaxTree optimized : optimizeRule(rules, field, SimpleType.INT)) {
+      assertThat(CelOptimization.references(optimized, Variable.RULES_NAME)).isTrue();
+    }
+  }
+
+  /** Optimizes the expressions of a rule, which must all be optimizable. */
+  private static List<CelAbstractSyntaxTree> optimizeRule(
+      Message rules, FieldDescriptor field, CelType thisType) {
+    Descriptor rulesType = rules.getDescriptorForType();
+    Cel cel =
+        ENVIRONMENTS.get(
+            rulesType,
+            new String[] {Variable.THIS_NAME, Variable.RULES_NAME, Variable.RULE_NAME},
+            new CelType[] {
+              thisType,
+              StructTypeReference.create(rulesType.getFullName()),
+              DescriptorMappings.getCELType(field, false)
+            });
+    List<CelAbstractSyntaxTree> optimized = new ArrayList<>();
+    for (build.buf.validate.Rule rule :
+        field.getOptions().getExtension(ValidateProto.predefined).getCelList()) {
+      CelAbstractSyntaxTree ast;
+      try {
+        ast = cel.compile(rule.getExpression()).getAst();
+      } catch (Exception e) {
+        throw new AssertionError(rule.getExpression(), e);
+      }
+      CelAbstractSyntaxTree result = CelOptimization.optimizeRule(cel, ast, rules, field);
+      assertThat(result).as(rule.getId()).isNotNull();
+      optimized.add(result);
+    }
+    assertThat(optimized).as(field.getName()).isNotEmpty();
+    return optimized;
+  }
+}
@@ -17,6 +17,7 @@ package build.buf.protovalidate;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.google.re2j.Pattern;
 import dev.cel.bundle.Cel;
 import dev.cel.common.CelAbstractSyntaxTree;
 import dev.cel.common.CelValidationException;
@@ -148,6 +149,39 @@ public class CustomOverloadTest {
     assertThat(evalToBool("'foo@example.com    '.isEmail()")).isFalse();
   }
 
+  @Test
+  public void testIsEmailMatchesRegex() {
+    Pattern regex =
+        Pattern.compile(
+            "^[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]+@[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?(?:\\.[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?)*$");
+    String label63 = String.join("", Collections.nCopies(63, "a"));
+    for (String addr :
+        Arrays.asList(
+            "",
+            "@",
+            "a@",
+            "@b",
+            "a@b",
+            "a.b+c@d-e.f",
+            "a@b.",
+            "a@.b",
+            "a@b..c",
+            "a@-b",
+            "a@b-",
+            "a@b-.c",
+            "a@b.-c",
+            "a@@b",
+            "a b@c",
+            "\u00e9@b",
+            "a@\u00e9",
+            "a@" + label63,
+            "a@" + label63 + "a",
+            "a@b." + label63 + ".c",
+            "{|}~@1-2.3")) {
+      assertThat(CustomOverload.isEmail(addr)).as(addr).isEqualTo(regex.matches(addr));
+    }
+  }
+
   @Test
   public void testBytesContains() throws Exception {
     assertThat(evalToBool("bytes('12345').contains(bytes(''))")).isTrue();
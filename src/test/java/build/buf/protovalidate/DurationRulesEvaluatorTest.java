@@ -0,0 +1,128 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.DurationRules;
+import build.buf.validate.FieldRules;
+import build.buf.validate.ValidateProto;
+import com.example.noimports.validationtest.ExampleDurationRules;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Duration;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Validator-level tests for {@link DurationRulesEvaluator}: every rule must produce the same
+ * violations natively as through CEL.
+ */
+class DurationRulesEvaluatorTest {
+
+  private static Duration duration(long seconds, int nanos) {
+    return Duration.newBuilder().setSeconds(seconds).setNanos(nanos).build();
+  }
+
+  private static ExampleDurationRules allFields(Duration value) {
+    ExampleDurationRules.Builder builder = ExampleDurationRules.newBuilder();
+    for (FieldDescriptor field : ExampleDurationRules.getDescriptor().getFields()) {
+      builder.setField(field, value);
+    }
+    return builder.build();
+  }
+
+  @Test
+  void nativeAndCelProduceEqualViolations()
+      throws ValidationException, InvalidProtocolBufferException {
+    List<Duration> values =
+        Arrays.asList(
+            duration(0, 0),
+            duration(0, 1),
+            duration(-1, -500_000_000),
+            duration(-2, 500_000_000),
+            duration(9, 999_999_999),
+            duration(10, 0),
+            duration(10, 1),
+            duration(15, 1),
+            duration(15, 500_000_000),
+            duration(16, -500_000_000),
+            duration(20, 0),
+            duration(20, 1),
+            duration(30, 0));
+    NativeRulesParity parity = new NativeRulesParity();
+    for (Duration value : values) {
+      parity.check(allFields(value), value.toString());
+    }
+    parity.assertEveryFieldViolated(ExampleDurationRules.getDescriptor());
+  }
+
+  @Test
+  void inViolationShape() throws ValidationException {
+    ExampleDurationRules msg = ExampleDurationRules.newBuilder().setIn(duration(1, 0)).build();
+    ValidationResult result = NativeRulesParity.validator(true).validate(msg);
+    assertThat(result.getViolations()).hasSize(1);
+    Violation violation = result.getViolations().get(0);
+    build.buf.validate.Violation proto = violation.toProto();
+    assertThat(proto.getRuleId()).isEqualTo("duration.in");
+    assertThat(proto.getMessage()).isEqualTo("must be in list [10s, 15.5s, -1.5s]");
+    Violation.FieldValue fieldValue = violation.getFieldValue();
+    assertThat(fieldValue).isNotNull();
+    assertThat(fieldValue.getValue()).isEqualTo(java.time.Duration.ofSeconds(1));
+    assertThat(fieldValue.getDescriptor())
+        .isEqualTo(
+            ExampleDurationRules.getDescriptor()
+                .findFieldByNumber(ExampleDurationRules.IN_FIELD_NUMBER));
+    Violation.FieldValue ruleValue = violation.getRuleValue();
+    assertThat(ruleValue).isNotNull();
+    assertThat(ruleValue.getValue())
+        .isEqualTo(
+            Arrays.asList(
+                java.time.Duration.ofSeconds(10),
+                java.time.Duration.ofMillis(15_500),
+                java.time.Duration.ofMillis(-1_500)));
+    assertThat(ruleValue.getDescriptor())
+        .isEqualTo(DurationRules.getDescriptor().findFieldByNumber(DurationRules.IN_FIELD_NUMBER));
+  }
+
+  @Test
+  void coveredRulesAreCleared() {
+    for (FieldDescriptor field : ExampleDurationRules.getDescriptor().getFields()) {
+      FieldRules.Builder rules = field.getOptions().getExtension(ValidateProto.field).toBuilder();
+      Evaluator evaluator = Rules.tryBuild(field, rules, new ValueEvaluator(field, null));
+      assertThat(evaluator).as(field.getName()).isInstanceOf(DurationRulesEvaluator.class);
+      assertThat(rules.getDuration()).isEqualTo(DurationRules.getDefaultInstance());
+    }
+  }
+
+  @Test
+  void durationSetContains() {
+    List<Duration> vals = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      vals.add(duration(i, i * 7));
+    }
+    vals.add(duration(1, -1));
+    DurationRulesEvaluator.DurationSet set = new DurationRulesEvaluator.DurationSet(vals);
+    for (int i = 0; i < 100; i++) {
+      assertThat(set.contains(i, i * 7)).isTrue();
+      assertThat(set.contains(i, i * 7 + 1)).isFalse();
+    }
+    assertThat(set.contains(0, 999_999_999)).isTrue();
+    assertThat(set.contains(-1, 0)).isFalse();
+  }
+}
@@ -0,0 +1,127 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.FieldMaskRules;
+import build.buf.validate.FieldRules;
+import build.buf.validate.ValidateProto;
+import com.example.noimports.validationtest.ExampleFieldMaskRules;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Validator-level tests for {@link FieldMaskRulesEvaluator}: every rule must produce the same
+ * violations natively as through CEL.
+ */
+class FieldMaskRulesEvaluatorTest {
+
+  private static ExampleFieldMaskRules allFields(List<String> paths) {
+    FieldMask value = FieldMask.newBuilder().addAllPaths(paths).build();
+    ExampleFieldMaskRules.Builder builder = ExampleFieldMaskRules.newBuilder();
+    for (FieldDescriptor field : ExampleFieldMaskRules.getDescriptor().getFields()) {
+      builder.setField(field, value);
+    }
+    return builder.build();
+  }
+
+  @Test
+  void nativeAndCelProduceEqualViolations()
+      throws ValidationException, InvalidProtocolBufferException {
+    List<List<String>> values =
+        Arrays.asList(
+            Collections.emptyList(),
+            Collections.singletonList(""),
+            Collections.singletonList("a"),
+            Arrays.asList("a", "b.c"),
+            Arrays.asList("b.c", "a"),
+            Collections.singletonList("a.b"),
+            Collections.singletonList("a.bc"),
+            Collections.singletonList("ab"),
+            Collections.singletonList("b"),
+            Collections.singletonList("b.c.d"),
+            Collections.singletonList("b.cd"),
+            Collections.singletonList("bc.d"),
+            Collections.singletonList(".x"),
+            Collections.singletonList("c"),
+            Collections.singletonList("c.d"),
+            Collections.singletonList("cd"),
+            Arrays.asList("a.b.c", "d"));
+    NativeRulesParity parity = new NativeRulesParity();
+    for (List<String> value : values) {
+      parity.check(allFields(value), value.toString());
+    }
+    parity.assertEveryFieldViolated(ExampleFieldMaskRules.getDescriptor());
+  }
+
+  @Test
+  void notInViolationShape() throws ValidationException {
+    FieldMask value = FieldMask.newBuilder().addPaths("x").addPaths("c.d").build();
+    ExampleFieldMaskRules msg = ExampleFieldMaskRules.newBuilder().setNotIn(value).build();
+    ValidationResult result = NativeRulesParity.validator(true).validate(msg);
+    assertThat(result.getViolations()).hasSize(1);
+    Violation violation = result.getViolations().get(0);
+    build.buf.validate.Violation proto = violation.toProto();
+    assertThat(proto.getRuleId()).isEqualTo("field_mask.not_in");
+    assertThat(proto.getMessage()).isEqualTo("must not contain any paths in [a.b, c]");
+    Violation.FieldValue fieldValue = violation.getFieldValue();
+    assertThat(fieldValue).isNotNull();
+    assertThat(fieldValue.getValue()).isEqualTo(value);
+    assertThat(fieldValue.getDescriptor())
+        .isEqualTo(
+            ExampleFieldMaskRules.getDescriptor()
+                .findFieldByNumber(ExampleFieldMaskRules.NOT_IN_FIELD_NUMBER));
+    Violation.FieldValue ruleValue = violation.getRuleValue();
+    assertThat(ruleValue).isNotNull();
+    assertThat(ruleValue.getValue()).isEqualTo(Arrays.asList("a.b", "c"));
+    assertThat(ruleValue.getDescriptor())
+        .isEqualTo(
+            FieldMaskRules.getDescriptor().findFieldByNumber(FieldMaskRules.NOT_IN_FIELD_NUMBER));
+  }
+
+  @Test
+  void coveredRulesAreCleared() {
+    for (FieldDescriptor field : ExampleFieldMaskRules.getDescriptor().getFields()) {
+      FieldRules.Builder rules = field.getOptions().getExtension(ValidateProto.field).toBuilder();
+      Evaluator evaluator = Rules.tryBuild(field, rules, new ValueEvaluator(field, null));
+      assertThat(evaluator).as(field.getName()).isInstanceOf(FieldMaskRulesEvaluator.class);
+      assertThat(rules.getFieldMask()).isEqualTo(FieldMaskRules.getDefaultInstance());
+    }
+  }
+
+  @Test
+  void pathTrieCovers() {
+    FieldMaskRulesEvaluator.PathTrie trie =
+        new FieldMaskRulesEvaluator.PathTrie(Arrays.asList("foo", "foo.bar", "baz.qux", "z"));
+    assertThat(trie.covers("foo")).isTrue();
+    assertThat(trie.covers("foo.x")).isTrue();
+    assertThat(trie.covers("foo.bar.y")).isTrue();
+    assertThat(trie.covers("baz.qux")).isTrue();
+    assertThat(trie.covers("baz.qux.a")).isTrue();
+    assertThat(trie.covers("z.a")).isTrue();
+    assertThat(trie.covers("fo")).isFalse();
+    assertThat(trie.covers("foobar")).isFalse();
+    assertThat(trie.covers("baz")).isFalse();
+    assertThat(trie.covers("baz.quxx")).isFalse();
+    assertThat(trie.covers("")).isFalse();
+  }
+}
@@ -0,0 +1,162 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.example.noimports.validationtest.ExampleColor;
+import com.example.noimports.validationtest.ExampleEnumIn;
+import com.example.noimports.validationtest.ExampleFieldRules;
+import com.example.noimports.validationtest.ExampleNestedPaths;
+import com.example.noimports.validationtest.ExampleOneofRules;
+import com.example.noimports.validationtest.ExampleOptimizedRules;
+import com.example.noimports.validationtest.Issue427;
+import com.example.noimports.validationtest.StringWrapperLen;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.StringValue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class GeneratedAccessorsTest {
+  private final Validator reflective = ValidatorFactory.newBuilder().build();
+  private final Validator generated =
+      ValidatorFactory.newBuilder()
+          .withConfig(Config.newBuilder().setEnableGeneratedAccessors(true).build())
+          .build();
+
+  private static List<build.buf.validate.Violation> protos(ValidationResult result) {
+    List<build.buf.validate.Violation> protos = new ArrayList<>();
+    for (Violation violation : result.getViolations()) {
+      protos.add(violation.toProto());
+    }
+    return protos;
+  }
+
+  static Stream<Message> messages() {
+    ExampleNestedPaths.Item item = ExampleNestedPaths.Item.newBuilder().addVals(-1).build();
+    return Stream.of(
+        ExampleFieldRules.newBuilder().setRegexStringField("NOT_OK").build(),
+        ExampleFieldRules.getDefaultInstance(),
+        ExampleNestedPaths.newBuilder().addItems(item).putByName("a", item).setFirst(item).build(),
+        ExampleOneofRules.getDefaultInstance(),
+        ExampleOneofRules.newBuilder().setPhoneNumber("").build(),
+        Issue427.newBuilder().setName("a").addTags("b").build(),
+        ExampleEnumIn.newBuilder().setVal(ExampleColor.EXAMPLE_COLOR_GREEN).build(),
+        StringWrapperLen.newBuilder().setVal(StringValue.of("ab")).build(),
+        StringWrapperLen.getDefaultInstance(),
+        // Fields with explicit presence set to their defaults.
+        ExampleOptimizedRules.newBuilder().setName("").setCount(0).setDelta(0).build());
+  }
+
+  @ParameterizedTest
+  @MethodSource("messages")
+  void testSameResults(Message message) throws ValidationException, InvalidProtocolBufferException {
+    List<build.buf.validate.Violation> expected = protos(reflective.validate(message));
+    // Twice, so the second run uses the accessors bound by the first.
+    assertThat(protos(generated.validate(message))).isEqualTo(expected);
+    assertThat(protos(generated.validate(message))).isEqualTo(expected);
+    DynamicMessage dynamic =
+        DynamicMessage.newBuilder(message.getDescriptorForType())
+            .mergeFrom(message.toByteString())
+            .build();
+    assertThat(protos(generated.validate(dynamic))).isEqualTo(expected);
+  }
+
+  @Test
+  void testBind() {
+    ExampleNestedPaths message = ExampleNestedPaths.getDefaultInstance();
+    List<FieldDescriptor> fields = ExampleNestedPaths.getDescriptor().getFields();
+    GeneratedAccessors accessors =
+        GeneratedAccessors.bind(message, fields.toArray(new FieldDescriptor[0]));
+    assertThat(accessors).isNotNull();
+    assertThat(accessors.appliesTo(message)).isTrue();
+    assertThat(accessors.getter(0)).isNotNull();
+    // Generated map getters return maps, not the entry lists of Message.getField.
+    assertThat(accessors.getter(1)).isNull();
+    assertThat(accessors.getter(2)).isNotNull();
+    assertThat(accessors.getter(2).apply(message)).isEqualTo(message.getFirst());
+
+    FieldDescriptor enumField = ExampleEnumIn.getDescriptor().getFields().get(0);
+    GeneratedAccessors enumAccessors =
+        GeneratedAccessors.bind(
+            ExampleEnumIn.getDefaultInstance(), new FieldDescriptor[] {enumField});
+    assertThat(enumAccessors).isNotNull();
+    assertThat(enumAccessors.getter(0)).isNull();
+
+    DynamicMessage dynamic = DynamicMessage.getDefaultInstance(ExampleNestedPaths.getDescriptor());
+    assertThat(GeneratedAccessors.bind(dynamic, fields.toArray(new FieldDescriptor[0]))).isNull();
+  }
+
+  @Test
+  void testBindAfterDynamicMessage() {
+    ExampleNestedPaths message = ExampleNestedPaths.getDefaultInstance();
+    MessageProgram program = MessageProgram.compile(Collections.emptyList(), true);
+    DynamicMessage dynamic = DynamicMessage.getDefaultInstance(ExampleNestedPaths.getDescriptor());
+    assertThat(program.accessors(dynamic)).isNull();
+    // The generated class still binds after a dynamic message ran first.
+    GeneratedAccessors accessors = program.accessors(message);
+    assertThat(accessors).isNotNull();
+    assertThat(program.accessors(dynamic)).isNull();
+    assertThat(program.accessors(message)).isSameAs(accessors);
+  }
+
+  @Test
+  void testBindOnDefaultInstance() {
+    // Bound on a default instance, getters are still checked against set fields.
+    FieldDescriptor[] fields =
+        ExampleOptimizedRules.getDescriptor().getFields().toArray(new FieldDescriptor[0]);
+    GeneratedAccessors accessors =
+        GeneratedAccessors.bind(ExampleOptimizedRules.getDefaultInstance(), fields);
+    assertThat(accessors).isNotNull();
+    ExampleOptimizedRules message =
+        ExampleOptimizedRules.newBuilder().setName("a").setCount(0).addTags("b").build();
+    for (int i = 0; i < fields.length; i++) {
+      FieldDescriptor field = fields[i];
+      Function<Object, Object> getter = accessors.getter(i);
+      if (getter == null) {
+        continue;
+      }
+      Object value = getter.apply(message);
+      assertThat(value).as(field.getName()).isEqualTo(message.getField(field));
+      assertThat(accessors.isFieldSet(i, message, field, value))
+          .as(field.getName())
+          .isEqualTo(FieldEvaluator.isFieldSet(message, field));
+    }
+    // The optional int32 count field.
+    assertThat(accessors.getter(2)).isNotNull();
+  }
+
+  @Test
+  void testCamelCase() {
+    assertThat(
+            Arrays.asList(
+                GeneratedAccessors.camelCase("regex_string_field"),
+                GeneratedAccessors.camelCase("foo2bar"),
+                GeneratedAccessors.camelCase("_leading"),
+                GeneratedAccessors.camelCase("mixedCase_name")))
+        .containsExactly("RegexStringField", "Foo2Bar", "Leading", "MixedCaseName");
+  }
+}
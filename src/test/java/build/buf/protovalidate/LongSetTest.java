@@ -0,0 +1,82 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LongSetTest {
+  private static void assertMatchesHashSet(long[] values, long[] probes) {
+    Set<Long> expected = new HashSet<>();
+    for (long v : values) {
+      expected.add(v);
+    }
+    LongSet set = LongSet.of(values);
+    for (long v : values) {
+      assertThat(set.contains(v)).as("%d", v).isTrue();
+    }
+    for (long probe : probes) {
+      assertThat(set.contains(probe)).as("%d", probe).isEqualTo(expected.contains(probe));
+    }
+  }
+
+  private static final long[] EDGES = {
+    0, 1, -1, 63, 64, 65, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE
+  };
+
+  @Test
+  void testEmpty() {
+    assertMatchesHashSet(new long[0], EDGES);
+  }
+
+  @Test
+  void testDense() {
+    assertMatchesHashSet(new long[] {0, 1, 2, 3, 5, 8, 13, 21, 34, 55, 89}, EDGES);
+    assertMatchesHashSet(new long[] {-3, -2, 2, 2, 70}, EDGES);
+    long[] range = new long[1024];
+    for (int i = 0; i < range.length; i++) {
+      range[i] = i * 2 - 100;
+    }
+    assertMatchesHashSet(range, new long[] {-101, -100, -99, 0, 1, 1946, 1947, 1948});
+  }
+
+  @Test
+  void testExtremes() {
+    assertMatchesHashSet(new long[] {Long.MIN_VALUE, Long.MAX_VALUE}, EDGES);
+    assertMatchesHashSet(new long[] {Long.MAX_VALUE - 1, Long.MAX_VALUE}, EDGES);
+    assertMatchesHashSet(new long[] {Long.MIN_VALUE, Long.MIN_VALUE + 1}, EDGES);
+  }
+
+  @Test
+  void testSparse() {
+    Random random = new Random(42);
+    for (int size : new int[] {1, 4, 8, 9, 64, 1024}) {
+      long[] values = new long[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = random.nextLong();
+      }
+      long[] probes = new long[2048];
+      for (int i = 0; i < probes.length; i++) {
+        probes[i] = random.nextBoolean() ? values[random.nextInt(size)] : random.nextLong();
+      }
+      assertMatchesHashSet(values, probes);
+      assertMatchesHashSet(values, EDGES);
+    }
+  }
+}
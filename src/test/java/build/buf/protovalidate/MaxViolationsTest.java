@@ -0,0 +1,137 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.example.noimports.validationtest.ExampleNestedPaths;
+import com.example.noimports.validationtest.ExampleStopAtLimit;
+import com.example.noimports.validationtest.StringMultiRule;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Tests for {@link Config.Builder#setMaxViolations(int)}. */
+class MaxViolationsTest {
+
+  private static Validator validator(Config.Builder config) {
+    return ValidatorFactory.newBuilder().withConfig(config.build()).build();
+  }
+
+  /** A message with 1000 list items and 1000 map values, each with two bad elements. */
+  private static ExampleNestedPaths hostile() {
+    ExampleNestedPaths.Item item =
+        ExampleNestedPaths.Item.newBuilder().addVals(0).addVals(-1).build();
+    ExampleNestedPaths.Builder builder = ExampleNestedPaths.newBuilder();
+    for (int i = 0; i < 1000; i++) {
+      builder.addItems(item);
+      builder.putByName("k" + i, item);
+    }
+    return builder.build();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void testLimitStopsEvaluation(boolean enableNativeRules) throws ValidationException {
+    Validator validator =
+        validator(Config.newBuilder().setEnableNativeRules(enableNativeRules).setMaxViolations(3));
+    ValidationResult result = validator.validate(hostile());
+    assertThat(result.getViolations()).hasSize(3);
+    assertThat(result.isTruncated()).isTrue();
+    assertThat(result.getViolations().get(2).toProto().getField().getElements(0).getIndex())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testLimitWithinMapEntries() throws ValidationException {
+    Validator validator = validator(Config.newBuilder().setMaxViolations(2001));
+    ValidationResult result = validator.validate(hostile());
+    assertThat(result.getViolations()).hasSize(2001);
+    assertThat(result.isTruncated()).isTrue();
+    assertThat(result.getViolations().get(2000).toProto().getField().getElements(0).getFieldName())
+        .isEqualTo("by_name");
+  }
+
+  @Test
+  void testUnlimited() throws ValidationException {
+    ValidationResult result = validator(Config.newBuilder()).validate(hostile());
+    assertThat(result.getViolations()).hasSize(4000);
+    assertThat(result.isTruncated()).isFalse();
+  }
+
+  @Test
+  void testLimitAboveViolationCount() throws ValidationException {
+    StringMultiRule msg = StringMultiRule.newBuilder().setVal("ab").build();
+    ValidationResult result = validator(Config.newBuilder().setMaxViolations(10)).validate(msg);
+    assertThat(result.getViolations()).hasSize(2);
+    assertThat(result.isTruncated()).isFalse();
+  }
+
+  @Test
+  void testLimitEqualToViolationCount() throws ValidationException {
+    StringMultiRule msg = StringMultiRule.newBuilder().setVal("ab").build();
+    ValidationResult result = validator(Config.newBuilder().setMaxViolations(2)).validate(msg);
+    assertThat(result.getViolations()).hasSize(2);
+    // Evaluation stops at the limit without looking for further violations.
+    assertThat(result.isTruncated()).isTrue();
+  }
+
+  @Test
+  void testLimitBelowViolationCount() throws ValidationException {
+    StringMultiRule msg = StringMultiRule.newBuilder().setVal("ab").build();
+    ValidationResult result = validator(Config.newBuilder().setMaxViolations(1)).validate(msg);
+    assertThat(result.getViolations()).hasSize(1);
+    assertThat(result.isTruncated()).isTrue();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void testFailFastStopsAtFirstViolation(boolean enableNativeRules) throws ValidationException {
+    ExampleStopAtLimit msg = ExampleStopAtLimit.newBuilder().setVal(0).setDivisor(0).build();
+    Config.Builder config = Config.newBuilder().setEnableNativeRules(enableNativeRules);
+    assertThatThrownBy(() -> validator(config).validate(msg))
+        .isInstanceOf(ValidationException.class);
+    ValidationResult result = validator(config.setFailFast(true)).validate(msg);
+    assertThat(result.getViolations()).hasSize(1);
+    assertThat(result.getViolations().get(0).toProto().getRuleId()).isEqualTo("int32.gt");
+    assertThat(result.isTruncated()).isTrue();
+  }
+
+  @Test
+  void testFailFastOverridesLimit() throws ValidationException {
+    Validator validator = validator(Config.newBuilder().setFailFast(true).setMaxViolations(10));
+    ValidationResult result = validator.validate(hostile());
+    assertThat(result.getViolations()).hasSize(1);
+    assertThat(result.isTruncated()).isTrue();
+  }
+
+  @Test
+  void testBatchResultsAreLimitedPerMessage() throws ValidationException {
+    Validator validator = validator(Config.newBuilder().setMaxViolations(5));
+    BatchValidationResult result = validator.validateAll(Arrays.asList(hostile(), hostile()));
+    assertThat(result.get(0).getViolations()).hasSize(5);
+    assertThat(result.get(1).getViolations()).hasSize(5);
+    assertThat(result.get(1).isTruncated()).isTrue();
+  }
+
+  @Test
+  void testNegativeLimit() {
+    assertThatThrownBy(() -> Config.newBuilder().setMaxViolations(-1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,80 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.example.noimports.validationtest.ExampleLoweredRules;
+import com.example.noimports.validationtest.ExampleMessageRules;
+import com.example.noimports.validationtest.ExampleNestedPaths;
+import com.example.noimports.validationtest.ExampleOneofRules;
+import com.example.noimports.validationtest.ExampleRecursive;
+import com.example.noimports.validationtest.Issue427;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Tests that message programs evaluate the same rules in the same order as the evaluator tree. */
+class MessageProgramTest {
+  private static final List<Message> MESSAGES =
+      Arrays.asList(
+          ExampleOneofRules.getDefaultInstance(),
+          ExampleOneofRules.newBuilder().setEmail("foo@bar.com").setField3("x").build(),
+          ExampleMessageRules.newBuilder().setSecondaryEmail("foo@bar.com").build(),
+          Issue427.newBuilder().addTags("a").setName("b").build(),
+          ExampleNestedPaths.newBuilder()
+              .addItems(ExampleNestedPaths.Item.newBuilder().addVals(0).addVals(1))
+              .putByName("a", ExampleNestedPaths.Item.newBuilder().addVals(-1).build())
+              .setFirst(ExampleNestedPaths.Item.newBuilder().addVals(0))
+              .build(),
+          ExampleRecursive.newBuilder()
+              .setVal(-1)
+              .setChild(ExampleRecursive.newBuilder().setVal(-2))
+              .build(),
+          ExampleLoweredRules.newBuilder().setStart(2).setEnd(1).setName("xy").build(),
+          ExampleLoweredRules.getDefaultInstance());
+
+  private static List<build.buf.validate.Violation> violations(Config config, Message msg)
+      throws ValidationException {
+    List<build.buf.validate.Violation> violations = new ArrayList<>();
+    Validator validator = ValidatorFactory.newBuilder().withConfig(config).build();
+    for (Violation violation : validator.validate(msg).getViolations()) {
+      violations.add(violation.toProto());
+    }
+    return violations;
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void programsAndTreeProduceEqualViolations(boolean failFast)
+      throws ValidationException, InvalidProtocolBufferException {
+    Config tree = Config.newBuilder().setFailFast(failFast).build();
+    Config programs =
+        Config.newBuilder().setFailFast(failFast).setEnableMessagePrograms(true).build();
+    for (Message msg : MESSAGES) {
+      List<build.buf.validate.Violation> expected = violations(tree, msg);
+      assertThat(violations(programs, msg)).as(msg.toString()).isEqualTo(expected);
+      DynamicMessage dynamic =
+          DynamicMessage.parseFrom(msg.getDescriptorForType(), msg.toByteString());
+      assertThat(violations(programs, dynamic)).as(msg.toString()).isEqualTo(expected);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.FieldPath;
+import build.buf.validate.ValidateProto;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks that native rule evaluators produce the same violations as CEL, including the field and
+ * rule values, which {@link Violation#toProto()} does not carry. Both are compared in their CEL
+ * representation, e.g. an {@link java.time.Instant} for a timestamp.
+ *
+ * <p>The checked messages must only have rules on their top-level fields.
+ */
+final class NativeRulesParity {
+  private final Validator nativeValidator = validator(true);
+  private final Validator celValidator = validator(false);
+  private final Set<String> violatedFields = new HashSet<>();
+
+  static Validator validator(boolean nativeRules) {
+    Config config = Config.newBuilder().setEnableNativeRules(nativeRules).build();
+    return ValidatorFactory.newBuilder().withConfig(config).build();
+  }
+
+  static List<build.buf.validate.Violation> violations(Validator validator, Message msg)
+      throws ValidationException {
+    List<build.buf.validate.Violation> violations = new ArrayList<>();
+    for (Violation violation : validator.validate(msg).getViolations()) {
+      violations.add(violation.toProto());
+    }
+    return violations;
+  }
+
+  /**
+   * Asserts that a message and its dynamic counterpart have the same violations natively as through
+   * CEL, and that the field and rule value of every violation are those of its paths.
+   *
+   * @param msg The message.
+   * @param description The description of the message in assertion failures.
+   */
+  void check(Message msg, String description)
+      throws ValidationException, InvalidProtocolBufferException {
+    List<build.buf.validate.Violation> expected = violations(celValidator, msg);
+    DynamicMessage dynamic =
+        DynamicMessage.parseFrom(msg.getDescriptorForType(), msg.toByteString());
+    for (Message value : new Message[] {msg, dynamic}) {
+      for (Validator validator : new Validator[] {nativeValidator, celValidator}) {
+        List<Violation> violations = validator.validate(value).getViolations();
+        List<build.buf.validate.Violation> protos = new ArrayList<>();
+        for (Violation violation : violations) {
+          checkValues(value, violation, description);
+          protos.add(violation.toProto());
+        }
+        assertThat(protos).as(description).isEqualTo(expected);
+      }
+    }
+  }
+
+  /**
+   * Asserts that every field of a message type had a violation in some checked message, so that the
+   * field and rule values of every rule on it were checked.
+   *
+   * @param type The message type.
+   */
+  void assertEveryFieldViolated(Descriptor type) {
+    List<String> fields = new ArrayList<>();
+    for (FieldDescriptor field : type.getFields()) {
+      fields.add(field.getName());
+    }
+    assertThat(violatedFields).containsExactlyInAnyOrderElementsOf(fields);
+  }
+
+  private void checkValues(Message msg, Violation violation, String description) {
+    build.buf.validate.Violation proto = violation.toProto();
+    String as = description + ": " + proto.getRuleId();
+    assertThat(proto.getField().getElementsCount()).as(as).isEqualTo(1);
+    FieldDescriptor field =
+        msg.getDescriptorForType()
+            .findFieldByNumber(proto.getField().getElements(0).getFieldNumber());
+    violatedFields.add(field.getName());
+    Violation.FieldValue fieldValue = violation.getFieldValue();
+    assertThat(fieldValue).as(as).isNotNull();
+    assertThat(fieldValue.getDescriptor()).as(as).isEqualTo(field);
+    assertThat(fieldValue.getValue())
+        .as(as)
+        .isEqualTo(ProtoAdapter.toCel(field, msg.getField(field)));
+
+    Message rules = field.getOptions().getExtension(ValidateProto.field);
+    FieldPath rulePath = proto.getRule();
+    int last = rulePath.getElementsCount() - 1;
+    for (int i = 0; i < last; i++) {
+      rules =
+          (Message)
+              rules.getField(
+                  rules
+                      .getDescriptorForType()
+                      .findFieldByNumber(rulePath.getElements(i).getFieldNumber()));
+    }
+    FieldDescriptor rule =
+        rules.getDescriptorForType().findFieldByNumber(rulePath.getElements(last).getFieldNumber());
+    Violation.FieldValue ruleValue = violation.getRuleValue();
+    assertThat(ruleValue).as(as).isNotNull();
+    assertThat(ruleValue.getDescriptor()).as(as).isEqualTo(rule);
+    assertThat(ruleValue.getValue())
+        .as(as)
+        .isEqualTo(ProtoAdapter.toCel(rule, rules.getField(rule)));
+  }
+}
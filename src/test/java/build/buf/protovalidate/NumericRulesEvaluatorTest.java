@@ -22,6 +22,7 @@ import build.buf.validate.FloatRules;
 import build.buf.validate.Int32Rules;
 import build.buf.validate.UInt32Rules;
 import com.example.noimports.validationtest.ExampleDoubleIn;
+import com.example.noimports.validationtest.ExampleDoubleInNegZeroNaN;
 import com.example.noimports.validationtest.ExampleFloatFinite;
 import com.example.noimports.validationtest.ExampleInt32Const;
 import com.example.noimports.validationtest.ExampleInt32GtLt;
@@ -130,6 +131,32 @@ class NumericRulesEvaluatorTest {
         .isTrue();
   }
 
+  @Test
+  void inListFoldsNegativeZeroAndSkipsNaN() throws ValidationException {
+    Config celConfig = Config.newBuilder().setEnableNativeRules(false).build();
+    Validator cel = ValidatorFactory.newBuilder().withConfig(celConfig).build();
+    Validator v = nativeValidator();
+    for (double val : new double[] {0.0, -0.0, 1.5, 8.5, 9.5}) {
+      ExampleDoubleInNegZeroNaN msg =
+          ExampleDoubleInNegZeroNaN.newBuilder()
+              .setIn(val)
+              .setNotIn(val)
+              .setFloatIn((float) val)
+              .build();
+      assertThat(v.validate(msg).toProto()).as("%s", val).isEqualTo(cel.validate(msg).toProto());
+    }
+    // NaN equals nothing, not even a listed NaN, as with the comparators in NumericTypeConfig.
+    ExampleDoubleInNegZeroNaN nan =
+        ExampleDoubleInNegZeroNaN.newBuilder()
+            .setIn(Double.NaN)
+            .setNotIn(Double.NaN)
+            .setFloatIn(Float.NaN)
+            .build();
+    assertThat(v.validate(nan).getViolations())
+        .extracting(violation -> violation.toProto().getRuleId())
+        .containsExactly("double.in", "float.in");
+  }
+
   @Test
   void doubleInRuleValueShape() throws ValidationException {
     // 0.0 not in [1.5, 2.5].
@@ -0,0 +1,279 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import build.buf.protovalidate.exceptions.CompilationException;
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.protovalidate.tools.GeneratePrecompiledRules;
+import com.example.noimports.validationtest.ExampleMessageRules;
+import com.example.noimports.validationtest.ExamplePredefinedFieldRules;
+import com.example.noimports.validationtest.FieldExpressionMapInt32;
+import com.example.noimports.validationtest.FieldExpressionMultiple;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.Message;
+import dev.cel.common.types.StructTypeReference;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PrecompiledRulesTest {
+  private static final List<Message> MESSAGES =
+      Arrays.asList(
+          ExampleMessageRules.newBuilder().setSecondaryEmail("a@example.com").build(),
+          ExampleMessageRules.newBuilder().setPrimaryEmail("a@example.com").build(),
+          FieldExpressionMultiple.newBuilder().setVal("abcdef").build(),
+          FieldExpressionMapInt32.newBuilder().putVal(1, 1).putVal(2, 2).build(),
+          ExamplePredefinedFieldRules.newBuilder().setIdentField("NOT_AN_IDENT").build(),
+          ExamplePredefinedFieldRules.newBuilder().setIdentField("ident").build());
+
+  private static List<Descriptor> descriptors() {
+    List<Descriptor> descriptors = new ArrayList<>();
+    for (Message message : MESSAGES) {
+      descriptors.add(message.getDescriptorForType());
+    }
+    return descriptors;
+  }
+
+  private static void assertSameResults(PrecompiledRules rules) throws ValidationException {
+    for (Boolean nativeRules : Arrays.asList(true, false)) {
+      Validator expected =
+          ValidatorFactory.newBuilder()
+              .withConfig(Config.newBuilder().setEnableNativeRules(nativeRules).build())
+              .build();
+      Validator precompiled =
+          ValidatorFactory.newBuilder()
+              .withConfig(
+                  Config.newBuilder()
+                      .setEnableNativeRules(nativeRules)
+                      .setPrecompiledRules(rules)
+                      .build())
+              .build();
+      for (Message message : MESSAGES) {
+        assertThat(precompiled.validate(message).toString())
+            .isEqualTo(expected.validate(message).toString());
+      }
+    }
+  }
+
+  @Test
+  void testGenerate() throws CompilationException, ValidationException {
+    PrecompiledRules rules =
+        PrecompiledRules.generate(
+            Config.newBuilder().setEnableNativeRules(false).build(), descriptors());
+    assertThat(rules.size()).isGreaterThan(0);
+    assertThat(rules.getSchemaHash()).isEqualTo(PrecompiledRules.schemaHash(descriptors()));
+    String expression =
+        ExampleMessageRules.getDescriptor()
+            .getOptions()
+            .getExtension(build.buf.validate.ValidateProto.message)
+            .getCel(0)
+            .getExpression();
+    assertThat(
+            rules.lookup(
+                PrecompiledRules.environment(
+                    StructTypeReference.create(ExampleMessageRules.getDescriptor().getFullName())),
+                expression))
+        .isNotNull();
+    assertThat(rules.lookup(PrecompiledRules.environment(), expression)).isNull();
+    assertSameResults(rules);
+  }
+
+  @Test
+  void testRoundTrip() throws CompilationException, IOException, ValidationException {
+    PrecompiledRules rules =
+        PrecompiledRules.generate(
+            Config.newBuilder().setEnableNativeRules(false).build(), descriptors());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    rules.writeTo(out);
+    PrecompiledRules read = PrecompiledRules.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    assertThat(read.size()).isEqualTo(rules.size());
+    ByteArrayOutputStream again = new ByteArrayOutputStream();
+    read.writeTo(again);
+    assertThat(again.toByteArray()).isEqualTo(out.toByteArray());
+    assertSameResults(read);
+  }
+
+  @Test
+  void testReadInvalid() {
+    assertThatThrownBy(
+            () -> PrecompiledRules.readFrom(new ByteArrayInputStream(new byte[] {1, 2, 3, 4})))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void testReadLengthBeyondInput(@TempDir Path dir) throws CompilationException, IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PrecompiledRules.generate(Config.newBuilder().build(), descriptors()).writeTo(out);
+    byte[] bytes = out.toByteArray();
+    // Replace the length of the schema hash, after the magic number and version.
+    ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE);
+    assertThatThrownBy(() -> PrecompiledRules.readFrom(new ByteArrayInputStream(bytes)))
+        .isInstanceOf(EOFException.class);
+    Path snapshot = dir.resolve("rules.snapshot");
+    Files.write(snapshot, bytes);
+    assertThat(PrecompiledRules.readSnapshot(snapshot, PrecompiledRules.schemaHash(descriptors())))
+        .isNull();
+  }
+
+  @Test
+  void testGeneratePrecompiledRules(@TempDir Path dir) throws Exception {
+    FileDescriptorSet.Builder set = FileDescriptorSet.newBuilder();
+    Set<String> added = new HashSet<>();
+    for (Descriptor descriptor : descriptors()) {
+      addFile(descriptor.getFile(), set, added);
+    }
+    Path input = dir.resolve("descriptors.binpb");
+    Path output = dir.resolve("rules.bin");
+    Files.write(input, set.build().toByteArray());
+    GeneratePrecompiledRules.main(new String[] {input.toString(), output.toString()});
+    PrecompiledRules rules;
+    try (InputStream in = Files.newInputStream(output)) {
+      rules = PrecompiledRules.readFrom(in);
+    }
+    assertThat(rules.size()).isGreaterThan(0);
+    assertSameResults(rules);
+  }
+
+  @Test
+  void testSnapshot(@TempDir Path dir) throws Exception {
+    Path snapshot = dir.resolve("rules.snapshot");
+    List<Descriptor> descriptors = descriptors();
+    Config config = Config.newBuilder().setEnableNativeRules(false).build();
+    Validator validator =
+        ValidatorFactory.newBuilder()
+            .withConfig(config)
+            .buildWithSnapshot(descriptors, true, snapshot);
+    String schemaHash = PrecompiledRules.schemaHash(descriptors);
+    PrecompiledRules written = PrecompiledRules.readSnapshot(snapshot, schemaHash);
+    assertThat(written).isNotNull();
+    assertThat(written.getSchemaHash()).isEqualTo(schemaHash);
+    assertThat(written.size()).isEqualTo(PrecompiledRules.generate(config, descriptors).size());
+    assertSameResults(written);
+    byte[] bytes = Files.readAllBytes(snapshot);
+
+    // A matching snapshot is read, not rewritten.
+    Validator reloaded =
+        ValidatorFactory.newBuilder()
+            .withConfig(config)
+            .buildWithSnapshot(descriptors, true, snapshot);
+    assertThat(Files.readAllBytes(snapshot)).isEqualTo(bytes);
+    for (Message message : MESSAGES) {
+      assertThat(reloaded.validate(message).toString())
+          .isEqualTo(validator.validate(message).toString());
+    }
+
+    // Snapshots of other schemas, and unreadable ones, are replaced.
+    List<Descriptor> first = descriptors.subList(0, 1);
+    ValidatorFactory.newBuilder().withConfig(config).buildWithSnapshot(first, true, snapshot);
+    assertThat(PrecompiledRules.readSnapshot(snapshot, schemaHash)).isNull();
+    assertThat(PrecompiledRules.readSnapshot(snapshot, PrecompiledRules.schemaHash(first)))
+        .isNotNull();
+    Files.write(snapshot, new byte[] {1, 2, 3});
+    ValidatorFactory.newBuilder().withConfig(config).buildWithSnapshot(descriptors, true, snapshot);
+    assertThat(Files.readAllBytes(snapshot)).isEqualTo(bytes);
+  }
+
+  @Test
+  void testSnapshotWithoutDescriptors(@TempDir Path dir) throws Exception {
+    Path snapshot = dir.resolve("rules.snapshot");
+    Validator validator = ValidatorFactory.newBuilder().buildWithSnapshot(null, false, snapshot);
+    assertThat(validator.validate(MESSAGES.get(0)).isSuccess()).isFalse();
+    PrecompiledRules written =
+        PrecompiledRules.readSnapshot(
+            snapshot, PrecompiledRules.schemaHash(Collections.emptyList()));
+    assertThat(written).isNotNull();
+    assertThat(written.size()).isZero();
+  }
+
+  @Test
+  void testSnapshotOfOtherVersion(@TempDir Path dir) throws Exception {
+    Path snapshot = dir.resolve("rules.snapshot");
+    List<Descriptor> descriptors = descriptors();
+    String schemaHash = PrecompiledRules.schemaHash(descriptors);
+    ValidatorFactory.newBuilder().buildWithSnapshot(descriptors, true, snapshot);
+    byte[] bytes = Files.readAllBytes(snapshot);
+    assertThat(PrecompiledRules.COMPILER_VERSION).startsWith("protovalidate ");
+    // Change the first letter of the compiler version, after the magic number, version and the
+    // length-prefixed schema hash and the length of the compiler version.
+    byte[] other = bytes.clone();
+    int offset = 8 + 4 + schemaHash.length() + 4;
+    assertThat(other[offset]).isEqualTo((byte) 'p');
+    other[offset] = 'P';
+    Files.write(snapshot, other);
+    assertThat(PrecompiledRules.readSnapshot(snapshot, schemaHash)).isNull();
+    ValidatorFactory.newBuilder().buildWithSnapshot(descriptors, true, snapshot);
+    assertThat(Files.readAllBytes(snapshot)).isEqualTo(bytes);
+  }
+
+  @Test
+  void testSnapshotNotWritable(@TempDir Path dir) throws Exception {
+    Path snapshot = dir.resolve("missing").resolve("rules.snapshot");
+    Validator validator =
+        ValidatorFactory.newBuilder().buildWithSnapshot(descriptors(), true, snapshot);
+    assertThat(validator.validate(MESSAGES.get(0)).isSuccess()).isFalse();
+    assertThat(Files.exists(snapshot)).isFalse();
+  }
+
+  @Test
+  void testStopRecording() throws Exception {
+    PrecompiledRules recorder = PrecompiledRules.recorder("");
+    String environment = PrecompiledRules.environment();
+    recorder.record(environment, "true", ValidateLibrary.newCel().compile("true").getAst());
+    recorder.stopRecording();
+    recorder.record(environment, "false", ValidateLibrary.newCel().compile("false").getAst());
+    assertThat(recorder.size()).isEqualTo(1);
+  }
+
+  @Test
+  void testSchemaHash() {
+    List<Descriptor> descriptors = descriptors();
+    List<Descriptor> reversed = new ArrayList<>(descriptors);
+    Collections.reverse(reversed);
+    assertThat(PrecompiledRules.schemaHash(reversed))
+        .isEqualTo(PrecompiledRules.schemaHash(descriptors))
+        .hasSize(64);
+    assertThat(PrecompiledRules.schemaHash(descriptors.subList(0, 1)))
+        .isNotEqualTo(PrecompiledRules.schemaHash(descriptors));
+  }
+
+  private static void addFile(
+      FileDescriptor file, FileDescriptorSet.Builder set, Set<String> added) {
+    if (!added.add(file.getName())) {
+      return;
+    }
+    for (FileDescriptor dependency : file.getDependencies()) {
+      addFile(dependency, set, added);
+    }
+    set.addFile(file.toProto());
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.re2j.Pattern;
+import com.google.re2j.PatternSyntaxException;
+import org.junit.jupiter.api.Test;
+
+class RegexCacheTest {
+  @Test
+  void testHitsAndMisses() {
+    RegexCache cache = new RegexCache(4);
+    Pattern pattern = cache.get("^a+$");
+    assertThat(cache.get("^a+$")).isSameAs(pattern);
+    assertThat(cache.get("^b+$")).isNotSameAs(pattern);
+    RegexCacheStats stats = cache.stats();
+    assertThat(stats.getCapacity()).isEqualTo(4);
+    assertThat(stats.getSize()).isEqualTo(2);
+    assertThat(stats.getHitCount()).isEqualTo(1);
+    assertThat(stats.getMissCount()).isEqualTo(2);
+    assertThat(stats.getEvictionCount()).isZero();
+  }
+
+  @Test
+  void testEvictsUnreferencedFirst() {
+    RegexCache cache = new RegexCache(2);
+    Pattern hot = cache.get("hot");
+    cache.get("cold");
+    assertThat(cache.get("hot")).isSameAs(hot);
+    for (int i = 0; i < 10; i++) {
+      cache.get("once" + i);
+      assertThat(cache.get("hot")).isSameAs(hot);
+    }
+    RegexCacheStats stats = cache.stats();
+    assertThat(stats.getSize()).isEqualTo(2);
+    assertThat(stats.getEvictionCount()).isEqualTo(10);
+    assertThat(stats.getMissCount()).isEqualTo(12);
+  }
+
+  @Test
+  void testDisabled() {
+    RegexCache cache = new RegexCache(0);
+    assertThat(cache.get("a")).isNotSameAs(cache.get("a"));
+    RegexCacheStats stats = cache.stats();
+    assertThat(stats.getSize()).isZero();
+    assertThat(stats.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  void testInvalid() {
+    RegexCache cache = new RegexCache(2);
+    assertThatThrownBy(() -> cache.get("(")).isInstanceOf(PatternSyntaxException.class);
+    assertThat(cache.stats().getSize()).isZero();
+  }
+
+  @Test
+  void testNegativeCapacity() {
+    assertThatThrownBy(() -> Config.newBuilder().setRegexCacheCapacity(-1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,151 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.re2j.Pattern;
+import com.google.re2j.PatternSyntaxException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RegexMatcherTest {
+  private static final List<String> AUTOMATON_PATTERNS =
+      Arrays.asList(
+          "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$",
+          "^[0-9a-fA-F]{32}$",
+          "^[0-7][0-9A-HJKMNP-TV-Za-hjkmnp-tv-z]{25}$",
+          "^:?[0-9a-zA-Z!#$%&'*+.\\-^_|~`]+$",
+          "^[^\\x00-\\x08\\x0A-\\x1F\\x7F]*$",
+          "^[^\\x00\\x0A\\x0D]+$",
+          "^[[:alpha:]]+( [[:alpha:]]+)*$",
+          ".*[0-9].*",
+          "a|b|",
+          "(?:ab|a)(?:c|bcd)*",
+          "(?P<x>a+)b{2,3}c{2,}d{0,1}",
+          "x*?y+?z??",
+          "\\d+\\.\\d*\\s\\w\\W\\D\\S",
+          "[\\d\\-x][^\\s]",
+          "[]a]+[^]b]",
+          "[a-c-e]",
+          "\\x41\\x{263a}[\\x{1F600}-\\x{1F64F}]?.",
+          "a{,3}b{x}",
+          "[[:^digit:]][[:xdigit:]][[:punct:]][[:space:]]",
+          "()");
+
+  private static final List<String> INPUTS =
+      Arrays.asList(
+          "",
+          "a",
+          "b",
+          "ab",
+          "abc",
+          "abcbcd",
+          "aabbcccd",
+          "aabbbcc",
+          "aabbccd",
+          "yz",
+          "xxy",
+          "12.3 x!a?",
+          "1. _ ",
+          "-y",
+          "]c",
+          "]]b",
+          "-",
+          "d",
+          "A☺😀z",
+          "A☺z",
+          "A☺\n",
+          "a{,3}b{x}",
+          "aaab{x}",
+          "xF! ",
+          "1F! ",
+          "x7;\u000b",
+          "550e8400-e29b-41d4-a716-446655440000",
+          "550e8400-e29b-41d4-a716-44665544000",
+          "550e8400e29b41d4a716446655440000",
+          "01ARZ3NDEKTSV4RRFFQ69G5FAV",
+          "81ARZ3NDEKTSV4RRFFQ69G5FAV",
+          ":authority",
+          "X-Request-Id",
+          "not a header",
+          "text/plain\té",
+          "bad\u0001",
+          "bad\r",
+          "Alice Example",
+          "Alice  Example",
+          "abc1def",
+          "\ud800",
+          "\n");
+
+  @Test
+  void testMatchesLikeRe2j() {
+    for (String regex : AUTOMATON_PATTERNS) {
+      assertThat(RegexMatcher.automaton(regex)).as(regex).isNotNull();
+      RegexMatcher matcher = RegexMatcher.compile(regex);
+      Pattern pattern = Pattern.compile(regex);
+      for (String input : INPUTS) {
+        assertThat(matcher.matches(input))
+            .as("%s matching %s", regex, input)
+            .isEqualTo(pattern.matches(input));
+      }
+    }
+  }
+
+  @Test
+  void testAnchoredAutomatonFindsLikeRe2j() {
+    for (String regex : AUTOMATON_PATTERNS) {
+      RegexMatcher matcher = RegexMatcher.anchoredAutomaton(regex);
+      if (matcher == null) {
+        continue;
+      }
+      Pattern pattern = Pattern.compile(regex);
+      for (String input : INPUTS) {
+        assertThat(matcher.matches(input))
+            .as("%s finding %s", regex, input)
+            .isEqualTo(pattern.matcher(input).find());
+      }
+    }
+    assertThat(RegexMatcher.anchoredAutomaton("^[a-z]+$")).isNotNull();
+    assertThat(RegexMatcher.anchoredAutomaton("^$")).isNotNull();
+    for (String regex : Arrays.asList("^a|b$", "^a+", "a+$", "[a-z]+", "^a\\$", "^(a|b)$|c")) {
+      assertThat(RegexMatcher.anchoredAutomaton(regex)).as(regex).isNull();
+    }
+  }
+
+  @Test
+  void testFallback() {
+    List<String> patterns =
+        Arrays.asList(
+            "(?i)abc", "a$b", "\\bab", "\\pL+", "a^b", "[0-9a-fA-F]{65}", "^[a-z]{40}[0-9]{0,30}$");
+    for (String regex : patterns) {
+      assertThat(RegexMatcher.automaton(regex)).as(regex).isNull();
+      RegexMatcher matcher = RegexMatcher.compile(regex);
+      Pattern pattern = Pattern.compile(regex);
+      for (String input : INPUTS) {
+        assertThat(matcher.matches(input))
+            .as("%s matching %s", regex, input)
+            .isEqualTo(pattern.matches(input));
+      }
+    }
+  }
+
+  @Test
+  void testInvalid() {
+    assertThatThrownBy(() -> RegexMatcher.compile("a(")).isInstanceOf(PatternSyntaxException.class);
+  }
+}
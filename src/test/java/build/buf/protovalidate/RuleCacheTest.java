@@ -0,0 +1,73 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.CompilationException;
+import build.buf.validate.FieldRules;
+import build.buf.validate.RepeatedRules;
+import build.buf.validate.StringRules;
+import com.example.noimports.validationtest.ExampleMessageRules;
+import com.example.noimports.validationtest.ExampleRepeatedMinMax;
+import com.example.noimports.validationtest.ExampleRepeatedUnique;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RuleCacheTest {
+  private final RuleCache cache =
+      new RuleCache(
+          new CelEnvironments(ValidateLibrary.newCel()),
+          Config.newBuilder().build(),
+          PrecompiledRules.EMPTY);
+
+  private static FieldRules maxLen(int maxLen) {
+    return FieldRules.newBuilder().setString(StringRules.newBuilder().setMaxLen(maxLen)).build();
+  }
+
+  @Test
+  void testEqualRulesSharePrograms() throws CompilationException {
+    FieldDescriptor primary = ExampleMessageRules.getDescriptor().findFieldByName("primary_email");
+    FieldDescriptor secondary =
+        ExampleMessageRules.getDescriptor().findFieldByName("secondary_email");
+    List<CompiledProgram> first = cache.compile(primary, maxLen(256), false);
+    List<CompiledProgram> second = cache.compile(secondary, maxLen(256), false);
+    assertThat(first).isNotEmpty().hasSameSizeAs(second);
+    for (int i = 0; i < first.size(); i++) {
+      assertThat(second.get(i)).isSameAs(first.get(i));
+    }
+    List<CompiledProgram> other = cache.compile(secondary, maxLen(5), false);
+    assertThat(other).hasSameSizeAs(first);
+    for (int i = 0; i < first.size(); i++) {
+      assertThat(other.get(i)).isNotSameAs(first.get(i));
+    }
+  }
+
+  @Test
+  void testRulesCompiledPerThisType() throws CompilationException {
+    FieldRules unique =
+        FieldRules.newBuilder().setRepeated(RepeatedRules.newBuilder().setUnique(true)).build();
+    FieldDescriptor ints = ExampleRepeatedMinMax.getDescriptor().findFieldByName("val");
+    FieldDescriptor strings = ExampleRepeatedUnique.getDescriptor().findFieldByName("val");
+    List<CompiledProgram> intPrograms = cache.compile(ints, unique, false);
+    List<CompiledProgram> stringPrograms = cache.compile(strings, unique, false);
+    assertThat(intPrograms).isNotEmpty().hasSameSizeAs(stringPrograms);
+    for (int i = 0; i < intPrograms.size(); i++) {
+      assertThat(stringPrograms.get(i)).isNotSameAs(intPrograms.get(i));
+    }
+    assertThat(cache.compile(strings, unique, false)).isEqualTo(stringPrograms);
+  }
+}
@@ -0,0 +1,123 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.FieldRules;
+import build.buf.validate.TimestampRules;
+import build.buf.validate.ValidateProto;
+import com.example.noimports.validationtest.ExampleTimestampRules;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Validator-level tests for {@link TimestampRulesEvaluator}: every rule must produce the same
+ * violations natively as through CEL.
+ */
+class TimestampRulesEvaluatorTest {
+
+  private static Timestamp timestamp(long seconds, int nanos) {
+    return Timestamp.newBuilder().setSeconds(seconds).setNanos(nanos).build();
+  }
+
+  private static ExampleTimestampRules allFields(Timestamp value) {
+    ExampleTimestampRules.Builder builder = ExampleTimestampRules.newBuilder();
+    for (FieldDescriptor field : ExampleTimestampRules.getDescriptor().getFields()) {
+      builder.setField(field, value);
+    }
+    return builder.build();
+  }
+
+  @Test
+  void nativeAndCelProduceEqualViolations()
+      throws ValidationException, InvalidProtocolBufferException {
+    long now = Instant.now().getEpochSecond();
+    List<Timestamp> values =
+        Arrays.asList(
+            timestamp(0, 0),
+            timestamp(999, 999_999_999),
+            timestamp(1000, 0),
+            timestamp(1000, 1),
+            timestamp(1500, 0),
+            timestamp(1500, 1),
+            timestamp(2000, 0),
+            timestamp(2000, 1),
+            timestamp(3000, 0),
+            timestamp(now - 7200, 0),
+            timestamp(now - 1800, 0),
+            timestamp(now + 1800, 0),
+            timestamp(now + 7200, 0));
+    NativeRulesParity parity = new NativeRulesParity();
+    for (Timestamp value : values) {
+      parity.check(allFields(value), value.toString());
+    }
+    parity.assertEveryFieldViolated(ExampleTimestampRules.getDescriptor());
+  }
+
+  @Test
+  void rangeViolationShape() throws ValidationException {
+    ExampleTimestampRules msg =
+        ExampleTimestampRules.newBuilder().setGteLteExclusive(timestamp(1500, 0)).build();
+    ValidationResult result = NativeRulesParity.validator(true).validate(msg);
+    assertThat(result.getViolations()).hasSize(1);
+    Violation violation = result.getViolations().get(0);
+    build.buf.validate.Violation proto = violation.toProto();
+    assertThat(proto.getRuleId()).isEqualTo("timestamp.gte_lte_exclusive");
+    assertThat(proto.getMessage())
+        .isEqualTo(
+            "must be greater than or equal to 1970-01-01T00:33:20Z or less than or equal to"
+                + " 1970-01-01T00:16:40Z");
+    Violation.FieldValue fieldValue = violation.getFieldValue();
+    assertThat(fieldValue).isNotNull();
+    assertThat(fieldValue.getValue()).isEqualTo(Instant.ofEpochSecond(1500));
+    assertThat(fieldValue.getDescriptor())
+        .isEqualTo(
+            ExampleTimestampRules.getDescriptor()
+                .findFieldByNumber(ExampleTimestampRules.GTE_LTE_EXCLUSIVE_FIELD_NUMBER));
+    Violation.FieldValue ruleValue = violation.getRuleValue();
+    assertThat(ruleValue).isNotNull();
+    assertThat(ruleValue.getValue()).isEqualTo(Instant.ofEpochSecond(2000));
+    assertThat(ruleValue.getDescriptor())
+        .isEqualTo(
+            TimestampRules.getDescriptor().findFieldByNumber(TimestampRules.GTE_FIELD_NUMBER));
+  }
+
+  @Test
+  void coveredRulesAreCleared() {
+    for (FieldDescriptor field : ExampleTimestampRules.getDescriptor().getFields()) {
+      FieldRules.Builder rules = field.getOptions().getExtension(ValidateProto.field).toBuilder();
+      Evaluator evaluator = Rules.tryBuild(field, rules, new ValueEvaluator(field, null));
+      assertThat(evaluator).as(field.getName()).isInstanceOf(TimestampRulesEvaluator.class);
+      assertThat(rules.getTimestamp()).isEqualTo(TimestampRules.getDefaultInstance());
+    }
+  }
+
+  @Test
+  void clockReadOncePerEvaluation() throws InterruptedException {
+    ViolationSink violations = new ViolationSink(0);
+    Instant now = violations.now();
+    Thread.sleep(2);
+    assertThat(violations.now()).isSameAs(now);
+    violations.clear();
+    assertThat(violations.now()).isAfter(now);
+  }
+}
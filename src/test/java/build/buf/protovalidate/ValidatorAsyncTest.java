@@ -0,0 +1,137 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.noimports.validationtest.ExampleInt32GtLt;
+import com.example.noimports.validationtest.ExampleStringMinMaxLen;
+import com.google.protobuf.Message;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+
+class ValidatorAsyncTest {
+  /** Queues tasks until they are run explicitly, so tests can observe what was offloaded. */
+  private static final class QueueingExecutor implements Executor {
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    void runAll() {
+      Runnable task;
+      while ((task = tasks.poll()) != null) {
+        task.run();
+      }
+    }
+  }
+
+  @Test
+  void testCacheMissIsOffloaded() throws Exception {
+    QueueingExecutor executor = new QueueingExecutor();
+    Config config = Config.newBuilder().setCompilationExecutor(executor).build();
+    Validator validator = ValidatorFactory.newBuilder().withConfig(config).build();
+
+    CompletableFuture<ValidationResult> cold =
+        validator
+            .validateAsync(ExampleInt32GtLt.newBuilder().setVal(0).build())
+            .toCompletableFuture();
+    assertThat(cold).isNotDone();
+    assertThat(executor.tasks).hasSize(1);
+    executor.runAll();
+    assertThat(cold.get().getViolations()).hasSize(1);
+
+    CompletableFuture<ValidationResult> warm =
+        validator
+            .validateAsync(ExampleInt32GtLt.newBuilder().setVal(5).build())
+            .toCompletableFuture();
+    assertThat(warm).isDone();
+    assertThat(executor.tasks).isEmpty();
+    assertThat(warm.get().isSuccess()).isTrue();
+  }
+
+  @Test
+  void testNullMessage() throws Exception {
+    Validator validator = ValidatorFactory.newBuilder().build();
+    assertThat(validator.validateAsync(null).toCompletableFuture().get())
+        .isSameAs(ValidationResult.EMPTY);
+  }
+
+  @Test
+  void testUnknownDescriptorWithLazyDisabled() throws Exception {
+    QueueingExecutor executor = new QueueingExecutor();
+    Config config = Config.newBuilder().setCompilationExecutor(executor).build();
+    Validator validator =
+        ValidatorFactory.newBuilder()
+            .withConfig(config)
+            .buildWithDescriptors(
+                Collections.singletonList(ExampleInt32GtLt.getDescriptor()), true);
+
+    CompletableFuture<ValidationResult> result =
+        validator
+            .validateAsync(ExampleStringMinMaxLen.newBuilder().setVal("a").build())
+            .toCompletableFuture();
+    assertThat(executor.tasks).isEmpty();
+    assertThat(result).isDone();
+    assertThat(result.get().getViolations()).hasSize(1);
+  }
+
+  @Test
+  void testRuntimeExceptionOnWarmPathCompletesExceptionally() throws Exception {
+    Validator validator = ValidatorFactory.newBuilder().build();
+    // Warm the evaluator cache so that the message is evaluated inline.
+    validator.validate(ExampleInt32GtLt.newBuilder().setVal(5).build());
+    IllegalStateException failure = new IllegalStateException("broken message");
+    Message broken =
+        (Message)
+            Proxy.newProxyInstance(
+                Message.class.getClassLoader(),
+                new Class<?>[] {Message.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("getDescriptorForType")) {
+                    return ExampleInt32GtLt.getDescriptor();
+                  }
+                  throw failure;
+                });
+
+    CompletableFuture<ValidationResult> result =
+        validator.validateAsync(broken).toCompletableFuture();
+    assertThat(result).isCompletedExceptionally();
+    assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+  }
+
+  @Test
+  void testDefaultRuntimeExceptionCompletesExceptionally() throws Exception {
+    IllegalStateException failure = new IllegalStateException("broken validator");
+    Validator validator =
+        msg -> {
+          throw failure;
+        };
+
+    CompletableFuture<ValidationResult> result =
+        validator.validateAsync(ExampleInt32GtLt.getDefaultInstance()).toCompletableFuture();
+    assertThat(result).isCompletedExceptionally();
+    assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+  }
+}
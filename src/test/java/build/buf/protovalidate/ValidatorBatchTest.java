@@ -0,0 +1,167 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.example.noimports.validationtest.ExampleInt32GtLt;
+import com.example.noimports.validationtest.ExampleStringMinMaxLen;
+import com.google.protobuf.Message;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ValidatorBatchTest {
+  private final Validator validator = ValidatorFactory.newBuilder().build();
+
+  private static ExampleInt32GtLt int32(int val) {
+    return ExampleInt32GtLt.newBuilder().setVal(val).build();
+  }
+
+  private static ExampleStringMinMaxLen string(String val) {
+    return ExampleStringMinMaxLen.newBuilder().setVal(val).build();
+  }
+
+  @Test
+  void testAllValid() throws ValidationException {
+    BatchValidationResult result = validator.validateAll(Arrays.asList(int32(1), int32(5)));
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(result.size()).isEqualTo(2);
+    assertThat(result.getFailureCount()).isZero();
+    assertThat(result.get(0)).isSameAs(ValidationResult.EMPTY);
+    assertThat(result.get(1)).isSameAs(ValidationResult.EMPTY);
+  }
+
+  @Test
+  void testEmptyBatch() throws ValidationException {
+    BatchValidationResult result = validator.validateAll(Collections.<Message>emptyList());
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(result.size()).isZero();
+  }
+
+  @Test
+  void testResultsIndexedByPosition() throws ValidationException {
+    List<Message> msgs =
+        Arrays.asList(int32(1), int32(0), string("abc"), string("a"), null, int32(10));
+    BatchValidationResult result = validator.validateAll(msgs);
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(result.size()).isEqualTo(msgs.size());
+    assertThat(result.getFailureCount()).isEqualTo(3);
+    assertThat(result.getFailureIndex(0)).isEqualTo(1);
+    assertThat(result.getFailureIndex(1)).isEqualTo(3);
+    assertThat(result.getFailureIndex(2)).isEqualTo(5);
+    for (int i = 0; i < msgs.size(); i++) {
+      ValidationResult expected = validator.validate(msgs.get(i));
+      assertThat(result.get(i).toProto()).isEqualTo(expected.toProto());
+    }
+    assertThat(result.get(3).getViolations().get(0).toProto().getRuleId())
+        .isEqualTo("string.min_len");
+  }
+
+  @Test
+  void testIterableMatchesList() throws ValidationException {
+    List<Message> msgs = new ArrayList<>();
+    for (int i = -2; i < 12; i++) {
+      msgs.add(int32(i));
+    }
+    BatchValidationResult fromList = validator.validateAll(msgs);
+    BatchValidationResult fromLinkedList = validator.validateAll(new LinkedList<>(msgs));
+    BatchValidationResult fromIterable = validator.validateAll((Iterable<Message>) msgs::iterator);
+    assertThat(fromList.toString())
+        .isEqualTo(fromLinkedList.toString())
+        .isEqualTo(fromIterable.toString());
+    assertThat(fromList.getFailureCount()).isEqualTo(5);
+  }
+
+  @Test
+  void testGetOutOfBounds() throws ValidationException {
+    BatchValidationResult result = validator.validateAll(Collections.singletonList(int32(0)));
+    assertThatThrownBy(() -> result.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> result.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  void testParallelMatchesSequential() throws ValidationException {
+    List<Message> msgs = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      msgs.add(i % 3 == 0 ? string(i % 7 == 0 ? "a" : "abc") : int32(i % 12));
+    }
+    BatchValidationResult sequential = validator.validateAll(msgs);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ExecutorService fixed = Executors.newFixedThreadPool(3);
+    try {
+      BatchValidationResult forkJoin = validator.validateAll(msgs, pool);
+      BatchValidationResult threadPool = validator.validateAll(msgs, fixed);
+      assertThat(forkJoin.size()).isEqualTo(msgs.size());
+      assertThat(forkJoin.getFailureCount()).isEqualTo(sequential.getFailureCount());
+      assertThat(forkJoin.toString()).isEqualTo(sequential.toString());
+      assertThat(threadPool.toString()).isEqualTo(sequential.toString());
+    } finally {
+      pool.shutdown();
+      fixed.shutdown();
+    }
+  }
+
+  @Test
+  void testParallelSmallBatchStaysOnCaller() throws ValidationException {
+    List<Message> msgs = Arrays.asList(int32(0), int32(1));
+    BatchValidationResult result =
+        validator.validateAll(
+            msgs,
+            command -> {
+              throw new AssertionError("small batches must not be handed off");
+            });
+    assertThat(result.getFailureCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testRejectedChunkCancelsSubmittedChunks() {
+    List<Message> msgs = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      msgs.add(int32(i % 12));
+    }
+    AtomicInteger validated = new AtomicInteger();
+    Validator counting =
+        msg -> {
+          validated.incrementAndGet();
+          return validator.validate(msg);
+        };
+    List<Runnable> submitted = new ArrayList<>();
+    RejectedExecutionException rejected = new RejectedExecutionException("full");
+    Executor executor =
+        command -> {
+          if (!submitted.isEmpty()) {
+            throw rejected;
+          }
+          submitted.add(command);
+        };
+    assertThatThrownBy(() -> counting.validateAll(msgs, executor)).isSameAs(rejected);
+    assertThat(submitted).hasSize(1);
+    // The chunk submitted before the rejection was cancelled, so running it validates nothing.
+    submitted.get(0).run();
+    assertThat(validated).hasValue(0);
+  }
+}
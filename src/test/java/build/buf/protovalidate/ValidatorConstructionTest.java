@@ -16,16 +16,42 @@ package build.buf.protovalidate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 import build.buf.protovalidate.exceptions.ValidationException;
 import com.example.imports.validationtest.ExampleFieldRules;
+import com.example.imports.validationtest.ExampleMapMinMax;
+import com.example.imports.validationtest.ExampleMessageRules;
+import com.example.imports.validationtest.ExampleOneofRules;
+import com.example.imports.validationtest.ExampleRepeatedUnique;
+import com.example.imports.validationtest.ExampleStringExtensions;
 import com.example.imports.validationtest.FieldExpressionMapInt32;
 import com.example.imports.validationtest.FieldExpressionMultiple;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
 import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import org.junit.jupiter.api.Test;
 
 public class ValidatorConstructionTest {
@@ -216,4 +242,216 @@ public class ValidatorConstructionTest {
     assertThat(result.getViolations().get(0).toProto().getMessage())
         .isEqualTo("must be at most 5 characters");
   }
+
+  // Tests that lazily building unrelated and overlapping types from many threads at once yields the
+  // same results as building them one by one.
+  @Test
+  public void testConcurrentLazyBuilds() throws Exception {
+    List<Message> msgs = seedMessages();
+    Validator sequential = ValidatorFactory.newBuilder().build();
+    List<String> expected = new ArrayList<>();
+    for (Message msg : msgs) {
+      expected.add(sequential.validate(msg).toString());
+    }
+
+    Validator validator = ValidatorFactory.newBuilder().build();
+    int threads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<String>>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  List<String> results = new ArrayList<>();
+                  for (int i = 0; i < msgs.size(); i++) {
+                    results.add(null);
+                  }
+                  for (int i = 0; i < msgs.size(); i++) {
+                    int idx = (i + offset) % msgs.size();
+                    results.set(idx, validator.validate(msgs.get(idx)).toString());
+                  }
+                  return results;
+                }));
+      }
+      start.countDown();
+      for (Future<List<String>> future : futures) {
+        assertThat(future.get()).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Returns a message type nested so deeply that building its evaluator overflows the stack. It has
+   * no rules, so that the stack overflows in the evaluator builder rather than in the CEL parser,
+   * whose shared state an overflow can corrupt.
+   */
+  private static Descriptor deepMessage() throws DescriptorValidationException {
+    int depth = 2000;
+    FileDescriptorProto.Builder file =
+        FileDescriptorProto.newBuilder().setName("deep.proto").setPackage("deep");
+    for (int i = 0; i < depth; i++) {
+      DescriptorProto.Builder message = DescriptorProto.newBuilder().setName("M" + i);
+      if (i + 1 < depth) {
+        message.addField(
+            FieldDescriptorProto.newBuilder()
+                .setName("next")
+                .setNumber(1)
+                .setType(FieldDescriptorProto.Type.TYPE_MESSAGE)
+                .setTypeName(".deep.M" + (i + 1)));
+      }
+      file.addMessageType(message);
+    }
+    return FileDescriptor.buildFrom(file.build(), new FileDescriptor[0]).getMessageTypes().get(0);
+  }
+
+  @Test
+  public void testErrorDuringLazyBuildCompletesWaiters() throws Exception {
+    Validator validator = ValidatorFactory.newBuilder().build();
+    Message msg = DynamicMessage.getDefaultInstance(deepMessage());
+    CountDownLatch start = new CountDownLatch(1);
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                  validator.validate(msg);
+                } catch (Throwable t) {
+                  errors.add(t);
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    // One thread usually waits for the build of the other, which fails with an error.
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join(30_000);
+      assertThat(thread.isAlive()).isFalse();
+    }
+    assertThat(errors).hasSize(2).allMatch(t -> t instanceof StackOverflowError);
+  }
+
+  private static List<Message> seedMessages() {
+    return Arrays.asList(
+        ExampleFieldRules.getDefaultInstance(),
+        ExampleMapMinMax.getDefaultInstance(),
+        ExampleMessageRules.getDefaultInstance(),
+        ExampleOneofRules.getDefaultInstance(),
+        ExampleRepeatedUnique.getDefaultInstance(),
+        ExampleStringExtensions.getDefaultInstance(),
+        FieldExpressionMapInt32.getDefaultInstance(),
+        FieldExpressionMultiple.newBuilder().setVal("INVALID").build());
+  }
+
+  /** Adds the message types referenced by the fields of a message type, transitively. */
+  private static void addReferenced(Descriptor descriptor, Set<Descriptor> referenced) {
+    for (FieldDescriptor field : descriptor.getFields()) {
+      if (field.getJavaType() == FieldDescriptor.JavaType.MESSAGE
+          && referenced.add(field.getMessageType())) {
+        addReferenced(field.getMessageType(), referenced);
+      }
+    }
+  }
+
+  // Tests that seed descriptors compiled concurrently on the compilation executor are all cached,
+  // and that the compile time of each seed not referenced by another seed is reported. A referenced
+  // seed may be compiled along with a seed referencing it instead.
+  @Test
+  public void testSeedDescriptorsParallel() throws Exception {
+    List<Message> msgs = seedMessages();
+    List<Descriptor> seedDescriptors = new ArrayList<>();
+    for (Message msg : msgs) {
+      seedDescriptors.add(msg.getDescriptorForType());
+    }
+    Validator sequential = ValidatorFactory.newBuilder().build();
+    Map<Descriptor, Duration> times = new ConcurrentHashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Config cfg =
+          Config.newBuilder()
+              .setCompilationExecutor(executor)
+              .setCompilationListener(times::put)
+              .build();
+      Validator validator =
+          ValidatorFactory.newBuilder().withConfig(cfg).buildWithDescriptors(seedDescriptors, true);
+      Set<Descriptor> referenced = new HashSet<>();
+      for (Descriptor descriptor : seedDescriptors) {
+        addReferenced(descriptor, referenced);
+      }
+      for (Descriptor descriptor : seedDescriptors) {
+        if (!referenced.contains(descriptor)) {
+          assertThat(times).containsKey(descriptor);
+        }
+      }
+      assertThat(seedDescriptors).containsAll(times.keySet());
+      assertThat(times.values()).allMatch(time -> !time.isNegative());
+      for (Message msg : msgs) {
+        assertThat(validator.validate(msg).toString())
+            .isEqualTo(sequential.validate(msg).toString());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  // Tests that an error building a seed descriptor on the compilation executor fails the
+  // construction instead of leaving it waiting for the build.
+  @Test
+  public void testSeedDescriptorErrorOnExecutor() throws Exception {
+    List<Descriptor> seedDescriptors =
+        Arrays.asList(deepMessage(), ExampleFieldRules.getDescriptor());
+    // Runs each task to completion on its own thread, before the calling thread builds anything.
+    Executor executor =
+        command -> {
+          Thread thread = new Thread(command);
+          thread.start();
+          try {
+            thread.join();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        };
+    Config cfg = Config.newBuilder().setCompilationExecutor(executor).build();
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(30),
+        () ->
+            assertThatExceptionOfType(StackOverflowError.class)
+                .isThrownBy(
+                    () ->
+                        ValidatorFactory.newBuilder()
+                            .withConfig(cfg)
+                            .buildWithDescriptors(seedDescriptors, true)));
+  }
+
+  // Tests that seed descriptors are compiled on the calling thread when the compilation executor
+  // rejects or never runs its tasks.
+  @Test
+  public void testSeedDescriptorsUnavailableExecutor() throws Exception {
+    List<Message> msgs = seedMessages();
+    List<Descriptor> seedDescriptors = new ArrayList<>();
+    for (Message msg : msgs) {
+      seedDescriptors.add(msg.getDescriptorForType());
+    }
+    List<Executor> executors =
+        Arrays.asList(
+            command -> {
+              throw new RejectedExecutionException();
+            },
+            command -> {});
+    for (Executor executor : executors) {
+      Config cfg = Config.newBuilder().setCompilationExecutor(executor).build();
+      Validator validator =
+          ValidatorFactory.newBuilder().withConfig(cfg).buildWithDescriptors(seedDescriptors, true);
+      assertThat(validator.validate(msgs.get(msgs.size() - 1)).isSuccess()).isFalse();
+    }
+  }
 }
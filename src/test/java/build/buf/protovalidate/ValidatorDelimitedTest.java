@@ -0,0 +1,167 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.example.noimports.validationtest.ExampleRecursive;
+import com.example.noimports.validationtest.ExampleStringMinMaxLen;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ValidatorDelimitedTest {
+  private final Validator validator = ValidatorFactory.newBuilder().build();
+
+  /** Values checked against min_len 2 and max_len 5; the fourth record is longer than 16 bytes. */
+  private static final List<String> VALUES =
+      Arrays.asList("abc", "a", "abcd", "abcdefghijklmnopqrstuvwxyz", "", "abcde");
+
+  private static byte[] records() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (String value : VALUES) {
+      ExampleStringMinMaxLen.newBuilder().setVal(value).build().writeDelimitedTo(out);
+    }
+    return out.toByteArray();
+  }
+
+  private List<Boolean> expected() throws ValidationException {
+    List<Boolean> expected = new ArrayList<>();
+    for (String value : VALUES) {
+      expected.add(
+          validator
+              .validate(ExampleStringMinMaxLen.newBuilder().setVal(value).build())
+              .isSuccess());
+    }
+    return expected;
+  }
+
+  @Test
+  void testInputStream() throws ValidationException, IOException {
+    List<Boolean> success = new ArrayList<>();
+    long count =
+        validator.validateDelimited(
+            ExampleStringMinMaxLen.getDescriptor(),
+            new ByteArrayInputStream(records()),
+            result -> success.add(result.isSuccess()));
+    assertThat(count).isEqualTo(VALUES.size());
+    assertThat(success)
+        .isEqualTo(expected())
+        .containsExactly(true, false, true, false, false, true);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 7, 16, DelimitedStreams.MAPPED_WINDOW_SIZE})
+  void testFileChannel(int windowSize, @TempDir Path dir) throws ValidationException, IOException {
+    Path file = dir.resolve("records.bin");
+    Files.write(file, records());
+    List<Boolean> success = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long count =
+          DelimitedStreams.validateDelimited(
+              validator,
+              ExampleStringMinMaxLen.getDescriptor(),
+              channel,
+              result -> success.add(result.isSuccess()),
+              windowSize);
+      assertThat(count).isEqualTo(VALUES.size());
+      assertThat(channel.position()).isEqualTo(channel.size());
+    }
+    assertThat(success).isEqualTo(expected());
+  }
+
+  @Test
+  void testTruncatedInputStream() throws IOException {
+    byte[] records = records();
+    ByteArrayInputStream stream = new ByteArrayInputStream(records, 0, records.length - 1);
+    assertThatThrownBy(
+            () ->
+                validator.validateDelimited(
+                    ExampleStringMinMaxLen.getDescriptor(), stream, result -> {}))
+        .isInstanceOf(InvalidProtocolBufferException.class);
+  }
+
+  @Test
+  void testTruncatedFileChannel(@TempDir Path dir) throws IOException {
+    byte[] records = records();
+    Path file = dir.resolve("records.bin");
+    Files.write(file, Arrays.copyOf(records, records.length - 1));
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      assertThatThrownBy(
+              () ->
+                  validator.validateDelimited(
+                      ExampleStringMinMaxLen.getDescriptor(), channel, result -> {}))
+          .isInstanceOf(InvalidProtocolBufferException.class);
+    }
+  }
+
+  /** A valid record followed by a record nested deeper than messages may be. */
+  private static byte[] deepRecords() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ExampleRecursive.newBuilder().setVal(1).build().writeDelimitedTo(out);
+    ByteString deep = ValidatorWireTest.nested(20000);
+    CodedOutputStream output = CodedOutputStream.newInstance(out);
+    output.writeUInt32NoTag(deep.size());
+    output.flush();
+    deep.writeTo(out);
+    return out.toByteArray();
+  }
+
+  @Test
+  void testDeeplyNestedInputStream() throws IOException {
+    List<Boolean> success = new ArrayList<>();
+    assertThatThrownBy(
+            () ->
+                validator.validateDelimited(
+                    ExampleRecursive.getDescriptor(),
+                    new ByteArrayInputStream(deepRecords()),
+                    result -> success.add(result.isSuccess())))
+        .isInstanceOf(InvalidProtocolBufferException.class);
+    assertThat(success).containsExactly(true);
+  }
+
+  @Test
+  void testDeeplyNestedFileChannel(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("records.bin");
+    Files.write(file, deepRecords());
+    List<Boolean> success = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      assertThatThrownBy(
+              () ->
+                  validator.validateDelimited(
+                      ExampleRecursive.getDescriptor(),
+                      channel,
+                      result -> success.add(result.isSuccess())))
+          .isInstanceOf(InvalidProtocolBufferException.class);
+    }
+    assertThat(success).containsExactly(true);
+  }
+}
@@ -0,0 +1,228 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import com.example.noimports.validationtest.ExampleMessageRules;
+import com.example.noimports.validationtest.ExampleNestedPaths;
+import com.example.noimports.validationtest.ExampleOneofRules;
+import com.example.noimports.validationtest.ExampleRecursive;
+import com.example.noimports.validationtest.FieldExpressionMultiple;
+import com.example.noimports.validationtest.FieldExpressionRepeatedMessage;
+import com.example.noimports.validationtest.Issue427;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests that validating serialized messages matches validating the parsed messages. */
+class ValidatorWireTest {
+  private final Validator validator = ValidatorFactory.newBuilder().build();
+
+  private static List<build.buf.validate.Violation> protos(ValidationResult result) {
+    List<build.buf.validate.Violation> protos = new ArrayList<>();
+    for (Violation violation : result.getViolations()) {
+      protos.add(violation.toProto());
+    }
+    return protos;
+  }
+
+  private static ExampleNestedPaths.Item item(int... vals) {
+    ExampleNestedPaths.Item.Builder builder = ExampleNestedPaths.Item.newBuilder();
+    for (int val : vals) {
+      builder.addVals(val);
+    }
+    return builder.build();
+  }
+
+  /** Validates bytes both ways and returns the violations, asserting that they are equal. */
+  private List<build.buf.validate.Violation> assertParity(Descriptor descriptor, ByteString bytes)
+      throws ValidationException, IOException {
+    Message parsed = WireValidator.parse(descriptor, bytes.newCodedInput());
+    List<build.buf.validate.Violation> expected = protos(validator.validate(parsed));
+    assertThat(protos(validator.validate(descriptor, bytes))).isEqualTo(expected);
+    assertThat(protos(validator.validate(descriptor, bytes.asReadOnlyByteBuffer())))
+        .isEqualTo(expected);
+    assertThat(
+            protos(validator.validate(descriptor, CodedInputStream.newInstance(bytes.newInput()))))
+        .isEqualTo(expected);
+    return expected;
+  }
+
+  private List<build.buf.validate.Violation> assertParity(Message msg)
+      throws ValidationException, IOException {
+    return assertParity(msg.getDescriptorForType(), msg.toByteString());
+  }
+
+  @Test
+  void testNestedPaths() throws ValidationException, IOException {
+    ExampleNestedPaths msg =
+        ExampleNestedPaths.newBuilder()
+            .addItems(item(1, 0))
+            .addItems(item(-1, 2, -3))
+            .putByName("a", item(0))
+            .setFirst(item(5, -5))
+            .build();
+    assertThat(assertParity(msg)).hasSize(5);
+    assertThat(assertParity(ExampleNestedPaths.getDefaultInstance())).isEmpty();
+  }
+
+  @Test
+  void testRepeatedMessageOccurrencesAreMerged() throws ValidationException, IOException {
+    ByteString bytes =
+        ExampleNestedPaths.newBuilder()
+            .setFirst(item(0))
+            .build()
+            .toByteString()
+            .concat(ExampleNestedPaths.newBuilder().setFirst(item(-1)).build().toByteString());
+    List<build.buf.validate.Violation> violations =
+        assertParity(ExampleNestedPaths.getDescriptor(), bytes);
+    assertThat(violations).hasSize(2);
+    assertThat(FieldPathUtils.fieldPathString(violations.get(1).getField()))
+        .isEqualTo("first.vals[1]");
+  }
+
+  @Test
+  void testOneofs() throws ValidationException, IOException {
+    assertThat(assertParity(ExampleOneofRules.getDefaultInstance())).hasSize(1);
+    assertThat(assertParity(ExampleOneofRules.newBuilder().setEmail("foo@bar.com").build()))
+        .isEmpty();
+    // The last member read wins, clearing the one read before it.
+    ByteString bytes =
+        ExampleOneofRules.newBuilder()
+            .setEmail("foo@bar.com")
+            .build()
+            .toByteString()
+            .concat(ExampleOneofRules.newBuilder().setField3("x").build().toByteString())
+            .concat(ExampleOneofRules.newBuilder().setPhoneNumber("").build().toByteString());
+    assertParity(ExampleOneofRules.getDescriptor(), bytes);
+  }
+
+  @Test
+  void testMessageOneofs() throws ValidationException, IOException {
+    assertThat(assertParity(Issue427.getDefaultInstance())).hasSize(1);
+    assertThat(assertParity(Issue427.newBuilder().putMappings("a", "b").build())).isEmpty();
+    assertThat(assertParity(Issue427.newBuilder().addTags("a").setName("b").build())).hasSize(1);
+  }
+
+  @Test
+  void testFieldRules() throws ValidationException, IOException {
+    assertThat(assertParity(FieldExpressionMultiple.newBuilder().setVal("toolong").build()))
+        .hasSize(2);
+    FieldExpressionRepeatedMessage.Msg bad =
+        FieldExpressionRepeatedMessage.Msg.newBuilder().setA(2).build();
+    assertParity(FieldExpressionRepeatedMessage.newBuilder().addVal(bad).build());
+  }
+
+  @Test
+  void testMessageRules() throws ValidationException, IOException {
+    assertThat(
+            assertParity(ExampleMessageRules.newBuilder().setSecondaryEmail("foo@bar.com").build()))
+        .hasSize(1);
+  }
+
+  @Test
+  void testLengthDelimitedInput() throws ValidationException, IOException {
+    ExampleNestedPaths msg = ExampleNestedPaths.newBuilder().setFirst(item(0)).build();
+    ByteString bytes =
+        ByteString.copyFrom(new byte[] {(byte) msg.getSerializedSize()})
+            .concat(msg.toByteString())
+            .concat(ByteString.copyFrom(new byte[] {1, 2, 3}));
+    CodedInputStream input = bytes.newCodedInput();
+    int limit = input.pushLimit(input.readRawVarint32());
+    ValidationResult result = validator.validate(ExampleNestedPaths.getDescriptor(), input);
+    input.popLimit(limit);
+    assertThat(result.getViolations()).hasSize(1);
+    assertThat(input.readRawByte()).isEqualTo((byte) 1);
+  }
+
+  @Test
+  void testMaxViolations() throws ValidationException, IOException {
+    Validator limited =
+        ValidatorFactory.newBuilder()
+            .withConfig(Config.newBuilder().setMaxViolations(3).build())
+            .build();
+    ExampleNestedPaths.Builder builder = ExampleNestedPaths.newBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.addItems(item(0, -1));
+    }
+    ValidationResult result =
+        limited.validate(ExampleNestedPaths.getDescriptor(), builder.build().toByteString());
+    assertThat(result.getViolations()).hasSize(3);
+    assertThat(result.isTruncated()).isTrue();
+  }
+
+  @Test
+  void testInvalidBytes() {
+    ByteString truncated = ExampleNestedPaths.newBuilder().setFirst(item(1)).build().toByteString();
+    ByteString bytes = truncated.substring(0, truncated.size() - 1);
+    assertThatThrownBy(() -> validator.validate(ExampleNestedPaths.getDescriptor(), bytes))
+        .isInstanceOf(InvalidProtocolBufferException.class);
+  }
+
+  /**
+   * Serializes a chain of messages with the innermost one at the given depth. The bytes are built
+   * by hand, as serializing a deep chain of messages would recurse as deep.
+   */
+  static ByteString nested(int depth) throws IOException {
+    ByteString bytes = ExampleRecursive.newBuilder().setVal(-1).build().toByteString();
+    for (int i = 0; i < depth; i++) {
+      byte[] header =
+          new byte
+              [CodedOutputStream.computeTagSize(2)
+                  + CodedOutputStream.computeUInt32SizeNoTag(bytes.size())];
+      CodedOutputStream output = CodedOutputStream.newInstance(header);
+      output.writeTag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      output.writeUInt32NoTag(bytes.size());
+      bytes = ByteString.copyFrom(header).concat(bytes);
+    }
+    return bytes;
+  }
+
+  @Test
+  void testNestingAtLimit() throws ValidationException, IOException {
+    List<build.buf.validate.Violation> violations =
+        assertParity(ExampleRecursive.getDescriptor(), nested(WireValidator.RECURSION_LIMIT));
+    assertThat(violations).hasSize(1);
+    assertThat(violations.get(0).getField().getElementsCount())
+        .isEqualTo(WireValidator.RECURSION_LIMIT + 1);
+  }
+
+  @Test
+  void testNestingBeyondLimit() throws IOException {
+    for (int depth : new int[] {WireValidator.RECURSION_LIMIT + 1, 20000}) {
+      ByteString bytes = nested(depth);
+      assertThatThrownBy(() -> validator.validate(ExampleRecursive.getDescriptor(), bytes))
+          .isInstanceOf(InvalidProtocolBufferException.class)
+          .hasMessageContaining("too many levels of nesting");
+      assertThatThrownBy(
+              () ->
+                  validator.validate(
+                      ExampleRecursive.getDescriptor(),
+                      CodedInputStream.newInstance(bytes.newInput())))
+          .isInstanceOf(InvalidProtocolBufferException.class);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import build.buf.protovalidate.exceptions.ValidationException;
+import build.buf.validate.FieldPathElement;
+import com.example.noimports.validationtest.ExampleNestedPaths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ViolationPathTest {
+  private final Validator validator = ValidatorFactory.newBuilder().build();
+
+  private static ExampleNestedPaths.Item item(int... vals) {
+    ExampleNestedPaths.Item.Builder builder = ExampleNestedPaths.Item.newBuilder();
+    for (int val : vals) {
+      builder.addVals(val);
+    }
+    return builder.build();
+  }
+
+  private static List<String> fieldPaths(ValidationResult result) {
+    List<String> paths = new ArrayList<>();
+    for (Violation violation : result.getViolations()) {
+      paths.add(FieldPathUtils.fieldPathString(violation.toProto().getField()));
+    }
+    return paths;
+  }
+
+  @Test
+  void testNestedListAndMapPaths() throws ValidationException {
+    ExampleNestedPaths msg =
+        ExampleNestedPaths.newBuilder()
+            .addItems(item(1, 0))
+            .addItems(item(-1, 2, -3))
+            .putByName("a\"b", item(0))
+            .build();
+    ValidationResult result = validator.validate(msg);
+    assertThat(fieldPaths(result))
+        .containsExactly(
+            "items[0].vals[1]",
+            "items[1].vals[0]",
+            "items[1].vals[2]",
+            "by_name[\"a\\\"b\"].vals[0]");
+    for (Violation violation : result.getViolations()) {
+      build.buf.validate.Violation proto = violation.toProto();
+      assertThat(proto.getRuleId()).isEqualTo("int32.gt");
+      assertThat(FieldPathUtils.fieldPathString(proto.getRule()))
+          .isEqualTo("repeated.items.int32.gt");
+      assertThat(violation.toProto()).isSameAs(proto);
+    }
+    FieldPathElement mapElement = result.getViolations().get(3).toProto().getField().getElements(0);
+    assertThat(mapElement.getStringKey()).isEqualTo("a\"b");
+    assertThat(mapElement.hasKeyType()).isTrue();
+    assertThat(mapElement.hasValueType()).isTrue();
+  }
+
+  @Test
+  void testSharedPathsAreNotMixedUp() throws ValidationException {
+    ExampleNestedPaths.Builder builder = ExampleNestedPaths.newBuilder();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      builder.addItems(item(0, 1, 0));
+      expected.add("items[" + i + "].vals[0]");
+      expected.add("items[" + i + "].vals[2]");
+    }
+    assertThat(fieldPaths(validator.validate(builder.build()))).isEqualTo(expected);
+  }
+}
@@ -38,8 +38,8 @@ class WrappedValueEvaluatorTest {
   @Test
   void absentWrapperFieldProducesNoViolation() throws ValidationException {
     // Field unset (proto3 message-typed field absent): there is no value to validate, so the
-    // wrapped scalar evaluator should not be invoked. WrappedValueEvaluator's contract returns
-    // NO_VIOLATIONS in that case.
+    // wrapped scalar evaluator should not be invoked. WrappedValueEvaluator's contract adds no
+    // violations in that case.
     Int64WrapperConst msg = Int64WrapperConst.newBuilder().build();
     ValidationResult result = nativeValidator.validate(msg);
     assertThat(result.isSuccess()).isTrue();
@@ -0,0 +1,135 @@
+// Copyright 2023-2026 Buf Technologies, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package build.buf.protovalidate.tools;
+
+import build.buf.protovalidate.Config;
+import build.buf.protovalidate.PrecompiledRules;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.ExtensionRegistry;
+import com.google.protobuf.TypeRegistry;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the {@link PrecompiledRules} of every message type in a file descriptor set. It is run
+ * by the {@code generatePrecompiledRules} Gradle task and is not part of the published library.
+ *
+ * <p>Usage: {@code GeneratePrecompiledRules <descriptor set> <output>}. The descriptor set must
+ * include all imports, e.g. as written by {@code buf build -o} or {@code protoc --include_imports
+ * --descriptor_set_out}. Predefined rule extensions in the set are resolved as described by {@link
+ * Config.Builder#setTypeRegistry}.
+ */
+public final class GeneratePrecompiledRules {
+  private GeneratePrecompiledRules() {}
+
+  /**
+   * Generates the precompiled rules of a descriptor set and writes them to a file.
+   *
+   * @param args The path of the descriptor set and the path to write the rules to.
+   * @throws Exception If the descriptor set cannot be read or its rules fail to compile.
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 2) {
+      throw new IllegalArgumentException(
+          "usage: GeneratePrecompiledRules <descriptor set> <output>");
+    }
+    FileDescriptorSet set = FileDescriptorSet.parseFrom(Files.readAllBytes(Paths.get(args[0])));
+    List<FileDescriptor> files = buildFiles(set);
+    List<Descriptor> messages = new ArrayList<>();
+    TypeRegistry.Builder types = TypeRegistry.newBuilder();
+    ExtensionRegistry extensions = ExtensionRegistry.newInstance();
+    for (FileDescriptor file : files) {
+      for (Descriptor message : file.getMessageTypes()) {
+        addMessages(message, messages, extensions);
+      }
+      addExtensions(file.getExtensions(), extensions);
+      types.add(file.getMessageTypes());
+    }
+    Config config =
+        Config.newBuilder().setTypeRegistry(types.build()).setExtensionRegistry(extensions).build();
+    PrecompiledRules rules = PrecompiledRules.generate(config, messages);
+    try (OutputStream out = Files.newOutputStream(Paths.get(args[1]))) {
+      rules.writeTo(out);
+    }
+  }
+
+  private static List<FileDescriptor> buildFiles(FileDescriptorSet set)
+      throws DescriptorValidationException {
+    Map<String, FileDescriptorProto> protos = new HashMap<>();
+    for (FileDescriptorProto proto : set.getFileList()) {
+      protos.put(proto.getName(), proto);
+    }
+    Map<String, FileDescriptor> built = new HashMap<>();
+    List<FileDescriptor> files = new ArrayList<>();
+    for (FileDescriptorProto proto : set.getFileList()) {
+      files.add(buildFile(proto, protos, built));
+    }
+    return files;
+  }
+
+  private static FileDescriptor buildFile(
+      FileDescriptorProto proto,
+      Map<String, FileDescriptorProto> protos,
+      Map<String, FileDescriptor> built)
+      throws DescriptorValidationException {
+    FileDescriptor file = built.get(proto.getName());
+    if (file != null) {
+      return file;
+    }
+    FileDescriptor[] dependencies = new FileDescriptor[proto.getDependencyCount()];
+    for (int i = 0; i < dependencies.length; i++) {
+      String name = proto.getDependency(i);
+      FileDescriptorProto dependency = protos.get(name);
+      if (dependency == null) {
+        throw new IllegalArgumentException(
+            "descriptor set is missing " + name + ", imported by " + proto.getName());
+      }
+      dependencies[i] = buildFile(dependency, protos, built);
+    }
+    file = FileDescriptor.buildFrom(proto, dependencies);
+    built.put(proto.getName(), file);
+    return file;
+  }
+
+  private static void addMessages(
+      Descriptor message, List<Descriptor> messages, ExtensionRegistry extensions) {
+    messages.add(message);
+    addExtensions(message.getExtensions(), extensions);
+    for (Descriptor nested : message.getNestedTypes()) {
+      addMessages(nested, messages, extensions);
+    }
+  }
+
+  private static void addExtensions(List<FieldDescriptor> fields, ExtensionRegistry extensions) {
+    for (FieldDescriptor field : fields) {
+      if (field.getJavaType() == FieldDescriptor.JavaType.MESSAGE) {
+        extensions.add(field, DynamicMessage.getDefaultInstance(field.getMessageType()));
+      } else {
+        extensions.add(field);
+      }
+    }
+  }
+}